@@ -23,6 +23,9 @@ create index idx_parent_id
 
 create index idx_task_id
     on tb_comment (task_id);
+
+create index idx_task_create_time
+    on tb_comment (task_id, create_time, id);
 ```
 
 ```
@@ -72,6 +75,9 @@ create table tb_project
     update_user bigint                             null comment 'Update User ID'
 )
     comment 'Project Table';
+
+create index idx_project_priority_create_time
+    on tb_project (priority, create_time, id);
 ```
 
 ```
@@ -166,6 +172,12 @@ create table tb_task
 
 create index project_id
     on tb_task (project_id);
+
+create index idx_task_priority_update_time
+    on tb_task (priority, update_time, id);
+
+create index idx_task_create_user
+    on tb_task (create_user);
 ```
 
 ```
@@ -270,3 +282,134 @@ create table tb_user
 )
     comment 'User Table';
 
+
+```
+-- 任务状态每日快照，由定时任务在次日写入，周统计图表按日期范围读取
+create table tb_task_status_snapshot
+(
+    snapshot_date date                               not null comment 'Snapshot Date'
+        primary key,
+    total         int      default 0                 not null comment 'Total Task Count',
+    pending       int      default 0                 not null comment 'Pending Task Count',
+    in_progress   int      default 0                 not null comment 'In Progress Task Count',
+    completed     int      default 0                 not null comment 'Completed Task Count',
+    cancelled     int      default 0                 not null comment 'Cancelled Task Count',
+    today_expired int      default 0                 not null comment 'Expiring Task Count',
+    create_time   datetime default CURRENT_TIMESTAMP not null comment 'Create Time'
+)
+    comment 'Daily Task Status Snapshot Table';
+```
+
+```
+-- 通知发件箱，业务事务内每次扇出只写一行，由后台投递任务批量展开写入tb_notification
+create table tb_notification_outbox
+(
+    id                bigint auto_increment comment 'Primary Key ID'
+        primary key,
+    type              varchar(50)                        not null comment 'Notification Type',
+    content           varchar(500)                       not null comment 'Notification Content',
+    related_id        bigint                             null comment 'Associated ID (task ID & comment ID)',
+    recipient_ids     text                               not null comment 'Recipient User IDs, comma separated',
+    status            tinyint  default 0                 not null comment 'Status: 0-Pending, 1-Delivered, 2-Failed',
+    attempts          int      default 0                 not null comment 'Delivery Attempts',
+    next_attempt_time datetime default CURRENT_TIMESTAMP not null comment 'Next Attempt Time, Claim Expire Time While Claimed',
+    claim_token       varchar(36)                        null comment 'Claim Token of the Last Dispatch',
+    last_error        varchar(500)                       null comment 'Last Delivery Error',
+    create_time       datetime default CURRENT_TIMESTAMP not null comment 'Create Time',
+    update_time       datetime default CURRENT_TIMESTAMP not null on update CURRENT_TIMESTAMP comment 'Update Time'
+)
+    comment 'Notification Outbox Table';
+
+create index idx_outbox_status_next_attempt
+    on tb_notification_outbox (status, next_attempt_time);
+```
+
+```
+-- 附件对象索引，按原始内容的SHA-256去重，内容相同的附件记录共用一个存储对象；记录上传时的加密元数据，按范围读取时不再读取文件头
+create table tb_file_object
+(
+    id                bigint auto_increment comment 'Primary Key ID'
+        primary key,
+    content_hash      char(64)                           not null comment 'SHA-256 of Original Content',
+    object_key        varchar(500)                       not null comment 'Storage Object Key',
+    file_size         bigint                             not null comment 'File Size (Byte)',
+    content_type      varchar(100)                       null comment 'File Type',
+    encrypted_size    bigint                             null comment 'Ciphertext Size (Byte)',
+    format_version    tinyint                            null comment 'Encryption Format Version',
+    encryption_header char(50)                           null comment 'Segmented Encryption Header, hex',
+    ref_count         int      default 1                 not null comment 'Attachment Reference Count',
+    rendition_status  tinyint  default 0                 not null comment 'Rendition Status: 0-Pending, 1-Ready, 2-Unsupported or Failed',
+    create_time       datetime default CURRENT_TIMESTAMP not null comment 'Create Time',
+    update_time       datetime default CURRENT_TIMESTAMP not null on update CURRENT_TIMESTAMP comment 'Update Time',
+    constraint uk_file_object_content_hash
+        unique (content_hash)
+)
+    comment 'File Object Table';
+
+create index idx_file_object_object_key
+    on tb_file_object (object_key);
+
+create index idx_file_object_rendition_status
+    on tb_file_object (rendition_status, update_time);
+```
+
+```
+-- 分片上传会话，客户端按编号上传加密后的分片，合并前可以查询已接收的分片并续传
+create table tb_upload_session
+(
+    id                bigint auto_increment comment 'Primary Key ID'
+        primary key,
+    upload_id         char(32)                           not null comment 'Upload ID returned to Client',
+    object_key        varchar(500)                       not null comment 'Storage Object Key',
+    storage_upload_id varchar(255)                       not null comment 'Storage Multipart Upload ID',
+    file_name         varchar(255)                       not null comment 'File Name',
+    file_size         bigint                             not null comment 'File Size (Byte)',
+    content_type      varchar(100)                       null comment 'File Type',
+    chunk_size        int                                not null comment 'Chunk Size (Byte)',
+    chunk_count       int                                not null comment 'Chunk Count',
+    encryption_header char(50)                           not null comment 'Segmented Encryption Header, hex',
+    task_id           bigint                             null comment 'Task ID',
+    user_id           bigint                             null comment 'Uploader User ID',
+    status            tinyint  default 0                 not null comment 'Status: 0-Uploading, 1-Completed, 2-Merging, 3-Merged',
+    file_url          varchar(500)                       null comment 'File URL after Completion',
+    expire_time       datetime                           not null comment 'Expire Time',
+    create_time       datetime default CURRENT_TIMESTAMP not null comment 'Create Time',
+    update_time       datetime default CURRENT_TIMESTAMP not null on update CURRENT_TIMESTAMP comment 'Update Time',
+    constraint uk_upload_session_upload_id
+        unique (upload_id)
+)
+    comment 'Upload Session Table';
+
+create index idx_upload_session_status_expire
+    on tb_upload_session (status, expire_time);
+```
+
+```
+-- 分片上传已接收的分片，记录分片内容的SHA-256和存储返回的ETag，合并时按编号顺序使用
+create table tb_upload_chunk
+(
+    id          bigint auto_increment comment 'Primary Key ID'
+        primary key,
+    session_id  bigint                             not null comment 'Upload Session ID',
+    chunk_index int                                not null comment 'Chunk Index, from 0',
+    chunk_hash  char(64)                           not null comment 'SHA-256 of Chunk Content',
+    etag        varchar(100)                       not null comment 'Storage Part ETag',
+    create_time datetime default CURRENT_TIMESTAMP not null comment 'Create Time',
+    constraint uk_upload_chunk_session_index
+        unique (session_id, chunk_index)
+)
+    comment 'Upload Chunk Table';
+```
+
+```
+-- 任务计数，按项目保存各状态、各优先级的任务数量，任务写操作在同一事务中增量更新，统计接口直接读取
+create table tb_task_counter
+(
+    project_id bigint            not null comment 'Project ID',
+    dimension  tinyint           not null comment 'Dimension: 0-Status, 1-Priority',
+    dim_value  int               not null comment 'Status or Priority Value',
+    task_count bigint  default 0 not null comment 'Task Count',
+    primary key (project_id, dimension, dim_value)
+)
+    comment 'Task Counter Table';
+```
@@ -0,0 +1,34 @@
+package com.taskManagement.constant;
+
+/**
+ * 文件常量，附件渲染图名称和生成状态，分片上传状态
+ */
+public class FileConstant {
+
+    //缩略图，附件列表使用
+    public static final String RENDITION_THUMBNAIL = "thumbnail";
+
+    //预览图，在线查看使用
+    public static final String RENDITION_PREVIEW = "preview";
+
+    //渲染图待生成
+    public static final Integer RENDITION_PENDING = 0;
+
+    //渲染图已生成
+    public static final Integer RENDITION_READY = 1;
+
+    //不支持生成渲染图或生成失败
+    public static final Integer RENDITION_UNSUPPORTED = 2;
+
+    //分片上传中
+    public static final Integer UPLOAD_UPLOADING = 0;
+
+    //分片上传已完成
+    public static final Integer UPLOAD_COMPLETED = 1;
+
+    //分片上传正在合并
+    public static final Integer UPLOAD_MERGING = 2;
+
+    //分片已合并，等待写入附件记录
+    public static final Integer UPLOAD_MERGED = 3;
+}
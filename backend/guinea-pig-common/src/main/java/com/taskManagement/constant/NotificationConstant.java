@@ -0,0 +1,22 @@
+package com.taskManagement.constant;
+
+/**
+ * 通知常量，通知类型和发件箱状态
+ */
+public class NotificationConstant {
+
+    //任务更新通知
+    public static final String TYPE_TASK_UPDATE = "task_update";
+
+    //评论@通知
+    public static final String TYPE_COMMENT_MENTION = "comment_mention";
+
+    //发件箱记录待投递
+    public static final Integer OUTBOX_PENDING = 0;
+
+    //发件箱记录已投递
+    public static final Integer OUTBOX_DELIVERED = 1;
+
+    //发件箱记录重试次数用尽，不再投递
+    public static final Integer OUTBOX_FAILED = 2;
+}
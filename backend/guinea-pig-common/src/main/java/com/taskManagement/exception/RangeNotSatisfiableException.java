@@ -0,0 +1,18 @@
+package com.taskManagement.exception;
+
+/**
+ * 请求的下载范围超出文件长度
+ */
+public class RangeNotSatisfiableException extends BaseException {
+
+    private final long totalLength;
+
+    public RangeNotSatisfiableException(long totalLength) {
+        super("Requested range not satisfiable");
+        this.totalLength = totalLength;
+    }
+
+    public long getTotalLength() {
+        return totalLength;
+    }
+}
@@ -0,0 +1,106 @@
+package com.taskManagement.properties;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 缓存配置属性
+ */
+@Component
+@ConfigurationProperties(prefix = "guineapig.cache")
+@Data
+public class CacheProperties {
+
+    /**
+     * 任务详情缓存
+     */
+    private TaskDetail taskDetail = new TaskDetail();
+
+    /**
+     * 个人仪表盘缓存
+     */
+    private Dashboard dashboard = new Dashboard();
+
+    /**
+     * 用户资料缓存
+     */
+    private UserProfile userProfile = new UserProfile();
+
+    /**
+     * 项目标签缓存
+     */
+    private ProjectTag projectTag = new ProjectTag();
+
+    @Data
+    public static class TaskDetail {
+
+        /**
+         * 缓存模式：none-不缓存，local-仅进程内，redis-仅Redis，two-level-进程内+Redis
+         * 没有可用的Redis时，redis和two-level自动降级为local
+         */
+        private String mode = "two-level";
+
+        /**
+         * 进程内缓存最大条目数
+         */
+        private int localMaxSize = 1000;
+
+        /**
+         * 进程内缓存过期时间(秒)，多实例下其他实例的失效消息丢失时以此兜底
+         */
+        private long localTtl = 30;
+
+        /**
+         * Redis缓存过期时间(秒)
+         */
+        private long redisTtl = 600;
+    }
+
+    @Data
+    public static class Dashboard {
+
+        /**
+         * 是否启用
+         */
+        private boolean enabled = true;
+
+        /**
+         * 最大条目数
+         */
+        private int maxSize = 1000;
+
+        /**
+         * 过期时间(秒)，失效通过Redis通知其他实例，未配置Redis或通知丢失时以此兜底
+         */
+        private long ttl = 30;
+    }
+
+    @Data
+    public static class UserProfile {
+
+        /**
+         * 最大条目数
+         */
+        private int maxSize = 5000;
+
+        /**
+         * 过期时间(秒)，只在本实例内失效，其他实例修改用户名或头像后以此兜底
+         */
+        private long ttl = 300;
+    }
+
+    @Data
+    public static class ProjectTag {
+
+        /**
+         * 最大条目数
+         */
+        private int maxSize = 500;
+
+        /**
+         * 过期时间(秒)，只在本实例内失效，其他实例修改标签关联后以此兜底
+         */
+        private long ttl = 60;
+    }
+}
@@ -0,0 +1,29 @@
+package com.taskManagement.dto;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.PositiveOrZero;
+
+/**
+ * 开始分片上传DTO
+ */
+@Data
+public class ChunkedUploadInitDTO {
+    @NotBlank(message = "文件名不能为空")
+    private String fileName;
+
+    @NotNull(message = "文件大小不能为空")
+    @PositiveOrZero(message = "文件大小不能为负数")
+    private Long fileSize;
+
+    private String contentType;
+
+    /**
+     * 任务ID，完成后保存到任务附件表，为空时只上传文件
+     */
+    private Long taskId;
+
+    private Long userId;
+}
@@ -0,0 +1,31 @@
+package com.taskManagement.dto;
+
+import lombok.Data;
+
+import java.io.InputStream;
+
+/**
+ * 解密后的文件内容DTO
+ * 按范围读取时content只包含请求的部分，调用方负责关闭content
+ */
+@Data
+public class FileContentDTO {
+
+    private InputStream content;
+
+    private String contentType;
+
+    /**
+     * 明文总长度，旧格式文件未知时为null
+     */
+    private Long totalLength;
+
+    /**
+     * 是否只返回了部分内容
+     */
+    private boolean partial;
+
+    private Long rangeStart;
+
+    private Long rangeEnd;
+}
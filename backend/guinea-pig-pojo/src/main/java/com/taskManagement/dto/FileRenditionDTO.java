@@ -0,0 +1,14 @@
+package com.taskManagement.dto;
+
+import lombok.Data;
+
+/**
+ * 附件渲染图DTO
+ */
+@Data
+public class FileRenditionDTO {
+
+    private String thumbnailUrl;
+
+    private String previewUrl;
+}
@@ -14,6 +14,14 @@ public class ProjectAttachmentDTO {
     private String fileType;
     private Long fileSize;
     private String filePath;
+    /**
+     * 缩略图URL，图片上传后异步生成，尚未生成或不支持时为null
+     */
+    private String thumbnailUrl;
+    /**
+     * 预览图URL，生成规则同缩略图
+     */
+    private String previewUrl;
     private String md5;
     private Long createUser;
     private LocalDateTime createTime;
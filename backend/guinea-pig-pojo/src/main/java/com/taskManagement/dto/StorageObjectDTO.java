@@ -0,0 +1,22 @@
+package com.taskManagement.dto;
+
+import lombok.Data;
+
+import java.io.InputStream;
+
+/**
+ * 存储对象DTO
+ * 读取对象时content为对象内容或请求的范围，只查询元数据时为null，调用方负责关闭content
+ */
+@Data
+public class StorageObjectDTO {
+
+    private InputStream content;
+
+    private String contentType;
+
+    /**
+     * content的长度，只查询元数据时为对象长度
+     */
+    private long contentLength;
+}
@@ -0,0 +1,19 @@
+package com.taskManagement.dto;
+
+import lombok.Data;
+
+/**
+ * 任务分组计数DTO
+ * 按项目、状态、优先级分组的任务数量，用于初始化统计计数器
+ */
+@Data
+public class TaskGroupCountDTO {
+
+    private Long projectId;
+
+    private Integer status;
+
+    private Integer priority;
+
+    private Long count;
+}
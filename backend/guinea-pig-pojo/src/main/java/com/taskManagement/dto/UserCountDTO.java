@@ -0,0 +1,15 @@
+package com.taskManagement.dto;
+
+import lombok.Data;
+
+/**
+ * 用户计数DTO
+ * 按用户分组的数量，用于校准未读通知计数器
+ */
+@Data
+public class UserCountDTO {
+
+    private Long userId;
+
+    private Long count;
+}
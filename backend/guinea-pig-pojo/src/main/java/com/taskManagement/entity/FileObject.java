@@ -0,0 +1,60 @@
+package com.taskManagement.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 文件对象实体类
+ * 按内容哈希索引已存储的附件对象，内容相同的附件记录指向同一个对象，
+ * 同时记录上传时的大小、类型和加密元数据，读取时不再查询存储中的元数据
+ */
+@Data
+@TableName("tb_file_object")
+public class FileObject {
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 原始内容的SHA-256，十六进制
+     */
+    private String contentHash;
+
+    private String objectKey;
+
+    private Long fileSize;
+
+    private String contentType;
+
+    /**
+     * 密文长度
+     */
+    private Long encryptedSize;
+
+    /**
+     * 加密格式版本，与SegmentedEncryption.VERSION对应
+     */
+    private Integer formatVersion;
+
+    /**
+     * 分段加密的文件头，十六进制，按范围读取时不再从存储读取文件头
+     */
+    private String encryptionHeader;
+
+    /**
+     * 引用该对象的附件记录数，为0时删除对象
+     */
+    private Integer refCount;
+
+    /**
+     * 渲染图状态：0-待生成，1-已生成，2-不支持或生成失败
+     */
+    private Integer renditionStatus;
+
+    private LocalDateTime createTime;
+
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,59 @@
+package com.taskManagement.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 通知发件箱实体类
+ * 一行对应一次通知扇出，投递时按接收人展开为多条通知
+ */
+@Data
+@TableName("tb_notification_outbox")
+public class NotificationOutbox {
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 通知类型：task_update-任务更新, comment_mention-评论@
+     */
+    private String type;
+
+    private String content;
+
+    private Long relatedId;
+
+    /**
+     * 接收人用户ID，逗号分隔
+     */
+    private String recipientIds;
+
+    /**
+     * 状态：0-待投递，1-已投递，2-投递失败
+     */
+    private Integer status;
+
+    /**
+     * 已尝试投递次数
+     */
+    private Integer attempts;
+
+    /**
+     * 下次投递时间，被认领期间为认领到期时间
+     */
+    private LocalDateTime nextAttemptTime;
+
+    /**
+     * 最近一次认领的标识，投递和记录失败时据此确认记录仍归本次认领
+     */
+    private String claimToken;
+
+    private String lastError;
+
+    private LocalDateTime createTime;
+
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,26 @@
+package com.taskManagement.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 任务状态每日快照实体类
+ */
+@Data
+@TableName("tb_task_status_snapshot")
+public class TaskStatusSnapshot {
+    @TableId(type = IdType.INPUT)
+    private LocalDate snapshotDate;
+    private Integer total;
+    private Integer pending;
+    private Integer inProgress;
+    private Integer completed;
+    private Integer cancelled;
+    private Integer todayExpired;
+    private LocalDateTime createTime;
+}
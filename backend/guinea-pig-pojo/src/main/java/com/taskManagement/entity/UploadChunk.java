@@ -0,0 +1,34 @@
+package com.taskManagement.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 分片上传已接收的分片实体类
+ */
+@Data
+@TableName("tb_upload_chunk")
+public class UploadChunk {
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    private Long sessionId;
+
+    /**
+     * 分片序号，从0开始，存储中的分片号为序号加1
+     */
+    private Integer chunkIndex;
+
+    /**
+     * 分片原始内容的SHA-256，十六进制
+     */
+    private String chunkHash;
+
+    private String etag;
+
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,69 @@
+package com.taskManagement.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 分片上传会话实体类
+ * 开始上传时生成整个文件的加密文件头，各分片按文件头独立加密后作为存储的分片上传
+ */
+@Data
+@TableName("tb_upload_session")
+public class UploadSession {
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 返回给客户端的上传ID
+     */
+    private String uploadId;
+
+    private String objectKey;
+
+    /**
+     * 存储的分片上传ID
+     */
+    private String storageUploadId;
+
+    private String fileName;
+
+    private Long fileSize;
+
+    private String contentType;
+
+    /**
+     * 分片大小，为加密段大小的整数倍，最后一片可以更小
+     */
+    private Integer chunkSize;
+
+    private Integer chunkCount;
+
+    /**
+     * 分段加密的文件头，十六进制
+     */
+    private String encryptionHeader;
+
+    private Long taskId;
+
+    private Long userId;
+
+    /**
+     * 状态：0-上传中，1-已完成，2-合并中，3-已合并
+     */
+    private Integer status;
+
+    /**
+     * 完成后的文件URL，重复提交完成时直接返回
+     */
+    private String fileUrl;
+
+    private LocalDateTime expireTime;
+
+    private LocalDateTime createTime;
+
+    private LocalDateTime updateTime;
+}
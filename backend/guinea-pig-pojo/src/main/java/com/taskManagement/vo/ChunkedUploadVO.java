@@ -0,0 +1,32 @@
+package com.taskManagement.vo;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 分片上传状态
+ */
+@Data
+public class ChunkedUploadVO {
+    private String uploadId;
+    private String fileName;
+    private Long fileSize;
+    /**
+     * 分片大小，最后一片为剩余的字节数
+     */
+    private Integer chunkSize;
+    private Integer chunkCount;
+    /**
+     * 已接收的分片序号，从0开始，续传时只需上传缺少的分片
+     */
+    private List<Integer> receivedChunks;
+    private Long receivedBytes;
+    private Boolean completed;
+    /**
+     * 完成后的文件URL
+     */
+    private String fileUrl;
+    private LocalDateTime expireTime;
+}
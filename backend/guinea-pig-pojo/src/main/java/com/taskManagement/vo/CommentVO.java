@@ -33,4 +33,13 @@ public class CommentVO {
     
     @ApiModelProperty("创建时间")
     private LocalDateTime createTime;
+    
+    @ApiModelProperty("直接回复数，仅评论树接口返回")
+    private Integer replyCount;
+    
+    @ApiModelProperty("是否还有未包含在children中的回复，仅评论树接口返回")
+    private Boolean hasMoreReplies;
+    
+    @ApiModelProperty("加载更多回复的游标，hasMoreReplies为true且为null时从第一条回复开始加载")
+    private String moreRepliesCursor;
 } 
\ No newline at end of file
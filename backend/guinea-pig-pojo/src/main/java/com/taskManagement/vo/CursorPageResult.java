@@ -0,0 +1,31 @@
+package com.taskManagement.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 游标分页结果
+ * @param <T> 数据类型
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResult<T> {
+    /**
+     * 数据列表
+     */
+    private List<T> items;
+
+    /**
+     * 下一页游标，没有更多数据时为null
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有下一页
+     */
+    private boolean hasMore;
+}
@@ -0,0 +1,21 @@
+package com.taskManagement.vo;
+
+import lombok.Data;
+
+/**
+ * 批量上传中单个文件的上传结果
+ */
+@Data
+public class FileUploadResultVO {
+    private String fileName;
+    private Long fileSize;
+    private Boolean success;
+    /**
+     * 上传成功时的文件URL
+     */
+    private String fileUrl;
+    /**
+     * 上传失败时的原因
+     */
+    private String errorMessage;
+}
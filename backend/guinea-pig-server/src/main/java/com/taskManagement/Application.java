@@ -2,6 +2,7 @@ package com.taskManagement;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 import org.mybatis.spring.annotation.MapperScan;
 
@@ -10,6 +11,7 @@ import org.mybatis.spring.annotation.MapperScan;
  */
 @SpringBootApplication
 @EnableTransactionManagement
+@EnableScheduling
 @MapperScan("com.taskmanagement.mapper")
 public class Application {
     public static void main(String[] args) {
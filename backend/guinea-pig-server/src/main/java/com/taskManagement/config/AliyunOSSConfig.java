@@ -3,6 +3,7 @@ package com.taskManagement.config;
 import com.aliyun.oss.OSS;
 import com.aliyun.oss.OSSClientBuilder;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -28,6 +29,7 @@ public class AliyunOSSConfig {
     private String encryptionKey;
 
     @Bean
+    @ConditionalOnProperty(name = "guineapig.storage.type", havingValue = "oss", matchIfMissing = true)
     public OSS ossClient() {
         return new OSSClientBuilder().build(endpoint, accessKeyId, accessKeySecret);
     }
@@ -0,0 +1,29 @@
+package com.taskManagement.config;
+
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
+import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * MyBatis-Plus配置类
+ * 注册分页插件，使selectPage在数据库端执行COUNT和LIMIT，而不是把整个结果集拉到内存
+ */
+@Configuration
+public class MybatisPlusConfig {
+
+    /**
+     * 单页最大条数，防止前端传入过大的pageSize
+     */
+    public static final long MAX_PAGE_SIZE = 1000L;
+
+    @Bean
+    public MybatisPlusInterceptor mybatisPlusInterceptor() {
+        MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
+        PaginationInnerInterceptor paginationInterceptor = new PaginationInnerInterceptor(DbType.MYSQL);
+        paginationInterceptor.setMaxLimit(MAX_PAGE_SIZE);
+        interceptor.addInnerInterceptor(paginationInterceptor);
+        return interceptor;
+    }
+}
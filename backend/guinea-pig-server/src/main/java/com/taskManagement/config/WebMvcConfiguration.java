@@ -1,12 +1,15 @@
 package com.taskManagement.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taskManagement.filter.UploadAdmissionFilter;
 import com.taskManagement.interceptor.JwtTokenAdminInterceptor;
 import com.taskManagement.interceptor.JwtTokenUserInterceptor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.format.FormatterRegistry;
 import org.springframework.format.datetime.standard.DateTimeFormatterRegistrar;
@@ -37,6 +40,9 @@ public class WebMvcConfiguration extends WebMvcConfigurationSupport {
     @Autowired
     private JwtTokenUserInterceptor jwtTokenUserInterceptor;
 
+    @Autowired
+    private JwtTokenAdminInterceptor jwtTokenAdminInterceptor;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -57,6 +63,23 @@ public class WebMvcConfiguration extends WebMvcConfigurationSupport {
                     "/api/files/**",      // 排除文件上传路径
                     "/api/tasks/*/attachments"  // 排除任务附件上传路径
                 );
+        // 运维统计接口只对管理员开放
+        registry.addInterceptor(jwtTokenAdminInterceptor)
+                .addPathPatterns("/notifications/outbox/**");
+    }
+
+    /**
+     * 注册上传准入过滤器
+     * 过滤器在DispatcherServlet解析multipart之前执行，预算不足时请求体不会被读取
+     */
+    @Bean
+    public FilterRegistrationBean<UploadAdmissionFilter> uploadAdmissionFilterRegistration(UploadAdmissionFilter uploadAdmissionFilter) {
+        log.info("注册上传准入过滤器...");
+        FilterRegistrationBean<UploadAdmissionFilter> registration = new FilterRegistrationBean<>(uploadAdmissionFilter);
+        registration.addUrlPatterns("/*");
+        // 先于其他过滤器执行，避免有过滤器读取参数时提前解析请求体
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
     }
 
     /**
@@ -1,18 +1,41 @@
 package com.taskManagement.controller;
 
+import com.taskManagement.dto.ChunkedUploadInitDTO;
+import com.taskManagement.dto.FileContentDTO;
+import com.taskManagement.dto.StorageObjectDTO;
+import com.taskManagement.exception.BusinessException;
+import com.taskManagement.exception.RangeNotSatisfiableException;
 import com.taskManagement.result.Result;
+import com.taskManagement.service.AttachmentCacheService;
+import com.taskManagement.service.ChunkedUploadService;
 import com.taskManagement.service.FileService;
+import com.taskManagement.service.RenditionService;
+import com.taskManagement.service.StorageService;
+import com.taskManagement.service.UploadAdmissionService;
 import com.taskManagement.context.BaseContext;
+import com.taskManagement.vo.ChunkedUploadVO;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.HandlerMapping;
 
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URLEncoder;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Map;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.validation.Valid;
 
 /**
  * 文件上传控制器
@@ -24,6 +47,28 @@ public class FileController {
 
     @Autowired
     private FileService fileService;
+    
+    @Autowired
+    private StorageService storageService;
+    
+    @Autowired
+    private AttachmentCacheService attachmentCacheService;
+    
+    @Autowired
+    private RenditionService renditionService;
+    
+    @Autowired
+    private UploadAdmissionService uploadAdmissionService;
+    
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+    
+    /**
+     * 不加密、可以直接访问的文件夹
+     */
+    private static final String PUBLIC_FOLDER = "avatar/";
+    
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
 
     /**
      * 上传单个加密文件到阿里云OSS
@@ -245,52 +290,98 @@ public class FileController {
         }
     }
 
+    /**
+     * 开始分片上传大附件，返回上传ID、分片大小和分片数
+     */
+    @PostMapping("/chunked")
+    public Result<ChunkedUploadVO> initiateChunkedUpload(@RequestBody @Valid ChunkedUploadInitDTO initDTO) {
+        log.info("开始分片上传: {}, 大小: {}, 任务ID: {}", initDTO.getFileName(), initDTO.getFileSize(), initDTO.getTaskId());
+        
+        try {
+            if (initDTO.getUserId() == null) {
+                initDTO.setUserId(BaseContext.getCurrentId());
+            }
+            return Result.success(chunkedUploadService.initiate(initDTO));
+        } catch (Exception e) {
+            log.error("开始分片上传失败", e);
+            return Result.error("开始分片上传失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 上传一个分片，请求体为分片的原始内容，边读边加密写入存储
+     */
+    @PutMapping("/chunked/{uploadId}/chunks/{chunkIndex}")
+    public Result<ChunkedUploadVO> uploadChunk(@PathVariable String uploadId,
+                                               @PathVariable int chunkIndex,
+                                               HttpServletRequest request) {
+        try (InputStream content = request.getInputStream()) {
+            return Result.success(chunkedUploadService.uploadChunk(uploadId, chunkIndex, content,
+                    request.getContentLengthLong()));
+        } catch (Exception e) {
+            log.error("分片上传失败, 上传ID: {}, 分片: {}", uploadId, chunkIndex, e);
+            return Result.error("分片上传失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 查询分片上传状态和已接收的分片，用于断点续传
+     */
+    @GetMapping("/chunked/{uploadId}")
+    public Result<ChunkedUploadVO> getChunkedUploadStatus(@PathVariable String uploadId) {
+        try {
+            return Result.success(chunkedUploadService.getStatus(uploadId));
+        } catch (Exception e) {
+            log.error("查询分片上传状态失败, 上传ID: {}", uploadId, e);
+            return Result.error("查询分片上传状态失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 合并全部分片完成上传，重复提交时返回已完成的结果
+     */
+    @PostMapping("/chunked/{uploadId}/complete")
+    public Result<ChunkedUploadVO> completeChunkedUpload(@PathVariable String uploadId) {
+        try {
+            return Result.success(chunkedUploadService.complete(uploadId));
+        } catch (Exception e) {
+            log.error("完成分片上传失败, 上传ID: {}", uploadId, e);
+            return Result.error("完成分片上传失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 取消分片上传
+     */
+    @DeleteMapping("/chunked/{uploadId}")
+    public Result<Void> abortChunkedUpload(@PathVariable String uploadId) {
+        try {
+            chunkedUploadService.abort(uploadId);
+            return Result.success();
+        } catch (Exception e) {
+            log.error("取消分片上传失败, 上传ID: {}", uploadId, e);
+            return Result.error("取消分片上传失败: " + e.getMessage());
+        }
+    }
+
     /**
      * 下载解密后的文件
-     * 支持通过URL或路径获取文件
+     * 支持通过URL或路径获取文件，支持Range请求断点续传
      * @param fileUrl 文件URL，完整的OSS URL
      * @param filePath 文件路径，OSS对象键
+     * @param rangeHeader Range请求头
      * @return 解密后的文件内容
      */
     @GetMapping("/download")
     public void downloadDecryptedFile(
             @RequestParam(required = false) String fileUrl,
             @RequestParam(required = false) String filePath,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader,
             HttpServletResponse response) {
-        // 参数验证
-        if ((fileUrl == null || fileUrl.isEmpty()) && (filePath == null || filePath.isEmpty())) {
-            throw new RuntimeException("fileUrl和filePath不能同时为空");
-        }
-        
-        String objectKey = null;
-        if (fileUrl != null && !fileUrl.isEmpty()) {
-            objectKey = fileService.getObjectKeyFromUrl(fileUrl);
-        } else {
-            objectKey = filePath;
-        }
+        String objectKey = resolveObjectKey(fileUrl, filePath);
         
         try {
-            // 获取文件元数据
-            com.aliyun.oss.model.ObjectMetadata metadata = fileService.getFileMetadata(objectKey);
-            
-            // 获取解密后的文件内容
-            InputStream decryptedStream = fileService.getDecryptedFile(objectKey);
-            
-            // 设置响应头
-            response.setContentType(metadata.getContentType());
-            response.setHeader("Content-Disposition", "attachment; filename=" + 
-                    URLEncoder.encode(getOriginalFileName(objectKey), "UTF-8"));
-            
-            // 将文件内容写入响应
-            byte[] buffer = new byte[4096];
-            int bytesRead;
-            while ((bytesRead = decryptedStream.read(buffer)) != -1) {
-                response.getOutputStream().write(buffer, 0, bytesRead);
-            }
-            
-            // 关闭流
-            decryptedStream.close();
-            response.getOutputStream().flush();
+            writeDecryptedFile(objectKey, "attachment", rangeHeader, response);
         } catch (Exception e) {
             log.error("文件下载失败: {}", e.getMessage(), e);
             throw new RuntimeException("文件下载失败: " + e.getMessage());
@@ -299,53 +390,158 @@ public class FileController {
     
     /**
      * 预览解密后的文件（用于在线查看）
+     * 支持Range请求，视频、PDF等可以按需加载
      * @param fileUrl 文件URL，完整的OSS URL
      * @param filePath 文件路径，OSS对象键
+     * @param rangeHeader Range请求头
      * @return 解密后的文件内容
      */
     @GetMapping("/preview")
     public void previewDecryptedFile(
             @RequestParam(required = false) String fileUrl,
             @RequestParam(required = false) String filePath,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader,
             HttpServletResponse response) {
+        String objectKey = resolveObjectKey(fileUrl, filePath);
+        
+        try {
+            // inline表示在浏览器中直接显示
+            writeDecryptedFile(objectKey, "inline", rangeHeader, response);
+        } catch (Exception e) {
+            log.error("文件预览失败: {}", e.getMessage(), e);
+            throw new RuntimeException("文件预览失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 根据URL或路径确定OSS对象键
+     */
+    private String resolveObjectKey(String fileUrl, String filePath) {
         // 参数验证
         if ((fileUrl == null || fileUrl.isEmpty()) && (filePath == null || filePath.isEmpty())) {
             throw new RuntimeException("fileUrl和filePath不能同时为空");
         }
         
-        String objectKey = null;
         if (fileUrl != null && !fileUrl.isEmpty()) {
-            objectKey = fileService.getObjectKeyFromUrl(fileUrl);
-        } else {
-            objectKey = filePath;
+            return fileService.getObjectKeyFromUrl(fileUrl);
+        }
+        return filePath;
+    }
+    
+    /**
+     * 解析Range请求头，只支持单个范围，格式错误或多个范围时按完整文件返回
+     */
+    private HttpRange parseRange(String rangeHeader) {
+        if (rangeHeader == null || rangeHeader.isEmpty()) {
+            return null;
         }
-        
         try {
-            // 获取文件元数据
-            com.aliyun.oss.model.ObjectMetadata metadata = fileService.getFileMetadata(objectKey);
-            
-            // 获取解密后的文件内容
-            InputStream decryptedStream = fileService.getDecryptedFile(objectKey);
-            
-            // 设置响应头，inline表示在浏览器中直接显示
-            response.setContentType(metadata.getContentType());
-            response.setHeader("Content-Disposition", "inline; filename=" + 
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            log.warn("忽略无效的Range请求头: {}", rangeHeader);
+            return null;
+        }
+    }
+    
+    /**
+     * 将解密后的文件内容写入响应，请求范围时返回206
+     */
+    private void writeDecryptedFile(String objectKey, String disposition, String rangeHeader,
+                                    HttpServletResponse response) throws Exception {
+        FileContentDTO content;
+        try {
+            content = fileService.getDecryptedContent(objectKey, parseRange(rangeHeader));
+        } catch (RangeNotSatisfiableException e) {
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + e.getTotalLength());
+            return;
+        }
+        
+        try (InputStream decryptedStream = content.getContent()) {
+            // 设置响应头
+            response.setContentType(content.getContentType());
+            response.setHeader("Content-Disposition", disposition + "; filename=" +
                     URLEncoder.encode(getOriginalFileName(objectKey), "UTF-8"));
-            
-            // 将文件内容写入响应
-            byte[] buffer = new byte[4096];
-            int bytesRead;
-            while ((bytesRead = decryptedStream.read(buffer)) != -1) {
-                response.getOutputStream().write(buffer, 0, bytesRead);
+            if (content.getTotalLength() != null) {
+                response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+                if (content.isPartial()) {
+                    response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + content.getRangeStart() + "-" +
+                            content.getRangeEnd() + "/" + content.getTotalLength());
+                    response.setContentLengthLong(content.getRangeEnd() - content.getRangeStart() + 1);
+                } else {
+                    response.setContentLengthLong(content.getTotalLength());
+                }
             }
             
-            // 关闭流
-            decryptedStream.close();
-            response.getOutputStream().flush();
-        } catch (Exception e) {
-            log.error("文件预览失败: {}", e.getMessage(), e);
-            throw new RuntimeException("文件预览失败: " + e.getMessage());
+            // 将文件内容写入响应
+            OutputStream outputStream = response.getOutputStream();
+            decryptedStream.transferTo(outputStream);
+            outputStream.flush();
+        }
+    }
+    
+    /**
+     * 直接访问未加密的文件（头像），本地存储时的文件URL指向这里
+     * 本地存储且容器支持sendfile时由内核直接发送文件，否则通过transferTo写出
+     */
+    @GetMapping("/raw/**")
+    public void getPublicFile(HttpServletRequest request, HttpServletResponse response) throws Exception {
+        String path = (String) request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
+        String objectKey = new AntPathMatcher().extractPathWithinPattern("/files/raw/**", path);
+        if (!objectKey.startsWith(PUBLIC_FOLDER)) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        
+        StorageObjectDTO metadata;
+        try {
+            metadata = storageService.getObjectMetadata(objectKey);
+        } catch (BusinessException e) {
+            response.sendError(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        response.setContentType(metadata.getContentType());
+        response.setContentLengthLong(metadata.getContentLength());
+        // 头像文件名唯一，内容不会变化
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=86400");
+        
+        Path localPath = storageService.getLocalPath(objectKey);
+        if (localPath != null && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute("org.apache.tomcat.sendfile.filename", localPath.toString());
+            request.setAttribute("org.apache.tomcat.sendfile.start", 0L);
+            request.setAttribute("org.apache.tomcat.sendfile.end", metadata.getContentLength());
+            return;
         }
+        storageService.transferTo(objectKey, Channels.newChannel(response.getOutputStream()));
+    }
+    
+    /**
+     * 获取附件缓存统计：命中率、缓存大小、输出字节数等
+     * @return 统计信息
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> getCacheStats() {
+        return ResponseEntity.ok(attachmentCacheService.getStats());
+    }
+    
+    /**
+     * 获取渲染图生成统计：提交、完成、失败、放弃的任务数和平均耗时
+     * @return 统计信息
+     */
+    @GetMapping("/rendition/stats")
+    public ResponseEntity<Map<String, Object>> getRenditionStats() {
+        return ResponseEntity.ok(renditionService.getStats());
+    }
+    
+    /**
+     * 获取上传准入统计：正在上传的字节数、排队数、准入和拒绝次数
+     * @return 统计信息
+     */
+    @GetMapping("/upload/stats")
+    public ResponseEntity<Map<String, Object>> getUploadStats() {
+        return ResponseEntity.ok(uploadAdmissionService.getStats());
     }
     
     /**
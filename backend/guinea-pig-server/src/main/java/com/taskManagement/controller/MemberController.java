@@ -82,8 +82,7 @@ public class MemberController {
         queryWrapper.orderByDesc(User::getCreateTime);
         
         // 分页参数处理
-        int pageIndex = Math.max(0, page - 1);
-        Page<User> pageParam = new Page<>(pageIndex, pageSize);
+        Page<User> pageParam = new Page<>(Math.max(1, page), pageSize);
         
         // 执行分页查询
         Page<User> userPage = userMapper.selectPage(pageParam, queryWrapper);
@@ -132,8 +131,7 @@ public class MemberController {
         queryWrapper.orderByDesc(User::getCreateTime);
         
         // 分页参数处理
-        int pageIndex = Math.max(0, page - 1);
-        Page<User> pageParam = new Page<>(pageIndex, pageSize);
+        Page<User> pageParam = new Page<>(Math.max(1, page), pageSize);
         
         // 执行分页查询
         Page<User> userPage = userMapper.selectPage(pageParam, queryWrapper);
@@ -192,8 +190,7 @@ public class MemberController {
         queryWrapper.orderByDesc(User::getCreateTime);
         
         // 分页参数处理
-        int pageIndex = Math.max(0, page - 1);
-        Page<User> pageParam = new Page<>(pageIndex, pageSize);
+        Page<User> pageParam = new Page<>(Math.max(1, page), pageSize);
         
         // 执行分页查询
         Page<User> userPage = userMapper.selectPage(pageParam, queryWrapper);
@@ -1,6 +1,7 @@
 package com.taskManagement.controller;
 
 import com.taskManagement.dto.NotificationDTO;
+import com.taskManagement.service.NotificationOutboxService;
 import com.taskManagement.service.NotificationService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -15,9 +16,11 @@ import java.util.Map;
 public class NotificationController {
 
     private final NotificationService notificationService;
+    private final NotificationOutboxService notificationOutboxService;
 
-    public NotificationController(NotificationService notificationService) {
+    public NotificationController(NotificationService notificationService, NotificationOutboxService notificationOutboxService) {
         this.notificationService = notificationService;
+        this.notificationOutboxService = notificationOutboxService;
     }
 
     /**
@@ -71,4 +74,13 @@ public class NotificationController {
         int count = notificationService.getUnreadCount(userId);
         return ResponseEntity.ok(count);
     }
-}
\ No newline at end of file
+
+    /**
+     * 获取通知发件箱统计：积压数量、投递延迟、投递和失败次数，仅管理员可访问
+     * @return 统计信息
+     */
+    @GetMapping("/outbox/stats")
+    public ResponseEntity<Map<String, Object>> getOutboxStats() {
+        return ResponseEntity.ok(notificationOutboxService.getStats());
+    }
+}
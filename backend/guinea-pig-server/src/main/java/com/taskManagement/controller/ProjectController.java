@@ -6,6 +6,8 @@ import com.taskManagement.entity.Project;
 import com.taskManagement.result.Result;
 import com.taskManagement.service.ProjectService;
 import com.taskManagement.service.TaskService;
+import com.taskManagement.vo.CursorPageResult;
+import com.taskManagement.vo.FileUploadResultVO;
 import com.taskManagement.vo.PageResult;
 import com.taskManagement.vo.ProjectVO;
 import com.taskManagement.vo.TaskVO;
@@ -62,6 +64,34 @@ public class ProjectController {
         return Result.success(result);
     }
 
+    /**
+     * 游标方式获取项目列表
+     * @param keyword 关键字
+     * @param status 状态
+     * @param cursor 上一页返回的nextCursor，首页不传
+     * @param pageSize 每页大小
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @param dueStartTime 截止开始时间
+     * @param dueEndTime 截止结束时间
+     * @return 项目列表和下一页游标
+     */
+    @GetMapping("/cursor")
+    public Result<CursorPageResult<ProjectVO>> getProjectListByCursor(
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) Integer status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") Integer pageSize,
+            @RequestParam(required = false) LocalDate startTime,
+            @RequestParam(required = false) LocalDate endTime,
+            @RequestParam(required = false) LocalDate dueStartTime,
+            @RequestParam(required = false) LocalDate dueEndTime) {
+        log.info("游标获取项目列表，keyword={}, status={}, cursor={}, pageSize={}", keyword, status, cursor, pageSize);
+        
+        CursorPageResult<ProjectVO> result = projectService.getProjectListByCursor(keyword, status, cursor, pageSize, startTime, endTime, dueStartTime, dueEndTime);
+        return Result.success(result);
+    }
+
     /**
      * 获取项目详情
      * @param id 项目ID
@@ -243,10 +273,10 @@ public class ProjectController {
      * 批量上传项目附件
      * @param projectId 项目ID
      * @param files 文件列表
-     * @return 文件URL列表
+     * @return 每个文件的上传结果
      */
     @PostMapping("/{projectId}/attachments/batch")
-    public Result<List<String>> batchUploadProjectAttachments(
+    public Result<List<FileUploadResultVO>> batchUploadProjectAttachments(
             @PathVariable Long projectId, 
             @RequestParam("files") List<MultipartFile> files) {
         log.info("批量上传项目附件，projectId={}, fileCount={}", projectId, files.size());
@@ -263,8 +293,8 @@ public class ProjectController {
             }
             
             // 调用service批量上传文件
-            List<String> fileUrls = projectService.batchUploadProjectAttachments(projectId, files, userId);
-            return Result.success(fileUrls);
+            List<FileUploadResultVO> results = projectService.batchUploadProjectAttachments(projectId, files, userId);
+            return Result.success(results);
         } catch (Exception e) {
             log.error("批量上传项目附件失败", e);
             return Result.error("批量上传失败: " + e.getMessage());
@@ -4,8 +4,11 @@ import com.taskManagement.result.Result;
 import com.taskManagement.dto.TaskDTO;
 import com.taskManagement.dto.CommentDTO;
 import com.taskManagement.vo.CommentVO;
+import com.taskManagement.vo.CursorPageResult;
+import com.taskManagement.vo.FileUploadResultVO;
 import com.taskManagement.vo.UserVO;
 import com.taskManagement.service.CommentService;
+import com.taskManagement.service.TaskCacheService;
 import com.taskManagement.service.TaskService;
 import com.taskManagement.dto.TaskAttachmentDTO;
 import io.swagger.annotations.Api;
@@ -40,6 +43,9 @@ public class TaskController {
     @Autowired
     private FileService fileService;
 
+    @Autowired
+    private TaskCacheService taskCacheService;
+
     /**
      * create task
      * @param taskDTO task data
@@ -101,6 +107,54 @@ public class TaskController {
         return Result.success(result);
     }
 
+    /**
+     * 游标方式获取任务列表
+     * 深翻页时代价与第一页相同，适合无限滚动场景
+     * @param keyword 关键词
+     * @param status 状态
+     * @param priority 优先级
+     * @param projectId 项目ID
+     * @param tags 标签
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @param dueStartTime 截止开始时间
+     * @param dueEndTime 截止结束时间
+     * @param cursor 上一页返回的nextCursor，首页不传
+     * @param pageSize 每页数量
+     * @return 任务列表和下一页游标
+     */
+    @GetMapping("/cursor")
+    @ApiOperation("游标获取任务列表")
+    public Result<CursorPageResult<TaskDTO>> getTaskListByCursor(
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) Integer status,
+            @RequestParam(required = false) Integer priority,
+            @RequestParam(required = false) Long projectId,
+            @RequestParam(required = false) String tags,
+            @RequestParam(required = false) LocalDate startTime,
+            @RequestParam(required = false) LocalDate endTime,
+            @RequestParam(required = false) LocalDate dueStartTime,
+            @RequestParam(required = false) LocalDate dueEndTime,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") Integer pageSize) {
+        log.info("游标获取任务列表: keyword={}, status={}, priority={}, projectId={}, tags={}, cursor={}, pageSize={}",
+                keyword, status, priority, projectId, tags, cursor, pageSize);
+        
+        CursorPageResult<TaskDTO> result = taskService.getTaskListByCursor(keyword, status, priority, projectId, tags,
+                startTime, endTime, dueStartTime, dueEndTime, cursor, pageSize);
+        return Result.success(result);
+    }
+
+    /**
+     * 获取任务详情缓存命中统计
+     * @return 各级命中数、未命中数和命中率
+     */
+    @GetMapping("/cache/stats")
+    @ApiOperation("获取任务详情缓存统计")
+    public Result<Map<String, Object>> getTaskCacheStats() {
+        return Result.success(taskCacheService.getStats());
+    }
+
     /**
      * 获取任务详情
      * @param id 任务ID
@@ -199,7 +253,70 @@ public class TaskController {
         
         return Result.success(commentVOs);
     }
-    
+
+    /**
+     * 游标分页获取任务评论，首页是最新的评论，继续传入nextCursor加载更早的评论
+     * @param taskId 任务ID
+     * @param cursor 上一页返回的nextCursor，首页不传
+     * @param pageSize 每页数量
+     * @return 评论扁平列表和下一页游标
+     */
+    @GetMapping("/{taskId}/comments/cursor")
+    @ApiOperation("游标获取任务评论")
+    public Result<CursorPageResult<CommentVO>> getTaskCommentsByCursor(
+            @PathVariable Long taskId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer pageSize) {
+        log.info("游标获取任务评论: taskId={}, cursor={}, pageSize={}", taskId, cursor, pageSize);
+
+        CursorPageResult<CommentDTO> page = commentService.getCommentsByCursor(taskId, cursor, pageSize);
+        return Result.success(new CursorPageResult<>(convertToCommentVOList(page.getItems()),
+                page.getNextCursor(), page.isHasMore()));
+    }
+
+    /**
+     * 获取任务评论树，超过层数或每层回复数的部分通过回复接口继续加载
+     * @param taskId 任务ID
+     * @param maxDepth 最多返回的回复层数
+     * @param maxReplies 每条评论最多返回的直接回复数
+     * @return 顶级评论列表，回复在children中
+     */
+    @GetMapping("/{taskId}/comments/tree")
+    @ApiOperation("获取任务评论树")
+    public Result<List<CommentVO>> getTaskCommentTree(
+            @PathVariable Long taskId,
+            @RequestParam(defaultValue = "3") Integer maxDepth,
+            @RequestParam(defaultValue = "20") Integer maxReplies) {
+        log.info("获取任务评论树: taskId={}, maxDepth={}, maxReplies={}", taskId, maxDepth, maxReplies);
+
+        List<CommentDTO> tree = commentService.getCommentTree(taskId, maxDepth, maxReplies);
+        return Result.success(convertToCommentVOList(tree));
+    }
+
+    /**
+     * 加载评论的更多回复
+     * @param taskId 任务ID
+     * @param commentId 父评论ID
+     * @param cursor 评论树节点上的moreRepliesCursor或上一页返回的nextCursor
+     * @param maxDepth 最多返回的回复层数
+     * @param maxReplies 每条评论最多返回的直接回复数
+     * @return 直接回复列表和下一页游标
+     */
+    @GetMapping("/{taskId}/comments/{commentId}/replies")
+    @ApiOperation("加载评论的更多回复")
+    public Result<CursorPageResult<CommentVO>> getCommentReplies(
+            @PathVariable Long taskId,
+            @PathVariable Long commentId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "3") Integer maxDepth,
+            @RequestParam(defaultValue = "20") Integer maxReplies) {
+        log.info("加载评论回复: taskId={}, commentId={}, cursor={}", taskId, commentId, cursor);
+
+        CursorPageResult<CommentDTO> page = commentService.getReplies(taskId, commentId, cursor, maxDepth, maxReplies);
+        return Result.success(new CursorPageResult<>(convertToCommentVOList(page.getItems()),
+                page.getNextCursor(), page.isHasMore()));
+    }
+
     /**
      * 将CommentDTO列表转换为CommentVO列表
      * @param commentDTOs CommentDTO列表
@@ -235,6 +352,9 @@ public class TaskController {
         commentVO.setTaskId(commentDTO.getTaskId());
         commentVO.setParentId(commentDTO.getParentId());
         commentVO.setCreateTime(commentDTO.getCreateTime());
+        commentVO.setReplyCount(commentDTO.getReplyCount());
+        commentVO.setHasMoreReplies(commentDTO.getHasMoreReplies());
+        commentVO.setMoreRepliesCursor(commentDTO.getMoreRepliesCursor());
         
         // 设置创建用户信息
         UserVO creatorVO = new UserVO();
@@ -356,11 +476,11 @@ public class TaskController {
      * 批量上传任务附件
      * @param taskId 任务ID
      * @param files 文件列表
-     * @return 上传后的附件信息
+     * @return 每个文件的上传结果
      */
     @PostMapping("/{taskId}/attachments/batch")
     @ApiOperation("批量上传任务附件")
-    public Result<List<String>> batchUploadTaskAttachments(
+    public Result<List<FileUploadResultVO>> batchUploadTaskAttachments(
             @PathVariable Long taskId,
             @RequestParam("files") List<MultipartFile> files) {
 
@@ -370,8 +490,8 @@ public class TaskController {
         Long userId = BaseContext.getCurrentId();
         if (userId == null) userId = 1L;
 
-        List<String> urls = taskService.batchUploadTaskAttachments(taskId, files, userId);
-        return Result.success(urls);
+        List<FileUploadResultVO> results = taskService.batchUploadTaskAttachments(taskId, files, userId);
+        return Result.success(results);
     }
 
     
@@ -123,4 +123,21 @@ public class TaskStatsController {
         Long userId = BaseContext.getCurrentId();
         return Result.success(taskStatsService.getTaskPriorityDistribution(userId));
     }
-}
\ No newline at end of file
+
+    /**
+     * 获取当前用户仪表盘数据
+     * 合并任务统计、今日到期任务、优先级分布和按状态的任务列表，一次请求返回
+     * @param status 任务列表的状态筛选（可选）
+     * @param pageSize 列表条数
+     * @return 仪表盘数据
+     */
+    @GetMapping("/user/dashboard")
+    @ApiOperation("获取当前用户仪表盘数据")
+    public Result<Map<String, Object>> getUserDashboard(
+            @RequestParam(required = false) Integer status,
+            @RequestParam(defaultValue = "10") Integer pageSize) {
+        log.info("获取当前用户仪表盘数据: status={}, pageSize={}", status, pageSize);
+        Long userId = BaseContext.getCurrentId();
+        return Result.success(taskStatsService.getUserDashboard(userId, status, pageSize));
+    }
+}
@@ -17,6 +17,7 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.http.HttpStatus;
 import com.taskManagement.vo.PageResult;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import javax.validation.Valid;
@@ -82,6 +83,16 @@ public class UserController {
         return Result.success(userService.checkUsernameExist(username));
     }
 
+    /**
+     * 提及用户(@)的自动补全，按用户名前缀从内存索引查询
+     */
+    @GetMapping("/users/mention-suggestions")
+    public Result<List<UserVO>> suggestMentionUsers(@RequestParam String prefix,
+                                                   @RequestParam(defaultValue = "10") Integer limit) {
+        log.debug("@提及自动补全: prefix={}, limit={}", prefix, limit);
+        return Result.success(userService.suggestMentionUsers(prefix, limit));
+    }
+
     /**
      * 退出登录
      */
@@ -0,0 +1,81 @@
+package com.taskManagement.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taskManagement.result.Result;
+import com.taskManagement.service.UploadAdmissionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 上传准入过滤器
+ * 在DispatcherServlet解析multipart请求体之前，按Content-Length申请上传预算；分片上传的请求体是原始内容，
+ * 不是multipart，按路径同样纳入预算。
+ * 预算不足且排队失败时直接返回503并带Retry-After，不读取请求体；请求处理完成后归还预算
+ */
+@Component
+@Slf4j
+public class UploadAdmissionFilter extends OncePerRequestFilter {
+
+    private static final String CHUNK_UPLOAD_PATTERN = "/files/chunked/*/chunks/*";
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Autowired
+    private UploadAdmissionService uploadAdmissionService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !isMultipart(request) && !isChunkUpload(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long admittedBytes = uploadAdmissionService.tryAdmit(request.getContentLengthLong());
+        if (admittedBytes <= 0) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(uploadAdmissionService.getRetryAfterSeconds()));
+            response.setHeader(HttpHeaders.CONNECTION, "close");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.getWriter().write(objectMapper.writeValueAsString(Result.error("服务器繁忙，请稍后重试上传")));
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            uploadAdmissionService.release(admittedBytes);
+        }
+    }
+
+    private boolean isMultipart(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.toLowerCase().startsWith("multipart/");
+    }
+
+    private boolean isChunkUpload(HttpServletRequest request) {
+        if (!HttpMethod.PUT.matches(request.getMethod())) {
+            return false;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return pathMatcher.match(CHUNK_UPLOAD_PATTERN, path);
+    }
+}
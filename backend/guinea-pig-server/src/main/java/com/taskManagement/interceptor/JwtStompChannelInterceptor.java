@@ -0,0 +1,81 @@
+package com.taskManagement.interceptor;
+
+import com.taskManagement.constant.JwtClaimsConstant;
+import com.taskManagement.properties.JwtProperties;
+import com.taskManagement.utils.JwtUtil;
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+
+/**
+ * STOMP连接的JWT校验拦截器
+ * 与JwtTokenUserInterceptor使用同一个令牌，CONNECT帧的请求头中携带；
+ * 校验通过后以用户ID作为会话用户，推送时按用户ID投递到各自的队列
+ */
+@Component
+@Slf4j
+public class JwtStompChannelInterceptor implements ChannelInterceptor {
+
+    /**
+     * 客户端只能订阅自己的用户队列
+     */
+    private static final String USER_DESTINATION_PREFIX = "/user/";
+
+    @Autowired
+    private JwtProperties jwtProperties;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            return message;
+        }
+
+        if (StompCommand.CONNECT.equals(accessor.getCommand())) {
+            String token = accessor.getFirstNativeHeader(jwtProperties.getUserTokenName());
+            accessor.setUser(authenticate(token));
+        } else if (StompCommand.SUBSCRIBE.equals(accessor.getCommand())) {
+            String destination = accessor.getDestination();
+            if (accessor.getUser() == null || destination == null || !destination.startsWith(USER_DESTINATION_PREFIX)) {
+                log.warn("拒绝WebSocket订阅: destination={}", destination);
+                throw new MessagingException("Subscription not allowed: " + destination);
+            }
+        }
+        return message;
+    }
+
+    /**
+     * 校验令牌并返回以用户ID命名的会话用户
+     */
+    private Principal authenticate(String token) {
+        if (token == null || token.isEmpty()) {
+            log.warn("WebSocket连接缺少令牌");
+            throw new MessagingException("Missing authentication token");
+        }
+        try {
+            if (!JwtUtil.validateToken(jwtProperties.getUserSecretKey(), token)) {
+                throw new MessagingException("Invalid or expired token");
+            }
+            Claims claims = JwtUtil.parseJWT(jwtProperties.getUserSecretKey(), token);
+            String userId = claims.get(JwtClaimsConstant.USER_ID).toString();
+            log.info("WebSocket连接认证通过: userId={}", userId);
+            return () -> userId;
+        } catch (MessagingException e) {
+            log.warn("WebSocket连接令牌无效");
+            throw e;
+        } catch (Exception e) {
+            log.warn("WebSocket连接令牌校验失败: {}", e.getMessage());
+            throw new MessagingException("Error validating token", e);
+        }
+    }
+}
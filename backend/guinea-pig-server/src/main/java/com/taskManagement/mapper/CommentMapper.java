@@ -7,6 +7,7 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -20,9 +21,31 @@ public interface CommentMapper extends BaseMapper<Comment> {
      * @param taskId 任务ID
      * @return 评论列表
      */
-    @Select("SELECT id, task_id, content, parent_id, create_time, create_user FROM tb_comment WHERE task_id = #{taskId} ORDER BY create_time ASC")
+    @Select("SELECT id, task_id, content, parent_id, create_time, create_user FROM tb_comment WHERE task_id = #{taskId} ORDER BY create_time ASC, id ASC")
     List<Comment> selectByTaskId(@Param("taskId") Long taskId);
     
+    /**
+     * 按(create_time, id)倒序游标分页查询任务的评论，最新的在前
+     * @param taskId 任务ID
+     * @param beforeTime 上一页最后一条评论的创建时间，首页传null
+     * @param beforeId 上一页最后一条评论的ID
+     * @param limit 查询条数
+     * @return 评论列表
+     */
+    @Select({"<script>",
+             "SELECT id, task_id, content, parent_id, create_time, create_user FROM tb_comment",
+             "WHERE task_id = #{taskId}",
+             "<if test='beforeTime != null'>",
+             "  AND (create_time &lt; #{beforeTime} OR (create_time = #{beforeTime} AND id &lt; #{beforeId}))",
+             "</if>",
+             "ORDER BY create_time DESC, id DESC",
+             "LIMIT #{limit}",
+             "</script>"})
+    List<Comment> selectPageByTaskId(@Param("taskId") Long taskId,
+                                     @Param("beforeTime") LocalDateTime beforeTime,
+                                     @Param("beforeId") Long beforeId,
+                                     @Param("limit") int limit);
+    
     /**
      * 根据任务ID查询顶级评论（没有父评论的评论）
      * @param taskId 任务ID
@@ -39,12 +62,59 @@ public interface CommentMapper extends BaseMapper<Comment> {
     @Select("SELECT id, task_id, content, parent_id, create_time, create_user FROM tb_comment WHERE parent_id = #{parentId} ORDER BY create_time ASC")
     List<Comment> selectChildrenByParentId(@Param("parentId") Long parentId);
     
+    /**
+     * 一次查询评论的回复子树，按(create_time, id)正序
+     * @param parentId 父评论ID
+     * @param afterTime 只查询此时间之后的直接回复，配合afterId从游标位置继续，传null时从第一条开始
+     * @param afterId 游标位置的回复ID
+     * @param limit 最多查询的直接回复数，只有这些回复的子树会被递归
+     * @param maxLevel 最多查询的层数，直接回复为第1层
+     * @return 子树中的评论扁平列表
+     */
+    @Select({"<script>",
+             "WITH RECURSIVE reply_tree (id, task_id, content, parent_id, create_time, create_user, lvl) AS (",
+             "  SELECT id, task_id, content, parent_id, create_time, create_user, 1 FROM (",
+             "    SELECT id, task_id, content, parent_id, create_time, create_user FROM tb_comment",
+             "    WHERE parent_id = #{parentId}",
+             "    <if test='afterTime != null'>",
+             "      AND (create_time &gt; #{afterTime} OR (create_time = #{afterTime} AND id &gt; #{afterId}))",
+             "    </if>",
+             "    ORDER BY create_time ASC, id ASC",
+             "    LIMIT #{limit}",
+             "  ) first_level",
+             "  UNION ALL",
+             "  SELECT c.id, c.task_id, c.content, c.parent_id, c.create_time, c.create_user, rt.lvl + 1",
+             "  FROM tb_comment c JOIN reply_tree rt ON c.parent_id = rt.id",
+             "  WHERE rt.lvl &lt; #{maxLevel}",
+             ")",
+             "SELECT id, task_id, content, parent_id, create_time, create_user FROM reply_tree",
+             "ORDER BY create_time ASC, id ASC",
+             "</script>"})
+    List<Comment> selectReplyTree(@Param("parentId") Long parentId,
+                                  @Param("afterTime") LocalDateTime afterTime,
+                                  @Param("afterId") Long afterId,
+                                  @Param("limit") int limit,
+                                  @Param("maxLevel") int maxLevel);
+    
+    /**
+     * 统计评论及其所有子孙评论的数量
+     * @param commentId 评论ID
+     * @return 数量，评论不存在时为0
+     */
+    @Select({"WITH RECURSIVE comment_tree (id) AS (",
+             "  SELECT id FROM tb_comment WHERE id = #{commentId}",
+             "  UNION ALL",
+             "  SELECT c.id FROM tb_comment c JOIN comment_tree ct ON c.parent_id = ct.id",
+             ")",
+             "SELECT COUNT(*) FROM comment_tree"})
+    int countWithChildren(@Param("commentId") Long commentId);
+    
     /**
      * 删除评论及其所有子孙评论
      * @param commentId 评论ID
      */
     @Delete({"<script>",
-             "WITH RECURSIVE comment_tree AS (",
+             "WITH RECURSIVE comment_tree (id) AS (",
              "  SELECT id FROM tb_comment WHERE id = #{commentId}",
              "  UNION ALL",
              "  SELECT c.id FROM tb_comment c JOIN comment_tree ct ON c.parent_id = ct.id",
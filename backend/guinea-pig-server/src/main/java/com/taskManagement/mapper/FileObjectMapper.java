@@ -0,0 +1,79 @@
+package com.taskManagement.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.taskManagement.entity.FileObject;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 文件对象Mapper接口
+ */
+@Mapper
+public interface FileObjectMapper extends BaseMapper<FileObject> {
+
+    /**
+     * 增加已有对象的引用数，引用数已减到0、正在删除的对象不再引用
+     * @param contentHash 内容哈希
+     * @return 影响行数，为0表示没有可引用的对象
+     */
+    @Update("UPDATE tb_file_object SET ref_count = ref_count + 1, update_time = CURRENT_TIMESTAMP " +
+            "WHERE content_hash = #{contentHash} AND ref_count > 0")
+    int incrementRef(@Param("contentHash") String contentHash);
+
+    /**
+     * 减少对象的引用数
+     * @param objectKey 对象键
+     * @return 影响行数，为0表示对象不在索引中
+     */
+    @Update("UPDATE tb_file_object SET ref_count = ref_count - 1, update_time = CURRENT_TIMESTAMP " +
+            "WHERE object_key = #{objectKey} AND ref_count > 0")
+    int decrementRef(@Param("objectKey") String objectKey);
+
+    /**
+     * 删除已没有引用的对象记录
+     * @param objectKey 对象键
+     * @return 影响行数，为1时由调用方删除存储中的对象
+     */
+    @Delete("DELETE FROM tb_file_object WHERE object_key = #{objectKey} AND ref_count = 0")
+    int deleteUnreferenced(@Param("objectKey") String objectKey);
+
+    /**
+     * 更新渲染图状态
+     * @param objectKey 对象键
+     * @param status 渲染图状态
+     * @return 影响行数，为0表示对象已被删除
+     */
+    @Update("UPDATE tb_file_object SET rendition_status = #{status}, update_time = CURRENT_TIMESTAMP " +
+            "WHERE object_key = #{objectKey}")
+    int updateRenditionStatus(@Param("objectKey") String objectKey, @Param("status") Integer status);
+
+    /**
+     * 查询长时间仍待生成渲染图的对象
+     * @param status 待生成状态
+     * @param before 更新时间早于该时间
+     * @param limit 最多返回的数量
+     * @return 对象键，按写入顺序
+     */
+    @Select("SELECT object_key FROM tb_file_object WHERE rendition_status = #{status} AND update_time < #{before} " +
+            "ORDER BY id LIMIT #{limit}")
+    List<String> selectStalePending(@Param("status") Integer status, @Param("before") LocalDateTime before,
+                                    @Param("limit") int limit);
+
+    /**
+     * 认领长时间仍待生成的渲染图任务，推后更新时间，多个实例中只有一个重新提交
+     * @param objectKey 对象键
+     * @param status 待生成状态
+     * @param before 更新时间早于该时间才认领
+     * @return 影响行数，为1表示认领成功
+     */
+    @Update("UPDATE tb_file_object SET update_time = CURRENT_TIMESTAMP " +
+            "WHERE object_key = #{objectKey} AND rendition_status = #{status} AND update_time < #{before}")
+    int claimStalePending(@Param("objectKey") String objectKey, @Param("status") Integer status,
+                          @Param("before") LocalDateTime before);
+}
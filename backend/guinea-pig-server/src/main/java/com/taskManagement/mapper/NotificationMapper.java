@@ -1,12 +1,47 @@
 package com.taskManagement.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.taskManagement.dto.UserCountDTO;
 import com.taskManagement.entity.Notification;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * 通知Mapper接口
  */
 @Mapper
 public interface NotificationMapper extends BaseMapper<Notification> {
-}
\ No newline at end of file
+
+    /**
+     * 批量插入通知，一条语句写入多行，生成的ID回填到各通知
+     * @param notifications 通知列表
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO tb_notification (type, content, user_id, is_read, related_id, create_time, update_time) VALUES " +
+            "<foreach collection='notifications' item='n' separator=','>" +
+            "(#{n.type}, #{n.content}, #{n.userId}, #{n.isRead}, #{n.relatedId}, #{n.createTime}, #{n.updateTime})" +
+            "</foreach>" +
+            "</script>")
+    @Options(useGeneratedKeys = true, keyProperty = "id")
+    int batchInsert(@Param("notifications") List<Notification> notifications);
+
+    /**
+     * 按用户分组统计未读通知数量，没有未读通知的用户不返回
+     * @param userIds 用户ID列表
+     * @return 各用户的未读数量
+     */
+    @Select("<script>" +
+            "SELECT user_id, COUNT(*) AS count FROM tb_notification " +
+            "WHERE is_read = 0 AND user_id IN " +
+            "<foreach collection='userIds' item='userId' open='(' separator=',' close=')'>#{userId}</foreach> " +
+            "GROUP BY user_id" +
+            "</script>")
+    List<UserCountDTO> countUnreadByUsers(@Param("userIds") Collection<Long> userIds);
+}
@@ -0,0 +1,80 @@
+package com.taskManagement.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.taskManagement.entity.NotificationOutbox;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 通知发件箱Mapper接口
+ */
+@Mapper
+public interface NotificationOutboxMapper extends BaseMapper<NotificationOutbox> {
+
+    /**
+     * 查询一批到期的待投递记录ID，只作为认领的候选，不加锁
+     * @param now 当前时间
+     * @param limit 最大条数
+     * @return 记录ID
+     */
+    @Select("SELECT id FROM tb_notification_outbox " +
+            "WHERE status = 0 AND next_attempt_time <= #{now} " +
+            "ORDER BY id LIMIT #{limit}")
+    List<Long> selectDueIds(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * 认领候选记录：写入认领标识并把下次投递时间推后到认领到期时间，其他实例的认领条件不再成立。
+     * 单条语句自动提交，行锁只持有到语句结束，多实例同时认领时各自跳过已被认领的记录
+     * @param ids 候选记录ID
+     * @param token 认领标识
+     * @param now 当前时间
+     * @param expireTime 认领到期时间，实例中途退出时记录在此之后重新可投递
+     * @return 认领的记录数
+     */
+    @Update("<script>" +
+            "UPDATE tb_notification_outbox SET claim_token = #{token}, next_attempt_time = #{expireTime} " +
+            "WHERE status = 0 AND next_attempt_time &lt;= #{now} AND id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int claim(@Param("ids") List<Long> ids, @Param("token") String token,
+              @Param("now") LocalDateTime now, @Param("expireTime") LocalDateTime expireTime);
+
+    /**
+     * 查询本次认领到的待投递记录
+     * @param ids 候选记录ID
+     * @param token 认领标识
+     * @return 待投递记录
+     */
+    @Select("<script>" +
+            "SELECT * FROM tb_notification_outbox WHERE claim_token = #{token} AND status = 0 AND id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            " ORDER BY id" +
+            "</script>")
+    List<NotificationOutbox> selectClaimed(@Param("ids") List<Long> ids, @Param("token") String token);
+
+    /**
+     * 将仍由本次认领持有的记录标记为已投递
+     * @param ids 记录ID
+     * @param token 认领标识
+     * @param now 当前时间
+     * @return 更新行数，小于记录数说明认领已过期并被其他实例接手
+     */
+    @Update("<script>" +
+            "UPDATE tb_notification_outbox SET status = 1, update_time = #{now} " +
+            "WHERE claim_token = #{token} AND status = 0 AND id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int markDelivered(@Param("ids") List<Long> ids, @Param("token") String token, @Param("now") LocalDateTime now);
+
+    /**
+     * 最早一条待投递记录的创建时间，用于计算投递延迟
+     * @return 创建时间，没有待投递记录时为null
+     */
+    @Select("SELECT MIN(create_time) FROM tb_notification_outbox WHERE status = 0")
+    LocalDateTime selectOldestPendingTime();
+}
@@ -2,8 +2,27 @@ package com.taskManagement.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.taskManagement.entity.ProjectAttachment;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 @Mapper
 public interface ProjectAttachmentMapper extends BaseMapper<ProjectAttachment> {
+
+    /**
+     * 批量插入附件记录，一条语句写入多行，生成的ID回填到各附件
+     * @param attachments 附件列表
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO tb_project_attachment (project_id, file_name, file_path, file_size, file_type, create_user, update_user) VALUES " +
+            "<foreach collection='attachments' item='a' separator=','>" +
+            "(#{a.projectId}, #{a.fileName}, #{a.filePath}, #{a.fileSize}, #{a.fileType}, #{a.createUser}, #{a.updateUser})" +
+            "</foreach>" +
+            "</script>")
+    @Options(useGeneratedKeys = true, keyProperty = "id")
+    int batchInsert(@Param("attachments") List<ProjectAttachment> attachments);
 } 
\ No newline at end of file
@@ -2,11 +2,30 @@ package com.taskManagement.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.taskManagement.entity.TaskAttachment;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 /**
  * 任务附件Mapper接口
  */
 @Mapper
 public interface TaskAttachmentMapper extends BaseMapper<TaskAttachment> {
+
+    /**
+     * 批量插入附件记录，一条语句写入多行，生成的ID回填到各附件
+     * @param attachments 附件列表
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO tb_task_attachment (task_id, file_name, file_path, file_size, file_type, create_user, update_user) VALUES " +
+            "<foreach collection='attachments' item='a' separator=','>" +
+            "(#{a.taskId}, #{a.fileName}, #{a.filePath}, #{a.fileSize}, #{a.fileType}, #{a.createUser}, #{a.updateUser})" +
+            "</foreach>" +
+            "</script>")
+    @Options(useGeneratedKeys = true, keyProperty = "id")
+    int batchInsert(@Param("attachments") List<TaskAttachment> attachments);
 } 
\ No newline at end of file
@@ -0,0 +1,86 @@
+package com.taskManagement.mapper;
+
+import com.taskManagement.dto.TaskGroupCountDTO;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+
+/**
+ * 任务计数Mapper接口
+ * tb_task_counter按项目保存各状态、各优先级的任务数量，dimension为0表示状态，1表示优先级
+ */
+@Mapper
+public interface TaskCounterMapper {
+
+    /**
+     * 原子调整一个计数
+     * @param projectId 项目ID
+     * @param dimension 计数维度
+     * @param value 状态或优先级
+     * @param delta 增量
+     * @return 影响行数，为0表示计数行不存在
+     */
+    @Update("UPDATE tb_task_counter SET task_count = task_count + #{delta} " +
+            "WHERE project_id = #{projectId} AND dimension = #{dimension} AND dim_value = #{value}")
+    int increment(@Param("projectId") Long projectId, @Param("dimension") int dimension,
+                  @Param("value") int value, @Param("delta") long delta);
+
+    /**
+     * 插入计数行
+     * @param projectId 项目ID
+     * @param dimension 计数维度
+     * @param value 状态或优先级
+     * @param count 初始计数
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO tb_task_counter (project_id, dimension, dim_value, task_count) " +
+            "VALUES (#{projectId}, #{dimension}, #{value}, #{count})")
+    int insertCounter(@Param("projectId") Long projectId, @Param("dimension") int dimension,
+                      @Param("value") int value, @Param("count") long count);
+
+    /**
+     * 按状态汇总计数
+     * @param projectId 项目ID，为null时汇总全部项目
+     * @return 状态和任务数量
+     */
+    @Select("<script>" +
+            "SELECT dim_value AS status, SUM(task_count) AS count FROM tb_task_counter WHERE dimension = 0 " +
+            "<if test='projectId != null'>AND project_id = #{projectId} </if>" +
+            "GROUP BY dim_value HAVING SUM(task_count) &lt;&gt; 0" +
+            "</script>")
+    List<TaskGroupCountDTO> selectStatusCounts(@Param("projectId") Long projectId);
+
+    /**
+     * 按优先级汇总计数
+     * @param projectId 项目ID，为null时汇总全部项目
+     * @return 优先级和任务数量
+     */
+    @Select("<script>" +
+            "SELECT dim_value AS priority, SUM(task_count) AS count FROM tb_task_counter WHERE dimension = 1 " +
+            "<if test='projectId != null'>AND project_id = #{projectId} </if>" +
+            "GROUP BY dim_value HAVING SUM(task_count) &lt;&gt; 0" +
+            "</script>")
+    List<TaskGroupCountDTO> selectPriorityCounts(@Param("projectId") Long projectId);
+
+    /**
+     * 删除全部计数，与重新写入在同一事务中执行
+     * @return 删除行数
+     */
+    @Delete("DELETE FROM tb_task_counter")
+    int deleteAll();
+
+    /**
+     * 按任务表重新写入全部计数
+     * @return 写入行数
+     */
+    @Insert("INSERT INTO tb_task_counter (project_id, dimension, dim_value, task_count) " +
+            "SELECT project_id, 0, status, COUNT(*) FROM tb_task GROUP BY project_id, status " +
+            "UNION ALL " +
+            "SELECT project_id, 1, priority, COUNT(*) FROM tb_task GROUP BY project_id, priority")
+    int insertFromTasks();
+}
@@ -8,6 +8,7 @@ import com.taskManagement.vo.TaskVO;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
 import java.util.List;
 import java.util.Map;
@@ -31,6 +32,48 @@ public interface TaskMapper extends BaseMapper<Task> {
             "</script>")
     Long countTasks(@Param("projectId") Long projectId, @Param("status") Integer status);
     
+    /**
+     * 原子调整任务评论数，结果不小于0
+     * 显式保留update_time，避免MySQL的ON UPDATE CURRENT_TIMESTAMP改变任务列表的排序
+     * @param taskId 任务ID
+     * @param delta 增量
+     * @return 更新行数，任务不存在时为0
+     */
+    @Update("UPDATE tb_task SET comment_count = GREATEST(comment_count + #{delta}, 0), update_time = update_time " +
+            "WHERE id = #{taskId}")
+    int adjustCommentCount(@Param("taskId") Long taskId, @Param("delta") int delta);
+    
+    /**
+     * 查询评论数与评论表不一致的任务
+     * @return 任务ID
+     */
+    @Select("SELECT t.id FROM tb_task t " +
+            "WHERE t.comment_count <> (SELECT COUNT(*) FROM tb_comment c WHERE c.task_id = t.id)")
+    List<Long> selectCommentCountMismatches();
+    
+    /**
+     * 按评论表重新计算指定任务的评论数，保留update_time
+     * @param taskIds 任务ID
+     * @return 更新行数
+     */
+    @Update("<script>" +
+            "UPDATE tb_task SET comment_count = (SELECT COUNT(*) FROM tb_comment c WHERE c.task_id = tb_task.id), " +
+            "update_time = update_time WHERE id IN " +
+            "<foreach collection='taskIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int recountComments(@Param("taskIds") List<Long> taskIds);
+    
+    /**
+     * 查询指定任务的创建者
+     * @param taskIds 任务ID
+     * @return 创建者ID，已去重
+     */
+    @Select("<script>" +
+            "SELECT DISTINCT create_user FROM tb_task WHERE id IN " +
+            "<foreach collection='taskIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    List<Long> selectCreateUsersByIds(@Param("taskIds") List<Long> taskIds);
+    
     /**
      * 统计项目中每个状态的任务数量
      * @param projectId 项目ID
@@ -53,6 +96,7 @@ public interface TaskMapper extends BaseMapper<Task> {
      * @param page 分页参数
      * @param projectId 项目ID（可选）
      * @param keyword 关键词（可选）
+     * @param taskIds 全文索引命中的任务ID（可选，不为null时代替关键词的LIKE匹配）
      * @param status 状态（可选）
      * @param priority 优先级（可选）
      * @return 分页任务列表
@@ -60,6 +104,7 @@ public interface TaskMapper extends BaseMapper<Task> {
     IPage<TaskVO> getTaskPageWithDetails(Page<TaskVO> page,
                                         @Param("projectId") Long projectId,
                                         @Param("keyword") String keyword,
+                                        @Param("taskIds") List<Long> taskIds,
                                         @Param("status") Integer status,
                                         @Param("priority") Integer priority);
 } 
\ No newline at end of file
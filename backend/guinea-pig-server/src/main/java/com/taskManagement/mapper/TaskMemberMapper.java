@@ -29,4 +29,18 @@ public interface TaskMemberMapper extends BaseMapper<TaskMember> {
      */
     @Select("SELECT user_id FROM tb_task_member WHERE task_id = #{taskId}")
     List<Long> getUserIdsByTaskId(@Param("taskId") Long taskId);
-} 
\ No newline at end of file
+
+    /**
+     * 根据多个任务ID批量查询成员关系
+     * @param taskIds 任务ID列表
+     * @return 任务成员关系列表
+     */
+    @Select("<script>" +
+            "SELECT task_id, user_id FROM tb_task_member WHERE task_id IN " +
+            "<foreach collection='taskIds' item='taskId' open='(' separator=',' close=')'>" +
+            "#{taskId}" +
+            "</foreach>" +
+            " ORDER BY id" +
+            "</script>")
+    List<TaskMember> selectByTaskIds(@Param("taskIds") List<Long> taskIds);
+} 
@@ -12,13 +12,10 @@ import java.util.Map;
 public interface TaskStatsMapper {
     /**
      * 获取指定日期的任务状态统计
+     * @param dayStart 当天零点
+     * @param dayEnd 次日零点
      */
-    TaskStatusStatsDTO getTaskStatusStatsByDate(@Param("date") LocalDateTime date, @Param("weekOffset") Integer weekOffset);
-
-    /**
-     * 获取任务统计信息
-     */
-    Map<String, Object> getTaskStats(@Param("projectId") Long projectId);
+    TaskStatusStatsDTO getTaskStatusStatsByDate(@Param("dayStart") LocalDateTime dayStart, @Param("dayEnd") LocalDateTime dayEnd);
 
     /**
      * 获取用户任务统计信息
@@ -47,6 +44,11 @@ public interface TaskStatsMapper {
     List<TaskDTO> getUserTodayExpiredTasks(@Param("userId") Long userId,
                                          @Param("offset") Integer offset, @Param("pageSize") Integer pageSize);
 
+    /**
+     * 获取用户创建或参与的全部任务，用于仪表盘一次性计算各项统计
+     */
+    List<TaskDTO> getUserTaskSet(@Param("userId") Long userId);
+
     /**
      * 获取用户任务优先级分布
      */
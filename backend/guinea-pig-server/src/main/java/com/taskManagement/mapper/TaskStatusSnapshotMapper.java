@@ -0,0 +1,12 @@
+package com.taskManagement.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.taskManagement.entity.TaskStatusSnapshot;
+import org.apache.ibatis.annotations.Mapper;
+
+/**
+ * 任务状态每日快照Mapper接口
+ */
+@Mapper
+public interface TaskStatusSnapshotMapper extends BaseMapper<TaskStatusSnapshot> {
+}
@@ -24,6 +24,32 @@ public interface TaskTagRelMapper extends BaseMapper<TaskTag> {
     @Select("SELECT * FROM tb_task_tag_rel WHERE task_id = #{taskId}")
     List<TaskTag> selectByTaskId(@Param("taskId") Long taskId);
     
+    /**
+     * 根据多个任务ID批量查询标签关联
+     * @param taskIds 任务ID列表
+     * @return 标签关联列表
+     */
+    @Select("<script>" +
+            "SELECT task_id, tag_id FROM tb_task_tag_rel WHERE task_id IN " +
+            "<foreach collection='taskIds' item='taskId' open='(' separator=',' close=')'>" +
+            "#{taskId}" +
+            "</foreach>" +
+            " ORDER BY id" +
+            "</script>")
+    List<TaskTag> selectByTaskIds(@Param("taskIds") List<Long> taskIds);
+    
+    /**
+     * 查询项目下所有任务的标签关联，按标签和任务排序
+     * 注意：Tag与Project没有直接关系，通过Task间接关联
+     * @param projectId 项目ID
+     * @return 标签关联列表
+     */
+    @Select("SELECT r.task_id, r.tag_id FROM tb_task_tag_rel r " +
+            "JOIN tb_task t ON r.task_id = t.id " +
+            "WHERE t.project_id = #{projectId} " +
+            "ORDER BY r.tag_id, r.task_id")
+    List<TaskTag> selectByProjectId(@Param("projectId") Long projectId);
+    
     /**
      * 根据标签ID查询任务关联
      * @param tagId 标签ID
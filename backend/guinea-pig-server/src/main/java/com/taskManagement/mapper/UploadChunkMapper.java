@@ -0,0 +1,27 @@
+package com.taskManagement.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.taskManagement.entity.UploadChunk;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+/**
+ * 分片上传已接收分片Mapper接口
+ */
+@Mapper
+public interface UploadChunkMapper extends BaseMapper<UploadChunk> {
+
+    /**
+     * 分片写入存储后更新记录
+     * @param sessionId 会话ID
+     * @param chunkIndex 分片序号
+     * @param chunkHash 分片内容的SHA-256
+     * @param etag 存储返回的ETag
+     * @return 影响行数
+     */
+    @Update("UPDATE tb_upload_chunk SET chunk_hash = #{chunkHash}, etag = #{etag}, create_time = CURRENT_TIMESTAMP " +
+            "WHERE session_id = #{sessionId} AND chunk_index = #{chunkIndex}")
+    int updateChunk(@Param("sessionId") Long sessionId, @Param("chunkIndex") Integer chunkIndex,
+                    @Param("chunkHash") String chunkHash, @Param("etag") String etag);
+}
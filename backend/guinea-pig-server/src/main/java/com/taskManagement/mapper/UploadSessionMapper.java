@@ -0,0 +1,25 @@
+package com.taskManagement.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.taskManagement.entity.UploadSession;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+/**
+ * 分片上传会话Mapper接口
+ */
+@Mapper
+public interface UploadSessionMapper extends BaseMapper<UploadSession> {
+
+    /**
+     * 会话处于指定状态时改为新状态，在事务中调用时锁住会话，并发的完成请求等待该事务结束
+     * @param id 会话ID
+     * @param expected 当前状态
+     * @param status 新状态
+     * @return 影响行数，为0表示会话已不在该状态或已删除
+     */
+    @Update("UPDATE tb_upload_session SET status = #{status}, update_time = CURRENT_TIMESTAMP " +
+            "WHERE id = #{id} AND status = #{expected}")
+    int updateStatus(@Param("id") Long id, @Param("expected") Integer expected, @Param("status") Integer status);
+}
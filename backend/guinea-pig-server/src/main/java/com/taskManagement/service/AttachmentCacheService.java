@@ -0,0 +1,40 @@
+package com.taskManagement.service;
+
+import com.taskManagement.dto.FileContentDTO;
+import org.springframework.http.HttpRange;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * 附件本地磁盘缓存服务
+ * 缓存解密后的附件内容，重复预览和下载读取本地文件，不再访问对象存储和整体解密
+ */
+public interface AttachmentCacheService {
+
+    /**
+     * 是否启用缓存
+     */
+    boolean isEnabled();
+
+    /**
+     * 从缓存读取附件，未命中时调用loader加载并写入缓存，同一对象并发未命中时只加载一次；
+     * 带范围的请求未命中时在后台加载，不等待
+     * @param objectKey 对象键
+     * @param range 请求的范围，为null时读取完整内容
+     * @param loader 加载完整的解密内容
+     * @return 缓存中的内容，带范围的请求未命中或文件超过单个缓存上限时返回null，由调用方直接读取
+     */
+    FileContentDTO getContent(String objectKey, HttpRange range, Callable<FileContentDTO> loader);
+
+    /**
+     * 移除缓存的附件
+     * @param objectKey 对象键
+     */
+    void evict(String objectKey);
+
+    /**
+     * 获取缓存统计：命中率、缓存大小、读取字节数等
+     */
+    Map<String, Object> getStats();
+}
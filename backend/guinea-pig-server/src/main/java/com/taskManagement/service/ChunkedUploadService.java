@@ -0,0 +1,58 @@
+package com.taskManagement.service;
+
+import com.taskManagement.dto.ChunkedUploadInitDTO;
+import com.taskManagement.vo.ChunkedUploadVO;
+
+import java.io.InputStream;
+
+/**
+ * 分片上传服务
+ * 大附件按编号分片上传，各分片加密后直接写入存储的分片上传，服务端不缓存整个文件；
+ * 连接中断后可以查询已接收的分片只上传缺少的部分，分片之间可以并发上传
+ */
+public interface ChunkedUploadService {
+
+    /**
+     * 开始分片上传
+     * @param initDTO 文件名、大小、类型和所属任务
+     * @return 上传ID、分片大小和分片数
+     */
+    ChunkedUploadVO initiate(ChunkedUploadInitDTO initDTO);
+
+    /**
+     * 上传一个分片，同一分片可以重复上传
+     * @param uploadId 上传ID
+     * @param chunkIndex 分片序号，从0开始
+     * @param content 分片原始内容
+     * @param contentLength 分片长度，未知时传入负数
+     * @return 上传状态
+     */
+    ChunkedUploadVO uploadChunk(String uploadId, int chunkIndex, InputStream content, long contentLength);
+
+    /**
+     * 查询上传状态和已接收的分片
+     * @param uploadId 上传ID
+     * @return 上传状态
+     */
+    ChunkedUploadVO getStatus(String uploadId);
+
+    /**
+     * 合并全部分片，指定了任务时保存到任务附件表；已完成时直接返回结果，
+     * 已合并但附件记录写入失败时跳过合并重新写入
+     * @param uploadId 上传ID
+     * @return 包含文件URL的上传状态
+     */
+    ChunkedUploadVO complete(String uploadId);
+
+    /**
+     * 取消上传并删除已上传的分片，已合并的同时删除合并后的对象
+     * @param uploadId 上传ID
+     */
+    void abort(String uploadId);
+
+    /**
+     * 清理过期的上传会话，未完成的同时取消存储中的分片上传
+     * @return 清理的会话数
+     */
+    int cleanupExpired();
+}
@@ -0,0 +1,37 @@
+package com.taskManagement.service;
+
+import java.util.Map;
+
+/**
+ * 任务评论数服务接口
+ * 评论数只通过原子增量修改，不读出任务再整行写回，避免与任务更新互相覆盖，也不改变任务的更新时间
+ */
+public interface CommentCountService {
+
+    /**
+     * 调整任务评论数，存在事务时在提交后生效
+     * 开启写回缓冲时增量先在内存中合并，按间隔写回数据库
+     * @param taskId 任务ID
+     * @param delta 增量，删除评论时为负数
+     */
+    void adjust(Long taskId, int delta);
+
+    /**
+     * 把缓冲中的增量写回数据库，每个任务一条UPDATE，并重新计算校准时推迟的任务
+     * @return 写回的任务数
+     */
+    int flush();
+
+    /**
+     * 先写回缓冲，再按评论表重新计算与实际不一致的任务评论数；
+     * 有评论事务未结束的任务稍后在写回时重新计算
+     * @return 重新计算的任务数
+     */
+    int reconcile();
+
+    /**
+     * 获取写回统计
+     * @return 待写回任务数、合并的增量数、写回语句数和校准纠正数
+     */
+    Map<String, Object> getStats();
+}
@@ -1,6 +1,8 @@
 package com.taskManagement.service;
 
 import com.taskManagement.dto.CommentDTO;
+import com.taskManagement.vo.CursorPageResult;
+
 import java.util.List;
 
 /**
@@ -15,6 +17,36 @@ public interface CommentService {
      */
     List<CommentDTO> getCommentsByTaskId(Long taskId);
     
+    /**
+     * 游标分页获取任务评论，最新的评论在前
+     * @param taskId 任务ID
+     * @param cursor 上一页返回的nextCursor，首页不传
+     * @param pageSize 每页数量
+     * @return 评论扁平列表和下一页游标
+     */
+    CursorPageResult<CommentDTO> getCommentsByCursor(Long taskId, String cursor, Integer pageSize);
+    
+    /**
+     * 获取任务的评论树，一次查询后在内存中组装
+     * 超过层数或每层回复数的部分不返回，节点上标记hasMoreReplies并给出继续加载的游标
+     * @param taskId 任务ID
+     * @param maxDepth 最多返回的回复层数
+     * @param maxReplies 每条评论最多返回的直接回复数
+     * @return 顶级评论列表，回复在children中
+     */
+    List<CommentDTO> getCommentTree(Long taskId, Integer maxDepth, Integer maxReplies);
+    
+    /**
+     * 加载评论的更多回复，用WITH RECURSIVE一次查询回复子树
+     * @param taskId 任务ID
+     * @param commentId 父评论ID
+     * @param cursor 评论树节点上的moreRepliesCursor或上一页返回的nextCursor，从第一条回复开始时不传
+     * @param maxDepth 最多返回的回复层数，直接回复为第1层
+     * @param maxReplies 每条评论最多返回的直接回复数，同时是本页的条数
+     * @return 直接回复列表和下一页游标，更深的回复在children中
+     */
+    CursorPageResult<CommentDTO> getReplies(Long taskId, Long commentId, String cursor, Integer maxDepth, Integer maxReplies);
+    
     /**
      * 创建评论
      * @param commentDTO 评论信息
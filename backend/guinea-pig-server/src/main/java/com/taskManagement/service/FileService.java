@@ -1,13 +1,21 @@
 package com.taskManagement.service;
 
+import com.taskManagement.dto.FileContentDTO;
+import com.taskManagement.dto.FileRenditionDTO;
+import com.taskManagement.dto.StorageObjectDTO;
+import com.taskManagement.utils.SegmentedEncryption;
+import com.taskManagement.vo.FileUploadResultVO;
+import org.springframework.http.HttpRange;
 import org.springframework.web.multipart.MultipartFile;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.io.InputStream;
 
 public interface FileService {
     
     /**
-     * 上传任务文件到阿里云OSS的task/文件夹并保存到任务附件表
+     * 上传任务文件到对象存储的task/文件夹并保存到任务附件表
      * @param file 文件
      * @param taskId 任务ID
      * @param userId 用户ID
@@ -15,7 +23,7 @@ public interface FileService {
      */
     String uploadTaskFile(MultipartFile file, Long taskId, Long userId);
     /**
-     * 批量上传任务文件到阿里云OSS的task/文件夹并保存到任务附件表
+     * 批量上传任务文件到对象存储的task/文件夹并保存到任务附件表
      * @param files 文件列表
      * @param taskId 任务ID
      * @param userId 用户ID
@@ -24,7 +32,16 @@ public interface FileService {
     List<String> uploadTaskFiles(List<MultipartFile> files, Long taskId, Long userId);
     
     /**
-     * 上传项目文件到阿里云OSS的project/文件夹并保存至项目附件表
+     * 并发上传多个任务文件，附件记录一次批量写入
+     * @param files 文件列表
+     * @param taskId 任务ID
+     * @param userId 用户ID
+     * @return 按文件顺序的上传结果，单个文件失败不影响其他文件
+     */
+    List<FileUploadResultVO> batchUploadTaskFiles(List<MultipartFile> files, Long taskId, Long userId);
+    
+    /**
+     * 上传项目文件到对象存储的project/文件夹并保存至项目附件表
      * @param file 文件
      * @param projectId 项目ID
      * @param userId 用户ID
@@ -33,7 +50,7 @@ public interface FileService {
     String uploadProjectFile(MultipartFile file, Long projectId, Long userId);
     
     /**
-     * 批量上传项目文件到阿里云OSS的project/文件夹并保存至项目附件表
+     * 批量上传项目文件到对象存储的project/文件夹并保存至项目附件表
      * @param files 文件列表
      * @param projectId 项目ID
      * @param userId 用户ID
@@ -42,7 +59,59 @@ public interface FileService {
     List<String> uploadProjectFiles(List<MultipartFile> files, Long projectId, Long userId);
     
     /**
-     * 上传用户头像到阿里云OSS的avatar/文件夹并更新用户头像
+     * 并发上传多个项目文件，附件记录一次批量写入
+     * @param files 文件列表
+     * @param projectId 项目ID
+     * @param userId 用户ID
+     * @return 按文件顺序的上传结果，单个文件失败不影响其他文件
+     */
+    List<FileUploadResultVO> batchUploadProjectFiles(List<MultipartFile> files, Long projectId, Long userId);
+    
+    /**
+     * 释放附件记录对存储对象的引用，删除附件记录时调用
+     * 最后一个引用释放后，在事务提交后删除存储中的对象；不在索引中的旧文件不删除
+     * @param fileUrl 附件的文件URL
+     */
+    void releaseFile(String fileUrl);
+    
+    /**
+     * 加密存储附件的渲染图，存放在原文件旁
+     * @param objectKey 原文件的对象键
+     * @param rendition 渲染图名称，见FileConstant
+     * @param content 渲染图内容
+     * @param contentType 渲染图MIME类型
+     * @return 渲染图的对象键
+     */
+    String storeRendition(String objectKey, String rendition, byte[] content, String contentType);
+    
+    /**
+     * 删除附件的全部渲染图
+     * @param objectKey 原文件的对象键
+     */
+    void deleteRenditions(String objectKey);
+    
+    /**
+     * 批量查询附件的渲染图URL，一次查询
+     * @param fileUrls 附件的文件URL
+     * @return 文件URL到渲染图的映射，尚未生成或不支持的附件不在结果中
+     */
+    Map<String, FileRenditionDTO> getRenditions(Collection<String> fileUrls);
+    
+    /**
+     * 登记分片上传合并后的加密对象，按内容去重并提交渲染图生成
+     * 会增加对象的引用数，须与附件记录在同一事务中调用
+     * @param objectKey 合并后的对象键
+     * @param contentHash 内容哈希
+     * @param fileSize 原始大小
+     * @param contentType MIME类型
+     * @param header 加密文件头
+     * @return 文件URL
+     */
+    String registerStoredObject(String objectKey, String contentHash, long fileSize, String contentType,
+                                SegmentedEncryption.Header header);
+    
+    /**
+     * 上传用户头像到对象存储的avatar/文件夹并更新用户头像
      * @param file 头像文件
      * @param userId 用户ID
      * @return 头像URL
@@ -50,23 +119,32 @@ public interface FileService {
     String uploadAvatar(MultipartFile file, Long userId);
     
     /**
-     * 从OSS获取文件并解密
-     * @param objectKey OSS对象键（文件路径）
+     * 从对象存储获取文件并解密
+     * @param objectKey 对象键（文件路径）
      * @return 解密后的文件流
      */
     InputStream getDecryptedFile(String objectKey);
     
+    /**
+     * 从对象存储获取文件并边读边解密，可只读取指定范围
+     * 分段加密格式的文件只下载和解密范围覆盖的段；旧格式文件不支持范围读取，返回完整内容
+     * @param objectKey 对象键（文件路径）
+     * @param range 请求的范围，为null时读取完整文件
+     * @return 解密后的文件内容，调用方负责关闭
+     */
+    FileContentDTO getDecryptedContent(String objectKey, HttpRange range);
+    
     /**
      * 获取文件元数据（MIME类型、文件大小等）
-     * @param objectKey OSS对象键（文件路径）
+     * @param objectKey 对象键（文件路径）
      * @return 文件元数据
      */
-    com.aliyun.oss.model.ObjectMetadata getFileMetadata(String objectKey);
+    StorageObjectDTO getFileMetadata(String objectKey);
     
     /**
-     * 从URL中提取OSS对象键
-     * @param url 完整的OSS URL
-     * @return OSS对象键
+     * 从URL中提取对象键
+     * @param url 完整的文件URL
+     * @return 对象键
      */
     String getObjectKeyFromUrl(String url);
 } 
\ No newline at end of file
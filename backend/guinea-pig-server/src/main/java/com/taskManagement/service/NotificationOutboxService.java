@@ -0,0 +1,37 @@
+package com.taskManagement.service;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 通知发件箱服务接口
+ */
+public interface NotificationOutboxService {
+
+    /**
+     * 在当前事务中写入一条发件箱记录，事务提交后唤醒投递
+     * @param type 通知类型
+     * @param relatedId 关联ID
+     * @param content 通知内容
+     * @param userIds 接收用户ID
+     */
+    void enqueue(String type, Long relatedId, String content, Collection<Long> userIds);
+
+    /**
+     * 投递到期的待投递记录，积压较多时连续处理多批
+     * @return 本次写入的通知条数
+     */
+    int dispatchPending();
+
+    /**
+     * 检查积压，待投递记录数或投递延迟超过阈值时告警
+     * @return 是否超过阈值
+     */
+    boolean checkBacklog();
+
+    /**
+     * 获取发件箱统计：积压数量、投递延迟、积压告警、投递和失败次数
+     * @return 统计信息
+     */
+    Map<String, Object> getStats();
+}
@@ -0,0 +1,30 @@
+package com.taskManagement.service;
+
+import com.taskManagement.entity.Notification;
+
+import java.util.List;
+
+/**
+ * 通知推送服务接口
+ */
+public interface NotificationPushService {
+
+    /**
+     * 事务提交后向接收人推送新通知和未读数增量
+     * @param notifications 新写入的通知
+     */
+    void pushNotifications(List<Notification> notifications);
+
+    /**
+     * 事务提交后向用户推送未读数变化
+     * @param userId 用户ID
+     * @param delta 未读数增量，标记已读时为负数
+     */
+    void pushUnreadDelta(Long userId, int delta);
+
+    /**
+     * 事务提交后通知用户未读数已清零
+     * @param userId 用户ID
+     */
+    void pushUnreadReset(Long userId);
+}
@@ -2,6 +2,7 @@ package com.taskManagement.service;
 
 import com.taskManagement.dto.NotificationDTO;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -28,6 +29,15 @@ public interface NotificationService {
      */
     NotificationDTO createCommentMentionNotification(Long commentId, String content, Long userId);
     
+    /**
+     * 向多个用户发送同一条通知，写入发件箱后异步投递
+     * @param type 通知类型
+     * @param relatedId 关联ID
+     * @param content 通知内容
+     * @param userIds 接收用户ID
+     */
+    void sendNotifications(String type, Long relatedId, String content, Collection<Long> userIds);
+    
     /**
      * 获取用户通知列表
      * @param userId 用户ID
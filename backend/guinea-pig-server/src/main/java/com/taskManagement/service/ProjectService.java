@@ -2,6 +2,8 @@ package com.taskManagement.service;
 
 import com.taskManagement.dto.ProjectAttachmentDTO;
 import com.taskManagement.dto.ProjectDTO;
+import com.taskManagement.vo.CursorPageResult;
+import com.taskManagement.vo.FileUploadResultVO;
 import com.taskManagement.vo.PageResult;
 import com.taskManagement.vo.ProjectVO;
 import com.taskManagement.vo.UserVO;
@@ -30,6 +32,21 @@ public interface ProjectService {
     PageResult<ProjectVO> getProjectList(String keyword, Integer status, Integer page, Integer pageSize,
                                         LocalDate startTime, LocalDate endTime, LocalDate dueStartTime, LocalDate dueEndTime);
 
+    /**
+     * 游标方式获取项目列表
+     * @param keyword 关键字
+     * @param status 状态
+     * @param cursor 上一页返回的游标，为空时从第一页开始
+     * @param pageSize 每页大小
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @param dueStartTime 截止开始时间
+     * @param dueEndTime 截止结束时间
+     * @return 项目列表和下一页游标
+     */
+    CursorPageResult<ProjectVO> getProjectListByCursor(String keyword, Integer status, String cursor, Integer pageSize,
+                                                      LocalDate startTime, LocalDate endTime, LocalDate dueStartTime, LocalDate dueEndTime);
+
     /**
      * 获取项目详情
      * @param id 项目ID
@@ -102,9 +119,9 @@ public interface ProjectService {
      * @param projectId 项目ID
      * @param files 文件列表
      * @param userId 用户ID
-     * @return 文件URL列表
+     * @return 每个文件的上传结果
      */
-    List<String> batchUploadProjectAttachments(Long projectId, List<MultipartFile> files, Long userId);
+    List<FileUploadResultVO> batchUploadProjectAttachments(Long projectId, List<MultipartFile> files, Long userId);
     
     /**
      * 获取项目附件列表
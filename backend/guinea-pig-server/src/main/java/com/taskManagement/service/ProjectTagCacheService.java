@@ -0,0 +1,44 @@
+package com.taskManagement.service;
+
+import com.taskManagement.entity.Tag;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 项目标签缓存服务接口
+ * 缓存项目下任务使用的标签，以及每个标签在该项目内关联的任务ID
+ */
+public interface ProjectTagCacheService {
+
+    /**
+     * 读穿方式获取项目标签，未命中时一次联表查询项目下的标签关联，再一次查询取回标签
+     * @param projectId 项目ID
+     * @return 标签副本列表，taskIds只包含该项目内的任务，调用方可以随意修改
+     */
+    List<Tag> getProjectTags(Long projectId);
+
+    /**
+     * 使项目标签缓存失效
+     * 立即清除一次，存在事务时提交后再清除一次
+     * @param projectId 项目ID
+     */
+    void evictProject(Long projectId);
+
+    /**
+     * 使任务所在项目的标签缓存失效，任务的标签关联变化时调用
+     * @param taskId 任务ID
+     */
+    void evictByTaskId(Long taskId);
+
+    /**
+     * 清空所有项目的标签缓存，标签本身修改或删除时调用
+     */
+    void evictAll();
+
+    /**
+     * 获取缓存命中统计
+     * @return 条目数、命中数、未命中数和命中率
+     */
+    Map<String, Object> getStats();
+}
@@ -0,0 +1,34 @@
+package com.taskManagement.service;
+
+import java.util.Map;
+
+/**
+ * 附件渲染图服务
+ * 图片上传后在后台生成缩略图和预览图，附件列表只需加载几KB的缩略图
+ */
+public interface RenditionService {
+
+    /**
+     * 判断附件是否可以生成渲染图
+     * @param contentType 文件MIME类型
+     * @param fileSize 文件大小
+     */
+    boolean supports(String contentType, long fileSize);
+
+    /**
+     * 提交生成任务，在后台线程中执行，队列已满时放弃
+     * @param objectKey 原文件的对象键
+     */
+    void submit(String objectKey);
+
+    /**
+     * 重新提交长时间仍待生成的任务：队列满时放弃的任务和停机时丢弃的任务，每次数量有上限
+     * @return 重新提交的任务数
+     */
+    int resubmitPending();
+
+    /**
+     * 获取生成统计：提交、完成、失败、放弃、重新提交的任务数和平均耗时
+     */
+    Map<String, Object> getStats();
+}
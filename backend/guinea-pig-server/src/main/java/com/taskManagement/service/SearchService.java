@@ -0,0 +1,56 @@
+package com.taskManagement.service;
+
+import com.taskManagement.entity.Project;
+import com.taskManagement.entity.Task;
+
+import java.util.List;
+
+/**
+ * 全文检索服务接口
+ * 维护任务和项目名称、描述的内存倒排索引，替代列表查询中的LIKE全表扫描，命中结果与LIKE一致
+ */
+public interface SearchService {
+
+    /**
+     * 检索任务
+     * @param keyword 关键词
+     * @return 名称或描述包含关键词的任务ID；索引无法回答（未就绪、关键词过短、含通配符或命中过多）时返回null，调用方应回退到LIKE查询
+     */
+    List<Long> searchTaskIds(String keyword);
+
+    /**
+     * 检索项目
+     * @param keyword 关键词
+     * @return 名称或描述包含关键词的项目ID；索引无法回答时返回null，调用方应回退到LIKE查询
+     */
+    List<Long> searchProjectIds(String keyword);
+
+    /**
+     * 添加或更新任务索引，存在事务时在提交后生效
+     * @param task 任务
+     */
+    void indexTask(Task task);
+
+    /**
+     * 删除任务索引，存在事务时在提交后生效
+     * @param taskId 任务ID
+     */
+    void removeTask(Long taskId);
+
+    /**
+     * 添加或更新项目索引，存在事务时在提交后生效
+     * @param project 项目
+     */
+    void indexProject(Project project);
+
+    /**
+     * 删除项目索引，存在事务时在提交后生效
+     * @param projectId 项目ID
+     */
+    void removeProject(Long projectId);
+
+    /**
+     * 从数据库全量重建索引
+     */
+    void rebuildIndex();
+}
@@ -0,0 +1,110 @@
+package com.taskManagement.service;
+
+import com.taskManagement.dto.StorageObjectDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 对象存储服务
+ * 由guineapig.storage.type选择实现：oss为阿里云OSS，local为本地磁盘
+ */
+public interface StorageService {
+
+    /**
+     * 写入对象，已存在时覆盖
+     * @param objectKey 对象键
+     * @param content 对象内容
+     * @param contentLength 内容长度
+     * @param contentType MIME类型
+     */
+    void putObject(String objectKey, InputStream content, long contentLength, String contentType);
+
+    /**
+     * 读取完整对象
+     * @param objectKey 对象键
+     * @return 对象内容和元数据
+     */
+    StorageObjectDTO getObject(String objectKey);
+
+    /**
+     * 读取对象的指定范围
+     * @param objectKey 对象键
+     * @param start 起始位置
+     * @param end 结束位置(包含)，超出对象长度时读到末尾
+     * @return 范围内容，contentLength为范围的长度
+     */
+    StorageObjectDTO getObject(String objectKey, long start, long end);
+
+    /**
+     * 查询对象元数据
+     * @param objectKey 对象键
+     * @return 对象元数据，content为null
+     */
+    StorageObjectDTO getObjectMetadata(String objectKey);
+
+    /**
+     * 删除对象，不存在时忽略
+     * @param objectKey 对象键
+     */
+    void deleteObject(String objectKey);
+
+    /**
+     * 开始分片上传，各片上传完成后合并为一个对象
+     * @param objectKey 对象键
+     * @param contentType MIME类型
+     * @return 存储生成的上传ID
+     */
+    String initiateMultipartUpload(String objectKey, String contentType);
+
+    /**
+     * 上传一个分片，同一分片号重复上传时覆盖，不同分片可以并发上传
+     * @param objectKey 对象键
+     * @param uploadId 上传ID
+     * @param partNumber 分片号，从1开始
+     * @param content 分片内容
+     * @param contentLength 分片长度
+     * @return 分片的ETag，合并时按分片号顺序传入
+     */
+    String uploadPart(String objectKey, String uploadId, int partNumber, InputStream content, long contentLength);
+
+    /**
+     * 按分片号顺序合并全部分片为对象
+     * @param objectKey 对象键
+     * @param uploadId 上传ID
+     * @param partETags 分片1到分片N的ETag
+     */
+    void completeMultipartUpload(String objectKey, String uploadId, List<String> partETags);
+
+    /**
+     * 取消分片上传并删除已上传的分片，上传不存在时忽略
+     * @param objectKey 对象键
+     * @param uploadId 上传ID
+     */
+    void abortMultipartUpload(String objectKey, String uploadId);
+
+    /**
+     * 把完整对象写入目标通道
+     * @param objectKey 对象键
+     * @param target 目标通道
+     * @return 写入的字节数
+     */
+    long transferTo(String objectKey, WritableByteChannel target) throws IOException;
+
+    /**
+     * 对象在本地磁盘上的路径，可以交给容器直接发送文件
+     * @param objectKey 对象键
+     * @return 本地路径，对象不在本地磁盘上时返回null
+     */
+    default Path getLocalPath(String objectKey) {
+        return null;
+    }
+
+    /**
+     * 对象访问URL的前缀
+     */
+    String getUrlPrefix();
+}
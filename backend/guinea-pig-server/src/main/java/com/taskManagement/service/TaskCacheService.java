@@ -0,0 +1,59 @@
+package com.taskManagement.service;
+
+import com.taskManagement.dto.TaskDTO;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 任务缓存服务接口
+ * 包括任务详情缓存和个人仪表盘缓存
+ */
+public interface TaskCacheService {
+
+    /**
+     * 读穿方式获取任务详情，缓存未命中时调用loader从数据库加载并回填
+     * 存在事务时直接调用loader，不读缓存也不回填
+     * @param taskId 任务ID
+     * @param loader 数据库加载方法
+     * @return 任务详情副本，调用方可以随意修改
+     */
+    TaskDTO getTaskDetail(Long taskId, Function<Long, TaskDTO> loader);
+
+    /**
+     * 使任务详情缓存失效
+     * 立即清除一次，存在事务时提交后再清除一次，防止事务期间被并发读回填旧数据
+     * @param taskId 任务ID
+     */
+    void evictTaskDetail(Long taskId);
+
+    /**
+     * 获取缓存命中统计
+     * @return 各级命中数、未命中数、失效次数和命中率
+     */
+    Map<String, Object> getStats();
+
+    /**
+     * 读穿方式获取个人仪表盘，缓存未命中时调用loader计算并回填，返回的数据只读
+     * @param userId 用户ID
+     * @param status 任务列表的状态筛选
+     * @param pageSize 列表条数
+     * @param loader 计算方法
+     * @return 仪表盘数据
+     */
+    Map<String, Object> getUserDashboard(Long userId, Integer status, Integer pageSize, Supplier<Map<String, Object>> loader);
+
+    /**
+     * 使用户的仪表盘缓存失效，存在事务时提交后再清除一次
+     * @param userIds 用户ID
+     */
+    void evictUserDashboards(Collection<Long> userIds);
+
+    /**
+     * 使任务创建者和成员的仪表盘缓存失效，用于标签、评论数等只知道任务的写操作
+     * @param taskIds 任务ID
+     */
+    void evictTaskDashboards(Collection<Long> taskIds);
+}
@@ -0,0 +1,50 @@
+package com.taskManagement.service;
+
+import com.taskManagement.entity.Task;
+
+import java.util.Map;
+
+/**
+ * 任务计数服务接口
+ * 按项目维护各状态、各优先级的任务数量，统计接口直接读取计数表而不扫描任务表
+ */
+public interface TaskCounterService {
+
+    /**
+     * 任务创建后计数，在任务写操作的事务中调用
+     * @param task 新建的任务
+     */
+    void onTaskCreated(Task task);
+
+    /**
+     * 任务更新后调整计数，在任务写操作的事务中调用
+     * @param before 更新前的任务
+     * @param after 更新后的任务
+     */
+    void onTaskUpdated(Task before, Task after);
+
+    /**
+     * 任务删除后计数，在任务写操作的事务中调用
+     * @param task 被删除的任务
+     */
+    void onTaskDeleted(Task task);
+
+    /**
+     * 获取各状态任务数量
+     * @param projectId 项目ID，为null时统计全部项目
+     * @return 状态 -> 任务数量
+     */
+    Map<Integer, Long> getStatusCounts(Long projectId);
+
+    /**
+     * 获取各优先级任务数量
+     * @param projectId 项目ID，为null时统计全部项目
+     * @return 优先级 -> 任务数量
+     */
+    Map<Integer, Long> getPriorityCounts(Long projectId);
+
+    /**
+     * 按任务表重新写入全部计数
+     */
+    void reseed();
+}
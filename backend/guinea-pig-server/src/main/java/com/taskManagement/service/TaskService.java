@@ -2,6 +2,8 @@ package com.taskManagement.service;
 
 import com.taskManagement.dto.TaskAttachmentDTO;
 import com.taskManagement.dto.TaskDTO;
+import com.taskManagement.vo.CursorPageResult;
+import com.taskManagement.vo.FileUploadResultVO;
 import com.taskManagement.vo.TaskVO;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -40,6 +42,25 @@ public interface TaskService {
                                  Long projectId, String tags, LocalDate startTime, LocalDate endTime,
                                  LocalDate dueStartTime, LocalDate dueEndTime, Integer page, Integer pageSize);
 
+    /**
+     * 游标方式获取任务列表
+     * @param keyword 关键词
+     * @param status 状态
+     * @param priority 优先级
+     * @param projectId 项目ID
+     * @param tags 标签（逗号分隔的标签ID）
+     * @param startTime 创建开始日期
+     * @param endTime 创建结束日期
+     * @param dueStartTime 截止开始日期
+     * @param dueEndTime 截止结束日期
+     * @param cursor 上一页返回的游标，为空时从第一页开始
+     * @param pageSize 每页数量
+     * @return 任务列表和下一页游标
+     */
+    CursorPageResult<TaskDTO> getTaskListByCursor(String keyword, Integer status, Integer priority,
+                                                 Long projectId, String tags, LocalDate startTime, LocalDate endTime,
+                                                 LocalDate dueStartTime, LocalDate dueEndTime, String cursor, Integer pageSize);
+
     /**
      * 获取任务详情
      * @param id 任务ID
@@ -115,9 +136,9 @@ public interface TaskService {
      * @param taskId 任务ID
      * @param files 文件列表
      * @param userId 用户ID
-     * @return 文件URL列表
+     * @return 每个文件的上传结果
      */
-    List<String> batchUploadTaskAttachments(Long taskId, List<MultipartFile> files, Long userId);
+    List<FileUploadResultVO> batchUploadTaskAttachments(Long taskId, List<MultipartFile> files, Long userId);
     
     /**
      * 获取任务附件列表
@@ -140,6 +161,20 @@ public interface TaskService {
      */
     List<String> getTaskMembers(Long taskId);
     
+    /**
+     * 批量获取多个任务的成员用户名
+     * @param taskIds 任务ID列表
+     * @return 任务ID -> 成员用户名列表，没有成员的任务不在结果中
+     */
+    Map<Long, List<String>> getTaskMembersByTaskIds(List<Long> taskIds);
+    
+    /**
+     * 为一页任务批量填充标签ID和成员，查询次数与页大小无关
+     * @param tasks 任务DTO列表
+     * @param withMembers 是否填充成员用户名
+     */
+    void fillTaskTagsAndMembers(List<TaskDTO> tasks, boolean withMembers);
+    
     /**
      * 添加任务成员
      * @param taskId 任务ID
@@ -0,0 +1,33 @@
+package com.taskManagement.service;
+
+import com.taskManagement.dto.TaskStatusStatsDTO;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * 任务状态每日快照服务接口
+ */
+public interface TaskSnapshotService {
+
+    /**
+     * 实时统计指定日期的任务状态
+     * @param date 日期
+     * @return 当天的任务状态统计
+     */
+    TaskStatusStatsDTO computeStats(LocalDate date);
+
+    /**
+     * 按日期范围读取已生成的快照
+     * @param from 开始日期（包含）
+     * @param to 结束日期（包含）
+     * @return 日期 -> 快照统计，缺失的日期不在结果中
+     */
+    Map<LocalDate, TaskStatusStatsDTO> getSnapshots(LocalDate from, LocalDate to);
+
+    /**
+     * 补齐回溯窗口内缺失的快照（不含今天）
+     * @return 新生成的快照数
+     */
+    int catchUpSnapshots();
+}
@@ -54,4 +54,14 @@ public interface TaskStatsService {
      * @return 优先级分布统计
      */
     Map<String, Object> getTaskPriorityDistribution(Long userId);
-}
\ No newline at end of file
+
+    /**
+     * 获取当前用户仪表盘数据
+     * 一次读取用户的任务集合，计算任务统计、优先级分布、今日到期任务和按状态的任务列表
+     * @param userId 用户ID
+     * @param status 任务列表的状态筛选（可选）
+     * @param pageSize 列表条数
+     * @return 仪表盘数据
+     */
+    Map<String, Object> getUserDashboard(Long userId, Integer status, Integer pageSize);
+}
@@ -5,6 +5,7 @@ import com.taskManagement.entity.Tag;
 import com.taskManagement.entity.TaskTag;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 任务标签关联服务接口
@@ -63,6 +64,13 @@ public interface TaskTagService extends IService<TaskTag> {
      */
     List<Long> getTagIdsByTaskId(Long taskId);
     
+    /**
+     * 批量获取多个任务的标签ID
+     * @param taskIds 任务ID列表
+     * @return 任务ID -> 标签ID列表，没有标签的任务不在结果中
+     */
+    Map<Long, List<Long>> getTagIdsByTaskIds(List<Long> taskIds);
+    
     /**
      * 获取标签关联的所有任务ID
      * @param tagId 标签ID
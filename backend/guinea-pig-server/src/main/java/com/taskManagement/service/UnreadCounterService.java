@@ -0,0 +1,41 @@
+package com.taskManagement.service;
+
+import com.taskManagement.entity.Notification;
+
+import java.util.List;
+
+/**
+ * 未读通知计数服务接口
+ */
+public interface UnreadCounterService {
+
+    /**
+     * 获取用户未读通知数量，计数不存在时从数据库加载
+     * @param userId 用户ID
+     * @return 未读数量
+     */
+    long getUnreadCount(Long userId);
+
+    /**
+     * 事务提交后为接收人增加未读数
+     * @param notifications 新写入的通知
+     */
+    void onNotificationsCreated(List<Notification> notifications);
+
+    /**
+     * 事务提交后将用户未读数减一
+     * @param userId 用户ID
+     */
+    void onNotificationRead(Long userId);
+
+    /**
+     * 事务提交后将用户未读数清零
+     * @param userId 用户ID
+     */
+    void onAllNotificationsRead(Long userId);
+
+    /**
+     * 按数据库校准已缓存的计数
+     */
+    void reconcile();
+}
@@ -0,0 +1,33 @@
+package com.taskManagement.service;
+
+import java.util.Map;
+
+/**
+ * 上传准入控制服务
+ * 按请求大小占用全局的上传内存预算，预算用尽时排队等待，等待队列已满或等待超时则拒绝
+ */
+public interface UploadAdmissionService {
+
+    /**
+     * 申请上传预算，必要时排队等待
+     * @param requestBytes 请求大小(字节)，未知时传入负数
+     * @return 实际占用的字节数，需在请求结束后通过release归还；被拒绝时返回0
+     */
+    long tryAdmit(long requestBytes);
+
+    /**
+     * 归还tryAdmit占用的预算
+     * @param admittedBytes tryAdmit返回的字节数
+     */
+    void release(long admittedBytes);
+
+    /**
+     * 被拒绝的请求建议的重试间隔(秒)
+     */
+    int getRetryAfterSeconds();
+
+    /**
+     * 获取准入统计：正在上传的字节数、排队数、准入和拒绝次数
+     */
+    Map<String, Object> getStats();
+}
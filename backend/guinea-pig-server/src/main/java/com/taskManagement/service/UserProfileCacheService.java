@@ -0,0 +1,32 @@
+package com.taskManagement.service;
+
+import com.taskManagement.entity.User;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 用户资料缓存服务接口
+ * 缓存列表展示作者时需要的用户名和头像，一页数据的作者通过一次IN查询批量解析
+ */
+public interface UserProfileCacheService {
+
+    /**
+     * 批量获取用户资料，缓存未命中的用户一次查询后回填
+     * @param userIds 用户ID，可以包含重复和null
+     * @return 用户ID到用户资料的映射，只包含id、用户名和头像；不存在的用户不在结果中
+     */
+    Map<Long, User> getUserProfiles(Collection<Long> userIds);
+
+    /**
+     * 使用户资料缓存失效，修改用户名、头像或删除用户后调用，存在事务时提交后再清除一次
+     * @param userId 用户ID
+     */
+    void evict(Long userId);
+
+    /**
+     * 获取缓存命中统计
+     * @return 条目数、命中数、未命中数、查询次数和命中率
+     */
+    Map<String, Object> getStats();
+}
@@ -8,6 +8,7 @@ import com.taskManagement.dto.UserUpdateDTO;
 import com.taskManagement.dto.PasswordChangeDTO;
 import org.springframework.web.multipart.MultipartFile;
 import com.taskManagement.vo.PageResult;
+import java.util.List;
 import java.util.Map;
 
 public interface UserService {
@@ -82,4 +83,12 @@ public interface UserService {
      * @return 是否更新成功
      */
     boolean updateUserStatus(Long userId, Integer status);
+
+    /**
+     * 提及用户(@)的自动补全，按用户名前缀查询启用的用户
+     * @param prefix 用户名前缀，不区分大小写
+     * @param limit 最多返回的条数
+     * @return 按用户名排序的用户，只包含id、用户名和头像
+     */
+    List<UserVO> suggestMentionUsers(String prefix, Integer limit);
 }
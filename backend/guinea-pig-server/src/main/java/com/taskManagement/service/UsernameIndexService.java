@@ -0,0 +1,46 @@
+package com.taskManagement.service;
+
+import com.taskManagement.entity.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 用户名索引服务接口
+ * 在内存中维护用户名前缀索引，用于@提及的自动补全和评论中提及用户的批量解析
+ */
+public interface UsernameIndexService {
+
+    /**
+     * 按前缀查询启用的用户
+     * @param prefix 用户名前缀，不区分大小写
+     * @param limit 最多返回的条数
+     * @return 按用户名排序的用户ID；索引未就绪时返回null，调用方应回退到数据库查询
+     */
+    List<Long> suggestUserIds(String prefix, int limit);
+
+    /**
+     * 一次解析一批用户名
+     * @param usernames 用户名
+     * @return 用户名到用户ID的映射，不存在的用户名不在结果中；索引未就绪时返回null，调用方应回退到数据库查询
+     */
+    Map<String, Long> resolveUsernames(Collection<String> usernames);
+
+    /**
+     * 添加或更新用户索引，存在事务时在提交后生效
+     * @param user 用户，需要包含id、用户名和状态
+     */
+    void indexUser(User user);
+
+    /**
+     * 删除用户索引，存在事务时在提交后生效
+     * @param userId 用户ID
+     */
+    void removeUser(Long userId);
+
+    /**
+     * 从数据库全量重建索引
+     */
+    void rebuildIndex();
+}
@@ -0,0 +1,519 @@
+package com.taskManagement.service.impl;
+
+import com.taskManagement.dto.FileContentDTO;
+import com.taskManagement.exception.RangeNotSatisfiableException;
+import com.taskManagement.service.AttachmentCacheService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpRange;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.crypto.Cipher;
+import javax.crypto.CipherInputStream;
+import javax.crypto.CipherOutputStream;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 附件本地磁盘缓存服务实现类
+ * 解密后的内容用启动时生成的临时密钥以AES-CTR重新加密后写入缓存目录，可以从任意位置解密，支持范围读取；
+ * 密钥只在内存中，重启后旧缓存无法解密，启动时清空缓存目录。
+ * 按缓存总字节数淘汰最久未访问的条目，同一对象并发未命中时只有一个请求下载，其余等待结果；
+ * 带范围的请求未命中时不等待整个文件下载解密，由调用方直接按范围读取，缓存在后台填充
+ */
+@Slf4j
+@Service
+public class AttachmentCacheServiceImpl implements AttachmentCacheService {
+
+    private static final int BLOCK_SIZE = 16;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final BigInteger COUNTER_MODULUS = BigInteger.ONE.shiftLeft(128);
+
+    @Value("${guineapig.file.cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${guineapig.file.cache.dir:data/attachment-cache}")
+    private String cacheDir = "data/attachment-cache";
+
+    /**
+     * 缓存总大小上限(字节)
+     */
+    @Value("${guineapig.file.cache.max-size:1073741824}")
+    private long maxSize = 1024L * 1024 * 1024;
+
+    /**
+     * 单个文件大小上限(字节)，超过时不缓存
+     */
+    @Value("${guineapig.file.cache.max-entry-size:67108864}")
+    private long maxEntrySize = 64L * 1024 * 1024;
+
+    private Path root;
+
+    private SecretKey cacheKey;
+
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * 按访问顺序排列的缓存条目，访问时需要持有锁
+     */
+    private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long currentSize;
+
+    /**
+     * 正在加载的对象，并发未命中的请求等待同一个加载结果
+     */
+    private final Map<String, CompletableFuture<CacheEntry>> loading = new ConcurrentHashMap<>();
+
+    /**
+     * 超过单个缓存上限的对象，之后直接由调用方读取，不再尝试加载
+     */
+    private final Set<String> oversized = ConcurrentHashMap.newKeySet();
+
+    private static final int MAX_OVERSIZED_KEYS = 10000;
+
+    /**
+     * 后台填充的等待队列长度，队列满时放弃填充，下次未命中再尝试
+     */
+    private static final int FILL_QUEUE_CAPACITY = 64;
+
+    private ThreadPoolExecutor fillExecutor;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalescedMisses = new AtomicLong();
+    private final AtomicLong loadFailures = new AtomicLong();
+    private final AtomicLong backgroundFills = new AtomicLong();
+    private final AtomicLong uncacheable = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong bytesServed = new AtomicLong();
+    private final AtomicLong bytesLoaded = new AtomicLong();
+
+    /**
+     * 缓存条目
+     */
+    private static class CacheEntry {
+
+        private final Path path;
+
+        private final long length;
+
+        private final String contentType;
+
+        private final byte[] iv;
+
+        CacheEntry(Path path, long length, String contentType, byte[] iv) {
+            this.path = path;
+            this.length = length;
+            this.contentType = contentType;
+            this.iv = iv;
+        }
+    }
+
+    @PostConstruct
+    public void init() throws IOException, GeneralSecurityException {
+        if (!enabled) {
+            log.info("附件缓存未启用");
+            return;
+        }
+        root = Paths.get(cacheDir).toAbsolutePath().normalize();
+        clearDirectory();
+        Files.createDirectories(root);
+        KeyGenerator keyGenerator = KeyGenerator.getInstance("AES");
+        keyGenerator.init(128);
+        cacheKey = keyGenerator.generateKey();
+        AtomicInteger threadIndex = new AtomicInteger();
+        fillExecutor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(FILL_QUEUE_CAPACITY),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "attachment-cache-fill-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+        fillExecutor.allowCoreThreadTimeOut(true);
+        log.info("附件缓存已启用: dir={}, maxSize={}, maxEntrySize={}", root, maxSize, maxEntrySize);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (fillExecutor != null) {
+            fillExecutor.shutdownNow();
+        }
+    }
+
+    private void clearDirectory() throws IOException {
+        if (!Files.exists(root)) {
+            return;
+        }
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(root)) {
+            paths = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        }
+        for (Path path : paths) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public FileContentDTO getContent(String objectKey, HttpRange range, Callable<FileContentDTO> loader) {
+        CacheEntry entry;
+        synchronized (entries) {
+            entry = entries.get(objectKey);
+        }
+        if (entry != null) {
+            try {
+                FileContentDTO content = read(entry, range);
+                hits.incrementAndGet();
+                return content;
+            } catch (NoSuchFileException e) {
+                // 缓存文件被外部删除，重新加载
+                log.warn("附件缓存文件丢失，重新加载: {}", objectKey);
+                evict(objectKey);
+            } catch (IOException | GeneralSecurityException e) {
+                throw new RuntimeException("读取附件缓存失败: " + e.getMessage(), e);
+            }
+        }
+
+        misses.incrementAndGet();
+        if (oversized.contains(objectKey)) {
+            return null;
+        }
+        if (range != null) {
+            // 范围请求只需要一小段，不等整个文件下载解密，由调用方直接读取
+            fillInBackground(objectKey, loader);
+            return null;
+        }
+        entry = loadCoalesced(objectKey, loader);
+        if (entry == null) {
+            return null;
+        }
+        try {
+            return read(entry, range);
+        } catch (IOException | GeneralSecurityException e) {
+            throw new RuntimeException("读取附件缓存失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 在后台加载完整内容写入缓存，同一对象已在加载时不重复提交
+     */
+    private void fillInBackground(String objectKey, Callable<FileContentDTO> loader) {
+        if (loading.containsKey(objectKey)) {
+            return;
+        }
+        fillExecutor.execute(() -> {
+            try {
+                if (loadCoalesced(objectKey, loader) != null) {
+                    backgroundFills.incrementAndGet();
+                }
+            } catch (RuntimeException e) {
+                log.warn("后台填充附件缓存失败: {}", objectKey, e);
+            }
+        });
+    }
+
+    private CacheEntry loadCoalesced(String objectKey, Callable<FileContentDTO> loader) {
+        CompletableFuture<CacheEntry> future = new CompletableFuture<>();
+        CompletableFuture<CacheEntry> existing = loading.putIfAbsent(objectKey, future);
+        if (existing != null) {
+            coalescedMisses.incrementAndGet();
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                throw cause instanceof RuntimeException ? (RuntimeException) cause
+                        : new RuntimeException("加载附件失败: " + cause.getMessage(), cause);
+            }
+        }
+
+        try {
+            CacheEntry entry = load(objectKey, loader);
+            future.complete(entry);
+            return entry;
+        } catch (RuntimeException e) {
+            loadFailures.incrementAndGet();
+            future.completeExceptionally(e);
+            throw e;
+        } catch (Exception e) {
+            loadFailures.incrementAndGet();
+            RuntimeException failure = new RuntimeException("加载附件失败: " + e.getMessage(), e);
+            future.completeExceptionally(failure);
+            throw failure;
+        } finally {
+            loading.remove(objectKey, future);
+        }
+    }
+
+    /**
+     * 下载解密完整内容并写入缓存，超过单个缓存上限时返回null
+     */
+    private CacheEntry load(String objectKey, Callable<FileContentDTO> loader) throws Exception {
+        FileContentDTO source = loader.call();
+        Path path = root.resolve(UUID.randomUUID().toString());
+        byte[] iv = new byte[BLOCK_SIZE];
+        random.nextBytes(iv);
+
+        long length = 0;
+        boolean completed = false;
+        try (InputStream in = source.getContent()) {
+            if (source.getTotalLength() != null && source.getTotalLength() > maxEntrySize) {
+                markOversized(objectKey);
+                return null;
+            }
+            try (OutputStream out = new CipherOutputStream(
+                    Files.newOutputStream(path, StandardOpenOption.CREATE_NEW), cipher(Cipher.ENCRYPT_MODE, iv, 0))) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int n;
+                while ((n = in.read(buffer)) != -1) {
+                    length += n;
+                    if (length > maxEntrySize) {
+                        markOversized(objectKey);
+                        return null;
+                    }
+                    out.write(buffer, 0, n);
+                }
+            }
+            completed = true;
+        } finally {
+            if (!completed) {
+                Files.deleteIfExists(path);
+            }
+        }
+
+        bytesLoaded.addAndGet(length);
+        CacheEntry entry = new CacheEntry(path, length, source.getContentType(), iv);
+        List<CacheEntry> evicted = new ArrayList<>();
+        synchronized (entries) {
+            CacheEntry previous = entries.put(objectKey, entry);
+            if (previous != null) {
+                currentSize -= previous.length;
+                evicted.add(previous);
+            }
+            currentSize += length;
+            // 淘汰最久未访问的条目，刚写入的条目位于末尾
+            var iterator = entries.entrySet().iterator();
+            while (currentSize > maxSize && iterator.hasNext()) {
+                Map.Entry<String, CacheEntry> eldest = iterator.next();
+                if (eldest.getValue() == entry) {
+                    break;
+                }
+                iterator.remove();
+                currentSize -= eldest.getValue().length;
+                evicted.add(eldest.getValue());
+                evictions.incrementAndGet();
+            }
+        }
+        evicted.forEach(this::deleteFile);
+        return entry;
+    }
+
+    private void markOversized(String objectKey) {
+        uncacheable.incrementAndGet();
+        if (oversized.size() >= MAX_OVERSIZED_KEYS) {
+            oversized.clear();
+        }
+        oversized.add(objectKey);
+    }
+
+    private FileContentDTO read(CacheEntry entry, HttpRange range) throws IOException, GeneralSecurityException {
+        long start = 0;
+        long end = entry.length - 1;
+        if (range != null) {
+            try {
+                start = range.getRangeStart(entry.length);
+                end = range.getRangeEnd(entry.length);
+            } catch (IllegalArgumentException e) {
+                throw new RangeNotSatisfiableException(entry.length);
+            }
+            if (start > end) {
+                throw new RangeNotSatisfiableException(entry.length);
+            }
+        }
+
+        // CTR模式从起始位置所在的块开始解密
+        long block = start / BLOCK_SIZE;
+        FileChannel channel = FileChannel.open(entry.path, StandardOpenOption.READ);
+        InputStream in;
+        try {
+            channel.position(block * BLOCK_SIZE);
+            in = new CipherInputStream(new BufferedInputStream(Channels.newInputStream(channel), BUFFER_SIZE),
+                    cipher(Cipher.DECRYPT_MODE, entry.iv, block));
+            in.skipNBytes(start - block * BLOCK_SIZE);
+        } catch (IOException | GeneralSecurityException e) {
+            channel.close();
+            throw e;
+        }
+
+        FileContentDTO content = new FileContentDTO();
+        content.setContent(new ServedInputStream(in, end - start + 1));
+        content.setContentType(entry.contentType);
+        content.setTotalLength(entry.length);
+        if (range != null) {
+            content.setPartial(true);
+            content.setRangeStart(start);
+            content.setRangeEnd(end);
+        }
+        return content;
+    }
+
+    /**
+     * 创建从指定块开始的CTR密码，计数器为初始向量加块序号
+     */
+    private Cipher cipher(int mode, byte[] iv, long block) throws GeneralSecurityException {
+        byte[] counter = new BigInteger(1, iv).add(BigInteger.valueOf(block)).mod(COUNTER_MODULUS).toByteArray();
+        byte[] counterBlock = new byte[BLOCK_SIZE];
+        int length = Math.min(counter.length, BLOCK_SIZE);
+        System.arraycopy(counter, counter.length - length, counterBlock, BLOCK_SIZE - length, length);
+        Cipher cipher = Cipher.getInstance("AES/CTR/NoPadding");
+        cipher.init(mode, cacheKey, new IvParameterSpec(counterBlock));
+        return cipher;
+    }
+
+    @Override
+    public void evict(String objectKey) {
+        if (!enabled) {
+            return;
+        }
+        oversized.remove(objectKey);
+        CacheEntry entry;
+        synchronized (entries) {
+            entry = entries.remove(objectKey);
+            if (entry != null) {
+                currentSize -= entry.length;
+            }
+        }
+        if (entry != null) {
+            deleteFile(entry);
+        }
+    }
+
+    private void deleteFile(CacheEntry entry) {
+        try {
+            // 正在读取的请求已打开文件，删除不影响其继续读取
+            Files.deleteIfExists(entry.path);
+        } catch (IOException e) {
+            log.warn("删除附件缓存文件失败: {}", entry.path, e);
+        }
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        synchronized (entries) {
+            stats.put("entries", entries.size());
+            stats.put("sizeBytes", currentSize);
+        }
+        stats.put("maxSizeBytes", maxSize);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRatio", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        stats.put("coalescedMisses", coalescedMisses.get());
+        stats.put("loadFailures", loadFailures.get());
+        stats.put("backgroundFills", backgroundFills.get());
+        stats.put("uncacheable", uncacheable.get());
+        stats.put("evictions", evictions.get());
+        stats.put("bytesServed", bytesServed.get());
+        stats.put("bytesLoaded", bytesLoaded.get());
+        return stats;
+    }
+
+    /**
+     * 限制读取长度并统计从缓存输出的字节数
+     */
+    private class ServedInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        ServedInputStream(InputStream in, long length) {
+            super(in);
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = in.read();
+            if (b != -1) {
+                remaining--;
+                bytesServed.incrementAndGet();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = in.read(b, off, (int) Math.min(len, remaining));
+            if (n > 0) {
+                remaining -= n;
+                bytesServed.addAndGet(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(in.available(), remaining);
+        }
+    }
+}
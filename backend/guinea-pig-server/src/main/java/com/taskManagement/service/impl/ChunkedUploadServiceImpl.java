@@ -0,0 +1,472 @@
+package com.taskManagement.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.taskManagement.config.AliyunOSSConfig;
+import com.taskManagement.constant.FileConstant;
+import com.taskManagement.dto.ChunkedUploadInitDTO;
+import com.taskManagement.entity.TaskAttachment;
+import com.taskManagement.entity.UploadChunk;
+import com.taskManagement.entity.UploadSession;
+import com.taskManagement.exception.BusinessException;
+import com.taskManagement.mapper.TaskAttachmentMapper;
+import com.taskManagement.mapper.TaskMapper;
+import com.taskManagement.mapper.UploadChunkMapper;
+import com.taskManagement.mapper.UploadSessionMapper;
+import com.taskManagement.service.ChunkedUploadService;
+import com.taskManagement.service.FileService;
+import com.taskManagement.service.StorageService;
+import com.taskManagement.utils.FileEncryptionUtil;
+import com.taskManagement.utils.SegmentedEncryption;
+import com.taskManagement.vo.ChunkedUploadVO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 分片上传服务实现类
+ * 开始上传时生成整个文件的加密文件头，分片大小取加密段大小的整数倍，每个分片恰好覆盖若干完整的段，
+ * 可以独立加密后作为存储的一个分片上传，按编号合并后与整文件加密的结果相同。
+ * 服务端不会一次看到整个文件，内容哈希由各分片的SHA-256按顺序再计算一次得到，只在分片大小相同的分片上传之间去重
+ */
+@Slf4j
+@Service
+public class ChunkedUploadServiceImpl implements ChunkedUploadService {
+
+    private static final String TASK_FOLDER = "task/";
+
+    /**
+     * 存储分片上传除最后一片外的最小分片大小为100KB，分片至少包含两个加密段
+     */
+    private static final int MIN_SEGMENTS_PER_CHUNK = 2;
+
+    private static final int CLEANUP_BATCH_SIZE = 100;
+
+    /**
+     * 已登记内容哈希、尚未写入存储的分片的ETag
+     */
+    private static final String PENDING_ETAG = "";
+
+    private static final int SPOOL_BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private UploadSessionMapper uploadSessionMapper;
+
+    @Autowired
+    private UploadChunkMapper uploadChunkMapper;
+
+    @Autowired
+    private TaskAttachmentMapper taskAttachmentMapper;
+
+    @Autowired
+    private TaskMapper taskMapper;
+
+    @Autowired
+    private StorageService storageService;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private AliyunOSSConfig ossConfig;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * 分片大小(字节)，向下取整为加密段大小的整数倍
+     */
+    @Value("${guineapig.file.chunked.chunk-size:5242880}")
+    private int chunkSize = 5242880;
+
+    /**
+     * 分片上传允许的最大文件大小(字节)
+     */
+    @Value("${guineapig.file.chunked.max-file-size:2147483648}")
+    private long maxFileSize = 2147483648L;
+
+    /**
+     * 上传会话有效期(秒)，过期后未完成的上传被取消
+     */
+    @Value("${guineapig.file.chunked.session-ttl:86400}")
+    private long sessionTtl = 86400;
+
+    @Override
+    public ChunkedUploadVO initiate(ChunkedUploadInitDTO initDTO) {
+        long fileSize = initDTO.getFileSize() == null ? -1 : initDTO.getFileSize();
+        if (initDTO.getFileName() == null || initDTO.getFileName().isBlank()) {
+            throw new BusinessException("文件名不能为空");
+        }
+        if (fileSize < 0) {
+            throw new BusinessException("文件大小不能为空");
+        }
+        if (fileSize > maxFileSize) {
+            throw new BusinessException("文件大小超过上限: " + maxFileSize + "字节");
+        }
+        if (hasTask(initDTO.getTaskId()) && taskMapper.selectById(initDTO.getTaskId()) == null) {
+            throw new BusinessException("任务不存在");
+        }
+
+        int segmentSize = SegmentedEncryption.DEFAULT_SEGMENT_SIZE;
+        int effectiveChunkSize = Math.max(MIN_SEGMENTS_PER_CHUNK, chunkSize / segmentSize) * segmentSize;
+        SegmentedEncryption.Header header = SegmentedEncryption.newHeader(fileSize);
+        String objectKey = TASK_FOLDER + FileEncryptionUtil.generateEncryptedFileName(initDTO.getFileName());
+
+        UploadSession session = new UploadSession();
+        session.setUploadId(UUID.randomUUID().toString().replace("-", ""));
+        session.setObjectKey(objectKey);
+        session.setStorageUploadId(storageService.initiateMultipartUpload(objectKey, initDTO.getContentType()));
+        session.setFileName(initDTO.getFileName());
+        session.setFileSize(fileSize);
+        session.setContentType(initDTO.getContentType());
+        session.setChunkSize(effectiveChunkSize);
+        session.setChunkCount((int) Math.max(1, (fileSize + effectiveChunkSize - 1) / effectiveChunkSize));
+        session.setEncryptionHeader(HexFormat.of().formatHex(header.getBytes()));
+        session.setTaskId(initDTO.getTaskId());
+        session.setUserId(initDTO.getUserId());
+        session.setStatus(FileConstant.UPLOAD_UPLOADING);
+        session.setExpireTime(LocalDateTime.now().plusSeconds(sessionTtl));
+        uploadSessionMapper.insert(session);
+        log.info("开始分片上传[{}]: {}, 大小: {}, 分片数: {}", session.getUploadId(), session.getFileName(),
+                fileSize, session.getChunkCount());
+        return toVO(session, List.of());
+    }
+
+    @Override
+    public ChunkedUploadVO uploadChunk(String uploadId, int chunkIndex, InputStream content, long contentLength) {
+        UploadSession session = requireSession(uploadId);
+        if (FileConstant.UPLOAD_COMPLETED.equals(session.getStatus())) {
+            throw new BusinessException("上传已完成");
+        }
+        if (!FileConstant.UPLOAD_UPLOADING.equals(session.getStatus())) {
+            throw new BusinessException("上传正在合并，不能再上传分片");
+        }
+        if (chunkIndex < 0 || chunkIndex >= session.getChunkCount()) {
+            throw new BusinessException("分片序号超出范围: " + chunkIndex);
+        }
+        long expectedLength = getChunkLength(session, chunkIndex);
+        if (contentLength >= 0 && contentLength != expectedLength) {
+            throw new BusinessException("分片" + chunkIndex + "的大小应为" + expectedLength + "字节");
+        }
+
+        SegmentedEncryption.Header header = parseHeader(session);
+        long segmentsPerChunk = session.getChunkSize() / header.getSegmentSize();
+        long firstSegment = chunkIndex * segmentsPerChunk;
+        long endSegment = Math.min(firstSegment + segmentsPerChunk, header.getSegmentCount());
+        Path spooled = null;
+        try {
+            // 先落盘并计算哈希，确认内容后再加密：同一分片的段nonce固定，加密不同内容会重复使用GCM nonce
+            spooled = Files.createTempFile("upload-chunk-", ".part");
+            MessageDigest digest = newDigest();
+            long received = spool(new DigestInputStream(content, digest), spooled, expectedLength);
+            if (received > expectedLength) {
+                throw new BusinessException("分片" + chunkIndex + "的大小超过" + expectedLength + "字节");
+            }
+            if (received < expectedLength) {
+                throw new BusinessException("分片" + chunkIndex + "的大小应为" + expectedLength + "字节");
+            }
+            String chunkHash = HexFormat.of().formatHex(digest.digest());
+            reserveChunk(session, chunkIndex, chunkHash);
+
+            String etag;
+            try (InputStream encrypted = SegmentedEncryption.encryptSegments(Files.newInputStream(spooled),
+                    header, firstSegment, endSegment, ossConfig.getEncryptionKey())) {
+                etag = storageService.uploadPart(session.getObjectKey(), session.getStorageUploadId(), chunkIndex + 1,
+                        encrypted, header.getSegmentsLength(firstSegment, endSegment));
+            }
+            uploadChunkMapper.updateChunk(session.getId(), chunkIndex, chunkHash, etag);
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("分片上传[{}]第{}片上传失败", uploadId, chunkIndex, e);
+            throw new RuntimeException("分片上传失败: " + e.getMessage());
+        } finally {
+            deleteQuietly(spooled);
+        }
+        return toVO(session, listChunks(session.getId()));
+    }
+
+    @Override
+    public ChunkedUploadVO getStatus(String uploadId) {
+        UploadSession session = requireSession(uploadId);
+        return toVO(session, listChunks(session.getId()));
+    }
+
+    @Override
+    public ChunkedUploadVO complete(String uploadId) {
+        UploadSession session = requireSession(uploadId);
+        if (FileConstant.UPLOAD_COMPLETED.equals(session.getStatus())) {
+            return toVO(session, List.of());
+        }
+        if (FileConstant.UPLOAD_MERGING.equals(session.getStatus())) {
+            throw new BusinessException("上传正在合并，请查询上传状态");
+        }
+        List<UploadChunk> chunks = listChunks(session.getId());
+        if (FileConstant.UPLOAD_UPLOADING.equals(session.getStatus())) {
+            if (chunks.size() < session.getChunkCount()) {
+                throw new BusinessException("还有" + (session.getChunkCount() - chunks.size()) + "个分片未上传");
+            }
+            merge(session, chunks);
+        }
+        // 已合并的会话直接写入附件记录，上次写入失败时从这里重试
+        return transactionTemplate.execute(status -> attach(session, chunks));
+    }
+
+    /**
+     * 合并存储中的分片，不在事务中进行：合并会消耗存储中的分片，合并成功后立即记录为已合并，
+     * 之后的附件记录写入失败回滚时会话仍指向合并后的对象
+     */
+    private void merge(UploadSession session, List<UploadChunk> chunks) {
+        if (uploadSessionMapper.updateStatus(session.getId(), FileConstant.UPLOAD_UPLOADING,
+                FileConstant.UPLOAD_MERGING) == 0) {
+            throw new BusinessException("上传正在合并或已完成，请查询上传状态");
+        }
+        try {
+            storageService.completeMultipartUpload(session.getObjectKey(), session.getStorageUploadId(),
+                    chunks.stream().map(UploadChunk::getEtag).collect(Collectors.toList()));
+        } catch (RuntimeException e) {
+            // 合并失败时分片仍在存储中，允许重新提交
+            uploadSessionMapper.updateStatus(session.getId(), FileConstant.UPLOAD_MERGING, FileConstant.UPLOAD_UPLOADING);
+            throw e;
+        }
+        uploadSessionMapper.updateStatus(session.getId(), FileConstant.UPLOAD_MERGING, FileConstant.UPLOAD_MERGED);
+        session.setStatus(FileConstant.UPLOAD_MERGED);
+        log.info("分片上传[{}]已合并: {}", session.getUploadId(), session.getObjectKey());
+    }
+
+    /**
+     * 登记合并后的对象并写入附件记录，与会话状态的更新在同一事务中
+     */
+    private ChunkedUploadVO attach(UploadSession session, List<UploadChunk> chunks) {
+        if (uploadSessionMapper.updateStatus(session.getId(), FileConstant.UPLOAD_MERGED,
+                FileConstant.UPLOAD_COMPLETED) == 0) {
+            throw new BusinessException("上传正在合并或已完成，请查询上传状态");
+        }
+        String fileUrl;
+        if (hasTask(session.getTaskId()) && session.getUserId() != null) {
+            if (taskMapper.selectById(session.getTaskId()) == null) {
+                throw new BusinessException("任务不存在");
+            }
+            // 引用与附件记录在同一事务中写入
+            fileUrl = fileService.registerStoredObject(session.getObjectKey(), hashChunks(session, chunks),
+                    session.getFileSize(), session.getContentType(), parseHeader(session));
+            TaskAttachment taskAttachment = new TaskAttachment();
+            taskAttachment.setTaskId(session.getTaskId());
+            taskAttachment.setFileName(session.getFileName());
+            taskAttachment.setFilePath(fileUrl);
+            taskAttachment.setFileSize(session.getFileSize());
+            taskAttachment.setFileType(session.getContentType());
+            taskAttachment.setCreateUser(session.getUserId());
+            taskAttachment.setUpdateUser(session.getUserId());
+            taskAttachmentMapper.insert(taskAttachment);
+        } else {
+            // 没有附件记录时不参与去重，不占用共享对象的引用
+            fileUrl = storageService.getUrlPrefix() + "/" + session.getObjectKey();
+        }
+
+        session.setStatus(FileConstant.UPLOAD_COMPLETED);
+        session.setFileUrl(fileUrl);
+        uploadSessionMapper.updateById(session);
+        uploadChunkMapper.delete(new LambdaQueryWrapper<UploadChunk>().eq(UploadChunk::getSessionId, session.getId()));
+        log.info("分片上传[{}]已完成: {}, 文件URL: {}", session.getUploadId(), session.getFileName(), fileUrl);
+        return toVO(session, List.of());
+    }
+
+    private boolean hasTask(Long taskId) {
+        return taskId != null && taskId > 0;
+    }
+
+    @Override
+    @Transactional
+    public void abort(String uploadId) {
+        UploadSession session = requireSession(uploadId);
+        if (FileConstant.UPLOAD_COMPLETED.equals(session.getStatus())) {
+            throw new BusinessException("上传已完成，不能取消");
+        }
+        if (FileConstant.UPLOAD_MERGING.equals(session.getStatus())) {
+            throw new BusinessException("上传正在合并，不能取消");
+        }
+        removeSession(session);
+        log.info("分片上传[{}]已取消", uploadId);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${guineapig.file.chunked.cleanup-interval:3600000}")
+    public int cleanupExpired() {
+        List<UploadSession> expired = uploadSessionMapper.selectList(new LambdaQueryWrapper<UploadSession>()
+                .lt(UploadSession::getExpireTime, LocalDateTime.now())
+                .last("LIMIT " + CLEANUP_BATCH_SIZE));
+        int removed = 0;
+        for (UploadSession session : expired) {
+            try {
+                removeSession(session);
+                removed++;
+            } catch (Exception e) {
+                log.warn("清理过期的分片上传[{}]失败", session.getUploadId(), e);
+            }
+        }
+        if (removed > 0) {
+            log.info("已清理{}个过期的分片上传", removed);
+        }
+        return removed;
+    }
+
+    /**
+     * 把分片内容写入临时文件，最多读取limit + 1字节
+     * @return 读取的字节数，大于limit说明分片过长
+     */
+    private long spool(InputStream content, Path target, long limit) throws IOException {
+        long total = 0;
+        byte[] buffer = new byte[SPOOL_BUFFER_SIZE];
+        try (OutputStream out = Files.newOutputStream(target)) {
+            int n;
+            while (total <= limit && (n = content.read(buffer, 0, (int) Math.min(buffer.length, limit + 1 - total))) != -1) {
+                out.write(buffer, 0, n);
+                total += n;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 在加密之前登记分片的内容哈希；分片已登记时只允许重新上传相同的内容，
+     * 相同内容加密得到相同的密文，不同内容会在同一nonce下产生第二份密文
+     */
+    private void reserveChunk(UploadSession session, int chunkIndex, String chunkHash) {
+        UploadChunk chunk = new UploadChunk();
+        chunk.setSessionId(session.getId());
+        chunk.setChunkIndex(chunkIndex);
+        chunk.setChunkHash(chunkHash);
+        chunk.setEtag(PENDING_ETAG);
+        try {
+            uploadChunkMapper.insert(chunk);
+        } catch (DuplicateKeyException e) {
+            UploadChunk existing = uploadChunkMapper.selectOne(new LambdaQueryWrapper<UploadChunk>()
+                    .eq(UploadChunk::getSessionId, session.getId())
+                    .eq(UploadChunk::getChunkIndex, chunkIndex));
+            if (existing != null && !chunkHash.equals(existing.getChunkHash())) {
+                throw new BusinessException("分片" + chunkIndex + "的内容与之前上传的不一致，请取消后重新开始上传");
+            }
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("删除分片临时文件失败: {}", path, e);
+        }
+    }
+
+    /**
+     * 删除会话和分片记录，未完成的同时取消存储中的分片上传；已合并或合并中断的会话没有附件引用合并后的对象，一并删除。
+     * 已完成的会话只用于重复提交时返回结果
+     */
+    private void removeSession(UploadSession session) {
+        Integer status = session.getStatus();
+        if (!FileConstant.UPLOAD_COMPLETED.equals(status)) {
+            if (!FileConstant.UPLOAD_MERGED.equals(status)) {
+                storageService.abortMultipartUpload(session.getObjectKey(), session.getStorageUploadId());
+            }
+            if (!FileConstant.UPLOAD_UPLOADING.equals(status)) {
+                storageService.deleteObject(session.getObjectKey());
+            }
+        }
+        uploadChunkMapper.delete(new LambdaQueryWrapper<UploadChunk>().eq(UploadChunk::getSessionId, session.getId()));
+        uploadSessionMapper.deleteById(session.getId());
+    }
+
+    private UploadSession requireSession(String uploadId) {
+        UploadSession session = uploadSessionMapper.selectOne(new LambdaQueryWrapper<UploadSession>()
+                .eq(UploadSession::getUploadId, uploadId));
+        if (session == null) {
+            throw new BusinessException("上传不存在或已过期");
+        }
+        return session;
+    }
+
+    /**
+     * 已写入存储的分片，已登记但尚未上传完成的分片不包括在内
+     */
+    private List<UploadChunk> listChunks(Long sessionId) {
+        return uploadChunkMapper.selectList(new LambdaQueryWrapper<UploadChunk>()
+                .eq(UploadChunk::getSessionId, sessionId)
+                .ne(UploadChunk::getEtag, PENDING_ETAG)
+                .orderByAsc(UploadChunk::getChunkIndex));
+    }
+
+    private long getChunkLength(UploadSession session, int chunkIndex) {
+        long start = (long) chunkIndex * session.getChunkSize();
+        return Math.min(session.getChunkSize(), session.getFileSize() - start);
+    }
+
+    private SegmentedEncryption.Header parseHeader(UploadSession session) {
+        try {
+            return SegmentedEncryption.parseHeader(HexFormat.of().parseHex(session.getEncryptionHeader()));
+        } catch (IOException e) {
+            throw new IllegalStateException("分片上传[" + session.getUploadId() + "]的加密文件头无效", e);
+        }
+    }
+
+    /**
+     * 按分片大小和各分片的SHA-256计算内容哈希，与整文件SHA-256的取值空间不重叠
+     */
+    private String hashChunks(UploadSession session, List<UploadChunk> chunks) {
+        MessageDigest digest = newDigest();
+        digest.update(("chunked:" + session.getChunkSize()).getBytes(StandardCharsets.UTF_8));
+        for (UploadChunk chunk : chunks) {
+            digest.update(HexFormat.of().parseHex(chunk.getChunkHash()));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private ChunkedUploadVO toVO(UploadSession session, List<UploadChunk> chunks) {
+        boolean completed = FileConstant.UPLOAD_COMPLETED.equals(session.getStatus());
+        List<Integer> received = completed
+                ? IntStream.range(0, session.getChunkCount()).boxed().collect(Collectors.toList())
+                : chunks.stream().map(UploadChunk::getChunkIndex).collect(Collectors.toList());
+        ChunkedUploadVO vo = new ChunkedUploadVO();
+        vo.setUploadId(session.getUploadId());
+        vo.setFileName(session.getFileName());
+        vo.setFileSize(session.getFileSize());
+        vo.setChunkSize(session.getChunkSize());
+        vo.setChunkCount(session.getChunkCount());
+        vo.setReceivedChunks(received);
+        vo.setReceivedBytes(received.stream().mapToLong(index -> getChunkLength(session, index)).sum());
+        vo.setCompleted(completed);
+        vo.setFileUrl(session.getFileUrl());
+        vo.setExpireTime(session.getExpireTime());
+        return vo;
+    }
+}
@@ -0,0 +1,260 @@
+package com.taskManagement.service.impl;
+
+import com.taskManagement.mapper.TaskMapper;
+import com.taskManagement.service.CommentCountService;
+import com.taskManagement.service.TaskCacheService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 任务评论数服务实现类
+ * 开启写回缓冲时，事务提交后把增量合并到内存，按间隔每个任务写回一条原子UPDATE，
+ * 同一任务短时间内的大量评论只产生一次写入；写回失败的增量放回缓冲下次重试。
+ * 实例异常退出会丢失未写回的增量，由定时校准按评论表修复。
+ * 评论事务在提交前登记，校准跳过有评论事务未结束的任务；重新计算期间有评论事务开始的任务无法判断新评论是否已被计入，
+ * 与跳过的任务一起在之后的写回中重新计算，直到计算期间没有新的评论事务。
+ * 其他实例的登记和缓冲在本实例不可见，校准时恰好未写回的部分会多计一次，由下一次校准纠正
+ */
+@Slf4j
+@Service
+public class CommentCountServiceImpl implements CommentCountService {
+
+    /**
+     * 校准时每条UPDATE处理的任务数
+     */
+    private static final int RECONCILE_BATCH_SIZE = 500;
+
+    /**
+     * 登记未结束的评论事务的分段数，按任务ID取模，不同任务落在同一段时只会多跳过一些任务
+     */
+    private static final int STRIPES = 1024;
+
+    @Autowired
+    private TaskMapper taskMapper;
+
+    @Autowired
+    private TaskCacheService taskCacheService;
+
+    /**
+     * 是否开启写回缓冲，关闭时在当前事务内直接原子更新
+     */
+    @Value("${guineapig.comment.count.write-behind:true}")
+    private boolean writeBehind = true;
+
+    /**
+     * 任务ID -> 尚未写回的增量
+     */
+    private final Map<Long, Integer> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 每段中已登记、尚未结束的评论事务数
+     */
+    private final AtomicIntegerArray inFlight = new AtomicIntegerArray(STRIPES);
+
+    /**
+     * 每段的登记次数，重新计算前后比较，判断期间是否有评论事务开始
+     */
+    private final AtomicLongArray versions = new AtomicLongArray(STRIPES);
+
+    /**
+     * 校准时跳过或计算期间有评论事务开始、需要重新计算的任务
+     */
+    private final Set<Long> recheck = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong buffered = new AtomicLong();
+    private final AtomicLong flushedStatements = new AtomicLong();
+    private final AtomicLong flushErrors = new AtomicLong();
+    private final AtomicLong reconciled = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+    private final AtomicLong deferred = new AtomicLong();
+
+    @Override
+    public void adjust(Long taskId, int delta) {
+        if (taskId == null || delta == 0) {
+            return;
+        }
+        if (!writeBehind) {
+            taskMapper.adjustCommentCount(taskId, delta);
+            taskCacheService.evictTaskDetail(taskId);
+            taskCacheService.evictTaskDashboards(Collections.singletonList(taskId));
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            merge(taskId, delta);
+            return;
+        }
+        // 提交前登记，事务结束后才解除：校准据此跳过评论已提交但增量尚未合并的任务
+        int stripe = stripe(taskId);
+        inFlight.incrementAndGet(stripe);
+        versions.incrementAndGet(stripe);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                // 回滚的事务不计数；先合并再解除登记，校准看到没有未结束的事务时增量已在缓冲中
+                if (status == STATUS_COMMITTED) {
+                    merge(taskId, delta);
+                }
+                inFlight.decrementAndGet(stripe);
+            }
+        });
+    }
+
+    private void merge(Long taskId, int delta) {
+        pending.merge(taskId, delta, Integer::sum);
+        buffered.incrementAndGet();
+    }
+
+    private int stripe(Long taskId) {
+        return (int) Math.floorMod(taskId, (long) STRIPES);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${guineapig.comment.count.flush-interval:1000}")
+    public synchronized int flush() {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        List<Long> flushedIds = new ArrayList<>();
+        for (Long taskId : new ArrayList<>(pending.keySet())) {
+            Integer delta = pending.remove(taskId);
+            if (delta == null || delta == 0) {
+                continue;
+            }
+            try {
+                taskMapper.adjustCommentCount(taskId, delta);
+                flushedStatements.incrementAndGet();
+                taskCacheService.evictTaskDetail(taskId);
+                flushedIds.add(taskId);
+            } catch (Exception e) {
+                // 放回缓冲，与期间新增的增量合并后下次重试
+                pending.merge(taskId, delta, Integer::sum);
+                flushErrors.incrementAndGet();
+                log.error("写回任务评论数失败: taskId={}, delta={}, {}", taskId, delta, e.getMessage());
+            }
+        }
+        taskCacheService.evictTaskDashboards(flushedIds);
+        if (!recheck.isEmpty()) {
+            List<Long> taskIds = new ArrayList<>(recheck);
+            recheck.removeAll(taskIds);
+            recount(taskIds);
+        }
+        return flushedIds.size();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${guineapig.comment.count.reconcile-interval:3600000}",
+            initialDelayString = "${guineapig.comment.count.reconcile-interval:3600000}")
+    public synchronized int reconcile() {
+        flush();
+        List<Long> taskIds = taskMapper.selectCommentCountMismatches();
+        int recounted = 0;
+        for (int i = 0; i < taskIds.size(); i += RECONCILE_BATCH_SIZE) {
+            recounted += recount(taskIds.subList(i, Math.min(i + RECONCILE_BATCH_SIZE, taskIds.size())));
+        }
+        if (!taskIds.isEmpty()) {
+            log.warn("校准任务评论数: 纠正{}个任务，{}个任务有评论事务未结束，稍后重新计算",
+                    recounted, taskIds.size() - recounted);
+        }
+        return recounted;
+    }
+
+    /**
+     * 按评论表重新计算没有未结束评论事务的任务，其余任务放入待重新计算。
+     * 此时这些任务缓冲中的增量都来自已提交的评论，在计算前取出丢弃；
+     * 计算期间有评论事务开始的任务，其评论可能已被计入而增量之后才合并，同样放入待重新计算
+     * @return 重新计算且期间没有评论事务开始的任务数
+     */
+    private int recount(List<Long> taskIds) {
+        // 先读登记次数再读未结束的事务数，两次读取之间开始的事务会改变登记次数
+        Map<Long, Long> startVersions = new HashMap<>();
+        List<Long> idle = new ArrayList<>();
+        for (Long taskId : taskIds) {
+            int stripe = stripe(taskId);
+            long version = versions.get(stripe);
+            if (inFlight.get(stripe) == 0) {
+                startVersions.put(taskId, version);
+                idle.add(taskId);
+            } else {
+                recheck.add(taskId);
+            }
+        }
+        if (idle.isEmpty()) {
+            deferred.addAndGet(taskIds.size());
+            return 0;
+        }
+
+        Map<Long, Integer> taken = new HashMap<>();
+        for (Long taskId : idle) {
+            Integer delta = pending.remove(taskId);
+            if (delta != null) {
+                taken.put(taskId, delta);
+            }
+        }
+        try {
+            taskMapper.recountComments(idle);
+        } catch (RuntimeException e) {
+            taken.forEach((taskId, delta) -> pending.merge(taskId, delta, Integer::sum));
+            throw e;
+        }
+        discarded.addAndGet(taken.size());
+        idle.forEach(taskCacheService::evictTaskDetail);
+        taskCacheService.evictTaskDashboards(idle);
+
+        int recounted = 0;
+        for (Long taskId : idle) {
+            if (versions.get(stripe(taskId)) == startVersions.get(taskId)) {
+                recounted++;
+            } else {
+                recheck.add(taskId);
+            }
+        }
+        reconciled.addAndGet(recounted);
+        deferred.addAndGet(taskIds.size() - recounted);
+        return recounted;
+    }
+
+    /**
+     * 停止前写回缓冲中的增量
+     */
+    @PreDestroy
+    public void shutdown() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.error("停止前写回任务评论数失败: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("writeBehind", writeBehind);
+        stats.put("pendingTasks", pending.size());
+        stats.put("bufferedDeltas", buffered.get());
+        stats.put("flushedStatements", flushedStatements.get());
+        stats.put("flushErrors", flushErrors.get());
+        stats.put("reconciledTasks", reconciled.get());
+        stats.put("discardedDeltas", discarded.get());
+        stats.put("deferredTasks", deferred.get());
+        stats.put("recheckTasks", recheck.size());
+        return stats;
+    }
+}
@@ -12,9 +12,15 @@ import com.taskManagement.mapper.CommentMapper;
 import com.taskManagement.mapper.TaskMapper;
 import com.taskManagement.mapper.UserMapper;
 import com.taskManagement.mapper.TaskMemberMapper;
+import com.taskManagement.service.CommentCountService;
 import com.taskManagement.service.CommentService;
 import com.taskManagement.service.NotificationService;
+import com.taskManagement.service.UserProfileCacheService;
+import com.taskManagement.service.UsernameIndexService;
+import com.taskManagement.constant.NotificationConstant;
 import com.taskManagement.context.BaseContext;
+import com.taskManagement.utils.PageCursor;
+import com.taskManagement.vo.CursorPageResult;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,16 +28,30 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment> implements CommentService {
 
+    /**
+     * 游标分页每页最大条数
+     */
+    private static final int MAX_PAGE_SIZE = 100;
+    
+    /**
+     * 评论树最多返回的回复层数
+     */
+    private static final int MAX_TREE_DEPTH = 10;
+
     @Autowired
     private CommentMapper commentMapper;
     
@@ -46,6 +66,15 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment> impl
     
     @Autowired
     private TaskMemberMapper taskMemberMapper;
+    
+    @Autowired
+    private UserProfileCacheService userProfileCacheService;
+    
+    @Autowired
+    private UsernameIndexService usernameIndexService;
+    
+    @Autowired
+    private CommentCountService commentCountService;
 
     /**
      * 根据任务ID获取评论列表，并构建评论树结构
@@ -64,9 +93,7 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment> impl
         
         // 直接获取所有评论并返回扁平列表，前端负责构建树结构
         List<Comment> comments = commentMapper.selectByTaskId(taskId);
-        List<CommentDTO> result = comments.stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        List<CommentDTO> result = convertToDTOs(comments);
         
         // 打印前5条评论数据查看格式
         if (!result.isEmpty()) {
@@ -86,57 +113,260 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment> impl
     }
     
     /**
-     * 递归获取子评论
-     * @param parentId 父评论ID
-     * @return 子评论列表
+     * 游标分页获取任务评论，按(create_time, id)倒序，最新的评论在前
+     * @param taskId 任务ID
+     * @param cursor 上一页返回的nextCursor，首页不传
+     * @param pageSize 每页数量
+     * @return 评论扁平列表和下一页游标
      */
-    private List<CommentDTO> getChildComments(Long parentId) {
-        List<Comment> childComments = commentMapper.selectChildrenByParentId(parentId);
-        List<CommentDTO> result = new ArrayList<>();
+    @Override
+    public CursorPageResult<CommentDTO> getCommentsByCursor(Long taskId, String cursor, Integer pageSize) {
+        log.info("游标获取任务评论: taskId={}, cursor={}, pageSize={}", taskId, cursor, pageSize);
         
-        for (Comment comment : childComments) {
-            CommentDTO commentDTO = convertToDTO(comment);
-            // 递归获取下一级子评论
-            commentDTO.setChildren(getChildComments(comment.getId()));
-            result.add(commentDTO);
+        Task task = taskMapper.selectById(taskId);
+        if (task == null) {
+            throw new BusinessException("任务不存在");
+        }
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        int size = pageSize == null || pageSize < 1 ? 20 : Math.min(pageSize, MAX_PAGE_SIZE);
+        
+        // 多取一条用于判断是否还有更早的评论
+        List<Comment> comments = commentMapper.selectPageByTaskId(taskId,
+                pageCursor == null ? null : pageCursor.getTime(),
+                pageCursor == null ? null : pageCursor.getId(),
+                size + 1);
+        boolean hasMore = comments.size() > size;
+        if (hasMore) {
+            comments = comments.subList(0, size);
         }
         
-        return result;
+        String nextCursor = null;
+        if (hasMore) {
+            Comment last = comments.get(comments.size() - 1);
+            // 评论没有优先级，游标中的优先级固定为0
+            nextCursor = new PageCursor(0, last.getCreateTime(), last.getId()).encode();
+        }
+        return new CursorPageResult<>(convertToDTOs(comments), nextCursor, hasMore);
     }
     
     /**
-     * 将评论实体转换为DTO
-     * @param comment 评论实体
-     * @return 评论DTO
+     * 获取任务的评论树，任务的评论一次查出后在内存中组装
+     * @param taskId 任务ID
+     * @param maxDepth 最多返回的回复层数
+     * @param maxReplies 每条评论最多返回的直接回复数
+     * @return 顶级评论列表
      */
-    private CommentDTO convertToDTO(Comment comment) {
-        CommentDTO commentDTO = new CommentDTO();
-        BeanUtils.copyProperties(comment, commentDTO);
+    @Override
+    public List<CommentDTO> getCommentTree(Long taskId, Integer maxDepth, Integer maxReplies) {
+        log.info("获取任务评论树: taskId={}, maxDepth={}, maxReplies={}", taskId, maxDepth, maxReplies);
         
-        // 设置创建用户信息
-        if (comment.getCreateUser() != null) {
-            User user = userMapper.selectById(comment.getCreateUser());
+        Task task = taskMapper.selectById(taskId);
+        if (task == null) {
+            throw new BusinessException("任务不存在");
+        }
+        
+        List<CommentDTO> comments = copyToDTOs(commentMapper.selectByTaskId(taskId));
+        List<CommentDTO> roots = linkChildren(comments, null);
+        int depth = normalizeDepth(maxDepth);
+        int replies = normalizeReplies(maxReplies);
+        for (CommentDTO root : roots) {
+            truncateReplies(root, 0, depth, replies);
+        }
+        // 截断后才解析作者，被截掉的评论不查询用户资料
+        fillAuthors(flatten(roots));
+        return roots;
+    }
+    
+    /**
+     * 加载评论的更多回复，回复子树用一条WITH RECURSIVE查询取出
+     * @param taskId 任务ID
+     * @param commentId 父评论ID
+     * @param cursor 从此位置之后继续加载直接回复，首次加载不传
+     * @param maxDepth 最多返回的回复层数
+     * @param maxReplies 每条评论最多返回的直接回复数
+     * @return 直接回复列表和下一页游标
+     */
+    @Override
+    public CursorPageResult<CommentDTO> getReplies(Long taskId, Long commentId, String cursor,
+                                                   Integer maxDepth, Integer maxReplies) {
+        log.info("加载评论回复: taskId={}, commentId={}, cursor={}, maxDepth={}, maxReplies={}",
+                taskId, commentId, cursor, maxDepth, maxReplies);
+        
+        if (commentMapper.checkCommentBelongsToTask(commentId, taskId) == 0) {
+            throw new BusinessException("评论不存在或不属于该任务");
+        }
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        int depth = normalizeDepth(maxDepth);
+        int replies = normalizeReplies(maxReplies);
+        
+        // 直接回复为第1层，SQL中只取replies+1条直接回复再向下递归；返回depth层，多查一层用于判断被截断的节点是否还有回复
+        List<Comment> subtree = commentMapper.selectReplyTree(commentId,
+                pageCursor == null ? null : pageCursor.getTime(),
+                pageCursor == null ? null : pageCursor.getId(),
+                replies + 1, depth + 1);
+        List<CommentDTO> directReplies = linkChildren(copyToDTOs(subtree), commentId);
+        
+        boolean hasMore = directReplies.size() > replies;
+        if (hasMore) {
+            directReplies = new ArrayList<>(directReplies.subList(0, replies));
+        }
+        for (CommentDTO reply : directReplies) {
+            truncateReplies(reply, 1, depth, replies);
+        }
+        fillAuthors(flatten(directReplies));
+        String nextCursor = null;
+        if (hasMore) {
+            CommentDTO last = directReplies.get(directReplies.size() - 1);
+            nextCursor = new PageCursor(0, last.getCreateTime(), last.getId()).encode();
+        }
+        return new CursorPageResult<>(directReplies, nextCursor, hasMore);
+    }
+    
+    /**
+     * 一次遍历按parentId把评论挂到父评论的children上，保持输入的先后顺序
+     * @param comments 按(create_time, id)正序的评论
+     * @param rootParentId 根节点的父评论ID，任务评论树为null
+     * @return 根节点列表；父评论不在列表中的评论也作为根节点返回
+     */
+    private List<CommentDTO> linkChildren(List<CommentDTO> comments, Long rootParentId) {
+        Map<Long, CommentDTO> commentById = new HashMap<>(comments.size() * 2);
+        for (CommentDTO comment : comments) {
+            commentById.put(comment.getId(), comment);
+        }
+        List<CommentDTO> roots = new ArrayList<>();
+        for (CommentDTO comment : comments) {
+            CommentDTO parent = Objects.equals(comment.getParentId(), rootParentId)
+                    ? null : commentById.get(comment.getParentId());
+            if (parent == null) {
+                roots.add(comment);
+            } else {
+                parent.getChildren().add(comment);
+            }
+        }
+        return roots;
+    }
+    
+    /**
+     * 截断超过层数和每层回复数的部分，并记录回复数和继续加载的游标
+     * @param comment 评论节点
+     * @param depth 节点所在层数，顶级评论为0
+     * @param maxDepth 最多返回的回复层数
+     * @param maxReplies 每条评论最多返回的直接回复数
+     */
+    private void truncateReplies(CommentDTO comment, int depth, int maxDepth, int maxReplies) {
+        List<CommentDTO> children = comment.getChildren();
+        comment.setReplyCount(children.size());
+        comment.setHasMoreReplies(false);
+        if (children.isEmpty()) {
+            return;
+        }
+        if (depth >= maxDepth) {
+            // 更深的回复整体不返回，从第一条回复开始加载
+            comment.setChildren(new ArrayList<>());
+            comment.setHasMoreReplies(true);
+            return;
+        }
+        if (children.size() > maxReplies) {
+            children = new ArrayList<>(children.subList(0, maxReplies));
+            comment.setChildren(children);
+            CommentDTO last = children.get(children.size() - 1);
+            comment.setHasMoreReplies(true);
+            comment.setMoreRepliesCursor(new PageCursor(0, last.getCreateTime(), last.getId()).encode());
+        }
+        for (CommentDTO child : children) {
+            truncateReplies(child, depth + 1, maxDepth, maxReplies);
+        }
+    }
+    
+    private int normalizeDepth(Integer maxDepth) {
+        return maxDepth == null || maxDepth < 1 ? 3 : Math.min(maxDepth, MAX_TREE_DEPTH);
+    }
+    
+    private int normalizeReplies(Integer maxReplies) {
+        return maxReplies == null || maxReplies < 1 ? 20 : Math.min(maxReplies, MAX_PAGE_SIZE);
+    }
+    
+    /**
+     * 批量将评论实体转换为DTO，所有评论的作者通过用户资料缓存一次解析
+     * @param comments 评论实体
+     * @return 评论DTO，顺序与输入一致
+     */
+    private List<CommentDTO> convertToDTOs(List<Comment> comments) {
+        List<CommentDTO> commentDTOs = copyToDTOs(comments);
+        fillAuthors(commentDTOs);
+        return commentDTOs;
+    }
+    
+    /**
+     * 将评论实体复制为DTO，不解析作者
+     * @param comments 评论实体
+     * @return 评论DTO，顺序与输入一致
+     */
+    private List<CommentDTO> copyToDTOs(List<Comment> comments) {
+        return comments.stream()
+                .map(comment -> {
+                    CommentDTO commentDTO = new CommentDTO();
+                    BeanUtils.copyProperties(comment, commentDTO);
+                    // 确保children字段初始化
+                    if (commentDTO.getChildren() == null) {
+                        commentDTO.setChildren(new ArrayList<>());
+                    }
+                    return commentDTO;
+                })
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * 按先序遍历展开评论树，包含各层保留下来的子评论
+     * @param roots 根节点
+     * @return 树中的所有评论
+     */
+    private List<CommentDTO> flatten(List<CommentDTO> roots) {
+        List<CommentDTO> result = new ArrayList<>();
+        Deque<CommentDTO> stack = new ArrayDeque<>();
+        for (int i = roots.size() - 1; i >= 0; i--) {
+            stack.push(roots.get(i));
+        }
+        while (!stack.isEmpty()) {
+            CommentDTO comment = stack.pop();
+            result.add(comment);
+            List<CommentDTO> children = comment.getChildren();
+            for (int i = children.size() - 1; i >= 0; i--) {
+                stack.push(children.get(i));
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * 设置评论的作者名称和头像，所有作者通过用户资料缓存一次解析
+     * @param comments 评论DTO
+     */
+    private void fillAuthors(List<CommentDTO> comments) {
+        if (comments.isEmpty()) {
+            return;
+        }
+        Map<Long, User> authors = userProfileCacheService.getUserProfiles(comments.stream()
+                .map(CommentDTO::getCreateUser)
+                .collect(Collectors.toList()));
+        for (CommentDTO commentDTO : comments) {
+            if (commentDTO.getCreateUser() == null) {
+                commentDTO.setCreateUserName("未知用户");
+                commentDTO.setCreateUserAvatar("");
+                continue;
+            }
+            User user = authors.get(commentDTO.getCreateUser());
             if (user != null) {
                 commentDTO.setCreateUserName(user.getUsername());
                 commentDTO.setCreateUserAvatar(user.getAvatar());
                 log.debug("评论ID:{} 设置用户信息 - 用户:{}, 头像:{}", 
-                         comment.getId(), user.getUsername(), user.getAvatar());
+                         commentDTO.getId(), user.getUsername(), user.getAvatar());
             } else {
-                log.warn("评论ID:{} 找不到用户ID:{}", comment.getId(), comment.getCreateUser());
-                commentDTO.setCreateUserName("用户" + comment.getCreateUser());
+                log.warn("评论ID:{} 找不到用户ID:{}", commentDTO.getId(), commentDTO.getCreateUser());
+                commentDTO.setCreateUserName("用户" + commentDTO.getCreateUser());
                 commentDTO.setCreateUserAvatar("");
             }
-        } else {
-            commentDTO.setCreateUserName("未知用户");
-            commentDTO.setCreateUserAvatar("");
         }
-        
-        // 确保children字段初始化
-        if (commentDTO.getChildren() == null) {
-            commentDTO.setChildren(new ArrayList<>());
-        }
-        
-        return commentDTO;
     }
 
     /**
@@ -167,9 +397,8 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment> impl
         // 4. 保存评论
         commentMapper.insert(comment);
         
-        // 5. 更新任务评论数
-        task.setCommentCount(task.getCommentCount() + 1);
-        taskMapper.updateById(task);
+        // 5. 更新任务评论数（原子增量，不整行写回任务）
+        commentCountService.adjust(task.getId(), 1);
         
         // 6. 处理评论中的@用户通知
         processCommentMentions(comment);
@@ -178,7 +407,7 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment> impl
         notifyTaskMembers(comment, task);
         
         // 8. 转换为DTO并返回
-        CommentDTO resultDTO = convertToDTO(comment);
+        CommentDTO resultDTO = convertToDTOs(Collections.singletonList(comment)).get(0);
         log.info("返回评论DTO: {}", resultDTO);
         return resultDTO;
     }
@@ -203,15 +432,34 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment> impl
         Task task = taskMapper.selectById(comment.getTaskId());
         String taskName = task != null ? task.getName() : "Unknown Task";
         
-        // 查找被@用户的ID并发送通知
-        for (String username : mentionedUsernames) {
-            User user = userMapper.getByUsername(username);
-            if (user != null && !user.getId().equals(currentUserId)) { // 不通知自己
-                String content = currentUsername + " mentioned you in task [" + taskName + "]";
-                notificationService.createCommentMentionNotification(comment.getId(), content, user.getId());
-                log.info("Comment mention notification sent to user {}", username);
-            }
+        // 一次解析所有被@的用户名并发送通知
+        List<Long> recipientIds = resolveMentionedUserIds(mentionedUsernames).stream()
+                .filter(userId -> !userId.equals(currentUserId)) // 不通知自己
+                .collect(Collectors.toList());
+        String content = currentUsername + " mentioned you in task [" + taskName + "]";
+        notificationService.sendNotifications(NotificationConstant.TYPE_COMMENT_MENTION, comment.getId(), content, recipientIds);
+        log.info("Comment mention notification sent to users {}", recipientIds);
+    }
+
+    /**
+     * 解析被@的用户名，优先使用内存中的用户名索引，索引未就绪时用一次IN查询
+     * @param usernames 被@的用户名，可以重复
+     * @return 去重后的用户ID，保持用户名出现的顺序
+     */
+    private List<Long> resolveMentionedUserIds(List<String> usernames) {
+        List<String> distinctNames = usernames.stream().distinct().collect(Collectors.toList());
+        Map<String, Long> resolved = usernameIndexService.resolveUsernames(distinctNames);
+        if (resolved != null) {
+            return resolved.values().stream().distinct().collect(Collectors.toList());
         }
+        Map<String, Long> idByName = userMapper.selectList(new LambdaQueryWrapper<User>()
+                        .in(User::getUsername, distinctNames)).stream()
+                .collect(Collectors.toMap(user -> user.getUsername().toLowerCase(), User::getId, (a, b) -> a));
+        return distinctNames.stream()
+                .map(name -> idByName.get(name.toLowerCase()))
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
     }
 
     /**
@@ -250,10 +498,8 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment> impl
         
         // 发送通知给所有成员
         String content = currentUsername + " commented on task [" + taskName + "]";
-        for (Long userId : memberIds) {
-            notificationService.createCommentMentionNotification(comment.getId(), content, userId);
-            log.info("已发送评论通知给任务成员: {}", userId);
-        }
+        notificationService.sendNotifications(NotificationConstant.TYPE_COMMENT_MENTION, comment.getId(), content, memberIds);
+        log.info("已发送评论通知给任务成员: {}", memberIds);
     }
 
     /**
@@ -296,34 +542,15 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment> impl
         }
         
         // 获取将被删除的评论数量（包括子评论）
-        List<Comment> comments = new ArrayList<>();
-        comments.add(comment);
-        getChildCommentsRecursively(commentId, comments);
-        int deleteCount = comments.size();
+        int deleteCount = commentMapper.countWithChildren(commentId);
         
         // 删除评论及其所有子评论（使用优化的递归SQL）
         commentMapper.deleteWithChildren(commentId);
         
         // 更新任务评论数量
-        task.setCommentCount(Math.max(0, task.getCommentCount() - deleteCount));
-        taskMapper.updateById(task);
+        commentCountService.adjust(taskId, -deleteCount);
     }
     
-    /**
-     * 递归获取所有子评论
-     * @param parentId 父评论ID
-     * @param comments 评论集合
-     */
-    private void getChildCommentsRecursively(Long parentId, List<Comment> comments) {
-        List<Comment> childComments = commentMapper.selectChildrenByParentId(parentId);
-        if (!childComments.isEmpty()) {
-            for (Comment childComment : childComments) {
-                comments.add(childComment);
-                getChildCommentsRecursively(childComment.getId(), comments);
-            }
-        }
-    }
-
     /**
      * 根据评论ID获取评论详情
      * @param commentId 评论ID
@@ -339,20 +566,7 @@ public class CommentServiceImpl extends ServiceImpl<CommentMapper, Comment> impl
             throw new BusinessException("评论不存在");
         }
         
-        // 转换为DTO
-        CommentDTO commentDTO = new CommentDTO();
-        BeanUtils.copyProperties(comment, commentDTO);
-        
-        // 获取创建用户信息
-        User user = userMapper.selectById(comment.getCreateUser());
-        if (user != null) {
-            commentDTO.setCreateUserName(user.getUsername());
-            commentDTO.setCreateUserAvatar(user.getAvatar());
-        } else {
-            commentDTO.setCreateUserName("未知用户");
-            commentDTO.setCreateUserAvatar(null);
-        }
-        
-        return commentDTO;
+        // 转换为DTO，创建用户信息从用户资料缓存获取
+        return convertToDTOs(Collections.singletonList(comment)).get(0);
     }
 }
\ No newline at end of file
@@ -1,44 +1,80 @@
 package com.taskManagement.service.impl;
 
-import com.aliyun.oss.OSS;
-import com.aliyun.oss.model.ObjectMetadata;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.taskManagement.config.AliyunOSSConfig;
+import com.taskManagement.constant.FileConstant;
+import com.taskManagement.dto.FileContentDTO;
+import com.taskManagement.dto.FileRenditionDTO;
+import com.taskManagement.dto.StorageObjectDTO;
+import com.taskManagement.entity.FileObject;
 import com.taskManagement.entity.ProjectAttachment;
 import com.taskManagement.entity.TaskAttachment;
 import com.taskManagement.entity.User;
+import com.taskManagement.exception.RangeNotSatisfiableException;
+import com.taskManagement.mapper.FileObjectMapper;
 import com.taskManagement.mapper.ProjectAttachmentMapper;
 import com.taskManagement.mapper.TaskAttachmentMapper;
 import com.taskManagement.mapper.UserMapper;
+import com.taskManagement.service.AttachmentCacheService;
 import com.taskManagement.service.FileService;
+import com.taskManagement.service.RenditionService;
+import com.taskManagement.service.StorageService;
+import com.taskManagement.service.UserProfileCacheService;
 import com.taskManagement.utils.FileEncryptionUtil;
+import com.taskManagement.utils.SegmentedEncryption;
+import com.taskManagement.utils.TransactionUtil;
+import com.taskManagement.vo.FileUploadResultVO;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpRange;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
+import java.io.PushbackInputStream;
 import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
-
-import javax.crypto.Cipher;
-import javax.crypto.CipherInputStream;
-import javax.crypto.spec.SecretKeySpec;
-import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class FileServiceImpl implements FileService {
 
     @Autowired
-    private OSS ossClient;
+    private StorageService storageService;
 
     @Autowired
     private AliyunOSSConfig ossConfig;
+
+    @Autowired
+    private AttachmentCacheService attachmentCache;
     
     @Autowired
     private ProjectAttachmentMapper projectAttachmentMapper;
@@ -49,18 +85,370 @@ public class FileServiceImpl implements FileService {
     @Autowired
     private UserMapper userMapper;
     
+    @Autowired
+    private FileObjectMapper fileObjectMapper;
+    
+    @Autowired
+    private RenditionService renditionService;
+
+    @Autowired
+    private UserProfileCacheService userProfileCacheService;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
     // 文件夹路径常量，在service层硬编码
     private static final String PROJECT_FOLDER = "project/";
     private static final String TASK_FOLDER = "task/";
     private static final String AVATAR_FOLDER = "avatar/";
     
     /**
-     * 内部私有方法，用于加密上传文件到OSS
+     * 读取密文时的缓冲区大小，与加密段大小一致
+     */
+    private static final int READ_BUFFER_SIZE = SegmentedEncryption.DEFAULT_SEGMENT_SIZE;
+    
+    /**
+     * 批量上传时同时加密上传的最大文件数
+     */
+    @Value("${guineapig.file.upload.parallelism:8}")
+    private int uploadParallelism = 8;
+    
+    /**
+     * 线程池等待队列长度，队列满时由请求线程自己上传
+     */
+    @Value("${guineapig.file.upload.queue-capacity:256}")
+    private int uploadQueueCapacity = 256;
+    
+    private ExecutorService uploadExecutor;
+    
+    /**
+     * 限制所有批量请求合计的并发上传数
+     */
+    private Semaphore uploadPermits;
+    
+    @PostConstruct
+    public void init() {
+        uploadPermits = new Semaphore(uploadParallelism);
+        uploadExecutor = createUploadExecutor();
+    }
+    
+    @PreDestroy
+    public void destroy() {
+        uploadExecutor.shutdown();
+    }
+    
+    /**
+     * 运行在支持虚拟线程的JDK上时每个文件使用一个虚拟线程，否则使用固定大小的线程池
+     */
+    private ExecutorService createUploadExecutor() {
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            log.info("批量上传使用虚拟线程, 最大并发数: {}", uploadParallelism);
+            return executor;
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger threadIndex = new AtomicInteger();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(uploadParallelism, uploadParallelism,
+                    60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(uploadQueueCapacity),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "file-upload-" + threadIndex.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+            executor.allowCoreThreadTimeOut(true);
+            log.info("批量上传使用线程池, 最大并发数: {}", uploadParallelism);
+            return executor;
+        }
+    }
+    
+    /**
+     * 存储阶段写入的内容，附件记录写入之前不占用对象的引用数
+     */
+    private static class StoredContent {
+        /**
+         * 内容哈希，不参与去重的上传为null
+         */
+        private String contentHash;
+        /**
+         * 内容相同的已有对象，引用在附件记录写入时才增加
+         */
+        private String existingKey;
+        /**
+         * 刚上传的对象
+         */
+        private String objectKey;
+        private SegmentedEncryption.Header header;
+        private String errorMessage;
+    }
+    
+    /**
+     * 存储阶段：内容相同的对象已存在时只记下对象键，不再加密上传，否则加密上传新对象
+     * 这里不修改引用数，可以在上传线程池中执行；引用由referenceContent在写入附件记录的事务中增加
      * @param file 文件
      * @param folderPath 文件夹路径
-     * @return OSS文件URL
+     * @param shared 是否参与内容去重，没有附件记录的上传不参与
+     * @return 已存储的内容
+     */
+    private StoredContent storeContent(MultipartFile file, String folderPath, boolean shared) {
+        StoredContent content = new StoredContent();
+        if (shared) {
+            content.contentHash = hashContent(file);
+            FileObject existing = fileObjectMapper.selectOne(new LambdaQueryWrapper<FileObject>()
+                    .eq(FileObject::getContentHash, content.contentHash)
+                    .gt(FileObject::getRefCount, 0));
+            if (existing != null) {
+                content.existingKey = existing.getObjectKey();
+                return content;
+            }
+        }
+        content.header = SegmentedEncryption.newHeader(file.getSize());
+        content.objectKey = uploadEncryptedFile(file, folderPath, content.header);
+        return content;
+    }
+    
+    /**
+     * 引用阶段：增加已有对象的引用数或把新对象写入内容索引，必须与附件记录的写入在同一事务中
+     * @return 文件URL
+     */
+    private String referenceContent(StoredContent content, MultipartFile file, String folderPath) {
+        if (content.existingKey != null) {
+            FileObject existing = acquireExisting(content.contentHash);
+            if (existing != null) {
+                log.info("文件[{}]内容已存在，引用已有对象：{}", file.getOriginalFilename(), existing.getObjectKey());
+                return getFileUrl(existing.getObjectKey());
+            }
+            // 已有对象在存储阶段之后被释放，重新上传
+            content.header = SegmentedEncryption.newHeader(file.getSize());
+            content.objectKey = uploadEncryptedFile(file, folderPath, content.header);
+        }
+        return indexStoredObject(content.objectKey, content.contentHash, file.getSize(), file.getContentType(),
+                content.header);
+    }
+    
+    /**
+     * 在事务中引用已存储的内容并写入附件记录，失败时删除存储阶段新上传的对象
+     */
+    private <T> T attachInTransaction(Collection<StoredContent> contents, Supplier<T> action) {
+        try {
+            return transactionTemplate.execute(status -> action.get());
+        } catch (RuntimeException e) {
+            contents.stream()
+                    .map(content -> content.objectKey)
+                    .filter(Objects::nonNull)
+                    .forEach(this::deleteStoredObject);
+            throw e;
+        }
+    }
+    
+    private String getFileUrl(String objectKey) {
+        return storageService.getUrlPrefix() + "/" + objectKey;
+    }
+    
+    /**
+     * 登记分片上传合并后的对象，内容相同的对象已存在时引用已有对象并删除刚合并的对象
+     * @param objectKey 合并后的对象键
+     * @param contentHash 内容哈希
+     * @param fileSize 原始大小
+     * @param contentType MIME类型
+     * @param header 加密文件头
+     * @return 文件URL
      */
-    private String uploadEncryptedFileToOSS(MultipartFile file, String folderPath) {
+    @Override
+    public String registerStoredObject(String objectKey, String contentHash, long fileSize, String contentType,
+                                       SegmentedEncryption.Header header) {
+        FileObject existing = acquireExisting(contentHash);
+        if (existing != null) {
+            log.info("分片上传的文件内容已存在，引用已有对象：{}", existing.getObjectKey());
+            // 提交后再删除，附件记录写入失败回滚时会话仍可用合并后的对象重试
+            TransactionUtil.afterCommit(() -> deleteStoredObject(objectKey));
+            return storageService.getUrlPrefix() + "/" + existing.getObjectKey();
+        }
+        return indexStoredObject(objectKey, contentHash, fileSize, contentType, header);
+    }
+    
+    /**
+     * 把已上传的对象写入内容索引并提交渲染图生成
+     * @return 文件URL，并发上传了相同内容时为先写入的对象的URL
+     */
+    private String indexStoredObject(String objectName, String contentHash, long fileSize, String contentType,
+                                     SegmentedEncryption.Header header) {
+        FileObject fileObject = new FileObject();
+        fileObject.setContentHash(contentHash);
+        fileObject.setObjectKey(objectName);
+        fileObject.setFileSize(fileSize);
+        fileObject.setContentType(contentType);
+        fileObject.setEncryptedSize(header.getEncryptedLength());
+        fileObject.setFormatVersion((int) SegmentedEncryption.VERSION);
+        fileObject.setEncryptionHeader(HexFormat.of().formatHex(header.getBytes()));
+        fileObject.setRefCount(1);
+        boolean renderable = renditionService.supports(contentType, fileSize);
+        fileObject.setRenditionStatus(renderable ? FileConstant.RENDITION_PENDING : FileConstant.RENDITION_UNSUPPORTED);
+        try {
+            fileObjectMapper.insert(fileObject);
+            if (renderable) {
+                // 上传在事务中时，提交后对象记录才对生成线程可见
+                TransactionUtil.afterCommit(() -> renditionService.submit(objectName));
+            }
+        } catch (DuplicateKeyException e) {
+            // 相同内容被并发上传，引用先写入的对象并删除刚上传的对象
+            FileObject winner = acquireExisting(contentHash);
+            if (winner != null) {
+                deleteStoredObject(objectName);
+                return storageService.getUrlPrefix() + "/" + winner.getObjectKey();
+            }
+            // 已有对象的引用正在释放，保留刚上传的对象，不计入索引
+            log.warn("对象内容索引冲突，不参与去重：{}", objectName);
+        }
+        return storageService.getUrlPrefix() + "/" + objectName;
+    }
+    
+    /**
+     * 引用内容相同的已有对象
+     * @return 已有对象，不存在或正在删除时返回null
+     */
+    private FileObject acquireExisting(String contentHash) {
+        if (fileObjectMapper.incrementRef(contentHash) == 0) {
+            return null;
+        }
+        return fileObjectMapper.selectOne(new LambdaQueryWrapper<FileObject>()
+                .eq(FileObject::getContentHash, contentHash));
+    }
+    
+    /**
+     * 边读边计算原始内容的SHA-256，上传的文件已在本地，读取代价远小于加密上传
+     */
+    private String hashContent(MultipartFile file) {
+        try (InputStream inputStream = file.getInputStream()) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[READ_BUFFER_SIZE];
+            int n;
+            while ((n = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, n);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (Exception e) {
+            log.error("文件[{}]计算哈希失败", file.getOriginalFilename(), e);
+            throw new RuntimeException("文件读取失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 释放附件记录对存储对象的引用
+     * @param fileUrl 附件的文件URL
+     */
+    @Override
+    public void releaseFile(String fileUrl) {
+        String objectKey = getObjectKeyFromUrl(fileUrl);
+        if (objectKey == null) {
+            return;
+        }
+        if (fileObjectMapper.decrementRef(objectKey) == 0) {
+            // 去重之前上传的文件不在索引中，无法确定是否还有引用，不删除
+            return;
+        }
+        if (fileObjectMapper.deleteUnreferenced(objectKey) > 0) {
+            log.info("对象已没有附件引用，提交后删除：{}", objectKey);
+            TransactionUtil.afterCommit(() -> deleteStoredObject(objectKey));
+        }
+    }
+    
+    private void deleteStoredObject(String objectKey) {
+        try {
+            storageService.deleteObject(objectKey);
+            attachmentCache.evict(objectKey);
+        } catch (Exception e) {
+            log.error("删除存储对象失败：{}", objectKey, e);
+        }
+        deleteRenditions(objectKey);
+    }
+    
+    /**
+     * 渲染图的对象键，放在原文件旁
+     */
+    private String getRenditionKey(String objectKey, String rendition) {
+        return objectKey + "." + rendition + ".jpg";
+    }
+    
+    /**
+     * 加密存储附件的渲染图
+     * @param objectKey 原文件的对象键
+     * @param rendition 渲染图名称
+     * @param content 渲染图内容
+     * @param contentType 渲染图MIME类型
+     * @return 渲染图的对象键
+     */
+    @Override
+    public String storeRendition(String objectKey, String rendition, byte[] content, String contentType) {
+        String renditionKey = getRenditionKey(objectKey, rendition);
+        try (InputStream encryptedStream = SegmentedEncryption.encryptStream(
+                new ByteArrayInputStream(content), content.length, ossConfig.getEncryptionKey())) {
+            storageService.putObject(renditionKey, encryptedStream,
+                    SegmentedEncryption.getEncryptedLength(content.length), contentType);
+            return renditionKey;
+        } catch (Exception e) {
+            log.error("渲染图存储失败：{}", renditionKey, e);
+            throw new RuntimeException("渲染图存储失败: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 删除附件的全部渲染图，不存在的渲染图忽略
+     * @param objectKey 原文件的对象键
+     */
+    @Override
+    public void deleteRenditions(String objectKey) {
+        for (String rendition : new String[]{FileConstant.RENDITION_THUMBNAIL, FileConstant.RENDITION_PREVIEW}) {
+            String renditionKey = getRenditionKey(objectKey, rendition);
+            try {
+                storageService.deleteObject(renditionKey);
+                attachmentCache.evict(renditionKey);
+            } catch (Exception e) {
+                log.error("删除渲染图失败：{}", renditionKey, e);
+            }
+        }
+    }
+    
+    /**
+     * 批量查询附件的渲染图URL
+     * @param fileUrls 附件的文件URL
+     * @return 文件URL到渲染图的映射
+     */
+    @Override
+    public Map<String, FileRenditionDTO> getRenditions(Collection<String> fileUrls) {
+        Map<String, String> urlsByKey = new HashMap<>();
+        for (String fileUrl : fileUrls) {
+            String objectKey = getObjectKeyFromUrl(fileUrl);
+            if (objectKey != null) {
+                urlsByKey.put(objectKey, fileUrl);
+            }
+        }
+        Map<String, FileRenditionDTO> renditions = new HashMap<>();
+        if (urlsByKey.isEmpty()) {
+            return renditions;
+        }
+        
+        List<FileObject> ready = fileObjectMapper.selectList(new LambdaQueryWrapper<FileObject>()
+                .in(FileObject::getObjectKey, urlsByKey.keySet())
+                .eq(FileObject::getRenditionStatus, FileConstant.RENDITION_READY));
+        String urlPrefix = storageService.getUrlPrefix() + "/";
+        for (FileObject fileObject : ready) {
+            FileRenditionDTO rendition = new FileRenditionDTO();
+            rendition.setThumbnailUrl(urlPrefix + getRenditionKey(fileObject.getObjectKey(), FileConstant.RENDITION_THUMBNAIL));
+            rendition.setPreviewUrl(urlPrefix + getRenditionKey(fileObject.getObjectKey(), FileConstant.RENDITION_PREVIEW));
+            renditions.put(urlsByKey.get(fileObject.getObjectKey()), rendition);
+        }
+        return renditions;
+    }
+    
+    /**
+     * 内部私有方法，用于加密上传文件到对象存储
+     * @param file 文件
+     * @param folderPath 文件夹路径
+     * @param header 加密文件头
+     * @return 对象键
+     */
+    private String uploadEncryptedFile(MultipartFile file, String folderPath, SegmentedEncryption.Header header) {
         String fileName = file.getOriginalFilename();
         String objectName = null;
         
@@ -69,20 +457,13 @@ public class FileServiceImpl implements FileService {
             String encryptedFileName = FileEncryptionUtil.generateEncryptedFileName(fileName);
             objectName = folderPath + encryptedFileName;
             
-            // 加密文件内容
-            InputStream encryptedStream = FileEncryptionUtil.encryptFile(file, ossConfig.getEncryptionKey());
-            
-            // 设置元数据
-            ObjectMetadata metadata = new ObjectMetadata();
-            metadata.setContentType(file.getContentType());
-            metadata.setContentLength(encryptedStream.available());
-            
-            // 上传到OSS
-            ossClient.putObject(ossConfig.getBucketName(), objectName, encryptedStream, metadata);
-            log.info("文件[{}]加密上传成功，OSS路径：{}", fileName, objectName);
-            
-            // 返回访问URL
-            return ossConfig.getUrlPrefix() + "/" + objectName;
+            // 按段边读边加密上传，密文长度由原始大小直接算出，不需要先加密到内存
+            try (InputStream encryptedStream = SegmentedEncryption.encryptStream(
+                    file.getInputStream(), header, ossConfig.getEncryptionKey())) {
+                storageService.putObject(objectName, encryptedStream, header.getEncryptedLength(), file.getContentType());
+            }
+            log.info("文件[{}]加密上传成功，存储路径：{}", fileName, objectName);
+            return objectName;
         } catch (Exception e) {
             log.error("文件[{}]加密上传失败", fileName, e);
             throw new RuntimeException("文件上传失败: " + e.getMessage());
@@ -101,27 +482,20 @@ public class FileServiceImpl implements FileService {
         String fileName = file.getOriginalFilename();
         
         try {
-            // 上传文件到OSS
-            String fileUrl = uploadEncryptedFileToOSS(file, TASK_FOLDER);
+            // 如果提供了任务ID和用户ID，保存到任务附件表；否则只上传文件，不占用共享对象的引用
+            boolean attached = taskId != null && userId != null && taskId > 0;
+            StoredContent content = storeContent(file, TASK_FOLDER, attached);
+            if (!attached) {
+                return getFileUrl(content.objectKey);
+            }
             
-            // 如果提供了任务ID和用户ID，保存到任务附件表
-            if (taskId != null && userId != null && taskId > 0) {
-                TaskAttachment taskAttachment = new TaskAttachment();
-                taskAttachment.setTaskId(taskId);
-                taskAttachment.setFileName(fileName);
-                taskAttachment.setFilePath(fileUrl);
-                taskAttachment.setFileSize(file.getSize());
-                taskAttachment.setFileType(file.getContentType());
-                taskAttachment.setCreateUser(userId);
-                taskAttachment.setUpdateUser(userId);
-                
-                taskAttachmentMapper.insert(taskAttachment);
+            return attachInTransaction(List.of(content), () -> {
+                String fileUrl = referenceContent(content, file, TASK_FOLDER);
+                taskAttachmentMapper.insert(buildTaskAttachment(file, fileUrl, taskId, userId));
                 log.info("任务文件[{}]记录已保存到数据库, 任务ID: {}, 文件大小: {}, 文件类型: {}", 
                         fileName, taskId, file.getSize(), file.getContentType());
-            }
-            
-            // 返回访问URL
-            return fileUrl;
+                return fileUrl;
+            });
         } catch (Exception e) {
             log.error("任务文件[{}]加密上传失败, 错误: {}", fileName, e.getMessage(), e);
             throw new RuntimeException("任务文件上传失败: " + e.getMessage());
@@ -129,7 +503,7 @@ public class FileServiceImpl implements FileService {
     }
     
     /**
-     * 批量上传任务文件到阿里云OSS的task/文件夹并保存到任务附件表
+     * 批量上传任务文件到对象存储的task/文件夹并保存到任务附件表
      * @param files 文件列表
      * @param taskId 任务ID
      * @param userId 用户ID
@@ -137,18 +511,34 @@ public class FileServiceImpl implements FileService {
      */
     @Override
     public List<String> uploadTaskFiles(List<MultipartFile> files, Long taskId, Long userId) {
-        List<String> urls = new ArrayList<>();
-        
-        for (MultipartFile file : files) {
-            String url = uploadTaskFile(file, taskId, userId);
-            urls.add(url);
-        }
+        return collectUrls(batchUploadTaskFiles(files, taskId, userId));
+    }
+    
+    /**
+     * 并发上传多个任务文件，附件记录一次批量写入
+     * @param files 文件列表
+     * @param taskId 任务ID
+     * @param userId 用户ID
+     * @return 按文件顺序的上传结果
+     */
+    @Override
+    public List<FileUploadResultVO> batchUploadTaskFiles(List<MultipartFile> files, Long taskId, Long userId) {
+        long start = System.currentTimeMillis();
+        // 如果提供了任务ID和用户ID，成功的文件一次写入任务附件表
+        boolean attached = taskId != null && userId != null && taskId > 0;
+        List<StoredContent> contents = uploadConcurrently(files, TASK_FOLDER, attached);
+        List<FileUploadResultVO> results = attached
+                ? attachAll(files, contents, TASK_FOLDER,
+                        (file, fileUrl) -> buildTaskAttachment(file, fileUrl, taskId, userId),
+                        taskAttachmentMapper::batchInsert)
+                : toResults(files, contents);
         
-        return urls;
+        logBatchResult("任务", results, start);
+        return results;
     }
     
     /**
-     * 上传项目文件到阿里云OSS的project/文件夹并保存至项目附件表
+     * 上传项目文件到对象存储的project/文件夹并保存至项目附件表
      * @param file 文件
      * @param projectId 项目ID
      * @param userId 用户ID
@@ -159,26 +549,20 @@ public class FileServiceImpl implements FileService {
         String fileName = file.getOriginalFilename();
         
         try {
-            // 上传文件到OSS
-            String fileUrl = uploadEncryptedFileToOSS(file, PROJECT_FOLDER);
+            // 只有当项目ID > 0时才保存到项目附件表；否则只上传文件，不占用共享对象的引用
+            boolean attached = projectId != null && projectId > 0 && userId != null;
+            StoredContent content = storeContent(file, PROJECT_FOLDER, attached);
+            if (!attached) {
+                return getFileUrl(content.objectKey);
+            }
             
-            // 只有当项目ID > 0时才保存到项目附件表
-            if (projectId != null && projectId > 0 && userId != null) {
-                ProjectAttachment projectAttachment = new ProjectAttachment();
-                projectAttachment.setProjectId(projectId);
-                projectAttachment.setFileName(fileName);
-                projectAttachment.setFilePath(fileUrl);
-                projectAttachment.setFileSize(file.getSize());
-                projectAttachment.setFileType(file.getContentType());
-                projectAttachment.setCreateUser(userId);
-                projectAttachment.setUpdateUser(userId);
-                
-                projectAttachmentMapper.insert(projectAttachment);
+            return attachInTransaction(List.of(content), () -> {
+                String fileUrl = referenceContent(content, file, PROJECT_FOLDER);
+                projectAttachmentMapper.insert(buildProjectAttachment(file, fileUrl, projectId, userId));
                 log.info("项目文件[{}]记录已保存到数据库, 项目ID: {}, 文件大小: {}, 文件类型: {}", 
                         fileName, projectId, file.getSize(), file.getContentType());
-            }
-            
-            return fileUrl;
+                return fileUrl;
+            });
         } catch (Exception e) {
             log.error("项目文件[{}]上传失败, 错误: {}", fileName, e.getMessage(), e);
             throw new RuntimeException("项目文件上传失败: " + e.getMessage());
@@ -186,7 +570,7 @@ public class FileServiceImpl implements FileService {
     }
     
     /**
-     * 批量上传项目文件到阿里云OSS的project/文件夹并保存至项目附件表
+     * 批量上传项目文件到对象存储的project/文件夹并保存至项目附件表
      * @param files 文件列表
      * @param projectId 项目ID
      * @param userId 用户ID
@@ -194,18 +578,219 @@ public class FileServiceImpl implements FileService {
      */
     @Override
     public List<String> uploadProjectFiles(List<MultipartFile> files, Long projectId, Long userId) {
-        List<String> urls = new ArrayList<>();
+        return collectUrls(batchUploadProjectFiles(files, projectId, userId));
+    }
+    
+    /**
+     * 并发上传多个项目文件，附件记录一次批量写入
+     * @param files 文件列表
+     * @param projectId 项目ID
+     * @param userId 用户ID
+     * @return 按文件顺序的上传结果
+     */
+    @Override
+    public List<FileUploadResultVO> batchUploadProjectFiles(List<MultipartFile> files, Long projectId, Long userId) {
+        long start = System.currentTimeMillis();
+        // 只有当项目ID > 0时，成功的文件才一次写入项目附件表
+        boolean attached = projectId != null && projectId > 0 && userId != null;
+        List<StoredContent> contents = uploadConcurrently(files, PROJECT_FOLDER, attached);
+        List<FileUploadResultVO> results = attached
+                ? attachAll(files, contents, PROJECT_FOLDER,
+                        (file, fileUrl) -> buildProjectAttachment(file, fileUrl, projectId, userId),
+                        projectAttachmentMapper::batchInsert)
+                : toResults(files, contents);
         
-        for (MultipartFile file : files) {
-            String url = uploadProjectFile(file, projectId, userId);
-            urls.add(url);
+        logBatchResult("项目", results, start);
+        return results;
+    }
+    
+    /**
+     * 在上传线程池中并发执行存储阶段，等待全部完成后按文件顺序返回，不修改引用数
+     * 请求线程被中断时整批放弃，已存储的文件也不再写入附件记录，删除其刚上传的对象
+     * @param files 文件列表
+     * @param folderPath 文件夹路径
+     * @param shared 是否参与内容去重
+     * @return 已存储的内容，失败的文件带有错误信息
+     */
+    private List<StoredContent> uploadConcurrently(List<MultipartFile> files, String folderPath, boolean shared) {
+        int count = files.size();
+        // 上传线程存储完成后在锁内登记；请求线程放弃某个文件时在同一把锁内取走已登记的内容，
+        // 放弃之后才完成的上传由上传线程自己删除，取消时刚上传的对象不会遗留在存储中
+        StoredContent[] stored = new StoredContent[count];
+        boolean[] abandoned = new boolean[count];
+        List<Future<StoredContent>> futures = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            MultipartFile file = files.get(i);
+            futures.add(uploadExecutor.submit(() -> {
+                StoredContent content;
+                uploadPermits.acquire();
+                try {
+                    content = storeContent(file, folderPath, shared);
+                } finally {
+                    uploadPermits.release();
+                }
+                synchronized (stored) {
+                    if (!abandoned[index]) {
+                        stored[index] = content;
+                        return content;
+                    }
+                }
+                discardStored(content);
+                return content;
+            }));
         }
         
-        return urls;
+        List<StoredContent> contents = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            try {
+                contents.add(futures.get(i).get());
+            } catch (ExecutionException e) {
+                contents.add(failedContent(e.getCause().getMessage()));
+            } catch (CancellationException e) {
+                discardStored(abandon(stored, abandoned, i));
+                contents.add(failedContent("上传被取消"));
+            } catch (InterruptedException e) {
+                // 请求线程被中断，取消尚未完成的上传，删除已完成文件的对象，全部文件记为失败，不再等待
+                Thread.currentThread().interrupt();
+                futures.subList(i, count).forEach(future -> future.cancel(true));
+                for (int j = 0; j < count; j++) {
+                    discardStored(abandon(stored, abandoned, j));
+                }
+                contents.clear();
+                while (contents.size() < count) {
+                    contents.add(failedContent("上传被中断"));
+                }
+                break;
+            }
+        }
+        return contents;
     }
     
     /**
-     * 上传用户头像到阿里云OSS的avatar/文件夹并更新用户头像
+     * 放弃一个文件，返回已登记的内容；尚未完成的上传在完成后自行删除对象
+     */
+    private static StoredContent abandon(StoredContent[] stored, boolean[] abandoned, int index) {
+        synchronized (stored) {
+            abandoned[index] = true;
+            StoredContent content = stored[index];
+            stored[index] = null;
+            return content;
+        }
+    }
+    
+    /**
+     * 删除被放弃的文件在存储阶段新上传的对象，引用已有对象的内容不需要处理
+     */
+    private void discardStored(StoredContent content) {
+        if (content != null && content.objectKey != null) {
+            deleteStoredObject(content.objectKey);
+        }
+    }
+    
+    private StoredContent failedContent(String errorMessage) {
+        StoredContent content = new StoredContent();
+        content.errorMessage = errorMessage;
+        return content;
+    }
+    
+    /**
+     * 在一个事务中引用存储成功的内容并批量写入附件记录
+     */
+    private <A> List<FileUploadResultVO> attachAll(List<MultipartFile> files, List<StoredContent> contents,
+                                                   String folderPath,
+                                                   BiFunction<MultipartFile, String, A> buildAttachment,
+                                                   Consumer<List<A>> batchInsert) {
+        return attachInTransaction(contents, () -> {
+            List<FileUploadResultVO> results = new ArrayList<>(files.size());
+            List<A> attachments = new ArrayList<>();
+            for (int i = 0; i < files.size(); i++) {
+                MultipartFile file = files.get(i);
+                StoredContent content = contents.get(i);
+                String fileUrl = null;
+                if (content.errorMessage == null) {
+                    fileUrl = referenceContent(content, file, folderPath);
+                    attachments.add(buildAttachment.apply(file, fileUrl));
+                }
+                results.add(toResult(file, content, fileUrl));
+            }
+            if (!attachments.isEmpty()) {
+                batchInsert.accept(attachments);
+            }
+            return results;
+        });
+    }
+    
+    /**
+     * 没有附件记录的上传，直接返回新上传对象的URL
+     */
+    private List<FileUploadResultVO> toResults(List<MultipartFile> files, List<StoredContent> contents) {
+        List<FileUploadResultVO> results = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            StoredContent content = contents.get(i);
+            String fileUrl = content.errorMessage == null ? getFileUrl(content.objectKey) : null;
+            results.add(toResult(files.get(i), content, fileUrl));
+        }
+        return results;
+    }
+    
+    private FileUploadResultVO toResult(MultipartFile file, StoredContent content, String fileUrl) {
+        FileUploadResultVO result = new FileUploadResultVO();
+        result.setFileName(file.getOriginalFilename());
+        result.setFileSize(file.getSize());
+        result.setSuccess(content.errorMessage == null);
+        result.setFileUrl(fileUrl);
+        result.setErrorMessage(content.errorMessage);
+        return result;
+    }
+    
+    /**
+     * 返回全部文件的URL，有文件上传失败时抛出异常
+     */
+    private List<String> collectUrls(List<FileUploadResultVO> results) {
+        List<FileUploadResultVO> failed = results.stream()
+                .filter(result -> !Boolean.TRUE.equals(result.getSuccess()))
+                .collect(Collectors.toList());
+        if (!failed.isEmpty()) {
+            throw new RuntimeException("文件上传失败: " + failed.stream()
+                    .map(result -> result.getFileName() + "(" + result.getErrorMessage() + ")")
+                    .collect(Collectors.joining(", ")));
+        }
+        return results.stream().map(FileUploadResultVO::getFileUrl).collect(Collectors.toList());
+    }
+    
+    private void logBatchResult(String type, List<FileUploadResultVO> results, long start) {
+        long succeeded = results.stream().filter(result -> Boolean.TRUE.equals(result.getSuccess())).count();
+        log.info("批量上传{}文件完成: 成功{}个, 失败{}个, 耗时{}ms",
+                type, succeeded, results.size() - succeeded, System.currentTimeMillis() - start);
+    }
+    
+    private TaskAttachment buildTaskAttachment(MultipartFile file, String fileUrl, Long taskId, Long userId) {
+        TaskAttachment taskAttachment = new TaskAttachment();
+        taskAttachment.setTaskId(taskId);
+        taskAttachment.setFileName(file.getOriginalFilename());
+        taskAttachment.setFilePath(fileUrl);
+        taskAttachment.setFileSize(file.getSize());
+        taskAttachment.setFileType(file.getContentType());
+        taskAttachment.setCreateUser(userId);
+        taskAttachment.setUpdateUser(userId);
+        return taskAttachment;
+    }
+    
+    private ProjectAttachment buildProjectAttachment(MultipartFile file, String fileUrl, Long projectId, Long userId) {
+        ProjectAttachment projectAttachment = new ProjectAttachment();
+        projectAttachment.setProjectId(projectId);
+        projectAttachment.setFileName(file.getOriginalFilename());
+        projectAttachment.setFilePath(fileUrl);
+        projectAttachment.setFileSize(file.getSize());
+        projectAttachment.setFileType(file.getContentType());
+        projectAttachment.setCreateUser(userId);
+        projectAttachment.setUpdateUser(userId);
+        return projectAttachment;
+    }
+    
+    /**
+     * 上传用户头像到对象存储的avatar/文件夹并更新用户头像
      * @param file 头像文件
      * @param userId 用户ID
      * @return 头像URL
@@ -221,23 +806,21 @@ public class FileServiceImpl implements FileService {
                     (fileName != null ? fileName.substring(fileName.lastIndexOf(".")) : ".jpg");
             objectName = AVATAR_FOLDER + uniqueFileName;
             
-            // 设置元数据
-            ObjectMetadata metadata = new ObjectMetadata();
-            metadata.setContentType(file.getContentType());
-            metadata.setContentLength(file.getSize());
-            
-            // 上传到OSS
-            ossClient.putObject(ossConfig.getBucketName(), objectName, file.getInputStream(), metadata);
-            log.info("用户头像[{}]上传成功，OSS路径：{}", fileName, objectName);
+            // 上传到对象存储
+            try (InputStream inputStream = file.getInputStream()) {
+                storageService.putObject(objectName, inputStream, file.getSize(), file.getContentType());
+            }
+            log.info("用户头像[{}]上传成功，存储路径：{}", fileName, objectName);
             
             // 获取文件URL
-            String fileUrl = ossConfig.getUrlPrefix() + "/" + objectName;
+            String fileUrl = storageService.getUrlPrefix() + "/" + objectName;
             
             // 更新用户头像
             User user = userMapper.selectById(userId);
             if (user != null) {
                 user.setAvatar(fileUrl);
                 userMapper.updateById(user);
+                userProfileCacheService.evict(userId);
                 log.info("用户[{}]头像已更新", userId);
             }
             
@@ -249,85 +832,241 @@ public class FileServiceImpl implements FileService {
     }
     
     /**
-     * 从OSS获取文件并解密
-     * @param objectKey OSS对象键（文件路径）
+     * 从对象存储获取文件并解密
+     * @param objectKey 对象键（文件路径）
      * @return 解密后的文件流
      */
     @Override
     public InputStream getDecryptedFile(String objectKey) {
-        try {
-            // 检查文件是否存在
-            boolean exists = ossClient.doesObjectExist(ossConfig.getBucketName(), objectKey);
-            if (!exists) {
-                log.error("文件不存在，路径: {}", objectKey);
-                throw new RuntimeException("文件不存在");
+        return getDecryptedContent(objectKey, null).getContent();
+    }
+    
+    /**
+     * 从对象存储获取文件并边读边解密，可只读取指定范围
+     * @param objectKey 对象键（文件路径）
+     * @param range 请求的范围，为null时读取完整文件
+     * @return 解密后的文件内容
+     */
+    @Override
+    public FileContentDTO getDecryptedContent(String objectKey, HttpRange range) {
+        if (attachmentCache.isEnabled()) {
+            FileContentDTO cached = attachmentCache.getContent(objectKey, range,
+                    () -> loadDecryptedContent(objectKey, null));
+            if (cached != null) {
+                return cached;
             }
-            
-            // 获取文件对象
-            com.aliyun.oss.model.OSSObject ossObject = ossClient.getObject(ossConfig.getBucketName(), objectKey);
-            
-            // 读取加密数据
-            InputStream encryptedStream = ossObject.getObjectContent();
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            byte[] buffer = new byte[4096];
-            int bytesRead;
-            while ((bytesRead = encryptedStream.read(buffer)) != -1) {
-                baos.write(buffer, 0, bytesRead);
+        }
+        // 未启用缓存、超过缓存上限或范围请求未命中时直接读取，范围请求只下载覆盖的段
+        return loadDecryptedContent(objectKey, range);
+    }
+    
+    /**
+     * 直接从对象存储读取并解密，不经过本地缓存
+     */
+    private FileContentDTO loadDecryptedContent(String objectKey, HttpRange range) {
+        InputStream encryptedStream = null;
+        try {
+            if (range != null) {
+                FileContentDTO rangeContent = getDecryptedRangeFromMetadata(objectKey, range);
+                if (rangeContent == null) {
+                    rangeContent = getDecryptedRange(objectKey, range);
+                }
+                if (rangeContent != null) {
+                    return rangeContent;
+                }
             }
-            byte[] encryptedBytes = baos.toByteArray();
-            encryptedStream.close();
-            
-            // 关闭OSS对象流
-            ossObject.close();
-            
-            // 直接解密二进制数据
-            ByteArrayInputStream bais = new ByteArrayInputStream(encryptedBytes);
-            
-            // 创建解密密钥
-            SecretKeySpec secretKey = generateSecretKey(ossConfig.getEncryptionKey());
-            Cipher cipher = Cipher.getInstance("AES/ECB/PKCS5Padding");
-            cipher.init(Cipher.DECRYPT_MODE, secretKey);
             
-            // 使用解密Cipher处理输入流
-            CipherInputStream cipherInputStream = new CipherInputStream(bais, cipher);
+            StorageObjectDTO storageObject = storageService.getObject(objectKey);
+            encryptedStream = new BufferedInputStream(storageObject.getContent(), READ_BUFFER_SIZE);
+            byte[] prefix = SegmentedEncryption.readPrefix(encryptedStream);
             
-            // 读取解密后的数据到输出流
-            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-            buffer = new byte[4096];
-            while ((bytesRead = cipherInputStream.read(buffer)) != -1) {
-                outputStream.write(buffer, 0, bytesRead);
+            FileContentDTO content = new FileContentDTO();
+            content.setContentType(storageObject.getContentType());
+            if (SegmentedEncryption.isSegmented(prefix)) {
+                SegmentedEncryption.Header header = SegmentedEncryption.parseHeader(prefix);
+                content.setContent(SegmentedEncryption.decryptStream(encryptedStream, header, ossConfig.getEncryptionKey()));
+                content.setTotalLength(header.getPlainLength());
+            } else {
+                // 旧格式：整个文件一次ECB加密，只能从头解密
+                content.setContent(FileEncryptionUtil.decryptStream(
+                        SegmentedEncryption.unread(prefix, encryptedStream), ossConfig.getEncryptionKey()));
             }
-            cipherInputStream.close();
-            
-            // 返回解密后的数据流
-            return new ByteArrayInputStream(outputStream.toByteArray());
+            return content;
+        } catch (RangeNotSatisfiableException e) {
+            throw e;
         } catch (Exception e) {
+            closeQuietly(encryptedStream);
             log.error("获取并解密文件失败，路径: {}", objectKey, e);
             throw new RuntimeException("获取文件失败: " + e.getMessage());
         }
     }
     
     /**
-     * 生成AES密钥
+     * 按范围读取分段加密的文件，先读取文件头，再只下载范围覆盖的段
+     * @return 解密后的部分内容，旧格式文件返回null
+     */
+    private FileContentDTO getDecryptedRange(String objectKey, HttpRange range) throws Exception {
+        byte[] prefix;
+        String contentType;
+        StorageObjectDTO headerObject = storageService.getObject(objectKey, 0, SegmentedEncryption.HEADER_SIZE - 1);
+        try (InputStream headerStream = headerObject.getContent()) {
+            prefix = SegmentedEncryption.readPrefix(headerStream);
+            contentType = headerObject.getContentType();
+        }
+        if (!SegmentedEncryption.isSegmented(prefix)) {
+            log.info("文件为旧加密格式，不支持范围读取，返回完整内容，路径: {}", objectKey);
+            return null;
+        }
+        
+        SegmentedEncryption.Header header = SegmentedEncryption.parseHeader(prefix);
+        long totalLength = header.getPlainLength();
+        long[] bounds = resolveRange(range, totalLength);
+        long start = bounds[0];
+        long end = bounds[1];
+        
+        StorageObjectDTO segmentObject = storageService.getObject(objectKey,
+                header.getRangeOffset(start), header.getRangeEnd(end));
+        InputStream segmentStream = new BufferedInputStream(segmentObject.getContent(), READ_BUFFER_SIZE);
+        try {
+            FileContentDTO content = new FileContentDTO();
+            content.setContent(SegmentedEncryption.decryptRange(segmentStream, header, start, end, ossConfig.getEncryptionKey()));
+            content.setContentType(contentType);
+            content.setTotalLength(totalLength);
+            content.setPartial(true);
+            content.setRangeStart(start);
+            content.setRangeEnd(end);
+            return content;
+        } catch (Exception e) {
+            closeQuietly(segmentStream);
+            throw e;
+        }
+    }
+    
+    /**
+     * 用上传时记录的文件头按范围读取，只访问一次存储
+     * 没有记录、记录与对象不一致或第一段认证失败时返回null，由调用方从存储读取文件头
+     */
+    private FileContentDTO getDecryptedRangeFromMetadata(String objectKey, HttpRange range) {
+        FileObject fileObject = findFileObject(objectKey);
+        SegmentedEncryption.Header header = parseRecordedHeader(fileObject);
+        if (header == null) {
+            return null;
+        }
+        long[] bounds;
+        try {
+            bounds = resolveRange(range, header.getPlainLength());
+        } catch (RangeNotSatisfiableException e) {
+            // 以存储中的文件头为准再判断一次
+            return null;
+        }
+        long start = bounds[0];
+        long end = bounds[1];
+        
+        InputStream segmentStream = null;
+        try {
+            StorageObjectDTO segmentObject = storageService.getObject(objectKey,
+                    header.getRangeOffset(start), header.getRangeEnd(end));
+            segmentStream = new BufferedInputStream(segmentObject.getContent(), READ_BUFFER_SIZE);
+            // 先解密第一段，记录的文件头与对象不一致时在这里认证失败，响应还没有开始写出
+            PushbackInputStream decrypted = new PushbackInputStream(SegmentedEncryption.decryptRange(
+                    segmentStream, header, start, end, ossConfig.getEncryptionKey()), 1);
+            int first = decrypted.read();
+            if (first != -1) {
+                decrypted.unread(first);
+            }
+            
+            FileContentDTO content = new FileContentDTO();
+            content.setContent(decrypted);
+            content.setContentType(fileObject.getContentType() != null
+                    ? fileObject.getContentType() : segmentObject.getContentType());
+            content.setTotalLength(header.getPlainLength());
+            content.setPartial(true);
+            content.setRangeStart(start);
+            content.setRangeEnd(end);
+            return content;
+        } catch (Exception e) {
+            closeQuietly(segmentStream);
+            log.warn("记录的加密元数据与存储对象不一致，改为读取对象中的文件头，路径: {}, 原因: {}", objectKey, e.getMessage());
+            return null;
+        }
+    }
+    
+    private FileObject findFileObject(String objectKey) {
+        return fileObjectMapper.selectOne(new LambdaQueryWrapper<FileObject>()
+                .eq(FileObject::getObjectKey, objectKey));
+    }
+    
+    /**
+     * 解析记录的文件头，并与记录的原始长度和密文长度核对
+     * @return 文件头，没有记录或不一致时返回null
+     */
+    private SegmentedEncryption.Header parseRecordedHeader(FileObject fileObject) {
+        if (fileObject == null || fileObject.getEncryptionHeader() == null
+                || !Integer.valueOf(SegmentedEncryption.VERSION).equals(fileObject.getFormatVersion())) {
+            return null;
+        }
+        try {
+            SegmentedEncryption.Header header = SegmentedEncryption.parseHeader(
+                    HexFormat.of().parseHex(fileObject.getEncryptionHeader()));
+            if (!Objects.equals(header.getPlainLength(), fileObject.getFileSize())
+                    || !Objects.equals(header.getEncryptedLength(), fileObject.getEncryptedSize())) {
+                log.warn("记录的文件头与文件大小不一致，路径: {}", fileObject.getObjectKey());
+                return null;
+            }
+            return header;
+        } catch (Exception e) {
+            log.warn("记录的文件头无法解析，路径: {}", fileObject.getObjectKey());
+            return null;
+        }
+    }
+    
+    /**
+     * 计算请求范围的起止位置
+     * @return 起始位置和结束位置(包含)
+     * @throws RangeNotSatisfiableException 范围超出文件长度
      */
-    private SecretKeySpec generateSecretKey(String key) throws NoSuchAlgorithmException {
-        MessageDigest sha = MessageDigest.getInstance("SHA-256");
-        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
-        keyBytes = sha.digest(keyBytes);
-        byte[] truncatedBytes = new byte[16]; // AES需要16字节密钥
-        System.arraycopy(keyBytes, 0, truncatedBytes, 0, truncatedBytes.length);
-        return new SecretKeySpec(truncatedBytes, "AES");
+    private long[] resolveRange(HttpRange range, long totalLength) {
+        long start;
+        long end;
+        try {
+            start = range.getRangeStart(totalLength);
+            end = range.getRangeEnd(totalLength);
+        } catch (IllegalArgumentException e) {
+            throw new RangeNotSatisfiableException(totalLength);
+        }
+        if (start > end) {
+            throw new RangeNotSatisfiableException(totalLength);
+        }
+        return new long[]{start, end};
+    }
+    
+    private void closeQuietly(InputStream inputStream) {
+        if (inputStream == null) {
+            return;
+        }
+        try {
+            inputStream.close();
+        } catch (Exception ignored) {
+            // 关闭失败不影响错误处理
+        }
     }
     
     /**
-     * 获取文件元数据（MIME类型、文件大小等）
-     * @param objectKey OSS对象键（文件路径）
+     * 获取文件元数据（MIME类型、文件大小等），优先使用上传时记录的元数据，没有记录时查询存储
+     * @param objectKey 对象键（文件路径）
      * @return 文件元数据
      */
     @Override
-    public ObjectMetadata getFileMetadata(String objectKey) {
+    public StorageObjectDTO getFileMetadata(String objectKey) {
         try {
-            return ossClient.getObjectMetadata(ossConfig.getBucketName(), objectKey);
+            FileObject fileObject = findFileObject(objectKey);
+            if (fileObject != null && fileObject.getContentType() != null && fileObject.getEncryptedSize() != null) {
+                StorageObjectDTO metadata = new StorageObjectDTO();
+                metadata.setContentType(fileObject.getContentType());
+                metadata.setContentLength(fileObject.getEncryptedSize());
+                return metadata;
+            }
+            return storageService.getObjectMetadata(objectKey);
         } catch (Exception e) {
             log.error("获取文件元数据失败，路径: {}", objectKey, e);
             throw new RuntimeException("获取文件元数据失败: " + e.getMessage());
@@ -336,7 +1075,7 @@ public class FileServiceImpl implements FileService {
     
     /**
      * 从对象键中提取文件名
-     * @param objectKey OSS对象键
+     * @param objectKey 对象键
      * @return 文件名
      */
     private String getFileNameFromObjectKey(String objectKey) {
@@ -348,9 +1087,9 @@ public class FileServiceImpl implements FileService {
     }
     
     /**
-     * 从URL中提取OSS对象键
-     * @param url 完整的OSS URL
-     * @return OSS对象键
+     * 从URL中提取对象键
+     * @param url 完整的文件URL
+     * @return 对象键
      */
     @Override
     public String getObjectKeyFromUrl(String url) {
@@ -358,7 +1097,7 @@ public class FileServiceImpl implements FileService {
             return null;
         }
         
-        String prefix = ossConfig.getUrlPrefix() + "/";
+        String prefix = storageService.getUrlPrefix() + "/";
         if (url.startsWith(prefix)) {
             return url.substring(prefix.length());
         }
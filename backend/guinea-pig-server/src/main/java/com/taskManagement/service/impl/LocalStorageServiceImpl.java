@@ -0,0 +1,403 @@
+package com.taskManagement.service.impl;
+
+import com.taskManagement.dto.StorageObjectDTO;
+import com.taskManagement.exception.BusinessException;
+import com.taskManagement.service.StorageService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * 本地磁盘存储实现
+ * 对象按对象键保存在根目录下，MIME类型保存在.meta目录中。写入先写临时文件再原子替换；
+ * 完整读取和范围读取直接顺序读文件通道，整文件输出使用transferTo由内核复制。
+ * 分片上传时各片写入.multipart目录下以上传ID命名的目录，合并时按顺序拼接后原子替换
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "guineapig.storage.type", havingValue = "local")
+public class LocalStorageServiceImpl implements StorageService {
+
+    private static final String META_DIR = ".meta";
+
+    private static final String MULTIPART_DIR = ".multipart";
+
+    private static final String CONTENT_TYPE_FILE = "content-type";
+
+    private static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    /**
+     * 写入时每次从源通道传输的最大字节数
+     */
+    private static final long TRANSFER_CHUNK_SIZE = 1024 * 1024;
+
+    @Value("${guineapig.storage.local.root-dir:data/storage}")
+    private String rootDir = "data/storage";
+
+    @Value("${guineapig.storage.local.url-prefix:/files/raw}")
+    private String urlPrefix = "/files/raw";
+
+    private Path root;
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(rootDir).toAbsolutePath().normalize();
+        Files.createDirectories(root.resolve(META_DIR));
+        Files.createDirectories(root.resolve(MULTIPART_DIR));
+        log.info("本地文件存储已启用: {}", root);
+    }
+
+    /**
+     * 对象键转换为根目录下的路径，拒绝跳出根目录的键
+     */
+    private Path resolve(String objectKey) {
+        if (objectKey == null || objectKey.isEmpty()) {
+            throw new BusinessException("文件路径不能为空");
+        }
+        Path path = root.resolve(objectKey).normalize();
+        if (!path.startsWith(root) || path.equals(root) || path.startsWith(root.resolve(META_DIR))
+                || path.startsWith(root.resolve(MULTIPART_DIR))) {
+            throw new BusinessException("非法的文件路径");
+        }
+        return path;
+    }
+
+    private Path metaPath(String objectKey) {
+        return root.resolve(META_DIR).resolve(root.relativize(resolve(objectKey)));
+    }
+
+    /**
+     * 分片上传的目录，拒绝不是本实现生成的上传ID
+     */
+    private Path multipartDir(String uploadId) {
+        if (uploadId == null || !uploadId.matches("[0-9a-f]{32}")) {
+            throw new BusinessException("非法的上传ID");
+        }
+        return root.resolve(MULTIPART_DIR).resolve(uploadId);
+    }
+
+    @Override
+    public void putObject(String objectKey, InputStream content, long contentLength, String contentType) {
+        Path target = resolve(objectKey);
+        Path temp = null;
+        try {
+            Files.createDirectories(target.getParent());
+            temp = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+            try (ReadableByteChannel source = Channels.newChannel(content)) {
+                writeFully(source, temp, contentLength);
+            }
+            moveIntoPlace(temp, objectKey, contentType);
+        } catch (IOException e) {
+            throw new RuntimeException("写入本地文件失败: " + e.getMessage(), e);
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    /**
+     * 把源通道的内容写入文件，校验写入长度
+     */
+    private void writeFully(ReadableByteChannel source, Path file, long contentLength) throws IOException {
+        long written = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            long transferred;
+            while ((transferred = channel.transferFrom(source, written, TRANSFER_CHUNK_SIZE)) > 0) {
+                written += transferred;
+            }
+        }
+        if (contentLength >= 0 && written != contentLength) {
+            throw new IOException("写入长度" + written + "与声明的长度" + contentLength + "不一致");
+        }
+    }
+
+    /**
+     * 写入MIME类型后把临时文件原子替换为对象
+     */
+    private void moveIntoPlace(Path temp, String objectKey, String contentType) throws IOException {
+        Path meta = metaPath(objectKey);
+        Files.createDirectories(meta.getParent());
+        Files.writeString(meta, contentType != null ? contentType : DEFAULT_CONTENT_TYPE);
+        Files.move(temp, resolve(objectKey), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public String initiateMultipartUpload(String objectKey, String contentType) {
+        resolve(objectKey);
+        String uploadId = UUID.randomUUID().toString().replace("-", "");
+        try {
+            Path dir = Files.createDirectories(multipartDir(uploadId));
+            Files.writeString(dir.resolve(CONTENT_TYPE_FILE), contentType != null ? contentType : DEFAULT_CONTENT_TYPE);
+            return uploadId;
+        } catch (IOException e) {
+            throw new RuntimeException("创建分片上传失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String uploadPart(String objectKey, String uploadId, int partNumber, InputStream content, long contentLength) {
+        Path dir = multipartDir(uploadId);
+        if (!Files.isDirectory(dir)) {
+            throw new BusinessException("分片上传不存在");
+        }
+        Path temp = null;
+        try {
+            // 先写临时文件，同一分片重复上传时不会读到写了一半的内容
+            temp = Files.createTempFile(dir, ".part-", ".tmp");
+            try (ReadableByteChannel source = Channels.newChannel(content)) {
+                writeFully(source, temp, contentLength);
+            }
+            Files.move(temp, dir.resolve(partNumber + ".part"), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            return partNumber + "-" + contentLength;
+        } catch (IOException e) {
+            throw new RuntimeException("写入分片失败: " + e.getMessage(), e);
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    @Override
+    public void completeMultipartUpload(String objectKey, String uploadId, List<String> partETags) {
+        Path dir = multipartDir(uploadId);
+        Path target = resolve(objectKey);
+        Path temp = null;
+        try {
+            Files.createDirectories(target.getParent());
+            temp = Files.createTempFile(target.getParent(), ".upload-", ".tmp");
+            try (FileChannel output = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                for (int partNumber = 1; partNumber <= partETags.size(); partNumber++) {
+                    Path part = dir.resolve(partNumber + ".part");
+                    if (!Files.isRegularFile(part) || !(partNumber + "-" + Files.size(part)).equals(partETags.get(partNumber - 1))) {
+                        throw new BusinessException("分片" + partNumber + "不存在或已被覆盖");
+                    }
+                    try (FileChannel input = FileChannel.open(part, StandardOpenOption.READ)) {
+                        long size = input.size();
+                        long position = 0;
+                        while (position < size) {
+                            position += input.transferTo(position, size - position, output);
+                        }
+                    }
+                }
+            }
+            moveIntoPlace(temp, objectKey, Files.readString(dir.resolve(CONTENT_TYPE_FILE), StandardCharsets.UTF_8));
+            deleteDirectory(dir);
+        } catch (NoSuchFileException e) {
+            throw new BusinessException("分片上传不存在");
+        } catch (IOException e) {
+            throw new RuntimeException("合并分片失败: " + e.getMessage(), e);
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    @Override
+    public void abortMultipartUpload(String objectKey, String uploadId) {
+        deleteDirectory(multipartDir(uploadId));
+    }
+
+    private void deleteDirectory(Path dir) {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            files.forEach(this::deleteQuietly);
+        } catch (IOException e) {
+            log.warn("清理分片目录失败: {}", dir, e);
+        }
+        deleteQuietly(dir);
+    }
+
+    @Override
+    public StorageObjectDTO getObject(String objectKey) {
+        Path path = resolve(objectKey);
+        try {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+            StorageObjectDTO storageObject = new StorageObjectDTO();
+            storageObject.setContent(Channels.newInputStream(channel));
+            storageObject.setContentType(readContentType(objectKey));
+            storageObject.setContentLength(channel.size());
+            return storageObject;
+        } catch (NoSuchFileException e) {
+            throw new BusinessException("文件不存在");
+        } catch (IOException e) {
+            throw new RuntimeException("读取本地文件失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public StorageObjectDTO getObject(String objectKey, long start, long end) {
+        Path path = resolve(objectKey);
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            long length = Math.max(0, Math.min(end, channel.size() - 1) - start + 1);
+            // 从起始位置顺序读取通道，不映射整个范围，大文件的长范围也只占用读缓冲
+            channel.position(start);
+            StorageObjectDTO storageObject = new StorageObjectDTO();
+            storageObject.setContent(new RangeInputStream(Channels.newInputStream(channel), length));
+            storageObject.setContentType(readContentType(objectKey));
+            storageObject.setContentLength(length);
+            return storageObject;
+        } catch (NoSuchFileException e) {
+            throw new BusinessException("文件不存在");
+        } catch (IOException e) {
+            closeQuietly(channel);
+            throw new RuntimeException("读取本地文件失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public StorageObjectDTO getObjectMetadata(String objectKey) {
+        Path path = resolve(objectKey);
+        try {
+            StorageObjectDTO storageObject = new StorageObjectDTO();
+            storageObject.setContentType(readContentType(objectKey));
+            storageObject.setContentLength(Files.size(path));
+            return storageObject;
+        } catch (NoSuchFileException e) {
+            throw new BusinessException("文件不存在");
+        } catch (IOException e) {
+            throw new RuntimeException("读取本地文件失败: " + e.getMessage(), e);
+        }
+    }
+
+    private String readContentType(String objectKey) throws IOException {
+        Path meta = metaPath(objectKey);
+        return Files.exists(meta) ? Files.readString(meta, StandardCharsets.UTF_8) : DEFAULT_CONTENT_TYPE;
+    }
+
+    @Override
+    public void deleteObject(String objectKey) {
+        try {
+            Files.deleteIfExists(resolve(objectKey));
+            Files.deleteIfExists(metaPath(objectKey));
+        } catch (IOException e) {
+            throw new RuntimeException("删除本地文件失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public long transferTo(String objectKey, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(resolve(objectKey), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                position += channel.transferTo(position, size - position, target);
+            }
+            return size;
+        } catch (NoSuchFileException e) {
+            throw new BusinessException("文件不存在");
+        }
+    }
+
+    @Override
+    public Path getLocalPath(String objectKey) {
+        Path path = resolve(objectKey);
+        return Files.isRegularFile(path) ? path : null;
+    }
+
+    @Override
+    public String getUrlPrefix() {
+        return urlPrefix;
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("删除临时文件失败: {}", path, e);
+        }
+    }
+
+    private void closeQuietly(FileChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("关闭文件通道失败", e);
+        }
+    }
+
+    /**
+     * 最多读取指定字节数的输入流，关闭时关闭底层流
+     */
+    private static class RangeInputStream extends InputStream {
+
+        private final InputStream in;
+
+        private long remaining;
+
+        RangeInputStream(InputStream in, long length) {
+            this.in = in;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = in.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = in.read(b, off, (int) Math.min(len, remaining));
+            if (n > 0) {
+                remaining -= n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(Math.max(0, Math.min(n, remaining)));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(in.available(), remaining);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
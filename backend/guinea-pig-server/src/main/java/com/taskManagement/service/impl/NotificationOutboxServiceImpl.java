@@ -0,0 +1,441 @@
+package com.taskManagement.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.taskManagement.constant.NotificationConstant;
+import com.taskManagement.entity.Notification;
+import com.taskManagement.entity.NotificationOutbox;
+import com.taskManagement.mapper.NotificationMapper;
+import com.taskManagement.mapper.NotificationOutboxMapper;
+import com.taskManagement.service.NotificationOutboxService;
+import com.taskManagement.service.NotificationPushService;
+import com.taskManagement.service.UnreadCounterService;
+import com.taskManagement.utils.TransactionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 通知发件箱服务实现类
+ * 业务事务内每次扇出只写一行发件箱记录，提交后唤醒后台线程投递；投递时先用一条自动提交的UPDATE认领一批记录，
+ * 把下次投递时间推后到认领到期时间，多实例并发投递时互相跳过对方认领的记录而不是排队等锁；
+ * 再在事务内按接收人展开，用多行INSERT分块写入通知表，只有认领仍有效的记录会被标记为已投递，否则整批回滚。整批失败时逐条重试以隔离出错的记录，
+ * 出错记录按指数退避重新投递，超过最大次数后标记为失败。另有定时轮询兜底，覆盖唤醒丢失和重试到期的记录。
+ * 写入端不做限流，业务事务只写一行记录；投递跟不上写入时由定时积压检查按记录数和延迟告警
+ */
+@Slf4j
+@Service
+public class NotificationOutboxServiceImpl implements NotificationOutboxService {
+
+    /**
+     * 错误信息字段长度
+     */
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    @Autowired
+    private NotificationOutboxMapper notificationOutboxMapper;
+
+    @Autowired
+    private NotificationMapper notificationMapper;
+
+    @Autowired
+    private NotificationPushService notificationPushService;
+
+    @Autowired
+    private UnreadCounterService unreadCounterService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * 每批认领的发件箱记录数
+     */
+    @Value("${guineapig.notification.outbox.batch-size:100}")
+    private int batchSize;
+
+    /**
+     * 单条INSERT语句最多写入的通知行数
+     */
+    @Value("${guineapig.notification.outbox.insert-chunk-size:500}")
+    private int insertChunkSize;
+
+    /**
+     * 单次投递最多处理的批数，积压过多时让出线程，剩余部分由下一次唤醒或轮询继续处理
+     */
+    @Value("${guineapig.notification.outbox.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    /**
+     * 认领有效期(毫秒)，实例中途退出时记录在此之后重新可投递
+     */
+    @Value("${guineapig.notification.outbox.claim-timeout:60000}")
+    private long claimTimeout;
+
+    @Value("${guineapig.notification.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    /**
+     * 首次重试延迟(毫秒)，之后每次翻倍
+     */
+    @Value("${guineapig.notification.outbox.retry-base-delay:5000}")
+    private long retryBaseDelay;
+
+    @Value("${guineapig.notification.outbox.retry-max-delay:600000}")
+    private long retryMaxDelay;
+
+    /**
+     * 待投递记录数达到该值时告警
+     */
+    @Value("${guineapig.notification.outbox.backlog-alert-threshold:10000}")
+    private long backlogAlertThreshold;
+
+    /**
+     * 最早的待投递记录等待时间(毫秒)达到该值时告警
+     */
+    @Value("${guineapig.notification.outbox.lag-alert-threshold:60000}")
+    private long lagAlertThreshold;
+
+    private TransactionTemplate transactionTemplate;
+
+    private ExecutorService dispatcher;
+
+    /**
+     * 已提交唤醒但尚未开始投递，期间的唤醒请求合并为一次
+     */
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean(false);
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong deliveredEvents = new AtomicLong();
+    private final AtomicLong deliveredNotifications = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong backlogAlerts = new AtomicLong();
+
+    /**
+     * 最近一次积压检查是否超过阈值
+     */
+    private volatile boolean backlogAlert;
+
+    private volatile LocalDateTime lastDispatchTime;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "notification-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        dispatcher.shutdownNow();
+    }
+
+    @Override
+    public void enqueue(String type, Long relatedId, String content, Collection<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return;
+        }
+        Set<Long> recipients = userIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (recipients.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        NotificationOutbox outbox = new NotificationOutbox();
+        outbox.setType(type);
+        outbox.setRelatedId(relatedId);
+        outbox.setContent(content);
+        outbox.setRecipientIds(recipients.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        outbox.setStatus(NotificationConstant.OUTBOX_PENDING);
+        outbox.setAttempts(0);
+        outbox.setNextAttemptTime(now);
+        outbox.setCreateTime(now);
+        outbox.setUpdateTime(now);
+        notificationOutboxMapper.insert(outbox);
+        enqueued.incrementAndGet();
+
+        // 事务回滚时发件箱记录一并回滚，不会投递
+        TransactionUtil.afterCommit(this::wakeUp);
+    }
+
+    /**
+     * 唤醒后台线程投递
+     */
+    private void wakeUp() {
+        if (!wakeUpPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            dispatcher.execute(() -> {
+                wakeUpPending.set(false);
+                dispatchQuietly();
+            });
+        } catch (RejectedExecutionException e) {
+            // 应用关闭中，未投递的记录在下次启动后由轮询处理
+            wakeUpPending.set(false);
+        }
+    }
+
+    /**
+     * 定时轮询，处理唤醒丢失、重试到期和其他实例写入的记录
+     */
+    @Scheduled(fixedDelayString = "${guineapig.notification.outbox.poll-interval:5000}")
+    public void poll() {
+        dispatchQuietly();
+    }
+
+    private void dispatchQuietly() {
+        try {
+            dispatchPending();
+        } catch (Exception e) {
+            log.error("通知投递失败: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized int dispatchPending() {
+        int delivered = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            List<NotificationOutbox> batch = new ArrayList<>();
+            delivered += dispatchBatch(batch);
+            if (batch.size() < batchSize) {
+                lastDispatchTime = LocalDateTime.now();
+                return delivered;
+            }
+        }
+        // 仍有积压，让出线程后继续，避免长时间占用连接
+        lastDispatchTime = LocalDateTime.now();
+        log.warn("通知发件箱积压较多，本次已投递{}条通知，稍后继续", delivered);
+        wakeUp();
+        return delivered;
+    }
+
+    /**
+     * 认领并投递一批记录
+     * @param batch 用于返回本批的候选记录
+     * @return 写入的通知条数
+     */
+    private int dispatchBatch(List<NotificationOutbox> batch) {
+        List<NotificationOutbox> claimed = claim();
+        batch.addAll(claimed);
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+        String token = claimed.get(0).getClaimToken();
+        try {
+            Integer delivered = transactionTemplate.execute(status -> deliver(claimed, token));
+            return delivered == null ? 0 : delivered;
+        } catch (Exception e) {
+            log.warn("通知批量投递失败，逐条重试: size={}, {}", claimed.size(), e.getMessage());
+        }
+
+        int delivered = 0;
+        for (NotificationOutbox outbox : claimed) {
+            delivered += dispatchOne(outbox.getId(), token);
+        }
+        return delivered;
+    }
+
+    /**
+     * 认领一批到期的待投递记录，已被其他实例认领的候选会被跳过
+     * @return 本次认领到的记录，候选全部被其他实例认领时返回的记录数少于批大小
+     */
+    private List<NotificationOutbox> claim() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = notificationOutboxMapper.selectDueIds(now, batchSize);
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String token = UUID.randomUUID().toString();
+        int claimed = notificationOutboxMapper.claim(ids, token, now, now.plus(Duration.ofMillis(claimTimeout)));
+        if (claimed == 0) {
+            return new ArrayList<>();
+        }
+        return notificationOutboxMapper.selectClaimed(ids, token);
+    }
+
+    /**
+     * 单独投递一条记录，失败时记录错误并安排重试
+     */
+    private int dispatchOne(Long id, String token) {
+        try {
+            Integer delivered = transactionTemplate.execute(status -> {
+                List<NotificationOutbox> claimed = notificationOutboxMapper.selectClaimed(List.of(id), token);
+                return deliver(claimed, token);
+            });
+            return delivered == null ? 0 : delivered;
+        } catch (Exception e) {
+            transactionTemplate.executeWithoutResult(status -> markFailedAttempt(id, token, e));
+            return 0;
+        }
+    }
+
+    /**
+     * 展开接收人写入通知表，并将记录标记为已投递
+     * @param token 认领标识，认领已过期并被其他实例接手时抛出异常回滚，不会重复写入通知
+     * @return 写入的通知条数
+     */
+    private int deliver(List<NotificationOutbox> batch, String token) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Notification> notifications = new ArrayList<>();
+        for (NotificationOutbox outbox : batch) {
+            for (Long userId : parseRecipients(outbox.getRecipientIds())) {
+                Notification notification = new Notification();
+                notification.setType(outbox.getType());
+                notification.setContent(outbox.getContent());
+                notification.setUserId(userId);
+                notification.setIsRead(0);
+                notification.setRelatedId(outbox.getRelatedId());
+                // 通知时间取业务发生的时间，而不是投递时间
+                notification.setCreateTime(outbox.getCreateTime() != null ? outbox.getCreateTime() : now);
+                notification.setUpdateTime(now);
+                notifications.add(notification);
+            }
+        }
+        for (int from = 0; from < notifications.size(); from += insertChunkSize) {
+            notificationMapper.batchInsert(notifications.subList(from, Math.min(from + insertChunkSize, notifications.size())));
+        }
+
+        List<Long> ids = batch.stream().map(NotificationOutbox::getId).collect(Collectors.toList());
+        if (notificationOutboxMapper.markDelivered(ids, token, now) != ids.size()) {
+            throw new IllegalStateException("发件箱记录的认领已过期，由其他实例投递");
+        }
+
+        unreadCounterService.onNotificationsCreated(notifications);
+        notificationPushService.pushNotifications(notifications);
+
+        deliveredEvents.addAndGet(batch.size());
+        deliveredNotifications.addAndGet(notifications.size());
+        return notifications.size();
+    }
+
+    /**
+     * 记录一次失败的投递，按指数退避安排下次投递，超过最大次数后不再投递
+     */
+    private void markFailedAttempt(Long id, String token, Exception cause) {
+        NotificationOutbox outbox = notificationOutboxMapper.selectById(id);
+        if (outbox == null || !NotificationConstant.OUTBOX_PENDING.equals(outbox.getStatus())
+                || !token.equals(outbox.getClaimToken())) {
+            return;
+        }
+        int attempts = (outbox.getAttempts() == null ? 0 : outbox.getAttempts()) + 1;
+        long delay = Math.min(retryMaxDelay, retryBaseDelay << Math.min(attempts - 1, 20));
+        LocalDateTime now = LocalDateTime.now();
+
+        NotificationOutbox update = new NotificationOutbox();
+        update.setId(id);
+        update.setAttempts(attempts);
+        update.setNextAttemptTime(now.plus(Duration.ofMillis(delay)));
+        update.setLastError(truncate(cause.getMessage()));
+        update.setUpdateTime(now);
+        if (attempts >= maxAttempts) {
+            update.setStatus(NotificationConstant.OUTBOX_FAILED);
+            failures.incrementAndGet();
+            log.error("通知投递重试次数用尽: outboxId={}, attempts={}, {}", id, attempts, cause.getMessage());
+        } else {
+            retries.incrementAndGet();
+            log.warn("通知投递失败，{}ms后重试: outboxId={}, attempts={}, {}", delay, id, attempts, cause.getMessage());
+        }
+        notificationOutboxMapper.updateById(update);
+    }
+
+    private static List<Long> parseRecipients(String recipientIds) {
+        if (recipientIds == null || recipientIds.isEmpty()) {
+            return List.of();
+        }
+        return Arrays.stream(recipientIds.split(","))
+                .map(String::trim)
+                .filter(id -> !id.isEmpty())
+                .map(Long::valueOf)
+                .collect(Collectors.toList());
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${guineapig.notification.outbox.backlog-check-interval:30000}")
+    public boolean checkBacklog() {
+        long pending = countPending();
+        long lagMillis = getLagMillis();
+        boolean exceeded = pending >= backlogAlertThreshold || lagMillis >= lagAlertThreshold;
+        if (exceeded && !backlogAlert) {
+            backlogAlerts.incrementAndGet();
+            log.error("通知发件箱积压超过阈值: pending={}, lagMillis={}, 阈值: pending={}, lagMillis={}",
+                    pending, lagMillis, backlogAlertThreshold, lagAlertThreshold);
+        } else if (!exceeded && backlogAlert) {
+            log.info("通知发件箱积压已恢复: pending={}, lagMillis={}", pending, lagMillis);
+        }
+        backlogAlert = exceeded;
+        return exceeded;
+    }
+
+    private long countPending() {
+        return notificationOutboxMapper.selectCount(new LambdaQueryWrapper<NotificationOutbox>()
+                .eq(NotificationOutbox::getStatus, NotificationConstant.OUTBOX_PENDING));
+    }
+
+    /**
+     * 最早的待投递记录已等待的时间
+     */
+    private long getLagMillis() {
+        LocalDateTime oldestPending = notificationOutboxMapper.selectOldestPendingTime();
+        return oldestPending == null ? 0L : Math.max(0L, Duration.between(oldestPending, LocalDateTime.now()).toMillis());
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        long failed = notificationOutboxMapper.selectCount(new LambdaQueryWrapper<NotificationOutbox>()
+                .eq(NotificationOutbox::getStatus, NotificationConstant.OUTBOX_FAILED));
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", countPending());
+        stats.put("failed", failed);
+        stats.put("lagMillis", getLagMillis());
+        stats.put("backlogAlert", backlogAlert);
+        stats.put("backlogAlerts", backlogAlerts.get());
+        stats.put("enqueued", enqueued.get());
+        stats.put("deliveredEvents", deliveredEvents.get());
+        stats.put("deliveredNotifications", deliveredNotifications.get());
+        stats.put("retries", retries.get());
+        stats.put("failures", failures.get());
+        stats.put("lastDispatchTime", lastDispatchTime);
+        return stats;
+    }
+}
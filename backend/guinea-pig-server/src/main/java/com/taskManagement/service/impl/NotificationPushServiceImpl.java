@@ -0,0 +1,84 @@
+package com.taskManagement.service.impl;
+
+import com.taskManagement.dto.NotificationDTO;
+import com.taskManagement.entity.Notification;
+import com.taskManagement.service.NotificationPushService;
+import com.taskManagement.utils.TransactionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 通知推送服务实现类
+ * 通过STOMP用户队列推送，推送在事务提交后进行，回滚的通知不会推送；
+ * 推送失败只记录日志，客户端靠轮询接口兜底
+ */
+@Slf4j
+@Service
+public class NotificationPushServiceImpl implements NotificationPushService {
+
+    public static final String NOTIFICATION_QUEUE = "/queue/notifications";
+
+    public static final String UNREAD_COUNT_QUEUE = "/queue/unread-count";
+
+    @Autowired
+    private ObjectProvider<SimpMessageSendingOperations> messagingTemplateProvider;
+
+    @Override
+    public void pushNotifications(List<Notification> notifications) {
+        if (notifications == null || notifications.isEmpty()) {
+            return;
+        }
+        List<NotificationDTO> messages = notifications.stream()
+                .map(notification -> {
+                    NotificationDTO dto = new NotificationDTO();
+                    BeanUtils.copyProperties(notification, dto);
+                    return dto;
+                })
+                .collect(Collectors.toList());
+        TransactionUtil.afterCommit(() -> {
+            Map<Long, Integer> deltas = new LinkedHashMap<>();
+            for (NotificationDTO message : messages) {
+                send(message.getUserId(), NOTIFICATION_QUEUE, message);
+                deltas.merge(message.getUserId(), 1, Integer::sum);
+            }
+            deltas.forEach((userId, delta) -> send(userId, UNREAD_COUNT_QUEUE, Map.of("delta", delta)));
+        });
+    }
+
+    @Override
+    public void pushUnreadDelta(Long userId, int delta) {
+        if (userId == null || delta == 0) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> send(userId, UNREAD_COUNT_QUEUE, Map.of("delta", delta)));
+    }
+
+    @Override
+    public void pushUnreadReset(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> send(userId, UNREAD_COUNT_QUEUE, Map.of("unreadCount", 0)));
+    }
+
+    private void send(Long userId, String destination, Object payload) {
+        SimpMessageSendingOperations messagingTemplate = messagingTemplateProvider.getIfAvailable();
+        if (messagingTemplate == null || userId == null) {
+            return;
+        }
+        try {
+            messagingTemplate.convertAndSendToUser(String.valueOf(userId), destination, payload);
+        } catch (Exception e) {
+            log.warn("WebSocket推送失败: userId={}, destination={}, {}", userId, destination, e.getMessage());
+        }
+    }
+}
@@ -3,17 +3,22 @@ package com.taskManagement.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.taskManagement.constant.NotificationConstant;
 import com.taskManagement.dto.NotificationDTO;
 import com.taskManagement.entity.Notification;
 import com.taskManagement.entity.User;
 import com.taskManagement.mapper.NotificationMapper;
 import com.taskManagement.mapper.UserMapper;
+import com.taskManagement.service.NotificationOutboxService;
+import com.taskManagement.service.NotificationPushService;
 import com.taskManagement.service.NotificationService;
+import com.taskManagement.service.UnreadCounterService;
 import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,12 +32,26 @@ import java.util.stream.Collectors;
 @Service
 public class NotificationServiceImpl implements NotificationService {
 
+    /**
+     * 评论中@username格式的提及
+     */
+    private static final Pattern MENTION_PATTERN = Pattern.compile("@([\\w-]+)");
+
     private final NotificationMapper notificationMapper;
     private final UserMapper userMapper;
+    private final NotificationOutboxService notificationOutboxService;
+    private final NotificationPushService notificationPushService;
+    private final UnreadCounterService unreadCounterService;
 
-    public NotificationServiceImpl(NotificationMapper notificationMapper, UserMapper userMapper) {
+    public NotificationServiceImpl(NotificationMapper notificationMapper, UserMapper userMapper,
+                                   NotificationOutboxService notificationOutboxService,
+                                   NotificationPushService notificationPushService,
+                                   UnreadCounterService unreadCounterService) {
         this.notificationMapper = notificationMapper;
         this.userMapper = userMapper;
+        this.notificationOutboxService = notificationOutboxService;
+        this.notificationPushService = notificationPushService;
+        this.unreadCounterService = unreadCounterService;
     }
 
     /**
@@ -42,13 +61,15 @@ public class NotificationServiceImpl implements NotificationService {
     @Transactional
     public NotificationDTO createTaskUpdateNotification(Long taskId, String content, Long userId) {
         Notification notification = new Notification();
-        notification.setType("task_update");
+        notification.setType(NotificationConstant.TYPE_TASK_UPDATE);
         notification.setContent(content);
         notification.setUserId(userId);
         notification.setIsRead(0);
         notification.setRelatedId(taskId);
         
         notificationMapper.insert(notification);
+        unreadCounterService.onNotificationsCreated(List.of(notification));
+        notificationPushService.pushNotifications(List.of(notification));
         
         NotificationDTO notificationDTO = new NotificationDTO();
         BeanUtils.copyProperties(notification, notificationDTO);
@@ -62,19 +83,30 @@ public class NotificationServiceImpl implements NotificationService {
     @Transactional
     public NotificationDTO createCommentMentionNotification(Long commentId, String content, Long userId) {
         Notification notification = new Notification();
-        notification.setType("comment_mention");
+        notification.setType(NotificationConstant.TYPE_COMMENT_MENTION);
         notification.setContent(content);
         notification.setUserId(userId);
         notification.setIsRead(0);
         notification.setRelatedId(commentId);
         
         notificationMapper.insert(notification);
+        unreadCounterService.onNotificationsCreated(List.of(notification));
+        notificationPushService.pushNotifications(List.of(notification));
         
         NotificationDTO notificationDTO = new NotificationDTO();
         BeanUtils.copyProperties(notification, notificationDTO);
         return notificationDTO;
     }
 
+    /**
+     * 向多个用户发送同一条通知
+     * 只在当前事务中写入一条发件箱记录，通知行由后台批量写入
+     */
+    @Override
+    public void sendNotifications(String type, Long relatedId, String content, Collection<Long> userIds) {
+        notificationOutboxService.enqueue(type, relatedId, content, userIds);
+    }
+
     /**
      * 获取用户通知列表
      */
@@ -104,6 +136,7 @@ public class NotificationServiceImpl implements NotificationService {
 
     /**
      * 标记通知为已读
+     * 只执行一条UPDATE，不再回查通知，返回的对象只包含ID、用户和已读状态
      */
     @Override
     @Transactional
@@ -111,13 +144,19 @@ public class NotificationServiceImpl implements NotificationService {
         LambdaUpdateWrapper<Notification> updateWrapper = new LambdaUpdateWrapper<>();
         updateWrapper.eq(Notification::getId, notificationId)
                 .eq(Notification::getUserId, userId)
+                .eq(Notification::getIsRead, 0)
                 .set(Notification::getIsRead, 1);
         
-        notificationMapper.update(null, updateWrapper);
+        // 只有原本未读时才调整未读数
+        if (notificationMapper.update(null, updateWrapper) > 0) {
+            unreadCounterService.onNotificationRead(userId);
+            notificationPushService.pushUnreadDelta(userId, -1);
+        }
         
-        Notification notification = notificationMapper.selectById(notificationId);
         NotificationDTO notificationDTO = new NotificationDTO();
-        BeanUtils.copyProperties(notification, notificationDTO);
+        notificationDTO.setId(notificationId);
+        notificationDTO.setUserId(userId);
+        notificationDTO.setIsRead(1);
         return notificationDTO;
     }
 
@@ -132,7 +171,13 @@ public class NotificationServiceImpl implements NotificationService {
                 .eq(Notification::getIsRead, 0)
                 .set(Notification::getIsRead, 1);
         
-        return notificationMapper.update(null, updateWrapper);
+        int count = notificationMapper.update(null, updateWrapper);
+        // 没有更新到数据也清零，顺带纠正计数偏差
+        unreadCounterService.onAllNotificationsRead(userId);
+        if (count > 0) {
+            notificationPushService.pushUnreadReset(userId);
+        }
+        return count;
     }
 
     /**
@@ -140,11 +185,7 @@ public class NotificationServiceImpl implements NotificationService {
      */
     @Override
     public int getUnreadCount(Long userId) {
-        LambdaQueryWrapper<Notification> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(Notification::getUserId, userId)
-                .eq(Notification::getIsRead, 0);
-        
-        return Math.toIntExact(notificationMapper.selectCount(queryWrapper));
+        return Math.toIntExact(unreadCounterService.getUnreadCount(userId));
     }
 
     /**
@@ -158,8 +199,7 @@ public class NotificationServiceImpl implements NotificationService {
         }
         
         // 匹配@username格式
-        Pattern pattern = Pattern.compile("@([\\w-]+)");
-        Matcher matcher = pattern.matcher(content);
+        Matcher matcher = MENTION_PATTERN.matcher(content);
         
         while (matcher.find()) {
             mentionedUsers.add(matcher.group(1));
@@ -0,0 +1,155 @@
+package com.taskManagement.service.impl;
+
+import com.aliyun.oss.OSS;
+import com.aliyun.oss.OSSErrorCode;
+import com.aliyun.oss.OSSException;
+import com.aliyun.oss.model.AbortMultipartUploadRequest;
+import com.aliyun.oss.model.CompleteMultipartUploadRequest;
+import com.aliyun.oss.model.GetObjectRequest;
+import com.aliyun.oss.model.InitiateMultipartUploadRequest;
+import com.aliyun.oss.model.OSSObject;
+import com.aliyun.oss.model.ObjectMetadata;
+import com.aliyun.oss.model.PartETag;
+import com.aliyun.oss.model.UploadPartRequest;
+import com.taskManagement.config.AliyunOSSConfig;
+import com.taskManagement.dto.StorageObjectDTO;
+import com.taskManagement.exception.BusinessException;
+import com.taskManagement.service.StorageService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 阿里云OSS存储实现
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "guineapig.storage.type", havingValue = "oss", matchIfMissing = true)
+public class OssStorageServiceImpl implements StorageService {
+
+    private final OSS ossClient;
+
+    private final AliyunOSSConfig ossConfig;
+
+    public OssStorageServiceImpl(OSS ossClient, AliyunOSSConfig ossConfig) {
+        this.ossClient = ossClient;
+        this.ossConfig = ossConfig;
+    }
+
+    @Override
+    public void putObject(String objectKey, InputStream content, long contentLength, String contentType) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentType(contentType);
+        metadata.setContentLength(contentLength);
+        ossClient.putObject(ossConfig.getBucketName(), objectKey, content, metadata);
+    }
+
+    @Override
+    public StorageObjectDTO getObject(String objectKey) {
+        return toStorageObject(call(() -> ossClient.getObject(ossConfig.getBucketName(), objectKey)));
+    }
+
+    @Override
+    public StorageObjectDTO getObject(String objectKey, long start, long end) {
+        GetObjectRequest request = new GetObjectRequest(ossConfig.getBucketName(), objectKey);
+        request.setRange(start, end);
+        return toStorageObject(call(() -> ossClient.getObject(request)));
+    }
+
+    private StorageObjectDTO toStorageObject(OSSObject ossObject) {
+        // 关闭内容流即释放OSS连接
+        StorageObjectDTO storageObject = new StorageObjectDTO();
+        storageObject.setContent(ossObject.getObjectContent());
+        storageObject.setContentType(ossObject.getObjectMetadata().getContentType());
+        storageObject.setContentLength(ossObject.getObjectMetadata().getContentLength());
+        return storageObject;
+    }
+
+    @Override
+    public StorageObjectDTO getObjectMetadata(String objectKey) {
+        ObjectMetadata metadata = call(() -> ossClient.getObjectMetadata(ossConfig.getBucketName(), objectKey));
+        StorageObjectDTO storageObject = new StorageObjectDTO();
+        storageObject.setContentType(metadata.getContentType());
+        storageObject.setContentLength(metadata.getContentLength());
+        return storageObject;
+    }
+
+    @Override
+    public void deleteObject(String objectKey) {
+        ossClient.deleteObject(ossConfig.getBucketName(), objectKey);
+    }
+
+    @Override
+    public String initiateMultipartUpload(String objectKey, String contentType) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentType(contentType);
+        InitiateMultipartUploadRequest request =
+                new InitiateMultipartUploadRequest(ossConfig.getBucketName(), objectKey, metadata);
+        return ossClient.initiateMultipartUpload(request).getUploadId();
+    }
+
+    @Override
+    public String uploadPart(String objectKey, String uploadId, int partNumber, InputStream content, long contentLength) {
+        UploadPartRequest request = new UploadPartRequest(ossConfig.getBucketName(), objectKey);
+        request.setUploadId(uploadId);
+        request.setPartNumber(partNumber);
+        request.setInputStream(content);
+        request.setPartSize(contentLength);
+        return ossClient.uploadPart(request).getPartETag().getETag();
+    }
+
+    @Override
+    public void completeMultipartUpload(String objectKey, String uploadId, List<String> partETags) {
+        List<PartETag> parts = new ArrayList<>(partETags.size());
+        for (int i = 0; i < partETags.size(); i++) {
+            parts.add(new PartETag(i + 1, partETags.get(i)));
+        }
+        ossClient.completeMultipartUpload(
+                new CompleteMultipartUploadRequest(ossConfig.getBucketName(), objectKey, uploadId, parts));
+    }
+
+    @Override
+    public void abortMultipartUpload(String objectKey, String uploadId) {
+        try {
+            ossClient.abortMultipartUpload(new AbortMultipartUploadRequest(ossConfig.getBucketName(), objectKey, uploadId));
+        } catch (OSSException e) {
+            if (!OSSErrorCode.NO_SUCH_UPLOAD.equals(e.getErrorCode())) {
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public long transferTo(String objectKey, WritableByteChannel target) throws IOException {
+        try (InputStream content = getObject(objectKey).getContent()) {
+            return content.transferTo(Channels.newOutputStream(target));
+        }
+    }
+
+    @Override
+    public String getUrlPrefix() {
+        return ossConfig.getUrlPrefix();
+    }
+
+    /**
+     * 对象不存在时转换为业务异常，与本地存储一致
+     */
+    private <T> T call(Supplier<T> request) {
+        try {
+            return request.get();
+        } catch (OSSException e) {
+            if (OSSErrorCode.NO_SUCH_KEY.equals(e.getErrorCode())) {
+                throw new BusinessException("文件不存在");
+            }
+            throw e;
+        }
+    }
+}
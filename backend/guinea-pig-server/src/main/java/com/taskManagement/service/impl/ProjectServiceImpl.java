@@ -2,7 +2,9 @@ package com.taskManagement.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.taskManagement.config.MybatisPlusConfig;
 import com.taskManagement.context.BaseContext;
+import com.taskManagement.dto.FileRenditionDTO;
 import com.taskManagement.dto.ProjectDTO;
 import com.taskManagement.dto.ProjectAttachmentDTO;
 import com.taskManagement.entity.Project;
@@ -17,6 +19,10 @@ import com.taskManagement.mapper.ProjectAttachmentMapper;
 import com.taskManagement.service.ProjectService;
 import com.taskManagement.service.FileService;
 import com.taskManagement.service.NotificationService;
+import com.taskManagement.service.SearchService;
+import com.taskManagement.utils.PageCursor;
+import com.taskManagement.vo.CursorPageResult;
+import com.taskManagement.vo.FileUploadResultVO;
 import com.taskManagement.vo.PageResult;
 import com.taskManagement.vo.ProjectVO;
 import com.taskManagement.vo.UserVO;
@@ -32,6 +38,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -47,15 +54,17 @@ public class ProjectServiceImpl implements ProjectService {
     private final ProjectAttachmentMapper projectAttachmentMapper;
     private final FileService fileService;
     private final NotificationService notificationService;
+    private final SearchService searchService;
     
     @Autowired
-    public ProjectServiceImpl(ProjectMapper projectMapper, ProjectMemberMapper projectMemberMapper, UserMapper userMapper, ProjectAttachmentMapper projectAttachmentMapper, FileService fileService, NotificationService notificationService) {
+    public ProjectServiceImpl(ProjectMapper projectMapper, ProjectMemberMapper projectMemberMapper, UserMapper userMapper, ProjectAttachmentMapper projectAttachmentMapper, FileService fileService, NotificationService notificationService, SearchService searchService) {
         this.projectMapper = projectMapper;
         this.projectMemberMapper = projectMemberMapper;
         this.userMapper = userMapper;
         this.projectAttachmentMapper = projectAttachmentMapper;
         this.fileService = fileService;
         this.notificationService = notificationService;
+        this.searchService = searchService;
     }
 
     /**
@@ -68,35 +77,9 @@ public class ProjectServiceImpl implements ProjectService {
                 keyword, status, page, pageSize, startTime, endTime, dueStartTime, dueEndTime);
         
         // 构建查询条件
-        LambdaQueryWrapper<Project> queryWrapper = new LambdaQueryWrapper<>();
-        
-        // 关键字搜索 - 同时匹配项目名称或描述
-        if (StringUtils.isNotBlank(keyword)) {
-            queryWrapper.and(wrapper -> wrapper.like(Project::getName, keyword)
-                    .or()
-                    .like(Project::getDescription, keyword));
-        }
-        
-        // 状态过滤
-        if (status != null) {
-            queryWrapper.eq(Project::getStatus, status);
-        }
-        
-        // 添加时间范围条件
-        if (startTime != null) {
-            queryWrapper.ge(Project::getCreateTime, startTime.atStartOfDay());
-        }
-        
-        if (endTime != null) {
-            queryWrapper.le(Project::getCreateTime, endTime.atTime(23, 59, 59));
-        }
-        
-        if (dueStartTime != null) {
-            queryWrapper.ge(Project::getEndTime, dueStartTime.atStartOfDay());
-        }
-        
-        if (dueEndTime != null) {
-            queryWrapper.le(Project::getEndTime, dueEndTime.atTime(23, 59, 59));
+        LambdaQueryWrapper<Project> queryWrapper = buildProjectListQuery(keyword, status, startTime, endTime, dueStartTime, dueEndTime);
+        if (queryWrapper == null) {
+            return new PageResult<>(new ArrayList<>(), 0);
         }
         
         // 获取当前用户ID
@@ -123,13 +106,13 @@ public class ProjectServiceImpl implements ProjectService {
         // 只查询用户参与的项目
         queryWrapper.in(Project::getId, projectIds);
         
-        // 按优先级和创建时间排序（优先级高的在前，同优先级按创建时间降序）
+        // 按优先级和创建时间排序（优先级高的在前，同优先级按创建时间降序，ID兜底保证顺序稳定）
         queryWrapper.orderByDesc(Project::getPriority)
-                   .orderByDesc(Project::getCreateTime);
+                   .orderByDesc(Project::getCreateTime)
+                   .orderByDesc(Project::getId);
         
-        // 分页参数处理 - MyBatis-Plus页码从0开始，前端从1开始，需要减1
-        int pageIndex = Math.max(0, page - 1);
-        Page<Project> pageParam = new Page<>(pageIndex, pageSize);
+        // 分页参数处理 - MyBatis-Plus页码从1开始，与前端一致
+        Page<Project> pageParam = new Page<>(Math.max(1, page), pageSize);
         
         // 执行分页查询
         Page<Project> pageResult = projectMapper.selectPage(pageParam, queryWrapper);
@@ -155,6 +138,132 @@ public class ProjectServiceImpl implements ProjectService {
         return new PageResult<>(projectVOList, pageResult.getTotal());
     }
 
+    /**
+     * 游标方式获取项目列表
+     * 沿用列表页(优先级, 创建时间)降序并以ID兜底做键集分页，不执行COUNT和OFFSET扫描
+     */
+    @Override
+    public CursorPageResult<ProjectVO> getProjectListByCursor(String keyword, Integer status, String cursor, Integer pageSize,
+                                                             LocalDate startTime, LocalDate endTime, LocalDate dueStartTime, LocalDate dueEndTime) {
+        log.info("游标查询项目列表参数: keyword={}, status={}, cursor={}, pageSize={}", keyword, status, cursor, pageSize);
+        
+        // 多取的一条也要在分页插件的单页上限内，否则会被截断而误判为没有下一页
+        int size = pageSize == null || pageSize < 1 ? 10
+                : (int) Math.min(pageSize, MybatisPlusConfig.MAX_PAGE_SIZE - 1);
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        
+        Long userId = BaseContext.getCurrentId();
+        if (userId == null) {
+            log.warn("获取当前用户ID为空，使用默认值1");
+            userId = 1L;
+        }
+        
+        // 查询当前用户参与的项目ID
+        LambdaQueryWrapper<ProjectMember> memberQueryWrapper = new LambdaQueryWrapper<>();
+        memberQueryWrapper.eq(ProjectMember::getUserId, userId);
+        List<Long> projectIds = projectMemberMapper.selectList(memberQueryWrapper).stream()
+                .map(ProjectMember::getProjectId)
+                .collect(Collectors.toList());
+        if (projectIds.isEmpty()) {
+            return new CursorPageResult<>(new ArrayList<>(), null, false);
+        }
+        
+        LambdaQueryWrapper<Project> queryWrapper = buildProjectListQuery(keyword, status, startTime, endTime, dueStartTime, dueEndTime);
+        if (queryWrapper == null) {
+            return new CursorPageResult<>(new ArrayList<>(), null, false);
+        }
+        queryWrapper.in(Project::getId, projectIds);
+        
+        // 从上一页最后一行之后继续：(priority, create_time, id) 按字典序小于游标
+        if (pageCursor != null) {
+            queryWrapper.and(wrapper -> wrapper
+                    .lt(Project::getPriority, pageCursor.getPriority())
+                    .or(w -> w.eq(Project::getPriority, pageCursor.getPriority())
+                            .lt(Project::getCreateTime, pageCursor.getTime()))
+                    .or(w -> w.eq(Project::getPriority, pageCursor.getPriority())
+                            .eq(Project::getCreateTime, pageCursor.getTime())
+                            .lt(Project::getId, pageCursor.getId())));
+        }
+        queryWrapper.orderByDesc(Project::getPriority)
+                   .orderByDesc(Project::getCreateTime)
+                   .orderByDesc(Project::getId);
+        
+        // 多取一条用于判断是否还有下一页，不查询总数
+        Page<Project> pageParam = new Page<>(1, size + 1, false);
+        List<Project> projects = projectMapper.selectPage(pageParam, queryWrapper).getRecords();
+        boolean hasMore = projects.size() > size;
+        if (hasMore) {
+            projects = projects.subList(0, size);
+        }
+        
+        List<ProjectVO> projectVOList = new ArrayList<>();
+        for (Project project : projects) {
+            ProjectVO vo = convertToVO(project);
+            
+            // 获取项目成员数量
+            LambdaQueryWrapper<ProjectMember> countWrapper = new LambdaQueryWrapper<>();
+            countWrapper.eq(ProjectMember::getProjectId, project.getId());
+            vo.setMemberCount(projectMemberMapper.selectCount(countWrapper).intValue());
+            vo.setIsCreator(userId.equals(project.getCreateUser()));
+            
+            projectVOList.add(vo);
+        }
+        
+        String nextCursor = null;
+        if (hasMore) {
+            Project last = projects.get(projects.size() - 1);
+            nextCursor = new PageCursor(last.getPriority(), last.getCreateTime(), last.getId()).encode();
+        }
+        return new CursorPageResult<>(projectVOList, nextCursor, hasMore);
+    }
+
+    /**
+     * 构建项目列表的过滤条件（不含排序和成员范围），供偏移分页和游标分页共用
+     * @return 查询条件；关键字没有命中任何项目时返回null
+     */
+    private LambdaQueryWrapper<Project> buildProjectListQuery(String keyword, Integer status, LocalDate startTime,
+                                                             LocalDate endTime, LocalDate dueStartTime, LocalDate dueEndTime) {
+        LambdaQueryWrapper<Project> queryWrapper = new LambdaQueryWrapper<>();
+        
+        // 关键字搜索 - 优先使用全文索引，索引无法回答时同时LIKE匹配项目名称或描述
+        if (StringUtils.isNotBlank(keyword)) {
+            List<Long> matchedIds = searchService.searchProjectIds(keyword);
+            if (matchedIds == null) {
+                queryWrapper.and(wrapper -> wrapper.like(Project::getName, keyword)
+                        .or()
+                        .like(Project::getDescription, keyword));
+            } else if (matchedIds.isEmpty()) {
+                return null;
+            } else {
+                queryWrapper.in(Project::getId, matchedIds);
+            }
+        }
+        
+        // 状态过滤
+        if (status != null) {
+            queryWrapper.eq(Project::getStatus, status);
+        }
+        
+        // 添加时间范围条件
+        if (startTime != null) {
+            queryWrapper.ge(Project::getCreateTime, startTime.atStartOfDay());
+        }
+        
+        if (endTime != null) {
+            queryWrapper.le(Project::getCreateTime, endTime.atTime(23, 59, 59));
+        }
+        
+        if (dueStartTime != null) {
+            queryWrapper.ge(Project::getEndTime, dueStartTime.atStartOfDay());
+        }
+        
+        if (dueEndTime != null) {
+            queryWrapper.le(Project::getEndTime, dueEndTime.atTime(23, 59, 59));
+        }
+        
+        return queryWrapper;
+    }
+
     /**
      * 获取项目详情
      */
@@ -231,6 +340,7 @@ public class ProjectServiceImpl implements ProjectService {
         
         // 保存项目
         projectMapper.insert(project);
+        searchService.indexProject(project);
         
         // 添加创建者为项目成员
         addProjectMember(project.getId(), userId);
@@ -282,6 +392,7 @@ public class ProjectServiceImpl implements ProjectService {
         // 先删除原有的项目附件 - 这部分可能仍需保留，因为更新项目时可能需要删除旧附件
         LambdaQueryWrapper<ProjectAttachment> queryWrapper = new LambdaQueryWrapper<>();
         queryWrapper.eq(ProjectAttachment::getProjectId, id);
+        releaseProjectAttachments(id);
         projectAttachmentMapper.delete(queryWrapper);
 
         // 附件处理由FileService完成，这里不需要额外处理
@@ -326,6 +437,8 @@ public class ProjectServiceImpl implements ProjectService {
         
         // 查询更新后的项目
         Project updatedProject = projectMapper.selectById(id);
+        // updateById跳过空字段，按数据库中的最新值更新索引
+        searchService.indexProject(updatedProject);
         
         // 返回项目VO
         return convertToVO(updatedProject);
@@ -348,13 +461,22 @@ public class ProjectServiceImpl implements ProjectService {
         memberQueryWrapper.eq(ProjectMember::getProjectId, id);
         projectMemberMapper.delete(memberQueryWrapper);
         
-        // 删除项目附件
+        // 删除项目附件，释放对存储对象的引用
         LambdaQueryWrapper<ProjectAttachment> attachmentQueryWrapper = new LambdaQueryWrapper<>();
         attachmentQueryWrapper.eq(ProjectAttachment::getProjectId, id);
+        releaseProjectAttachments(id);
         projectAttachmentMapper.delete(attachmentQueryWrapper);
         
         // 删除项目
         projectMapper.deleteById(id);
+        searchService.removeProject(id);
+    }
+
+    private void releaseProjectAttachments(Long projectId) {
+        LambdaQueryWrapper<ProjectAttachment> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.eq(ProjectAttachment::getProjectId, projectId);
+        projectAttachmentMapper.selectList(queryWrapper)
+                .forEach(attachment -> fileService.releaseFile(attachment.getFilePath()));
     }
 
     /**
@@ -427,8 +549,7 @@ public class ProjectServiceImpl implements ProjectService {
         }
         
         // 6. 计算分页参数
-        int pageIndex = Math.max(0, page - 1);
-        Page<User> pageParam = new Page<>(pageIndex, pageSize);
+        Page<User> pageParam = new Page<>(Math.max(1, page), pageSize);
         
         // 7. 执行分页查询
         Page<User> userPage = userMapper.selectPage(pageParam, userQueryWrapper);
@@ -653,11 +774,11 @@ public class ProjectServiceImpl implements ProjectService {
      * @param projectId 项目ID
      * @param files 文件列表
      * @param userId 用户ID
-     * @return 文件URL列表
+     * @return 每个文件的上传结果
      */
     @Override
     @Transactional
-    public List<String> batchUploadProjectAttachments(Long projectId, List<MultipartFile> files, Long userId) {
+    public List<FileUploadResultVO> batchUploadProjectAttachments(Long projectId, List<MultipartFile> files, Long userId) {
         log.info("批量上传项目附件: projectId={}, fileCount={}, userId={}", projectId, files.size(), userId);
         
         // 1. 检查项目是否存在
@@ -666,10 +787,13 @@ public class ProjectServiceImpl implements ProjectService {
             throw new BusinessException("项目不存在");
         }
         
-        // 2. 批量上传文件并保存到项目附件表
-        List<String> fileUrls = fileService.uploadProjectFiles(files, projectId, userId);
+        // 2. 并发上传文件，成功的文件一次写入项目附件表
+        List<FileUploadResultVO> results = fileService.batchUploadProjectFiles(files, projectId, userId);
+        if (results.stream().noneMatch(result -> Boolean.TRUE.equals(result.getSuccess()))) {
+            throw new BusinessException("所有文件上传失败");
+        }
         
-        return fileUrls;
+        return results;
     }
     
     /**
@@ -693,10 +817,18 @@ public class ProjectServiceImpl implements ProjectService {
         queryWrapper.orderByDesc(ProjectAttachment::getCreateTime);
         
         List<ProjectAttachment> attachments = projectAttachmentMapper.selectList(queryWrapper);
+        // 已生成的缩略图和预览图，一次查询
+        Map<String, FileRenditionDTO> renditions = fileService.getRenditions(
+                attachments.stream().map(ProjectAttachment::getFilePath).collect(Collectors.toList()));
         
         // 转换为DTO对象
         return attachments.stream().map(attachment -> {
             ProjectAttachmentDTO dto = new ProjectAttachmentDTO();
+            FileRenditionDTO rendition = renditions.get(attachment.getFilePath());
+            if (rendition != null) {
+                dto.setThumbnailUrl(rendition.getThumbnailUrl());
+                dto.setPreviewUrl(rendition.getPreviewUrl());
+            }
             dto.setId(attachment.getId());
             dto.setProjectId(attachment.getProjectId());
             dto.setFileName(attachment.getFileName());
@@ -734,44 +866,17 @@ public class ProjectServiceImpl implements ProjectService {
         }
         
         // 构建查询条件
-        LambdaQueryWrapper<Project> queryWrapper = new LambdaQueryWrapper<>();
-        
-        // 关键字搜索 - 同时匹配项目名称或描述
-        if (StringUtils.isNotBlank(keyword)) {
-            queryWrapper.and(wrapper -> wrapper.like(Project::getName, keyword)
-                    .or()
-                    .like(Project::getDescription, keyword));
-        }
-        
-        // 状态过滤
-        if (status != null) {
-            queryWrapper.eq(Project::getStatus, status);
-        }
-        
-        // 添加时间范围条件
-        if (startTime != null) {
-            queryWrapper.ge(Project::getCreateTime, startTime.atStartOfDay());
-        }
-        
-        if (endTime != null) {
-            queryWrapper.le(Project::getCreateTime, endTime.atTime(23, 59, 59));
-        }
-        
-        if (dueStartTime != null) {
-            queryWrapper.ge(Project::getEndTime, dueStartTime.atStartOfDay());
-        }
-        
-        if (dueEndTime != null) {
-            queryWrapper.le(Project::getEndTime, dueEndTime.atTime(23, 59, 59));
+        LambdaQueryWrapper<Project> queryWrapper = buildProjectListQuery(keyword, status, startTime, endTime, dueStartTime, dueEndTime);
+        if (queryWrapper == null) {
+            return new PageResult<>(new ArrayList<>(), 0);
         }
         
         // 按优先级和创建时间排序（优先级高的在前，同优先级按创建时间降序）
         queryWrapper.orderByDesc(Project::getPriority)
                    .orderByDesc(Project::getCreateTime);
         
-        // 分页参数处理 - MyBatis-Plus页码从0开始，前端从1开始，需要减1
-        int pageIndex = Math.max(0, page - 1);
-        Page<Project> pageParam = new Page<>(pageIndex, pageSize);
+        // 分页参数处理 - MyBatis-Plus页码从1开始，与前端一致
+        Page<Project> pageParam = new Page<>(Math.max(1, page), pageSize);
         
         // 执行分页查询
         Page<Project> pageResult = projectMapper.selectPage(pageParam, queryWrapper);
@@ -0,0 +1,156 @@
+package com.taskManagement.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.taskManagement.entity.Tag;
+import com.taskManagement.entity.Task;
+import com.taskManagement.entity.TaskTag;
+import com.taskManagement.mapper.TagMapper;
+import com.taskManagement.mapper.TaskMapper;
+import com.taskManagement.mapper.TaskTagRelMapper;
+import com.taskManagement.properties.CacheProperties;
+import com.taskManagement.service.ProjectTagCacheService;
+import com.taskManagement.utils.LocalLruCache;
+import com.taskManagement.utils.TransactionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 项目标签缓存服务实现类
+ * 加载项目标签固定两条语句：联表查询项目下的标签关联并按标签分组，再按标签ID批量取回标签，
+ * 与项目中的任务数和标签数无关。本实例的写操作立即失效，其他实例的写操作依靠过期时间兜底
+ */
+@Slf4j
+@Service
+public class ProjectTagCacheServiceImpl implements ProjectTagCacheService {
+
+    @Autowired
+    private CacheProperties cacheProperties;
+
+    @Autowired
+    private TaskTagRelMapper taskTagRelMapper;
+
+    @Autowired
+    private TagMapper tagMapper;
+
+    @Autowired
+    private TaskMapper taskMapper;
+
+    private LocalLruCache<Long, List<Tag>> tagCache;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        CacheProperties.ProjectTag config = cacheProperties.getProjectTag();
+        tagCache = new LocalLruCache<>(config.getMaxSize(), TimeUnit.SECONDS.toMillis(config.getTtl()));
+    }
+
+    @Override
+    public List<Tag> getProjectTags(Long projectId) {
+        if (projectId == null) {
+            return new ArrayList<>();
+        }
+        List<Tag> cached = tagCache.get(projectId);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return copyOf(cached);
+        }
+        misses.incrementAndGet();
+        List<Tag> tags = loadProjectTags(projectId);
+        tagCache.put(projectId, tags);
+        return copyOf(tags);
+    }
+
+    private List<Tag> loadProjectTags(Long projectId) {
+        // 关联已按标签ID排序，分组后保持顺序
+        Map<Long, List<Long>> taskIdsByTag = new LinkedHashMap<>();
+        for (TaskTag rel : taskTagRelMapper.selectByProjectId(projectId)) {
+            taskIdsByTag.computeIfAbsent(rel.getTagId(), k -> new ArrayList<>()).add(rel.getTaskId());
+        }
+        if (taskIdsByTag.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        LambdaQueryWrapper<Tag> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.in(Tag::getId, taskIdsByTag.keySet());
+        List<Tag> tags = tagMapper.selectList(queryWrapper);
+        tags.sort(Comparator.comparing(Tag::getId));
+        for (Tag tag : tags) {
+            tag.setTaskIds(taskIdsByTag.get(tag.getId()));
+        }
+        log.debug("加载项目标签: projectId={}, 标签{}个, 关联{}条", projectId, tags.size(),
+                taskIdsByTag.values().stream().mapToInt(List::size).sum());
+        return tags;
+    }
+
+    @Override
+    public void evictProject(Long projectId) {
+        if (projectId == null) {
+            return;
+        }
+        Runnable evict = () -> tagCache.remove(projectId);
+        evict.run();
+        TransactionUtil.afterCommit(evict);
+    }
+
+    @Override
+    public void evictByTaskId(Long taskId) {
+        if (taskId == null) {
+            return;
+        }
+        LambdaQueryWrapper<Task> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.select(Task::getId, Task::getProjectId)
+                .eq(Task::getId, taskId);
+        Task task = taskMapper.selectOne(queryWrapper);
+        if (task != null) {
+            evictProject(task.getProjectId());
+        }
+    }
+
+    @Override
+    public void evictAll() {
+        Runnable evict = () -> tagCache.clear();
+        evict.run();
+        TransactionUtil.afterCommit(evict);
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        long hit = hits.get();
+        long miss = misses.get();
+        long total = hit + miss;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", tagCache.size());
+        stats.put("hits", hit);
+        stats.put("misses", miss);
+        stats.put("hitRate", total == 0 ? 0.0 : (double) hit / total);
+        return stats;
+    }
+
+    /**
+     * 深复制标签和任务ID列表，调用方修改返回值不会影响缓存
+     */
+    private static List<Tag> copyOf(List<Tag> tags) {
+        List<Tag> copies = new ArrayList<>(tags.size());
+        for (Tag tag : tags) {
+            Tag copy = new Tag();
+            BeanUtils.copyProperties(tag, copy);
+            copy.setTaskIds(new ArrayList<>(tag.getTaskIds()));
+            copies.add(copy);
+        }
+        return copies;
+    }
+}
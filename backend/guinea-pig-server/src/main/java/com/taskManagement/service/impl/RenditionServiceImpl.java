@@ -0,0 +1,310 @@
+package com.taskManagement.service.impl;
+
+import com.taskManagement.constant.FileConstant;
+import com.taskManagement.mapper.FileObjectMapper;
+import com.taskManagement.service.FileService;
+import com.taskManagement.service.RenditionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 附件渲染图服务实现类
+ * 从存储读取解密后的原图，按比例降采样解码，避免大图完整解码占用内存，
+ * 生成JPEG格式的缩略图和预览图，通过FileService加密存储在原文件旁；
+ * 队列满时放弃或停机时丢弃的任务仍为待生成状态，定期按批重新提交
+ */
+@Slf4j
+@Service
+public class RenditionServiceImpl implements RenditionService {
+
+    private static final String RENDITION_CONTENT_TYPE = "image/jpeg";
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private FileObjectMapper fileObjectMapper;
+
+    @Value("${guineapig.file.rendition.enabled:true}")
+    private boolean enabled = true;
+
+    /**
+     * 同时生成渲染图的线程数
+     */
+    @Value("${guineapig.file.rendition.threads:2}")
+    private int threads = 2;
+
+    @Value("${guineapig.file.rendition.queue-capacity:200}")
+    private int queueCapacity = 200;
+
+    /**
+     * 缩略图最长边(像素)
+     */
+    @Value("${guineapig.file.rendition.thumbnail-size:240}")
+    private int thumbnailSize = 240;
+
+    /**
+     * 预览图最长边(像素)
+     */
+    @Value("${guineapig.file.rendition.preview-size:1280}")
+    private int previewSize = 1280;
+
+    /**
+     * 原图大小上限(字节)，更大的图片不生成
+     */
+    @Value("${guineapig.file.rendition.max-source-size:20971520}")
+    private long maxSourceSize = 20L * 1024 * 1024;
+
+    /**
+     * 原图像素数上限，防止解码超大尺寸的图片
+     */
+    @Value("${guineapig.file.rendition.max-source-pixels:100000000}")
+    private long maxSourcePixels = 100_000_000L;
+
+    @Value("${guineapig.file.rendition.jpeg-quality:0.8}")
+    private float jpegQuality = 0.8f;
+
+    /**
+     * 待生成状态超过该时长(秒)的任务视为已丢失，重新提交
+     */
+    @Value("${guineapig.file.rendition.resubmit-after:600}")
+    private long resubmitAfter = 600;
+
+    /**
+     * 每次最多重新提交的任务数
+     */
+    @Value("${guineapig.file.rendition.resubmit-batch-size:50}")
+    private int resubmitBatchSize = 50;
+
+    private ThreadPoolExecutor executor;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong rendered = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong resubmitted = new AtomicLong();
+    private final AtomicLong renderMillis = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "file-rendition-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public boolean supports(String contentType, long fileSize) {
+        return enabled && contentType != null && contentType.startsWith("image/")
+                && fileSize > 0 && fileSize <= maxSourceSize
+                && ImageIO.getImageReadersByMIMEType(contentType).hasNext();
+    }
+
+    @Override
+    public void submit(String objectKey) {
+        try {
+            executor.execute(() -> render(objectKey));
+            submitted.incrementAndGet();
+        } catch (RejectedExecutionException e) {
+            // 渲染图不影响附件使用，队列满时放弃，前端回退到原图
+            rejected.incrementAndGet();
+            log.warn("渲染图队列已满，放弃生成: {}", objectKey);
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${guineapig.file.rendition.resubmit-interval:300000}",
+            initialDelayString = "${guineapig.file.rendition.resubmit-initial-delay:60000}")
+    public int resubmitPending() {
+        int limit = Math.min(resubmitBatchSize, executor.getQueue().remainingCapacity());
+        if (!enabled || limit <= 0) {
+            return 0;
+        }
+        LocalDateTime before = LocalDateTime.now().minusSeconds(resubmitAfter);
+        List<String> pending = fileObjectMapper.selectStalePending(FileConstant.RENDITION_PENDING, before, limit);
+        int count = 0;
+        for (String objectKey : pending) {
+            // 认领时推后更新时间，本次放弃的任务要等下一个周期，多个实例不会重复提交
+            if (fileObjectMapper.claimStalePending(objectKey, FileConstant.RENDITION_PENDING, before) > 0) {
+                submit(objectKey);
+                count++;
+            }
+        }
+        if (count > 0) {
+            resubmitted.addAndGet(count);
+            log.info("重新提交{}个待生成的渲染图任务", count);
+        }
+        return count;
+    }
+
+    /**
+     * 生成并存储缩略图和预览图，更新对象的渲染图状态
+     * @param objectKey 原文件的对象键
+     */
+    public void render(String objectKey) {
+        long start = System.currentTimeMillis();
+        try {
+            BufferedImage source = readScaled(objectKey);
+            if (source == null) {
+                failed.incrementAndGet();
+                fileObjectMapper.updateRenditionStatus(objectKey, FileConstant.RENDITION_UNSUPPORTED);
+                return;
+            }
+            BufferedImage preview = scale(source, previewSize);
+            // 缩略图从预览图缩小，不再处理原图
+            BufferedImage thumbnail = scale(preview, thumbnailSize);
+            fileService.storeRendition(objectKey, FileConstant.RENDITION_PREVIEW, encodeJpeg(preview), RENDITION_CONTENT_TYPE);
+            fileService.storeRendition(objectKey, FileConstant.RENDITION_THUMBNAIL, encodeJpeg(thumbnail), RENDITION_CONTENT_TYPE);
+
+            if (fileObjectMapper.updateRenditionStatus(objectKey, FileConstant.RENDITION_READY) == 0) {
+                // 生成期间原文件已被删除，渲染图也一并删除
+                fileService.deleteRenditions(objectKey);
+                return;
+            }
+            rendered.incrementAndGet();
+            renderMillis.addAndGet(System.currentTimeMillis() - start);
+            log.info("渲染图生成完成: {}, 原图{}x{}, 耗时{}ms", objectKey, source.getWidth(), source.getHeight(),
+                    System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            log.error("渲染图生成失败: {}", objectKey, e);
+            try {
+                fileObjectMapper.updateRenditionStatus(objectKey, FileConstant.RENDITION_UNSUPPORTED);
+            } catch (Exception statusError) {
+                log.error("更新渲染图状态失败: {}", objectKey, statusError);
+            }
+        }
+    }
+
+    /**
+     * 解码原图，按预览图大小计算降采样间隔，解码结果的最长边不小于预览图的两倍
+     * @return 解码后的图片，无法识别或尺寸超出上限时返回null
+     */
+    private BufferedImage readScaled(String objectKey) throws IOException {
+        try (InputStream content = fileService.getDecryptedFile(objectKey);
+             ImageInputStream imageInput = ImageIO.createImageInputStream(content)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInput);
+            if (!readers.hasNext()) {
+                log.warn("无法识别的图片格式: {}", objectKey);
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInput, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxSourcePixels) {
+                    log.warn("图片尺寸过大，不生成渲染图: {}, {}x{}", objectKey, width, height);
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, Math.max(width, height) / (previewSize * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 按比例缩小到最长边不超过maxSide，每次最多缩小一半以保证质量，透明背景填充为白色
+     */
+    static BufferedImage scale(BufferedImage source, int maxSide) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double ratio = Math.min(1.0, (double) maxSide / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(height * ratio));
+
+        BufferedImage current = source;
+        do {
+            int stepWidth = Math.max(targetWidth, current.getWidth() / 2);
+            int stepHeight = Math.max(targetHeight, current.getHeight() / 2);
+            BufferedImage step = new BufferedImage(stepWidth, stepHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = step.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, stepWidth, stepHeight, Color.WHITE, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = step;
+        } while (current.getWidth() > targetWidth || current.getHeight() > targetHeight);
+        return current;
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOutput = ImageIO.createImageOutputStream(output)) {
+            writer.setOutput(imageOutput);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long renderedCount = rendered.get();
+        stats.put("submitted", submitted.get());
+        stats.put("rendered", renderedCount);
+        stats.put("failed", failed.get());
+        stats.put("rejected", rejected.get());
+        stats.put("resubmitted", resubmitted.get());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("avgRenderMillis", renderedCount == 0 ? 0 : renderMillis.get() / renderedCount);
+        return stats;
+    }
+}
@@ -0,0 +1,232 @@
+package com.taskManagement.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.taskManagement.entity.Project;
+import com.taskManagement.entity.Task;
+import com.taskManagement.mapper.ProjectMapper;
+import com.taskManagement.mapper.TaskMapper;
+import com.taskManagement.service.SearchService;
+import com.taskManagement.utils.InvertedIndex;
+import com.taskManagement.utils.TransactionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 全文检索服务实现类
+ * 启动时全量建索引，业务写操作提交后增量更新；另外按更新时间定时补齐，
+ * 覆盖其他实例或绕过服务层写入的数据。已删除数据残留在索引中无害，列表查询按ID关联时会自然过滤掉
+ */
+@Slf4j
+@Service
+public class SearchServiceImpl implements SearchService {
+
+    /**
+     * 全量重建时每批读取的行数
+     */
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    /**
+     * 命中数超过该值时不再返回ID集合，避免生成过长的IN条件
+     */
+    private static final int MAX_MATCHES = 2000;
+
+    @Autowired
+    private TaskMapper taskMapper;
+
+    @Autowired
+    private ProjectMapper projectMapper;
+
+    private volatile InvertedIndex taskIndex = new InvertedIndex();
+
+    private volatile InvertedIndex projectIndex = new InvertedIndex();
+
+    private volatile boolean ready = false;
+
+    /**
+     * 已同步到索引的最大更新时间，用于定时增量补齐
+     */
+    private volatile LocalDateTime taskWatermark;
+
+    private volatile LocalDateTime projectWatermark;
+
+    @Override
+    public List<Long> searchTaskIds(String keyword) {
+        return search(taskIndex, keyword);
+    }
+
+    @Override
+    public List<Long> searchProjectIds(String keyword) {
+        return search(projectIndex, keyword);
+    }
+
+    private List<Long> search(InvertedIndex index, String keyword) {
+        if (!ready) {
+            return null;
+        }
+        List<Long> ids = index.search(keyword);
+        if (ids != null && ids.size() > MAX_MATCHES) {
+            log.debug("关键词命中过多，回退到数据库查询: keyword={}, matches={}", keyword, ids.size());
+            return null;
+        }
+        return ids;
+    }
+
+    @Override
+    public void indexTask(Task task) {
+        if (task == null || task.getId() == null) {
+            return;
+        }
+        Long id = task.getId();
+        String name = task.getName();
+        String description = task.getDescription();
+        TransactionUtil.afterCommit(() -> taskIndex.put(id, name, description));
+    }
+
+    @Override
+    public void removeTask(Long taskId) {
+        TransactionUtil.afterCommit(() -> taskIndex.remove(taskId));
+    }
+
+    @Override
+    public void indexProject(Project project) {
+        if (project == null || project.getId() == null) {
+            return;
+        }
+        Long id = project.getId();
+        String name = project.getName();
+        String description = project.getDescription();
+        TransactionUtil.afterCommit(() -> projectIndex.put(id, name, description));
+    }
+
+    @Override
+    public void removeProject(Long projectId) {
+        TransactionUtil.afterCommit(() -> projectIndex.remove(projectId));
+    }
+
+    /**
+     * 应用启动完成后全量建索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuildIndex();
+        } catch (Exception e) {
+            // 建索引失败不影响启动，检索会回退到LIKE查询
+            log.error("全文索引构建失败: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized void rebuildIndex() {
+        long start = System.currentTimeMillis();
+        LocalDateTime startTime = LocalDateTime.now();
+
+        InvertedIndex newTaskIndex = new InvertedIndex();
+        LocalDateTime newTaskWatermark = loadTasks(newTaskIndex, null);
+        InvertedIndex newProjectIndex = new InvertedIndex();
+        LocalDateTime newProjectWatermark = loadProjects(newProjectIndex, null);
+
+        // 重建期间写入旧索引的变更会随切换丢失，水位线不晚于重建开始时间，由下一次增量同步补回
+        taskIndex = newTaskIndex;
+        projectIndex = newProjectIndex;
+        taskWatermark = min(newTaskWatermark, startTime);
+        projectWatermark = min(newProjectWatermark, startTime);
+        ready = true;
+
+        log.info("全文索引构建完成: tasks={}, projects={}, 耗时{}ms",
+                newTaskIndex.size(), newProjectIndex.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 定时补齐上次同步之后更新过的数据
+     */
+    @Scheduled(fixedDelayString = "${guineapig.search.refresh-interval:60000}")
+    public synchronized void refreshIndex() {
+        if (!ready) {
+            return;
+        }
+        try {
+            taskWatermark = loadTasks(taskIndex, taskWatermark);
+            projectWatermark = loadProjects(projectIndex, projectWatermark);
+        } catch (Exception e) {
+            log.error("全文索引增量同步失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 按ID分批读取任务写入索引
+     * @param since 只读取更新时间不早于该值的任务，为null时读取全部
+     * @return 读到的最大更新时间
+     */
+    private LocalDateTime loadTasks(InvertedIndex index, LocalDateTime since) {
+        LocalDateTime watermark = since;
+        Long lastId = 0L;
+        while (true) {
+            LambdaQueryWrapper<Task> queryWrapper = new LambdaQueryWrapper<>();
+            queryWrapper.select(Task::getId, Task::getName, Task::getDescription, Task::getUpdateTime)
+                    .gt(Task::getId, lastId)
+                    .ge(since != null, Task::getUpdateTime, since)
+                    .orderByAsc(Task::getId);
+            List<Task> tasks = taskMapper.selectPage(new Page<>(1, REBUILD_BATCH_SIZE, false), queryWrapper).getRecords();
+            for (Task task : tasks) {
+                index.put(task.getId(), task.getName(), task.getDescription());
+                watermark = max(watermark, task.getUpdateTime());
+            }
+            if (tasks.size() < REBUILD_BATCH_SIZE) {
+                return watermark;
+            }
+            lastId = tasks.get(tasks.size() - 1).getId();
+        }
+    }
+
+    /**
+     * 按ID分批读取项目写入索引
+     * @param since 只读取更新时间不早于该值的项目，为null时读取全部
+     * @return 读到的最大更新时间
+     */
+    private LocalDateTime loadProjects(InvertedIndex index, LocalDateTime since) {
+        LocalDateTime watermark = since;
+        Long lastId = 0L;
+        while (true) {
+            LambdaQueryWrapper<Project> queryWrapper = new LambdaQueryWrapper<>();
+            queryWrapper.select(Project::getId, Project::getName, Project::getDescription, Project::getUpdateTime)
+                    .gt(Project::getId, lastId)
+                    .ge(since != null, Project::getUpdateTime, since)
+                    .orderByAsc(Project::getId);
+            List<Project> projects = projectMapper.selectPage(new Page<>(1, REBUILD_BATCH_SIZE, false), queryWrapper).getRecords();
+            for (Project project : projects) {
+                index.put(project.getId(), project.getName(), project.getDescription());
+                watermark = max(watermark, project.getUpdateTime());
+            }
+            if (projects.size() < REBUILD_BATCH_SIZE) {
+                return watermark;
+            }
+            lastId = projects.get(projects.size() - 1).getId();
+        }
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        if (a == null) {
+            return b;
+        }
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDateTime max(LocalDateTime a, LocalDateTime b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        return a.isAfter(b) ? a : b;
+    }
+}
@@ -5,10 +5,9 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.taskManagement.context.BaseContext;
 import com.taskManagement.entity.Tag;
-import com.taskManagement.entity.Task;
 import com.taskManagement.exception.BusinessException;
 import com.taskManagement.mapper.TagMapper;
-import com.taskManagement.mapper.TaskMapper;
+import com.taskManagement.service.ProjectTagCacheService;
 import com.taskManagement.service.TagService;
 import com.taskManagement.service.TaskTagService;
 import lombok.extern.slf4j.Slf4j;
@@ -19,9 +18,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.Locale;
 import java.util.stream.Collectors;
 
 /**
@@ -38,7 +36,7 @@ public class TagServiceImpl extends ServiceImpl<TagMapper, Tag> implements TagSe
     private TaskTagService taskTagService;
     
     @Autowired
-    private TaskMapper taskMapper;
+    private ProjectTagCacheService projectTagCacheService;
 
 
     @Override
@@ -90,8 +88,9 @@ public class TagServiceImpl extends ServiceImpl<TagMapper, Tag> implements TagSe
         Long userId = BaseContext.getCurrentId();
         tag.setUpdateUser(userId);
         
-        // 更新标签
+        // 更新标签，标签可能被多个项目使用，清空所有项目的标签缓存
         updateById(tag);
+        projectTagCacheService.evictAll();
         
         // 处理任务关联
         if (tag.getTaskIds() != null) {
@@ -116,7 +115,9 @@ public class TagServiceImpl extends ServiceImpl<TagMapper, Tag> implements TagSe
         taskTagService.removeTagTasks(id);
         
         // 删除标签
-        return removeById(id);
+        boolean removed = removeById(id);
+        projectTagCacheService.evictAll();
+        return removed;
     }
 
     @Override
@@ -239,51 +240,27 @@ public class TagServiceImpl extends ServiceImpl<TagMapper, Tag> implements TagSe
     public List<Tag> getTagsByProjectId(Long projectId) {
         log.info("根据项目ID获取标签列表: {}", projectId);
         
-        // 注意：Tag与Project没有直接关系，通过Task间接关联
-        // 获取项目下的所有任务
-        LambdaQueryWrapper<Task> taskQueryWrapper = new LambdaQueryWrapper<>();
-        taskQueryWrapper.eq(Task::getProjectId, projectId);
-        taskQueryWrapper.select(Task::getId);
-        List<Task> projectTasks = taskMapper.selectList(taskQueryWrapper);
-        
-        // 提取任务ID列表
-        List<Long> taskIds = projectTasks.stream()
-                .map(Task::getId)
-                .collect(Collectors.toList());
-        
-        if (taskIds.isEmpty()) {
-            return new ArrayList<>();
-        }
-        
-        // 查找与这些任务关联的所有标签ID
-        Set<Long> tagIdSet = new HashSet<>();
-        for (Long taskId : taskIds) {
-            List<Long> tagIds = taskTagService.getTagIdsByTaskId(taskId);
-            tagIdSet.addAll(tagIds);
-        }
-        
-        if (tagIdSet.isEmpty()) {
-            return new ArrayList<>();
-        }
-        
-        // 查询这些标签
-        LambdaQueryWrapper<Tag> tagQueryWrapper = new LambdaQueryWrapper<>();
-        tagQueryWrapper.in(Tag::getId, tagIdSet);
-        List<Tag> tags = list(tagQueryWrapper);
-        
-        // 为每个标签添加关联的任务ID
-        for (Tag tag : tags) {
-            List<Long> tagTaskIds = taskTagService.getTaskIdsByTagId(tag.getId());
-            tag.setTaskIds(tagTaskIds);
-        }
-        
-        return tags;
+        // 注意：Tag与Project没有直接关系，通过Task间接关联，任务ID只包含该项目内的任务
+        return projectTagCacheService.getProjectTags(projectId);
     }
 
     @Override
     public List<Tag> searchTags(String keyword, Long projectId) {
         log.info("根据关键词和项目ID查询标签, 关键词: {}, 项目ID: {}", keyword, projectId);
         
+        // 指定了项目ID时在缓存的项目标签中按名称过滤
+        if (projectId != null) {
+            List<Tag> projectTags = projectTagCacheService.getProjectTags(projectId);
+            if (StringUtils.isBlank(keyword)) {
+                return projectTags;
+            }
+            // 与数据库的like一致，不区分大小写
+            String lowerKeyword = keyword.toLowerCase(Locale.ROOT);
+            return projectTags.stream()
+                    .filter(tag -> tag.getName() != null && tag.getName().toLowerCase(Locale.ROOT).contains(lowerKeyword))
+                    .collect(Collectors.toList());
+        }
+        
         LambdaQueryWrapper<Tag> queryWrapper = new LambdaQueryWrapper<>();
         
         // 添加关键词查询条件
@@ -291,41 +268,7 @@ public class TagServiceImpl extends ServiceImpl<TagMapper, Tag> implements TagSe
             queryWrapper.like(Tag::getName, keyword);
         }
         
-        List<Tag> tags;
-        // 如果指定了项目ID，需要过滤该项目相关的标签
-        // 注意：Tag与Project没有直接关系，通过Task间接关联
-        if (projectId != null) {
-            // 获取项目下的所有任务
-            LambdaQueryWrapper<Task> taskQueryWrapper = new LambdaQueryWrapper<>();
-            taskQueryWrapper.eq(Task::getProjectId, projectId);
-            taskQueryWrapper.select(Task::getId);
-            List<Task> projectTasks = taskMapper.selectList(taskQueryWrapper);
-            
-            // 提取任务ID
-            List<Long> taskIds = projectTasks.stream()
-                    .map(Task::getId)
-                    .collect(Collectors.toList());
-            
-            if (taskIds.isEmpty()) {
-                return new ArrayList<>();
-            }
-            
-            // 查找与这些任务关联的所有标签ID
-            Set<Long> tagIdSet = new HashSet<>();
-            for (Long taskId : taskIds) {
-                List<Long> tagIds = taskTagService.getTagIdsByTaskId(taskId);
-                tagIdSet.addAll(tagIds);
-            }
-            
-            if (tagIdSet.isEmpty()) {
-                return new ArrayList<>();
-            }
-            
-            // 添加标签ID过滤条件
-            queryWrapper.in(Tag::getId, tagIdSet);
-        }
-        
-        tags = list(queryWrapper);
+        List<Tag> tags = list(queryWrapper);
         
         // 为每个标签添加关联的任务ID
         for (Tag tag : tags) {
@@ -0,0 +1,507 @@
+package com.taskManagement.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taskManagement.dto.TaskDTO;
+import com.taskManagement.entity.TaskMember;
+import com.taskManagement.mapper.TaskMapper;
+import com.taskManagement.mapper.TaskMemberMapper;
+import com.taskManagement.properties.CacheProperties;
+import com.taskManagement.service.TaskCacheService;
+import com.taskManagement.utils.LocalLruCache;
+import com.taskManagement.utils.TransactionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 任务缓存服务实现类
+ * 任务详情支持进程内、Redis和两级缓存。两级模式下通过Redis发布订阅通知其他实例清除本地缓存；
+ * Redis不可用时读写直接回退到数据库，不影响业务。
+ * 事务内的读取不经过缓存；回填前核对失效代数，失效之前读到的旧数据不会写回缓存。
+ * 个人仪表盘只在进程内缓存，过期时间很短，以只读形式保存和返回；失效同样通过Redis通知其他实例
+ */
+@Slf4j
+@Service
+public class TaskCacheServiceImpl implements TaskCacheService {
+
+    private static final String KEY_PREFIX = "task:detail:";
+
+    private static final String EVICT_CHANNEL = "task:detail:evict";
+
+    /**
+     * 失效消息中仪表盘的前缀，后接逗号分隔的用户ID；不带前缀的消息为任务ID
+     */
+    private static final String DASHBOARD_MESSAGE_PREFIX = "dashboard:";
+
+    /**
+     * 失效代数，每次失效加一。回填前比较读取数据之前记下的代数，防止失效之前读到的旧数据在失效之后写回
+     */
+    private static final String GENERATION_KEY_PREFIX = "task:detail:gen:";
+
+    /**
+     * 代数未变时才写入缓存
+     */
+    private static final DefaultRedisScript<Long> FILL_SCRIPT = new DefaultRedisScript<>(
+            "local generation = redis.call('GET', KEYS[2]) or '' " +
+            "if generation ~= ARGV[1] then return 0 end " +
+            "redis.call('SET', KEYS[1], ARGV[2], 'EX', ARGV[3]) " +
+            "return 1", Long.class);
+
+    /**
+     * 删除缓存并推进代数，代数键的过期时间与缓存相同
+     */
+    private static final DefaultRedisScript<Long> EVICT_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('DEL', KEYS[1]) " +
+            "local generation = redis.call('INCR', KEYS[2]) " +
+            "redis.call('EXPIRE', KEYS[2], ARGV[1]) " +
+            "return generation", Long.class);
+
+    /**
+     * 本地缓存代数的分段数，同一分段的任务共用代数，冲突只会让回填被跳过
+     */
+    private static final int GENERATION_STRIPES = 1024;
+
+    /**
+     * 本实例标识，收到自己发出的失效消息时忽略
+     */
+    private final String instanceId = UUID.randomUUID().toString();
+
+    @Autowired
+    private CacheProperties cacheProperties;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+
+    @Autowired
+    private ObjectProvider<RedisConnectionFactory> connectionFactoryProvider;
+
+    @Autowired
+    private TaskMapper taskMapper;
+
+    @Autowired
+    private TaskMemberMapper taskMemberMapper;
+
+    private LocalLruCache<Long, TaskDTO> localCache;
+
+    private final long[] localGenerations = new long[GENERATION_STRIPES];
+
+    private final Object[] generationLocks = new Object[GENERATION_STRIPES];
+
+    private StringRedisTemplate redisTemplate;
+
+    private RedisMessageListenerContainer listenerContainer;
+
+    private LocalLruCache<String, Map<String, Object>> dashboardCache;
+
+    private final AtomicLong localHits = new AtomicLong();
+    private final AtomicLong redisHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong redisErrors = new AtomicLong();
+    private final AtomicLong transactionalReads = new AtomicLong();
+    private final AtomicLong staleFillsSkipped = new AtomicLong();
+    private final AtomicLong dashboardHits = new AtomicLong();
+    private final AtomicLong dashboardMisses = new AtomicLong();
+
+    {
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            generationLocks[i] = new Object();
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        CacheProperties.TaskDetail config = cacheProperties.getTaskDetail();
+        String mode = config.getMode();
+        boolean wantLocal = "local".equals(mode) || "two-level".equals(mode);
+        boolean wantRedis = "redis".equals(mode) || "two-level".equals(mode);
+
+        if (wantRedis) {
+            redisTemplate = redisTemplateProvider.getIfAvailable();
+            if (redisTemplate == null) {
+                log.warn("未配置Redis，任务详情缓存降级为进程内缓存");
+                wantLocal = true;
+            }
+        }
+        if (wantLocal) {
+            localCache = new LocalLruCache<>(config.getLocalMaxSize(), TimeUnit.SECONDS.toMillis(config.getLocalTtl()));
+        }
+        CacheProperties.Dashboard dashboardConfig = cacheProperties.getDashboard();
+        if (dashboardConfig.isEnabled()) {
+            dashboardCache = new LocalLruCache<>(dashboardConfig.getMaxSize(),
+                    TimeUnit.SECONDS.toMillis(dashboardConfig.getTtl()));
+        }
+        if ((localCache != null || dashboardCache != null) && redisTemplate != null) {
+            try {
+                subscribeEvictions();
+            } catch (Exception e) {
+                // 订阅失败时其他实例的本地缓存依靠过期时间兜底
+                log.warn("订阅任务详情缓存失效消息失败: {}", e.getMessage());
+            }
+        }
+        log.info("任务详情缓存已启用: mode={}, local={}, redis={}", mode, localCache != null, redisTemplate != null);
+    }
+
+    /**
+     * 订阅其他实例发出的失效消息，清除本地的任务详情或仪表盘缓存
+     */
+    private void subscribeEvictions() {
+        RedisConnectionFactory connectionFactory = connectionFactoryProvider.getIfAvailable();
+        if (connectionFactory == null) {
+            return;
+        }
+        listenerContainer = new RedisMessageListenerContainer();
+        listenerContainer.setConnectionFactory(connectionFactory);
+        listenerContainer.addMessageListener((message, pattern) -> {
+            String body = new String(message.getBody());
+            int separator = body.indexOf(':');
+            if (separator < 0 || instanceId.equals(body.substring(0, separator))) {
+                return;
+            }
+            String payload = body.substring(separator + 1);
+            try {
+                if (payload.startsWith(DASHBOARD_MESSAGE_PREFIX)) {
+                    Set<Long> userIds = new HashSet<>();
+                    for (String userId : payload.substring(DASHBOARD_MESSAGE_PREFIX.length()).split(",")) {
+                        userIds.add(Long.valueOf(userId));
+                    }
+                    evictLocalDashboards(userIds);
+                } else {
+                    evictLocal(Long.valueOf(payload));
+                }
+            } catch (NumberFormatException e) {
+                log.warn("无法解析任务详情缓存失效消息: {}", body);
+            }
+        }, new ChannelTopic(EVICT_CHANNEL));
+        listenerContainer.afterPropertiesSet();
+        listenerContainer.start();
+    }
+
+    @PreDestroy
+    public void destroy() throws Exception {
+        if (listenerContainer != null) {
+            listenerContainer.destroy();
+        }
+    }
+
+    @Override
+    public TaskDTO getTaskDetail(Long taskId, Function<Long, TaskDTO> loader) {
+        if (localCache == null && redisTemplate == null) {
+            return loader.apply(taskId);
+        }
+        // 事务内可能读到本事务未提交的修改，也可能被缓存中的旧值挡住自己的修改，直接读库且不回填
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            transactionalReads.incrementAndGet();
+            return loader.apply(taskId);
+        }
+
+        long localGeneration = localGeneration(taskId);
+        if (localCache != null) {
+            TaskDTO cached = localCache.get(taskId);
+            if (cached != null) {
+                localHits.incrementAndGet();
+                return copyOf(cached);
+            }
+        }
+
+        // 读取数据之前先记下代数，回填时代数已变说明期间发生过失效，放弃回填
+        String redisGeneration = readRedisGeneration(taskId);
+        TaskDTO fromRedis = readRedis(taskId);
+        if (fromRedis != null) {
+            redisHits.incrementAndGet();
+            putLocal(taskId, fromRedis, localGeneration);
+            return copyOf(fromRedis);
+        }
+
+        misses.incrementAndGet();
+        TaskDTO loaded = loader.apply(taskId);
+        if (loaded != null) {
+            TaskDTO snapshot = copyOf(loaded);
+            writeRedis(taskId, snapshot, redisGeneration);
+            putLocal(taskId, snapshot, localGeneration);
+        }
+        return loaded;
+    }
+
+    @Override
+    public void evictTaskDetail(Long taskId) {
+        if (taskId == null || (localCache == null && redisTemplate == null)) {
+            return;
+        }
+        evictions.incrementAndGet();
+        evictNow(taskId);
+        TransactionUtil.afterCommit(() -> evictNow(taskId));
+    }
+
+    private void evictNow(Long taskId) {
+        evictLocal(taskId);
+        if (redisTemplate != null) {
+            try {
+                redisTemplate.execute(EVICT_SCRIPT, List.of(KEY_PREFIX + taskId, GENERATION_KEY_PREFIX + taskId),
+                        String.valueOf(cacheProperties.getTaskDetail().getRedisTtl()));
+                if (localCache != null) {
+                    redisTemplate.convertAndSend(EVICT_CHANNEL, instanceId + ":" + taskId);
+                }
+            } catch (Exception e) {
+                redisErrors.incrementAndGet();
+                log.warn("清除Redis任务详情缓存失败: taskId={}, {}", taskId, e.getMessage());
+            }
+        }
+    }
+
+    private Object generationLock(Long taskId) {
+        return generationLocks[Math.floorMod(taskId.hashCode(), GENERATION_STRIPES)];
+    }
+
+    private long localGeneration(Long taskId) {
+        synchronized (generationLock(taskId)) {
+            return localGenerations[Math.floorMod(taskId.hashCode(), GENERATION_STRIPES)];
+        }
+    }
+
+    /**
+     * 清除本地缓存并推进代数，与putLocal互斥，保证失效之前读到的数据不会在失效之后写入
+     */
+    private void evictLocal(Long taskId) {
+        if (localCache == null) {
+            return;
+        }
+        synchronized (generationLock(taskId)) {
+            localGenerations[Math.floorMod(taskId.hashCode(), GENERATION_STRIPES)]++;
+            localCache.remove(taskId);
+        }
+    }
+
+    private void putLocal(Long taskId, TaskDTO taskDTO, long expectedGeneration) {
+        if (localCache == null) {
+            return;
+        }
+        synchronized (generationLock(taskId)) {
+            if (localGenerations[Math.floorMod(taskId.hashCode(), GENERATION_STRIPES)] == expectedGeneration) {
+                localCache.put(taskId, taskDTO);
+            } else {
+                staleFillsSkipped.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * 读取Redis中的失效代数，没有代数键时为空串；Redis不可用时返回null，不再回填
+     */
+    private String readRedisGeneration(Long taskId) {
+        if (redisTemplate == null) {
+            return null;
+        }
+        try {
+            String generation = redisTemplate.opsForValue().get(GENERATION_KEY_PREFIX + taskId);
+            return generation == null ? "" : generation;
+        } catch (Exception e) {
+            redisErrors.incrementAndGet();
+            log.warn("读取Redis任务详情缓存代数失败: taskId={}, {}", taskId, e.getMessage());
+            return null;
+        }
+    }
+
+    private TaskDTO readRedis(Long taskId) {
+        if (redisTemplate == null) {
+            return null;
+        }
+        try {
+            String json = redisTemplate.opsForValue().get(KEY_PREFIX + taskId);
+            return json == null ? null : objectMapper.readValue(json, TaskDTO.class);
+        } catch (Exception e) {
+            redisErrors.incrementAndGet();
+            log.warn("读取Redis任务详情缓存失败: taskId={}, {}", taskId, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeRedis(Long taskId, TaskDTO taskDTO, String expectedGeneration) {
+        if (redisTemplate == null || expectedGeneration == null) {
+            return;
+        }
+        try {
+            Long written = redisTemplate.execute(FILL_SCRIPT, List.of(KEY_PREFIX + taskId, GENERATION_KEY_PREFIX + taskId),
+                    expectedGeneration, objectMapper.writeValueAsString(taskDTO),
+                    String.valueOf(cacheProperties.getTaskDetail().getRedisTtl()));
+            if (written == null || written == 0) {
+                staleFillsSkipped.incrementAndGet();
+            }
+        } catch (Exception e) {
+            redisErrors.incrementAndGet();
+            log.warn("写入Redis任务详情缓存失败: taskId={}, {}", taskId, e.getMessage());
+        }
+    }
+
+    /**
+     * 复制一份DTO，避免调用方修改缓存中的对象
+     */
+    private TaskDTO copyOf(TaskDTO source) {
+        TaskDTO copy = new TaskDTO();
+        BeanUtils.copyProperties(source, copy);
+        copy.setTagIds(source.getTagIds() == null ? null : new ArrayList<>(source.getTagIds()));
+        copy.setMembers(source.getMembers() == null ? null : new ArrayList<>(source.getMembers()));
+        copy.setMemberIds(source.getMemberIds() == null ? null : new ArrayList<>(source.getMemberIds()));
+        copy.setAttachments(source.getAttachments() == null ? null : new ArrayList<>(source.getAttachments()));
+        return copy;
+    }
+
+    @Override
+    public Map<String, Object> getUserDashboard(Long userId, Integer status, Integer pageSize,
+                                                Supplier<Map<String, Object>> loader) {
+        if (dashboardCache == null) {
+            return loader.get();
+        }
+        String key = userId + ":" + status + ":" + pageSize;
+        Map<String, Object> cached = dashboardCache.get(key);
+        if (cached != null) {
+            dashboardHits.incrementAndGet();
+            return readOnlyCopy(cached);
+        }
+        dashboardMisses.incrementAndGet();
+        Map<String, Object> dashboard = readOnlyCopy(loader.get());
+        dashboardCache.put(key, dashboard);
+        return readOnlyCopy(dashboard);
+    }
+
+    /**
+     * 复制一份只读的仪表盘，嵌套的Map和List不可修改，任务DTO逐个复制，调用方无法改动缓存中的数据
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> readOnlyCopy(Map<String, Object> dashboard) {
+        return (Map<String, Object>) readOnlyValue(dashboard);
+    }
+
+    private Object readOnlyValue(Object value) {
+        if (value instanceof Map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            ((Map<?, ?>) value).forEach((k, v) -> copy.put(k, readOnlyValue(v)));
+            return Collections.unmodifiableMap(copy);
+        }
+        if (value instanceof Collection) {
+            List<Object> copy = new ArrayList<>();
+            ((Collection<?>) value).forEach(item -> copy.add(readOnlyValue(item)));
+            return Collections.unmodifiableList(copy);
+        }
+        if (value instanceof TaskDTO) {
+            return copyOf((TaskDTO) value);
+        }
+        return value;
+    }
+
+    @Override
+    public void evictUserDashboards(Collection<Long> userIds) {
+        if (dashboardCache == null || userIds == null || userIds.isEmpty()) {
+            return;
+        }
+        Set<Long> ids = userIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (ids.isEmpty()) {
+            return;
+        }
+        Runnable evict = () -> {
+            evictLocalDashboards(ids);
+            publishDashboardEviction(ids);
+        };
+        evict.run();
+        TransactionUtil.afterCommit(evict);
+    }
+
+    @Override
+    public void evictTaskDashboards(Collection<Long> taskIds) {
+        if (dashboardCache == null || taskIds == null || taskIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = taskIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return;
+        }
+        // 仪表盘包含用户创建的和参与的任务
+        Set<Long> userIds = new HashSet<>(taskMapper.selectCreateUsersByIds(ids));
+        taskMemberMapper.selectByTaskIds(ids).stream()
+                .map(TaskMember::getUserId)
+                .forEach(userIds::add);
+        evictUserDashboards(userIds);
+    }
+
+    private void evictLocalDashboards(Set<Long> userIds) {
+        if (dashboardCache == null) {
+            return;
+        }
+        dashboardCache.removeIf(key -> userIds.contains(Long.valueOf(key.substring(0, key.indexOf(':')))));
+    }
+
+    /**
+     * 通过任务详情的失效频道通知其他实例清除这些用户的仪表盘
+     */
+    private void publishDashboardEviction(Set<Long> userIds) {
+        if (redisTemplate == null) {
+            return;
+        }
+        String joined = userIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        try {
+            redisTemplate.convertAndSend(EVICT_CHANNEL, instanceId + ":" + DASHBOARD_MESSAGE_PREFIX + joined);
+        } catch (Exception e) {
+            redisErrors.incrementAndGet();
+            log.warn("发布仪表盘缓存失效消息失败: userIds={}, {}", joined, e.getMessage());
+        }
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        long local = localHits.get();
+        long redis = redisHits.get();
+        long miss = misses.get();
+        long total = local + redis + miss;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("mode", cacheProperties.getTaskDetail().getMode());
+        stats.put("localEnabled", localCache != null);
+        stats.put("redisEnabled", redisTemplate != null);
+        stats.put("localHits", local);
+        stats.put("redisHits", redis);
+        stats.put("misses", miss);
+        stats.put("evictions", evictions.get());
+        stats.put("redisErrors", redisErrors.get());
+        stats.put("transactionalReads", transactionalReads.get());
+        stats.put("staleFillsSkipped", staleFillsSkipped.get());
+        stats.put("hitRate", total == 0 ? 0.0 : (double) (local + redis) / total);
+        stats.put("localSize", localCache == null ? 0 : localCache.size());
+        stats.put("dashboardHits", dashboardHits.get());
+        stats.put("dashboardMisses", dashboardMisses.get());
+        return stats;
+    }
+}
@@ -0,0 +1,169 @@
+package com.taskManagement.service.impl;
+
+import com.taskManagement.dto.TaskGroupCountDTO;
+import com.taskManagement.entity.Task;
+import com.taskManagement.mapper.TaskCounterMapper;
+import com.taskManagement.service.TaskCounterService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 任务计数服务实现类
+ * 计数保存在tb_task_counter中，任务写操作在同一事务中原子增量更新，回滚的写操作不会计入，所有实例读到相同的计数；
+ * 另外定时按任务表重新写入，只用于纠正绕过服务层写入任务表造成的偏差
+ */
+@Slf4j
+@Service
+public class TaskCounterServiceImpl implements TaskCounterService {
+
+    /**
+     * 状态字段为空时数据库使用的默认值
+     */
+    private static final int DEFAULT_STATUS = 0;
+
+    /**
+     * 优先级字段为空时数据库使用的默认值
+     */
+    private static final int DEFAULT_PRIORITY = 1;
+
+    private static final int DIMENSION_STATUS = 0;
+
+    private static final int DIMENSION_PRIORITY = 1;
+
+    @Autowired
+    private TaskCounterMapper taskCounterMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Override
+    public void onTaskCreated(Task task) {
+        if (task == null || task.getProjectId() == null) {
+            return;
+        }
+        apply(task.getProjectId(), statusOf(task), priorityOf(task), 1);
+    }
+
+    @Override
+    public void onTaskUpdated(Task before, Task after) {
+        if (before == null || after == null) {
+            return;
+        }
+        Long oldProjectId = before.getProjectId();
+        int oldStatus = statusOf(before);
+        int oldPriority = priorityOf(before);
+        Long newProjectId = after.getProjectId() != null ? after.getProjectId() : oldProjectId;
+        int newStatus = after.getStatus() != null ? after.getStatus() : oldStatus;
+        int newPriority = after.getPriority() != null ? after.getPriority() : oldPriority;
+        if (newProjectId.equals(oldProjectId) && newStatus == oldStatus && newPriority == oldPriority) {
+            return;
+        }
+        apply(oldProjectId, oldStatus, oldPriority, -1);
+        apply(newProjectId, newStatus, newPriority, 1);
+    }
+
+    @Override
+    public void onTaskDeleted(Task task) {
+        if (task == null || task.getProjectId() == null) {
+            return;
+        }
+        apply(task.getProjectId(), statusOf(task), priorityOf(task), -1);
+    }
+
+    /**
+     * 在调用方的事务中调整计数，与任务写操作一起提交或回滚
+     */
+    private void apply(Long projectId, int status, int priority, long delta) {
+        if (projectId == null) {
+            return;
+        }
+        increment(projectId, DIMENSION_STATUS, status, delta);
+        increment(projectId, DIMENSION_PRIORITY, priority, delta);
+    }
+
+    private void increment(Long projectId, int dimension, int value, long delta) {
+        if (taskCounterMapper.increment(projectId, dimension, value, delta) > 0) {
+            return;
+        }
+        try {
+            taskCounterMapper.insertCounter(projectId, dimension, value, delta);
+        } catch (DuplicateKeyException e) {
+            // 其他事务同时插入了该计数行
+            taskCounterMapper.increment(projectId, dimension, value, delta);
+        }
+    }
+
+    private static int statusOf(Task task) {
+        return task.getStatus() != null ? task.getStatus() : DEFAULT_STATUS;
+    }
+
+    private static int priorityOf(Task task) {
+        return task.getPriority() != null ? task.getPriority() : DEFAULT_PRIORITY;
+    }
+
+    @Override
+    public Map<Integer, Long> getStatusCounts(Long projectId) {
+        return toMap(taskCounterMapper.selectStatusCounts(projectId), TaskGroupCountDTO::getStatus);
+    }
+
+    @Override
+    public Map<Integer, Long> getPriorityCounts(Long projectId) {
+        return toMap(taskCounterMapper.selectPriorityCounts(projectId), TaskGroupCountDTO::getPriority);
+    }
+
+    private Map<Integer, Long> toMap(List<TaskGroupCountDTO> groups, Function<TaskGroupCountDTO, Integer> key) {
+        Map<Integer, Long> result = new HashMap<>();
+        for (TaskGroupCountDTO group : groups) {
+            result.put(key.apply(group), group.getCount());
+        }
+        return result;
+    }
+
+    /**
+     * 应用启动完成后按任务表重新写入，首次部署时计数表为空
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            reseed();
+        } catch (Exception e) {
+            // 初始化失败不影响启动，计数表中已有的数据仍可读取
+            log.error("任务计数初始化失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 定时重新写入，纠正计数偏差
+     */
+    @Scheduled(fixedDelayString = "${guineapig.stats.reseed-interval:3600000}",
+            initialDelayString = "${guineapig.stats.reseed-interval:3600000}")
+    public void scheduledReseed() {
+        try {
+            reseed();
+        } catch (Exception e) {
+            log.error("任务计数重新初始化失败: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void reseed() {
+        long start = System.currentTimeMillis();
+        // 删除和重新写入在同一事务中，删除时等待正在调整计数的写事务提交，读取不会看到空表
+        Integer rows = transactionTemplate.execute(status -> {
+            taskCounterMapper.deleteAll();
+            return taskCounterMapper.insertFromTasks();
+        });
+        log.info("任务计数初始化完成: rows={}, 耗时{}ms", rows, System.currentTimeMillis() - start);
+    }
+}
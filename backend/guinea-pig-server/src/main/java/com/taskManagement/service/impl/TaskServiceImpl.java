@@ -1,8 +1,13 @@
 package com.taskManagement.service.impl;
 
+import com.taskManagement.constant.NotificationConstant;
+import com.taskManagement.config.MybatisPlusConfig;
 import com.taskManagement.context.BaseContext;
 import com.taskManagement.exception.BusinessException;
+import com.taskManagement.dto.FileRenditionDTO;
 import com.taskManagement.dto.TaskDTO;
+import com.taskManagement.vo.CursorPageResult;
+import com.taskManagement.vo.FileUploadResultVO;
 import com.taskManagement.vo.TaskVO;
 import com.taskManagement.vo.UserVO;
 import com.taskManagement.entity.Project;
@@ -20,6 +25,11 @@ import com.taskManagement.service.TaskService;
 import com.taskManagement.service.TaskTagService;
 import com.taskManagement.service.FileService;
 import com.taskManagement.service.NotificationService;
+import com.taskManagement.service.SearchService;
+import com.taskManagement.service.TaskCacheService;
+import com.taskManagement.service.TaskCounterService;
+import com.taskManagement.service.ProjectTagCacheService;
+import com.taskManagement.utils.PageCursor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -35,9 +45,11 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
@@ -70,6 +82,18 @@ public class TaskServiceImpl implements TaskService {
     
     @Autowired
     private NotificationService notificationService;
+    
+    @Autowired
+    private SearchService searchService;
+    
+    @Autowired
+    private TaskCacheService taskCacheService;
+    
+    @Autowired
+    private TaskCounterService taskCounterService;
+    
+    @Autowired
+    private ProjectTagCacheService projectTagCacheService;
 
     /**
      * 创建任务
@@ -101,6 +125,9 @@ public class TaskServiceImpl implements TaskService {
         try {
             taskMapper.insert(task);
             log.info("任务创建成功，ID: {}", task.getId());
+            searchService.indexTask(task);
+            taskCounterService.onTaskCreated(task);
+            taskCacheService.evictUserDashboards(Collections.singletonList(userId));
             
             // 5. 处理标签关联
             if (taskDTO.getTagIds() != null && !taskDTO.getTagIds().isEmpty()) {
@@ -163,16 +190,118 @@ public class TaskServiceImpl implements TaskService {
         log.info("获取任务列表: keyword={}, status={}, priority={}, projectId={}, tags={}, startTime={}, endTime={}, dueStartTime={}, dueEndTime={}, page={}, pageSize={}",
                 keyword, status, priority, projectId, tags, startTime, endTime, dueStartTime, dueEndTime, page, pageSize);
         
+        LambdaQueryWrapper<Task> queryWrapper = buildTaskListQuery(keyword, status, priority, projectId, tags,
+                startTime, endTime, dueStartTime, dueEndTime);
+        if (queryWrapper == null) {
+            // 如果没有任务包含这些标签，则返回空结果
+            Map<String, Object> emptyResult = new HashMap<>();
+            emptyResult.put("total", 0);
+            emptyResult.put("items", new ArrayList<>());
+            return emptyResult;
+        }
+        
+        // 排序（按优先级降序，更新时间降序，ID兜底保证顺序稳定）
+        queryWrapper.orderByDesc(Task::getPriority)
+                  .orderByDesc(Task::getUpdateTime)
+                  .orderByDesc(Task::getId);
+        
+        // 执行分页查询
+        Page<Task> pageInfo = new Page<>(page, pageSize);
+        Page<Task> taskPage = taskMapper.selectPage(pageInfo, queryWrapper);
+        
+        // 构建返回结果
+        List<TaskDTO> taskDTOs = new ArrayList<>();
+        for (Task task : taskPage.getRecords()) {
+            TaskDTO taskDTO = new TaskDTO();
+            BeanUtils.copyProperties(task, taskDTO);
+            taskDTOs.add(taskDTO);
+        }
+        
+        // 批量填充标签ID和成员
+        fillTaskTagsAndMembers(taskDTOs, true);
+        
+        Map<String, Object> result = new HashMap<>();
+        result.put("total", taskPage.getTotal());
+        result.put("items", taskDTOs);
+        
+        return result;
+    }
+
+    /**
+     * 游标方式获取任务列表
+     * 按(优先级, 更新时间, ID)降序做键集分页，翻到任何位置都只扫描一页的数据，不再执行COUNT
+     * @param cursor 上一页返回的游标，为空时从第一页开始
+     * @param pageSize 每页数量
+     * @return 任务列表和下一页游标
+     */
+    @Override
+    public CursorPageResult<TaskDTO> getTaskListByCursor(String keyword, Integer status, Integer priority,
+                                                        Long projectId, String tags, LocalDate startTime, LocalDate endTime,
+                                                        LocalDate dueStartTime, LocalDate dueEndTime, String cursor, Integer pageSize) {
+        log.info("游标获取任务列表: keyword={}, status={}, priority={}, projectId={}, tags={}, cursor={}, pageSize={}",
+                keyword, status, priority, projectId, tags, cursor, pageSize);
+        
+        // 多取的一条也要在分页插件的单页上限内，否则会被截断而误判为没有下一页
+        int size = pageSize == null || pageSize < 1 ? 10
+                : (int) Math.min(pageSize, MybatisPlusConfig.MAX_PAGE_SIZE - 1);
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        LambdaQueryWrapper<Task> queryWrapper = buildTaskListQuery(keyword, status, priority, projectId, tags,
+                startTime, endTime, dueStartTime, dueEndTime);
+        if (queryWrapper == null) {
+            return new CursorPageResult<>(new ArrayList<>(), null, false);
+        }
+        
+        // 从上一页最后一行之后继续：(priority, update_time, id) 按字典序小于游标
+        if (pageCursor != null) {
+            queryWrapper.and(wrapper -> wrapper
+                    .lt(Task::getPriority, pageCursor.getPriority())
+                    .or(w -> w.eq(Task::getPriority, pageCursor.getPriority())
+                            .lt(Task::getUpdateTime, pageCursor.getTime()))
+                    .or(w -> w.eq(Task::getPriority, pageCursor.getPriority())
+                            .eq(Task::getUpdateTime, pageCursor.getTime())
+                            .lt(Task::getId, pageCursor.getId())));
+        }
+        queryWrapper.orderByDesc(Task::getPriority)
+                  .orderByDesc(Task::getUpdateTime)
+                  .orderByDesc(Task::getId);
+        
+        // 多取一条用于判断是否还有下一页，不查询总数
+        Page<Task> pageInfo = new Page<>(1, size + 1, false);
+        List<Task> tasks = taskMapper.selectPage(pageInfo, queryWrapper).getRecords();
+        boolean hasMore = tasks.size() > size;
+        if (hasMore) {
+            tasks = tasks.subList(0, size);
+        }
+        
+        List<TaskDTO> taskDTOs = new ArrayList<>();
+        for (Task task : tasks) {
+            TaskDTO taskDTO = new TaskDTO();
+            BeanUtils.copyProperties(task, taskDTO);
+            taskDTOs.add(taskDTO);
+        }
+        fillTaskTagsAndMembers(taskDTOs, true);
+        
+        String nextCursor = null;
+        if (hasMore) {
+            Task last = tasks.get(tasks.size() - 1);
+            nextCursor = new PageCursor(last.getPriority(), last.getUpdateTime(), last.getId()).encode();
+        }
+        return new CursorPageResult<>(taskDTOs, nextCursor, hasMore);
+    }
+
+    /**
+     * 构建任务列表的过滤条件（不含排序），供偏移分页和游标分页共用
+     * @return 查询条件；按标签过滤且没有匹配任务时返回null
+     */
+    private LambdaQueryWrapper<Task> buildTaskListQuery(String keyword, Integer status, Integer priority,
+                                                       Long projectId, String tags, LocalDate startTime, LocalDate endTime,
+                                                       LocalDate dueStartTime, LocalDate dueEndTime) {
         // 使用LambdaQuery构建查询条件
         LambdaQueryWrapper<Task> queryWrapper = new LambdaQueryWrapper<>();
         
         // 添加关键词查询条件
-        if (StringUtils.isNotEmpty(keyword)) {
-            queryWrapper.and(wrapper -> 
-                wrapper.like(Task::getName, keyword)
-                    .or()
-                    .like(Task::getDescription, keyword)
-            );
+        if (!applyKeywordFilter(queryWrapper, keyword)) {
+            return null;
         }
         
         // 添加状态过滤条件
@@ -203,11 +332,7 @@ public class TaskServiceImpl implements TaskService {
                 // 查询包含指定标签的任务ID列表
                 List<Long> taskIds = taskTagService.getTaskIdsByTagIds(tagIdList);
                 if (taskIds.isEmpty()) {
-                    // 如果没有任务包含这些标签，则返回空结果
-                    Map<String, Object> emptyResult = new HashMap<>();
-                    emptyResult.put("total", 0);
-                    emptyResult.put("items", new ArrayList<>());
-                    return emptyResult;
+                    return null;
                 }
                 queryWrapper.in(Task::getId, taskIds);
             }
@@ -241,36 +366,31 @@ public class TaskServiceImpl implements TaskService {
             queryWrapper.le(Task::getDeadline, dueEndDateTime);
         }
         
-        // 排序（按优先级降序，更新时间降序）
-        queryWrapper.orderByDesc(Task::getPriority)
-                  .orderByDesc(Task::getUpdateTime);
-        
-        // 执行分页查询
-        Page<Task> pageInfo = new Page<>(page, pageSize);
-        Page<Task> taskPage = taskMapper.selectPage(pageInfo, queryWrapper);
-        
-        // 构建返回结果
-        List<TaskDTO> taskDTOs = new ArrayList<>();
-        for (Task task : taskPage.getRecords()) {
-            TaskDTO taskDTO = new TaskDTO();
-            BeanUtils.copyProperties(task, taskDTO);
-            
-            // 查询任务标签ID
-            List<Long> tagIds = taskTagService.getTagIdsByTaskId(task.getId());
-            taskDTO.setTagIds(tagIds);
-            
-            // 查询任务成员
-            List<String> members = getTaskMembers(task.getId());
-            taskDTO.setMembers(members);
-            
-            taskDTOs.add(taskDTO);
+        return queryWrapper;
+    }
+
+    /**
+     * 添加关键词条件：优先按全文索引命中的任务ID过滤，索引无法回答时回退到名称和描述的LIKE匹配
+     * @return 关键词没有命中任何任务时返回false
+     */
+    private boolean applyKeywordFilter(LambdaQueryWrapper<Task> queryWrapper, String keyword) {
+        if (StringUtils.isEmpty(keyword)) {
+            return true;
         }
-        
-        Map<String, Object> result = new HashMap<>();
-        result.put("total", taskPage.getTotal());
-        result.put("items", taskDTOs);
-        
-        return result;
+        List<Long> matchedIds = searchService.searchTaskIds(keyword);
+        if (matchedIds == null) {
+            queryWrapper.and(wrapper -> 
+                wrapper.like(Task::getName, keyword)
+                    .or()
+                    .like(Task::getDescription, keyword)
+            );
+            return true;
+        }
+        if (matchedIds.isEmpty()) {
+            return false;
+        }
+        queryWrapper.in(Task::getId, matchedIds);
+        return true;
     }
 
     /**
@@ -281,7 +401,15 @@ public class TaskServiceImpl implements TaskService {
     @Override
     public TaskDTO getTaskDetail(Long id) {
         log.info("获取任务详情: id={}", id);
-        
+        return taskCacheService.getTaskDetail(id, this::loadTaskDetail);
+    }
+
+    /**
+     * 从数据库加载任务详情，缓存未命中时调用
+     * @param id 任务ID
+     * @return 任务详情
+     */
+    private TaskDTO loadTaskDetail(Long id) {
         // 1. 查询任务基本信息
         Task task = taskMapper.selectById(id);
         if (task == null) {
@@ -329,6 +457,9 @@ public class TaskServiceImpl implements TaskService {
         
         // 保存任务原始状态，用于后续通知
         Integer oldStatus = task.getStatus();
+        // 保存更新前的快照，用于调整统计计数
+        Task original = new Task();
+        BeanUtils.copyProperties(task, original);
         
         // 更新任务基本信息
         BeanUtils.copyProperties(taskDTO, task, "id", "createTime", "createUser", "commentCount");
@@ -342,8 +473,20 @@ public class TaskServiceImpl implements TaskService {
             task.setCompletedTime(LocalDateTime.now());
         }
         
-        // 更新任务
+        // 更新任务，评论数只通过原子增量修改，不把读出的旧值写回
+        task.setCommentCount(null);
         taskMapper.updateById(task);
+        // updateById跳过空字段，按数据库中的最新值更新索引和计数
+        Task updated = taskMapper.selectById(id);
+        searchService.indexTask(updated);
+        taskCounterService.onTaskUpdated(original, updated);
+        evictDashboards(task);
+        taskCacheService.evictTaskDetail(id);
+        // 任务移动到其他项目时，两个项目的标签列表都会变化
+        if (!Objects.equals(original.getProjectId(), updated.getProjectId())) {
+            projectTagCacheService.evictProject(original.getProjectId());
+            projectTagCacheService.evictProject(updated.getProjectId());
+        }
         
         // 如果任务状态发生变化，发送通知给任务成员
         if (oldStatus != null && task.getStatus() != null && !oldStatus.equals(task.getStatus())) {
@@ -380,6 +523,16 @@ public class TaskServiceImpl implements TaskService {
         return getTaskDetail(task.getId());
     }
     
+    /**
+     * 清除任务创建者和所有成员的仪表盘缓存
+     * @param task 任务对象
+     */
+    private void evictDashboards(Task task) {
+        List<Long> userIds = new ArrayList<>(taskMemberMapper.getUserIdsByTaskId(task.getId()));
+        userIds.add(task.getCreateUser());
+        taskCacheService.evictUserDashboards(userIds);
+    }
+
     /**
      * 检查用户是否有权限更新任务
      * @param userId 用户ID
@@ -451,12 +604,12 @@ public class TaskServiceImpl implements TaskService {
                 new LambdaQueryWrapper<TaskMember>()
                         .eq(TaskMember::getTaskId, freshTask.getId()));
         
-        for (TaskMember member : members) {
-            if (!member.getUserId().equals(currentUserId)) { // 不通知自己
-                notificationService.createTaskUpdateNotification(freshTask.getId(), content, member.getUserId());
-                log.info("已发送任务状态更新通知给用户ID: {}", member.getUserId());
-            }
-        }
+        List<Long> recipientIds = members.stream()
+                .map(TaskMember::getUserId)
+                .filter(userId -> !userId.equals(currentUserId)) // 不通知自己
+                .collect(Collectors.toList());
+        notificationService.sendNotifications(NotificationConstant.TYPE_TASK_UPDATE, freshTask.getId(), content, recipientIds);
+        log.info("已发送任务状态更新通知给用户ID: {}", recipientIds);
     }
     
     /**
@@ -500,11 +653,23 @@ public class TaskServiceImpl implements TaskService {
             throw new BusinessException("没有权限删除该任务");
         }
         
-        // 3. 删除任务标签关联
+        // 3. 删除任务标签关联，成员关系随任务级联删除，先清除相关用户的仪表盘缓存
         taskTagService.removeTaskTags(id);
+        evictDashboards(task);
         
-        // 4. 删除任务
+        // 4. 删除任务，附件记录随任务级联删除，先释放附件对存储对象的引用
+        releaseTaskAttachments(id);
         taskMapper.deleteById(id);
+        searchService.removeTask(id);
+        taskCounterService.onTaskDeleted(task);
+        taskCacheService.evictTaskDetail(id);
+    }
+
+    private void releaseTaskAttachments(Long taskId) {
+        LambdaQueryWrapper<TaskAttachment> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.eq(TaskAttachment::getTaskId, taskId);
+        taskAttachmentMapper.selectList(queryWrapper)
+                .forEach(attachment -> fileService.releaseFile(attachment.getFilePath()));
     }
 
     /**
@@ -516,27 +681,15 @@ public class TaskServiceImpl implements TaskService {
     public Map<String, Object> getTaskStats(Long projectId) {
         log.info("获取任务统计信息: projectId={}", projectId);
         
-        Map<String, Object> stats = new HashMap<>();
+        // 读取按项目维护的状态计数，不再逐个状态查询任务表
+        Map<Integer, Long> statusCounts = taskCounterService.getStatusCounts(projectId);
         
-        // 使用自定义Mapper方法获取总任务数
-        Long total = taskMapper.countTasks(projectId, null);
-        stats.put("total", total);
-        
-        // 查询待处理任务数 (状态0)
-        Long pending = taskMapper.countTasks(projectId, 0);
-        stats.put("pending", pending);
-        
-        // 查询进行中任务数 (状态1)
-        Long inProgress = taskMapper.countTasks(projectId, 1);
-        stats.put("inProgress", inProgress);
-        
-        // 查询已完成任务数 (状态2)
-        Long completed = taskMapper.countTasks(projectId, 2);
-        stats.put("completed", completed);
-        
-        // 查询已取消任务数 (状态3)
-        Long canceled = taskMapper.countTasks(projectId, 3);
-        stats.put("canceled", canceled);
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("total", statusCounts.values().stream().mapToLong(Long::longValue).sum());
+        stats.put("pending", statusCounts.getOrDefault(0, 0L));
+        stats.put("inProgress", statusCounts.getOrDefault(1, 0L));
+        stats.put("completed", statusCounts.getOrDefault(2, 0L));
+        stats.put("canceled", statusCounts.getOrDefault(3, 0L));
         
         return stats;
     }
@@ -576,12 +729,11 @@ public class TaskServiceImpl implements TaskService {
         queryWrapper.eq(Task::getProjectId, projectId);
         
         // 添加关键词查询条件
-        if (StringUtils.isNotEmpty(keyword)) {
-            queryWrapper.and(wrapper -> 
-                wrapper.like(Task::getName, keyword)
-                    .or()
-                    .like(Task::getDescription, keyword)
-            );
+        if (!applyKeywordFilter(queryWrapper, keyword)) {
+            Map<String, Object> emptyResult = new HashMap<>();
+            emptyResult.put("total", 0);
+            emptyResult.put("items", new ArrayList<>());
+            return emptyResult;
         }
         
         // 添加状态过滤条件
@@ -660,14 +812,12 @@ public class TaskServiceImpl implements TaskService {
         for (Task task : taskPage.getRecords()) {
             TaskDTO taskDTO = new TaskDTO();
             BeanUtils.copyProperties(task, taskDTO);
-            
-            // 仅查询任务标签ID（标签颜色统一为浅蓝灰色#E0E7F1，由前端渲染）
-            List<Long> tagIds = taskTagService.getTagIdsByTaskId(task.getId());
-            taskDTO.setTagIds(tagIds);
-            
             taskDTOs.add(taskDTO);
         }
         
+        // 仅批量填充任务标签ID（标签颜色统一为浅蓝灰色#E0E7F1，由前端渲染）
+        fillTaskTagsAndMembers(taskDTOs, false);
+        
         Map<String, Object> result = new HashMap<>();
         result.put("total", taskPage.getTotal());
         result.put("items", taskDTOs);
@@ -680,11 +830,11 @@ public class TaskServiceImpl implements TaskService {
      * @param taskId 任务ID
      * @param files 文件列表
      * @param userId 用户ID
-     * @return 文件URL列表
+     * @return 每个文件的上传结果
      */
     @Override
     @Transactional
-    public List<String> batchUploadTaskAttachments(Long taskId, List<MultipartFile> files, Long userId) {
+    public List<FileUploadResultVO> batchUploadTaskAttachments(Long taskId, List<MultipartFile> files, Long userId) {
         log.info("批量上传任务附件: taskId={}, fileCount={}, userId={}", taskId, files.size(), userId);
         
         // 1. 检查任务是否存在
@@ -693,12 +843,15 @@ public class TaskServiceImpl implements TaskService {
             throw new BusinessException("任务不存在");
         }
         
-        // 2. 使用FileService批量上传文件，重复利用已有逻辑
-        List<String> fileUrls = fileService.uploadTaskFiles(files, taskId, userId);
+        // 2. 并发上传文件，成功的文件一次写入附件表
+        List<FileUploadResultVO> results = fileService.batchUploadTaskFiles(files, taskId, userId);
+        if (results.stream().noneMatch(result -> Boolean.TRUE.equals(result.getSuccess()))) {
+            throw new BusinessException("所有文件上传失败");
+        }
         
         // 不再更新Task的attachmentCount，改为使用动态计算
         
-        return fileUrls;
+        return results;
     }
     
     /**
@@ -834,8 +987,9 @@ public class TaskServiceImpl implements TaskService {
             throw new BusinessException("没有权限删除该附件");
         }
         
-        // 6. 删除附件记录
+        // 6. 删除附件记录，释放对存储对象的引用
         taskAttachmentMapper.deleteById(attachmentId);
+        fileService.releaseFile(attachment.getFilePath());
         
         // 不再更新任务附件数量，改为动态计算
     }
@@ -861,10 +1015,18 @@ public class TaskServiceImpl implements TaskService {
         queryWrapper.orderByDesc(TaskAttachment::getCreateTime);
         
         List<TaskAttachment> attachments = taskAttachmentMapper.selectList(queryWrapper);
+        // 已生成的缩略图和预览图，一次查询
+        Map<String, FileRenditionDTO> renditions = fileService.getRenditions(
+                attachments.stream().map(TaskAttachment::getFilePath).collect(Collectors.toList()));
         
         // 转换为DTO对象
         return attachments.stream().map(attachment -> {
             TaskAttachmentDTO dto = new TaskAttachmentDTO();
+            FileRenditionDTO rendition = renditions.get(attachment.getFilePath());
+            if (rendition != null) {
+                dto.setThumbnailUrl(rendition.getThumbnailUrl());
+                dto.setPreviewUrl(rendition.getPreviewUrl());
+            }
             dto.setId(attachment.getId());
             dto.setTaskId(attachment.getTaskId());
             dto.setFileName(attachment.getFileName());
@@ -911,6 +1073,69 @@ public class TaskServiceImpl implements TaskService {
                 .collect(Collectors.toList());
     }
     
+    /**
+     * 批量获取多个任务的成员用户名
+     * @param taskIds 任务ID列表
+     * @return 任务ID -> 成员用户名列表
+     */
+    @Override
+    public Map<Long, List<String>> getTaskMembersByTaskIds(List<Long> taskIds) {
+        Map<Long, List<String>> result = new HashMap<>();
+        if (taskIds == null || taskIds.isEmpty()) {
+            return result;
+        }
+        
+        // 一次查询取回所有任务的成员关系
+        List<TaskMember> taskMembers = taskMemberMapper.selectByTaskIds(taskIds);
+        if (taskMembers.isEmpty()) {
+            return result;
+        }
+        
+        // 一次查询取回涉及到的所有用户
+        List<Long> userIds = taskMembers.stream()
+                .map(TaskMember::getUserId)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, String> usernames = userMapper.selectBatchIds(userIds).stream()
+                .collect(Collectors.toMap(User::getId, User::getUsername));
+        
+        for (TaskMember taskMember : taskMembers) {
+            String username = usernames.get(taskMember.getUserId());
+            if (username != null) {
+                result.computeIfAbsent(taskMember.getTaskId(), k -> new ArrayList<>()).add(username);
+            }
+        }
+        
+        return result;
+    }
+    
+    /**
+     * 为一页任务批量填充标签ID和成员
+     * 标签一次IN查询，成员关系和用户各一次IN查询，与页大小无关
+     * @param tasks 任务DTO列表
+     * @param withMembers 是否填充成员用户名
+     */
+    @Override
+    public void fillTaskTagsAndMembers(List<TaskDTO> tasks, boolean withMembers) {
+        if (tasks == null || tasks.isEmpty()) {
+            return;
+        }
+        
+        List<Long> taskIds = tasks.stream()
+                .map(TaskDTO::getId)
+                .collect(Collectors.toList());
+        
+        Map<Long, List<Long>> tagIdsByTask = taskTagService.getTagIdsByTaskIds(taskIds);
+        Map<Long, List<String>> membersByTask = withMembers ? getTaskMembersByTaskIds(taskIds) : null;
+        
+        for (TaskDTO task : tasks) {
+            task.setTagIds(tagIdsByTask.getOrDefault(task.getId(), new ArrayList<>()));
+            if (membersByTask != null) {
+                task.setMembers(membersByTask.getOrDefault(task.getId(), new ArrayList<>()));
+            }
+        }
+    }
+    
     /**
      * 添加任务成员
      * @param taskId 任务ID
@@ -986,6 +1211,8 @@ public class TaskServiceImpl implements TaskService {
         taskMember.setCreateTime(LocalDateTime.now());
         
         taskMemberMapper.insert(taskMember);
+        taskCacheService.evictTaskDetail(taskId);
+        taskCacheService.evictUserDashboards(Collections.singletonList(userId));
     }
     
     /**
@@ -1008,6 +1235,8 @@ public class TaskServiceImpl implements TaskService {
         
         // 删除成员关系
         taskMemberMapper.delete(queryWrapper);
+        taskCacheService.evictTaskDetail(taskId);
+        taskCacheService.evictUserDashboards(Collections.singletonList(user.getId()));
         
         // 发送通知给被移除的成员
         Task task = taskMapper.selectById(taskId);
@@ -1063,18 +1292,12 @@ public class TaskServiceImpl implements TaskService {
         for (Task task : taskPage.getRecords()) {
             TaskDTO taskDTO = new TaskDTO();
             BeanUtils.copyProperties(task, taskDTO);
-            
-            // 查询任务标签ID
-            List<Long> tagIds = taskTagService.getTagIdsByTaskId(task.getId());
-            taskDTO.setTagIds(tagIds);
-            
-            // 查询任务成员
-            List<String> members = getTaskMembers(task.getId());
-            taskDTO.setMembers(members);
-            
             taskDTOs.add(taskDTO);
         }
         
+        // 批量填充标签ID和成员
+        fillTaskTagsAndMembers(taskDTOs, true);
+        
         Map<String, Object> result = new HashMap<>();
         result.put("total", taskPage.getTotal());
         result.put("items", taskDTOs);
@@ -1292,18 +1515,12 @@ public class TaskServiceImpl implements TaskService {
         for (Task task : taskPage.getRecords()) {
             TaskDTO taskDTO = new TaskDTO();
             BeanUtils.copyProperties(task, taskDTO);
-            
-            // 查询任务标签ID
-            List<Long> tagIds = taskTagService.getTagIdsByTaskId(task.getId());
-            taskDTO.setTagIds(tagIds);
-            
-            // 查询任务成员
-            List<String> members = getTaskMembers(task.getId());
-            taskDTO.setMembers(members);
-            
             taskDTOs.add(taskDTO);
         }
         
+        // 批量填充标签ID和成员
+        fillTaskTagsAndMembers(taskDTOs, true);
+        
         Map<String, Object> result = new HashMap<>();
         result.put("total", taskPage.getTotal());
         result.put("items", taskDTOs);
@@ -1370,18 +1587,12 @@ public class TaskServiceImpl implements TaskService {
         for (Task task : taskPage.getRecords()) {
             TaskDTO taskDTO = new TaskDTO();
             BeanUtils.copyProperties(task, taskDTO);
-            
-            // 查询任务标签ID
-            List<Long> tagIds = taskTagService.getTagIdsByTaskId(task.getId());
-            taskDTO.setTagIds(tagIds);
-            
-            // 查询任务成员
-            List<String> members = getTaskMembers(task.getId());
-            taskDTO.setMembers(members);
-            
             taskDTOs.add(taskDTO);
         }
         
+        // 批量填充标签ID和成员
+        fillTaskTagsAndMembers(taskDTOs, true);
+        
         Map<String, Object> result = new HashMap<>();
         result.put("total", taskPage.getTotal());
         result.put("items", taskDTOs);
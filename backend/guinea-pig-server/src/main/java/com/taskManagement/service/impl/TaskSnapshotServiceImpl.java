@@ -0,0 +1,153 @@
+package com.taskManagement.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.taskManagement.dto.TaskStatusStatsDTO;
+import com.taskManagement.entity.TaskStatusSnapshot;
+import com.taskManagement.mapper.TaskStatsMapper;
+import com.taskManagement.mapper.TaskStatusSnapshotMapper;
+import com.taskManagement.service.TaskSnapshotService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 任务状态每日快照服务实现类
+ * 每天凌晨把前一天的统计写入快照表，周统计图表的历史日期按主键范围读取；
+ * 停机等原因缺失的日期由补齐任务按当前数据计算后写入
+ */
+@Slf4j
+@Service
+public class TaskSnapshotServiceImpl implements TaskSnapshotService {
+
+    @Autowired
+    private TaskStatsMapper taskStatsMapper;
+
+    @Autowired
+    private TaskStatusSnapshotMapper taskStatusSnapshotMapper;
+
+    /**
+     * 补齐快照的回溯天数
+     */
+    @Value("${guineapig.stats.snapshot-backfill-days:30}")
+    private int backfillDays;
+
+    @Override
+    public TaskStatusStatsDTO computeStats(LocalDate date) {
+        TaskStatusStatsDTO stats = taskStatsMapper.getTaskStatusStatsByDate(date.atStartOfDay(),
+                date.plusDays(1).atStartOfDay());
+        if (stats == null) {
+            stats = new TaskStatusStatsDTO();
+        }
+        // 没有匹配行时SUM结果为null
+        if (stats.getTotal() == null) stats.setTotal(0);
+        if (stats.getPending() == null) stats.setPending(0);
+        if (stats.getInProgress() == null) stats.setInProgress(0);
+        if (stats.getCompleted() == null) stats.setCompleted(0);
+        if (stats.getCancelled() == null) stats.setCancelled(0);
+        if (stats.getTodayExpired() == null) stats.setTodayExpired(0);
+        return stats;
+    }
+
+    @Override
+    public Map<LocalDate, TaskStatusStatsDTO> getSnapshots(LocalDate from, LocalDate to) {
+        Map<LocalDate, TaskStatusStatsDTO> result = new HashMap<>();
+        if (from.isAfter(to)) {
+            return result;
+        }
+        LambdaQueryWrapper<TaskStatusSnapshot> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.between(TaskStatusSnapshot::getSnapshotDate, from, to);
+        for (TaskStatusSnapshot snapshot : taskStatusSnapshotMapper.selectList(queryWrapper)) {
+            TaskStatusStatsDTO stats = new TaskStatusStatsDTO();
+            stats.setTotal(snapshot.getTotal());
+            stats.setPending(snapshot.getPending());
+            stats.setInProgress(snapshot.getInProgress());
+            stats.setCompleted(snapshot.getCompleted());
+            stats.setCancelled(snapshot.getCancelled());
+            stats.setTodayExpired(snapshot.getTodayExpired());
+            result.put(snapshot.getSnapshotDate(), stats);
+        }
+        return result;
+    }
+
+    /**
+     * 应用启动完成后补齐停机期间缺失的快照
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        scheduledCatchUp();
+    }
+
+    /**
+     * 每天凌晨生成前一天的快照，同时补齐缺失的日期
+     */
+    @Scheduled(cron = "${guineapig.stats.snapshot-cron:0 5 0 * * ?}")
+    public void scheduledCatchUp() {
+        try {
+            catchUpSnapshots();
+        } catch (Exception e) {
+            // 生成失败时历史日期回退为实时统计，下次调度再补
+            log.error("任务状态快照生成失败: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized int catchUpSnapshots() {
+        LocalDate today = LocalDate.now();
+        LocalDate from = today.minusDays(backfillDays);
+        LocalDate to = today.minusDays(1);
+        if (from.isAfter(to)) {
+            return 0;
+        }
+
+        LambdaQueryWrapper<TaskStatusSnapshot> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.select(TaskStatusSnapshot::getSnapshotDate)
+                .between(TaskStatusSnapshot::getSnapshotDate, from, to);
+        Set<LocalDate> existing = taskStatusSnapshotMapper.selectList(queryWrapper).stream()
+                .map(TaskStatusSnapshot::getSnapshotDate)
+                .collect(Collectors.toSet());
+
+        int created = 0;
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            if (!existing.contains(date) && saveSnapshot(date)) {
+                created++;
+            }
+        }
+        if (created > 0) {
+            log.info("任务状态快照补齐完成: from={}, to={}, created={}", from, to, created);
+        }
+        return created;
+    }
+
+    private boolean saveSnapshot(LocalDate date) {
+        TaskStatusStatsDTO stats = computeStats(date);
+        TaskStatusSnapshot snapshot = new TaskStatusSnapshot();
+        snapshot.setSnapshotDate(date);
+        snapshot.setTotal(stats.getTotal());
+        snapshot.setPending(stats.getPending());
+        snapshot.setInProgress(stats.getInProgress());
+        snapshot.setCompleted(stats.getCompleted());
+        snapshot.setCancelled(stats.getCancelled());
+        snapshot.setTodayExpired(stats.getTodayExpired());
+        snapshot.setCreateTime(LocalDateTime.now());
+        try {
+            taskStatusSnapshotMapper.insert(snapshot);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // 多实例同时补齐，其他实例已写入
+            log.debug("任务状态快照已存在: date={}", date);
+            return false;
+        }
+    }
+}
@@ -4,16 +4,21 @@ import com.taskManagement.dto.TaskStatusStatsDTO;
 import com.taskManagement.service.TaskStatsService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import java.time.LocalDateTime;
-import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import com.taskManagement.mapper.TaskStatsMapper;
 import com.taskManagement.dto.TaskDTO;
 import com.taskManagement.service.TaskService;
-import com.taskManagement.service.TaskTagService;
+import com.taskManagement.service.TaskCounterService;
+import com.taskManagement.service.TaskSnapshotService;
+import com.taskManagement.service.TaskCacheService;
 /**
  * 任务统计服务实现类
  */
@@ -27,7 +32,13 @@ public class TaskStatsServiceImpl implements TaskStatsService {
     private TaskService taskService;
 
     @Autowired
-    private TaskTagService taskTagService;
+    private TaskCounterService taskCounterService;
+
+    @Autowired
+    private TaskSnapshotService taskSnapshotService;
+
+    @Autowired
+    private TaskCacheService taskCacheService;
 
     /**
      * 获取指定周的任务状态统计数据
@@ -38,34 +49,21 @@ public class TaskStatsServiceImpl implements TaskStatsService {
     public List<TaskStatusStatsDTO> getTaskStatusStatsByDay(Integer weekOffset) {
         List<TaskStatusStatsDTO> result = new ArrayList<>();
         
-        LocalDateTime now = LocalDateTime.now();
-        for (int i = 6; i >= 0; i--) { // 从6到0，确保按时间顺序从早到晚
-            LocalDateTime date = now.minusDays(i);
-            DayOfWeek dayOfWeek = date.getDayOfWeek();
-            
-            // 从数据库获取当天的统计数据
-            TaskStatusStatsDTO stats = taskStatsMapper.getTaskStatusStatsByDate(date, weekOffset);
-            
-            // 如果没有数据，创建空的统计对象
+        LocalDate today = LocalDate.now();
+        LocalDate end = today.plusWeeks(weekOffset == null ? 0 : weekOffset);
+        LocalDate start = end.minusDays(6);
+        
+        // 历史日期一次按日期范围读取快照，今天和未来日期实时统计
+        LocalDate lastPastDay = end.isBefore(today) ? end : today.minusDays(1);
+        Map<LocalDate, TaskStatusStatsDTO> snapshots = taskSnapshotService.getSnapshots(start, lastPastDay);
+        
+        for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) { // 按时间顺序从早到晚
+            TaskStatusStatsDTO stats = snapshots.get(date);
             if (stats == null) {
-                stats = new TaskStatusStatsDTO();
-                stats.setTotal(0);
-                stats.setPending(0);
-                stats.setInProgress(0);
-                stats.setCompleted(0);
-                stats.setCancelled(0);
-                stats.setTodayExpired(0);
-            } else {
-                // 确保所有字段都不为null
-                if (stats.getTotal() == null) stats.setTotal(0);
-                if (stats.getPending() == null) stats.setPending(0);
-                if (stats.getInProgress() == null) stats.setInProgress(0);
-                if (stats.getCompleted() == null) stats.setCompleted(0);
-                if (stats.getCancelled() == null) stats.setCancelled(0);
-                if (stats.getTodayExpired() == null) stats.setTodayExpired(0);
+                // 快照尚未生成的历史日期同样实时统计
+                stats = taskSnapshotService.computeStats(date);
             }
-            
-            stats.setDay(dayOfWeek.toString());
+            stats.setDay(date.getDayOfWeek().toString());
             result.add(stats);
         }
         
@@ -74,18 +72,23 @@ public class TaskStatsServiceImpl implements TaskStatsService {
 
     @Override
     public Map<String, Object> getTaskStats(Long projectId) {
-        // 从数据库获取项目任务统计数据
-        Map<String, Object> stats = taskStatsMapper.getTaskStats(projectId);
+        // 读取按项目维护的计数器，不扫描任务表
+        Map<Integer, Long> statusCounts = taskCounterService.getStatusCounts(projectId);
+        Map<Integer, Long> priorityCounts = taskCounterService.getPriorityCounts(projectId);
         
-        // 如果没有数据，返回默认值
-        if (stats == null) {
-            stats = new HashMap<>();
-            stats.put("total", 0);
-            stats.put("pending", 0);
-            stats.put("inProgress", 0);
-            stats.put("completed", 0);
-            stats.put("cancelled", 0);
-        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("total", statusCounts.values().stream().mapToLong(Long::longValue).sum());
+        stats.put("pending", statusCounts.getOrDefault(0, 0L));
+        stats.put("inProgress", statusCounts.getOrDefault(1, 0L));
+        stats.put("completed", statusCounts.getOrDefault(2, 0L));
+        stats.put("cancelled", statusCounts.getOrDefault(3, 0L));
+        
+        Map<String, Object> priority = new HashMap<>();
+        priority.put("low", priorityCounts.getOrDefault(1, 0L));
+        priority.put("medium", priorityCounts.getOrDefault(2, 0L));
+        priority.put("high", priorityCounts.getOrDefault(3, 0L));
+        priority.put("critical", priorityCounts.getOrDefault(4, 0L));
+        stats.put("priority", priority);
         
         return stats;
     }
@@ -121,18 +124,8 @@ public class TaskStatsServiceImpl implements TaskStatsService {
         Integer total = taskStatsMapper.getUserTasksCount(userId, status);
         List<TaskDTO> tasks = taskStatsMapper.getUserTasksByStatus(userId, status, offset, pageSize);
         
-        // 为每个任务补充成员信息
-        if (tasks != null && !tasks.isEmpty()) {
-            for (TaskDTO task : tasks) {
-                // 查询任务成员
-                List<String> members = taskService.getTaskMembers(task.getId());
-                task.setMembers(members);
-                
-                // 查询任务标签ID
-                List<Long> tagIds = taskTagService.getTagIdsByTaskId(task.getId());
-                task.setTagIds(tagIds);
-            }
-        }
+        // 批量补充成员和标签信息
+        taskService.fillTaskTagsAndMembers(tasks, true);
         
         // 构建返回结果
         result.put("total", total != null ? total : 0);
@@ -157,18 +150,8 @@ public class TaskStatsServiceImpl implements TaskStatsService {
         Integer total = taskStatsMapper.getUserTodayExpiredTasksCount(userId);
         List<TaskDTO> tasks = taskStatsMapper.getUserTodayExpiredTasks(userId, offset, pageSize);
         
-        // 为每个任务补充成员信息
-        if (tasks != null && !tasks.isEmpty()) {
-            for (TaskDTO task : tasks) {
-                // 查询任务成员
-                List<String> members = taskService.getTaskMembers(task.getId());
-                task.setMembers(members);
-                
-                // 查询任务标签ID
-                List<Long> tagIds = taskTagService.getTagIdsByTaskId(task.getId());
-                task.setTagIds(tagIds);
-            }
-        }
+        // 批量补充成员和标签信息
+        taskService.fillTaskTagsAndMembers(tasks, true);
         
         // 构建返回结果
         result.put("total", total != null ? total : 0);
@@ -196,4 +179,81 @@ public class TaskStatsServiceImpl implements TaskStatsService {
         
         return distribution;
     }
-} 
\ No newline at end of file
+
+    @Override
+    public Map<String, Object> getUserDashboard(Long userId, Integer status, Integer pageSize) {
+        int size = pageSize == null || pageSize < 1 ? 10 : pageSize;
+        return taskCacheService.getUserDashboard(userId, status, size, () -> buildUserDashboard(userId, status, size));
+    }
+
+    /**
+     * 一次查询取回用户的任务集合，在内存中计算仪表盘各部分，统计口径与各单项接口一致
+     */
+    private Map<String, Object> buildUserDashboard(Long userId, Integer status, int pageSize) {
+        List<TaskDTO> tasks = taskStatsMapper.getUserTaskSet(userId);
+        LocalDate today = LocalDate.now();
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("total", tasks.size());
+        stats.put("pending", countBy(tasks, task -> Objects.equals(task.getStatus(), 0)));
+        stats.put("inProgress", countBy(tasks, task -> Objects.equals(task.getStatus(), 1)));
+        stats.put("completed", countBy(tasks, task -> Objects.equals(task.getStatus(), 2)));
+        stats.put("cancelled", countBy(tasks, task -> Objects.equals(task.getStatus(), 3)));
+        stats.put("todayExpired", countBy(tasks, task -> isDueOn(task, today) && !Objects.equals(task.getStatus(), 2)));
+
+        // 优先级分布只统计待处理和进行中的任务
+        List<TaskDTO> activeTasks = tasks.stream()
+                .filter(task -> Objects.equals(task.getStatus(), 0) || Objects.equals(task.getStatus(), 1))
+                .collect(Collectors.toList());
+        Map<String, Object> priorityDistribution = new HashMap<>();
+        priorityDistribution.put("low", countBy(activeTasks, task -> Objects.equals(task.getPriority(), 1)));
+        priorityDistribution.put("medium", countBy(activeTasks, task -> Objects.equals(task.getPriority(), 2)));
+        priorityDistribution.put("high", countBy(activeTasks, task -> Objects.equals(task.getPriority(), 3)));
+        priorityDistribution.put("critical", countBy(activeTasks, task -> Objects.equals(task.getPriority(), 4)));
+
+        // 列表按创建时间倒序，只保留第一页
+        Comparator<TaskDTO> newestFirst = Comparator.comparing(TaskDTO::getCreateTime,
+                Comparator.nullsLast(Comparator.reverseOrder()));
+        List<TaskDTO> todayExpired = tasks.stream()
+                .filter(task -> isDueOn(task, today)
+                        && !Objects.equals(task.getStatus(), 2) && !Objects.equals(task.getStatus(), 3))
+                .sorted(newestFirst)
+                .collect(Collectors.toList());
+        List<TaskDTO> statusTasks = tasks.stream()
+                .filter(task -> status == null || Objects.equals(task.getStatus(), status))
+                .sorted(newestFirst)
+                .collect(Collectors.toList());
+        List<TaskDTO> todayExpiredItems = new ArrayList<>(todayExpired.subList(0, Math.min(pageSize, todayExpired.size())));
+        List<TaskDTO> statusItems = new ArrayList<>(statusTasks.subList(0, Math.min(pageSize, statusTasks.size())));
+
+        // 两个列表的成员和标签一起批量补充
+        List<TaskDTO> pageItems = new ArrayList<>(todayExpiredItems);
+        pageItems.addAll(statusItems);
+        taskService.fillTaskTagsAndMembers(pageItems, true);
+
+        Map<String, Object> dashboard = new HashMap<>();
+        dashboard.put("stats", stats);
+        dashboard.put("priorityDistribution", priorityDistribution);
+        dashboard.put("todayExpired", firstPage(todayExpired.size(), todayExpiredItems, pageSize));
+        dashboard.put("tasks", firstPage(statusTasks.size(), statusItems, pageSize));
+        return dashboard;
+    }
+
+    private static long countBy(List<TaskDTO> tasks, Predicate<TaskDTO> predicate) {
+        return tasks.stream().filter(predicate).count();
+    }
+
+    private static boolean isDueOn(TaskDTO task, LocalDate date) {
+        return task.getDeadline() != null && task.getDeadline().toLocalDate().equals(date);
+    }
+
+    private static Map<String, Object> firstPage(int total, List<TaskDTO> items, int pageSize) {
+        Map<String, Object> page = new HashMap<>();
+        page.put("total", total);
+        page.put("items", items);
+        page.put("page", 1);
+        page.put("pageSize", pageSize);
+        page.put("totalPages", (total + pageSize - 1) / pageSize);
+        return page;
+    }
+}
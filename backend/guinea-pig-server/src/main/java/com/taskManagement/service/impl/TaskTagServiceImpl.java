@@ -6,6 +6,8 @@ import com.taskManagement.entity.Tag;
 import com.taskManagement.entity.TaskTag;
 import com.taskManagement.mapper.TagMapper;
 import com.taskManagement.mapper.TaskTagRelMapper;
+import com.taskManagement.service.ProjectTagCacheService;
+import com.taskManagement.service.TaskCacheService;
 import com.taskManagement.service.TaskTagService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,7 +16,10 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -29,6 +34,12 @@ public class TaskTagServiceImpl extends ServiceImpl<TaskTagRelMapper, TaskTag> i
     
     @Autowired
     private TagMapper tagMapper;
+    
+    @Autowired
+    private TaskCacheService taskCacheService;
+    
+    @Autowired
+    private ProjectTagCacheService projectTagCacheService;
 
     @Override
     @Transactional
@@ -56,6 +67,9 @@ public class TaskTagServiceImpl extends ServiceImpl<TaskTagRelMapper, TaskTag> i
             
             boolean success = save(taskTag);
             if (success) {
+                taskCacheService.evictTaskDetail(taskId);
+                taskCacheService.evictTaskDashboards(Collections.singletonList(taskId));
+                projectTagCacheService.evictByTaskId(taskId);
                 log.info("成功添加任务标签关联: taskId={}, tagId={}", taskId, tagId);
             } else {
                 log.error("添加任务标签关联失败: taskId={}, tagId={}", taskId, tagId);
@@ -97,6 +111,9 @@ public class TaskTagServiceImpl extends ServiceImpl<TaskTagRelMapper, TaskTag> i
             
             // 批量添加新的关联
             int affectedRows = taskTagRelMapper.batchInsert(taskId, newTagIds);
+            taskCacheService.evictTaskDetail(taskId);
+            taskCacheService.evictTaskDashboards(Collections.singletonList(taskId));
+            projectTagCacheService.evictByTaskId(taskId);
             log.info("成功批量添加 {} 个任务标签关联", affectedRows);
             return affectedRows;
         } catch (Exception e) {
@@ -114,21 +131,35 @@ public class TaskTagServiceImpl extends ServiceImpl<TaskTagRelMapper, TaskTag> i
         queryWrapper.eq(TaskTag::getTaskId, taskId)
                   .eq(TaskTag::getTagId, tagId);
         
-        return remove(queryWrapper);
+        boolean removed = remove(queryWrapper);
+        taskCacheService.evictTaskDetail(taskId);
+        taskCacheService.evictTaskDashboards(Collections.singletonList(taskId));
+        projectTagCacheService.evictByTaskId(taskId);
+        return removed;
     }
 
     @Override
     @Transactional
     public int removeTaskTags(Long taskId) {
         log.info("删除任务的所有标签关联: taskId={}", taskId);
-        return taskTagRelMapper.deleteByTaskId(taskId);
+        int affectedRows = taskTagRelMapper.deleteByTaskId(taskId);
+        taskCacheService.evictTaskDetail(taskId);
+        taskCacheService.evictTaskDashboards(Collections.singletonList(taskId));
+        projectTagCacheService.evictByTaskId(taskId);
+        return affectedRows;
     }
 
     @Override
     @Transactional
     public int removeTagTasks(Long tagId) {
         log.info("删除标签的所有任务关联: tagId={}", tagId);
-        return taskTagRelMapper.deleteByTagId(tagId);
+        // 先取出受影响的任务，删除关联后逐个清除详情缓存和相关用户的仪表盘；涉及的项目可能很多，直接清空项目标签缓存
+        List<Long> taskIds = getTaskIdsByTagId(tagId);
+        int affectedRows = taskTagRelMapper.deleteByTagId(tagId);
+        taskIds.forEach(taskCacheService::evictTaskDetail);
+        taskCacheService.evictTaskDashboards(taskIds);
+        projectTagCacheService.evictAll();
+        return affectedRows;
     }
 
     @Override
@@ -152,6 +183,20 @@ public class TaskTagServiceImpl extends ServiceImpl<TaskTagRelMapper, TaskTag> i
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public Map<Long, List<Long>> getTagIdsByTaskIds(List<Long> taskIds) {
+        log.info("批量获取任务的标签ID: taskIds={}", taskIds);
+        
+        if (taskIds == null || taskIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        
+        // 一次IN查询取回整页任务的标签关联，按任务ID分组
+        return taskTagRelMapper.selectByTaskIds(taskIds).stream()
+                .collect(Collectors.groupingBy(TaskTag::getTaskId,
+                        Collectors.mapping(TaskTag::getTagId, Collectors.toList())));
+    }
+
     @Override
     public List<Long> getTaskIdsByTagId(Long tagId) {
         log.info("获取标签关联的所有任务ID: tagId={}", tagId);
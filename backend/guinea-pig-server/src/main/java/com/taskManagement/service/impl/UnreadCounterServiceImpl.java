@@ -0,0 +1,232 @@
+package com.taskManagement.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.taskManagement.dto.UserCountDTO;
+import com.taskManagement.entity.Notification;
+import com.taskManagement.mapper.NotificationMapper;
+import com.taskManagement.service.UnreadCounterService;
+import com.taskManagement.utils.TransactionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 未读通知计数服务实现类
+ * 计数保存在Redis中，未配置Redis时保存在进程内。计数不存在时首次读取从数据库加载，
+ * 之后通知写入、标记已读在事务提交后增量调整；增量只作用于已存在的计数，避免与加载结果重复。
+ * 定时按数据库校准近期读取过的用户，纠正并发加载和其他实例写入造成的偏差
+ */
+@Slf4j
+@Service
+public class UnreadCounterServiceImpl implements UnreadCounterService {
+
+    private static final String KEY_PREFIX = "notification:unread:";
+
+    /**
+     * 校准时每次分组查询的用户数
+     */
+    private static final int RECONCILE_BATCH_SIZE = 500;
+
+    /**
+     * 计数存在时才调整，结果不小于0
+     */
+    private static final DefaultRedisScript<Long> ADJUST_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return nil end " +
+            "local value = redis.call('INCRBY', KEYS[1], ARGV[1]) " +
+            "if value < 0 then redis.call('SET', KEYS[1], 0, 'EX', ARGV[2]) return 0 end " +
+            "return value", Long.class);
+
+    @Autowired
+    private NotificationMapper notificationMapper;
+
+    @Autowired
+    private ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+
+    /**
+     * 计数存储：redis或local，未配置Redis时使用local
+     */
+    @Value("${guineapig.notification.unread.mode:redis}")
+    private String mode = "redis";
+
+    /**
+     * Redis计数过期时间(秒)，过期后下次读取重新从数据库加载
+     */
+    @Value("${guineapig.notification.unread.redis-ttl:86400}")
+    private long redisTtl = 86400;
+
+    private StringRedisTemplate redisTemplate;
+
+    private final Map<Long, AtomicLong> localCounters = new ConcurrentHashMap<>();
+
+    /**
+     * 上次校准以来读取过计数的用户
+     */
+    private final Set<Long> activeUsers = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void init() {
+        if ("redis".equals(mode)) {
+            redisTemplate = redisTemplateProvider.getIfAvailable();
+            if (redisTemplate == null) {
+                log.warn("未配置Redis，未读通知计数保存在进程内");
+            }
+        }
+        log.info("未读通知计数已启用: redis={}", redisTemplate != null);
+    }
+
+    @Override
+    public long getUnreadCount(Long userId) {
+        activeUsers.add(userId);
+        if (redisTemplate != null) {
+            try {
+                String value = redisTemplate.opsForValue().get(KEY_PREFIX + userId);
+                if (value != null) {
+                    return Long.parseLong(value);
+                }
+                long count = countFromDatabase(userId);
+                redisTemplate.opsForValue().setIfAbsent(KEY_PREFIX + userId, String.valueOf(count), redisTtl, TimeUnit.SECONDS);
+                return count;
+            } catch (Exception e) {
+                log.warn("读取Redis未读通知计数失败: userId={}, {}", userId, e.getMessage());
+                return countFromDatabase(userId);
+            }
+        }
+
+        AtomicLong counter = localCounters.get(userId);
+        if (counter != null) {
+            return counter.get();
+        }
+        long count = countFromDatabase(userId);
+        AtomicLong existing = localCounters.putIfAbsent(userId, new AtomicLong(count));
+        return existing != null ? existing.get() : count;
+    }
+
+    private long countFromDatabase(Long userId) {
+        return notificationMapper.selectCount(new LambdaQueryWrapper<Notification>()
+                .eq(Notification::getUserId, userId)
+                .eq(Notification::getIsRead, 0));
+    }
+
+    @Override
+    public void onNotificationsCreated(List<Notification> notifications) {
+        if (notifications == null || notifications.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> deltas = new HashMap<>();
+        for (Notification notification : notifications) {
+            if (notification.getUserId() != null) {
+                deltas.merge(notification.getUserId(), 1L, Long::sum);
+            }
+        }
+        TransactionUtil.afterCommit(() -> deltas.forEach(this::adjust));
+    }
+
+    @Override
+    public void onNotificationRead(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> adjust(userId, -1));
+    }
+
+    @Override
+    public void onAllNotificationsRead(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        TransactionUtil.afterCommit(() -> set(userId, 0));
+    }
+
+    private void adjust(Long userId, long delta) {
+        if (redisTemplate != null) {
+            try {
+                redisTemplate.execute(ADJUST_SCRIPT, List.of(KEY_PREFIX + userId),
+                        String.valueOf(delta), String.valueOf(redisTtl));
+            } catch (Exception e) {
+                // 调整失败时删除计数，下次读取重新加载
+                log.warn("调整Redis未读通知计数失败: userId={}, {}", userId, e.getMessage());
+                deleteQuietly(userId);
+            }
+            return;
+        }
+        localCounters.computeIfPresent(userId, (key, counter) -> {
+            counter.updateAndGet(value -> Math.max(0, value + delta));
+            return counter;
+        });
+    }
+
+    private void set(Long userId, long count) {
+        if (redisTemplate != null) {
+            try {
+                redisTemplate.opsForValue().set(KEY_PREFIX + userId, String.valueOf(count), redisTtl, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                log.warn("写入Redis未读通知计数失败: userId={}, {}", userId, e.getMessage());
+                deleteQuietly(userId);
+            }
+            return;
+        }
+        localCounters.put(userId, new AtomicLong(count));
+    }
+
+    private void deleteQuietly(Long userId) {
+        try {
+            redisTemplate.delete(KEY_PREFIX + userId);
+        } catch (Exception ignored) {
+            // Redis不可用时计数依靠过期时间兜底
+        }
+    }
+
+    /**
+     * 定时校准
+     */
+    @Scheduled(fixedDelayString = "${guineapig.notification.unread.reconcile-interval:300000}",
+            initialDelayString = "${guineapig.notification.unread.reconcile-interval:300000}")
+    public void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.error("未读通知计数校准失败: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized void reconcile() {
+        long start = System.currentTimeMillis();
+        List<Long> userIds = new ArrayList<>(activeUsers);
+        activeUsers.removeAll(userIds);
+
+        // 进程内计数只保留近期读取过的用户，其余丢弃，下次读取时重新加载
+        if (redisTemplate == null) {
+            localCounters.keySet().retainAll(userIds);
+        }
+
+        for (int from = 0; from < userIds.size(); from += RECONCILE_BATCH_SIZE) {
+            List<Long> batch = userIds.subList(from, Math.min(from + RECONCILE_BATCH_SIZE, userIds.size()));
+            Map<Long, Long> counts = new LinkedHashMap<>();
+            batch.forEach(userId -> counts.put(userId, 0L));
+            for (UserCountDTO row : notificationMapper.countUnreadByUsers(batch)) {
+                counts.put(row.getUserId(), row.getCount());
+            }
+            // 查询与写回之间提交的增量会被覆盖，由下一次校准纠正
+            counts.forEach(this::set);
+        }
+
+        log.info("未读通知计数校准完成: users={}, 耗时{}ms", userIds.size(), System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,150 @@
+package com.taskManagement.service.impl;
+
+import com.taskManagement.service.UploadAdmissionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import javax.annotation.PostConstruct;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 上传准入控制服务实现类
+ * 用公平信号量表示上传预算，每个许可对应1KB，请求按大小占用许可，先到先得；
+ * 超过整个预算的请求按整个预算占用，独占执行而不是永远无法准入
+ */
+@Slf4j
+@Service
+public class UploadAdmissionServiceImpl implements UploadAdmissionService {
+
+    private static final long PERMIT_BYTES = 1024;
+
+    /**
+     * 同时处理的上传请求总字节数上限
+     */
+    @Value("${guineapig.file.upload.memory-budget:268435456}")
+    private long memoryBudget = 268435456L;
+
+    /**
+     * 最多排队等待的请求数，超过时直接拒绝
+     */
+    @Value("${guineapig.file.upload.max-queue:64}")
+    private int maxQueue = 64;
+
+    /**
+     * 排队等待的最长时间(毫秒)，超时后拒绝
+     */
+    @Value("${guineapig.file.upload.max-wait:2000}")
+    private long maxWait = 2000;
+
+    @Value("${guineapig.file.upload.retry-after:5}")
+    private int retryAfterSeconds = 5;
+
+    /**
+     * 请求没有Content-Length时按允许的最大请求大小占用
+     */
+    @Value("${spring.servlet.multipart.max-request-size:100MB}")
+    private DataSize maxRequestSize = DataSize.ofMegabytes(100);
+
+    private Semaphore semaphore;
+
+    private int budgetPermits;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private final AtomicLong inFlightBytes = new AtomicLong();
+
+    private final AtomicLong peakInFlightBytes = new AtomicLong();
+
+    private final AtomicLong admitted = new AtomicLong();
+
+    private final AtomicLong admittedAfterWait = new AtomicLong();
+
+    private final AtomicLong waitMillis = new AtomicLong();
+
+    private final AtomicLong rejectedQueueFull = new AtomicLong();
+
+    private final AtomicLong rejectedTimeout = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        budgetPermits = (int) Math.max(1, Math.min(Integer.MAX_VALUE, memoryBudget / PERMIT_BYTES));
+        semaphore = new Semaphore(budgetPermits, true);
+        log.info("上传准入控制已启用，预算: {}字节，最大排队数: {}，最长等待: {}ms",
+                (long) budgetPermits * PERMIT_BYTES, maxQueue, maxWait);
+    }
+
+    @Override
+    public long tryAdmit(long requestBytes) {
+        long bytes = requestBytes < 0 ? maxRequestSize.toBytes() : requestBytes;
+        int permits = (int) Math.max(1, Math.min(budgetPermits, (bytes + PERMIT_BYTES - 1) / PERMIT_BYTES));
+        try {
+            // 不带超时的tryAcquire会插队，带超时的才遵守公平顺序
+            if (!semaphore.tryAcquire(permits, 0, TimeUnit.MILLISECONDS)) {
+                if (waiting.incrementAndGet() > maxQueue) {
+                    waiting.decrementAndGet();
+                    rejectedQueueFull.incrementAndGet();
+                    log.warn("上传排队数已满，拒绝大小为{}字节的上传请求", bytes);
+                    return 0;
+                }
+                long start = System.currentTimeMillis();
+                try {
+                    if (!semaphore.tryAcquire(permits, maxWait, TimeUnit.MILLISECONDS)) {
+                        rejectedTimeout.incrementAndGet();
+                        log.warn("上传等待预算超时，拒绝大小为{}字节的上传请求", bytes);
+                        return 0;
+                    }
+                } finally {
+                    waiting.decrementAndGet();
+                }
+                admittedAfterWait.incrementAndGet();
+                waitMillis.addAndGet(System.currentTimeMillis() - start);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejectedTimeout.incrementAndGet();
+            return 0;
+        }
+        admitted.incrementAndGet();
+        long admittedBytes = permits * PERMIT_BYTES;
+        peakInFlightBytes.accumulateAndGet(inFlightBytes.addAndGet(admittedBytes), Math::max);
+        return admittedBytes;
+    }
+
+    @Override
+    public void release(long admittedBytes) {
+        if (admittedBytes <= 0) {
+            return;
+        }
+        inFlightBytes.addAndGet(-admittedBytes);
+        semaphore.release((int) (admittedBytes / PERMIT_BYTES));
+    }
+
+    @Override
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long waitedCount = admittedAfterWait.get();
+        stats.put("budgetBytes", (long) budgetPermits * PERMIT_BYTES);
+        stats.put("inFlightBytes", inFlightBytes.get());
+        stats.put("peakInFlightBytes", peakInFlightBytes.get());
+        stats.put("queued", waiting.get());
+        stats.put("maxQueue", maxQueue);
+        stats.put("admitted", admitted.get());
+        stats.put("admittedAfterWait", waitedCount);
+        stats.put("avgWaitMillis", waitedCount == 0 ? 0 : waitMillis.get() / waitedCount);
+        stats.put("rejectedQueueFull", rejectedQueueFull.get());
+        stats.put("rejectedTimeout", rejectedTimeout.get());
+        return stats;
+    }
+}
@@ -0,0 +1,125 @@
+package com.taskManagement.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.taskManagement.entity.User;
+import com.taskManagement.mapper.UserMapper;
+import com.taskManagement.properties.CacheProperties;
+import com.taskManagement.service.UserProfileCacheService;
+import com.taskManagement.utils.LocalLruCache;
+import com.taskManagement.utils.TransactionUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 用户资料缓存服务实现类
+ * 只在进程内缓存id、用户名和头像，不缓存密码等敏感字段；
+ * 本实例的修改立即失效，其他实例的修改依靠过期时间兜底
+ */
+@Slf4j
+@Service
+public class UserProfileCacheServiceImpl implements UserProfileCacheService {
+
+    @Autowired
+    private CacheProperties cacheProperties;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    private LocalLruCache<Long, User> profileCache;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong queries = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        CacheProperties.UserProfile config = cacheProperties.getUserProfile();
+        profileCache = new LocalLruCache<>(config.getMaxSize(), TimeUnit.SECONDS.toMillis(config.getTtl()));
+    }
+
+    @Override
+    public Map<Long, User> getUserProfiles(Collection<Long> userIds) {
+        Map<Long, User> result = new HashMap<>();
+        if (userIds == null || userIds.isEmpty()) {
+            return result;
+        }
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long userId : userIds) {
+            if (userId == null || result.containsKey(userId) || missing.contains(userId)) {
+                continue;
+            }
+            User cached = profileCache.get(userId);
+            if (cached != null) {
+                hits.incrementAndGet();
+                result.put(userId, copyOf(cached));
+            } else {
+                missing.add(userId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        misses.addAndGet(missing.size());
+        queries.incrementAndGet();
+        List<User> users = userMapper.selectList(new LambdaQueryWrapper<User>()
+                .select(User::getId, User::getUsername, User::getAvatar)
+                .in(User::getId, new ArrayList<>(missing)));
+        for (User user : users) {
+            User profile = copyOf(user);
+            profileCache.put(profile.getId(), profile);
+            result.put(profile.getId(), copyOf(profile));
+        }
+        log.debug("批量加载用户资料: 请求{}个, 未命中{}个, 查到{}个", userIds.size(), missing.size(), users.size());
+        return result;
+    }
+
+    @Override
+    public void evict(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        Runnable evict = () -> profileCache.remove(userId);
+        evict.run();
+        TransactionUtil.afterCommit(evict);
+    }
+
+    @Override
+    public Map<String, Object> getStats() {
+        long hit = hits.get();
+        long miss = misses.get();
+        long total = hit + miss;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", profileCache.size());
+        stats.put("hits", hit);
+        stats.put("misses", miss);
+        stats.put("queries", queries.get());
+        stats.put("hitRate", total == 0 ? 0.0 : (double) hit / total);
+        return stats;
+    }
+
+    /**
+     * 只复制展示需要的字段，调用方修改返回值不会影响缓存
+     */
+    private static User copyOf(User user) {
+        User profile = new User();
+        profile.setId(user.getId());
+        profile.setUsername(user.getUsername());
+        profile.setAvatar(user.getAvatar());
+        return profile;
+    }
+}
@@ -14,9 +14,12 @@ import com.taskManagement.vo.LoginVO;
 import com.taskManagement.vo.UserVO;
 import com.taskManagement.service.UserService;
 import com.taskManagement.service.FileService;
+import com.taskManagement.service.UserProfileCacheService;
+import com.taskManagement.service.UsernameIndexService;
 import com.taskManagement.properties.JwtProperties;
 import com.taskManagement.constant.JwtClaimsConstant;
 import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
 import java.util.HashMap;
@@ -27,6 +30,7 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.taskManagement.vo.PageResult;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -35,6 +39,8 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
     private final UserMapper userMapper;
     private final JwtProperties jwtProperties;
     private final FileService fileService;
+    private final UserProfileCacheService userProfileCacheService;
+    private final UsernameIndexService usernameIndexService;
     
     @Override
     public LoginVO login(UserLoginDTO userLoginDTO) {
@@ -116,6 +122,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         }
         
         this.save(user);
+        usernameIndexService.indexUser(user);
         
         // 3. 转换并返回数据
         UserVO userVO = new UserVO();
@@ -169,6 +176,8 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         // 3. 更新用户信息
         BeanUtils.copyProperties(updateDTO, user);
         this.updateById(user);
+        userProfileCacheService.evict(userId);
+        usernameIndexService.indexUser(user);
 
         // 4. 转换并返回更新后的用户信息
         UserVO userVO = new UserVO();
@@ -290,6 +299,8 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         
         // 执行删除操作
         removeById(id);
+        userProfileCacheService.evict(id);
+        usernameIndexService.removeUser(id);
     }
     
     @Override
@@ -309,6 +320,45 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         user.setStatus(status);
         
         // 执行更新操作
-        return this.updateById(user);
+        boolean updated = this.updateById(user);
+        usernameIndexService.indexUser(user);
+        return updated;
+    }
+    
+    @Override
+    public List<UserVO> suggestMentionUsers(String prefix, Integer limit) {
+        List<UserVO> result = new ArrayList<>();
+        if (StringUtils.isBlank(prefix)) {
+            return result;
+        }
+        String keyword = prefix.trim();
+        int size = limit == null || limit < 1 ? 10 : Math.min(limit, 50);
+        
+        List<Long> userIds = usernameIndexService.suggestUserIds(keyword, size);
+        if (userIds == null) {
+            // 索引未就绪时回退到数据库前缀查询
+            LambdaQueryWrapper<User> queryWrapper = new LambdaQueryWrapper<>();
+            queryWrapper.likeRight(User::getUsername, keyword)
+                    .eq(User::getStatus, 1)
+                    .orderByAsc(User::getUsername);
+            userIds = userMapper.selectPage(new Page<>(1, size, false), queryWrapper).getRecords().stream()
+                    .map(User::getId)
+                    .collect(Collectors.toList());
+        }
+        
+        // 头像等展示信息从用户资料缓存批量获取
+        Map<Long, User> profiles = userProfileCacheService.getUserProfiles(userIds);
+        for (Long userId : userIds) {
+            User profile = profiles.get(userId);
+            if (profile == null) {
+                continue;
+            }
+            UserVO userVO = new UserVO();
+            userVO.setId(profile.getId());
+            userVO.setUsername(profile.getUsername());
+            userVO.setAvatar(profile.getAvatar());
+            result.add(userVO);
+        }
+        return result;
     }
 }
@@ -0,0 +1,127 @@
+package com.taskManagement.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.taskManagement.entity.User;
+import com.taskManagement.mapper.UserMapper;
+import com.taskManagement.service.UsernameIndexService;
+import com.taskManagement.utils.TransactionUtil;
+import com.taskManagement.utils.UsernamePrefixIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 用户名索引服务实现类
+ * 启动时全量建索引，注册、修改、删除用户提交后增量更新；
+ * 另外定时全量重建，覆盖其他实例或绕过服务层的写入。用户表很小，全量重建只读取id、用户名和状态
+ */
+@Slf4j
+@Service
+public class UsernameIndexServiceImpl implements UsernameIndexService {
+
+    /**
+     * 全量重建时每批读取的行数
+     */
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    private volatile UsernamePrefixIndex index = new UsernamePrefixIndex();
+
+    private volatile boolean ready = false;
+
+    @Override
+    public List<Long> suggestUserIds(String prefix, int limit) {
+        if (!ready) {
+            return null;
+        }
+        return index.prefixSearch(prefix, limit);
+    }
+
+    @Override
+    public Map<String, Long> resolveUsernames(Collection<String> usernames) {
+        if (!ready) {
+            return null;
+        }
+        return index.resolve(usernames);
+    }
+
+    @Override
+    public void indexUser(User user) {
+        if (user == null || user.getId() == null) {
+            return;
+        }
+        Long id = user.getId();
+        String username = user.getUsername();
+        boolean enabled = Objects.equals(user.getStatus(), 1);
+        TransactionUtil.afterCommit(() -> index.put(id, username, enabled));
+    }
+
+    @Override
+    public void removeUser(Long userId) {
+        TransactionUtil.afterCommit(() -> index.remove(userId));
+    }
+
+    /**
+     * 应用启动完成后全量建索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            rebuildIndex();
+        } catch (Exception e) {
+            // 建索引失败不影响启动，提及解析和自动补全会回退到数据库查询
+            log.error("用户名索引构建失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 定时全量重建
+     */
+    @Scheduled(fixedDelayString = "${guineapig.search.user-rebuild-interval:300000}")
+    public void scheduledRebuild() {
+        if (!ready) {
+            return;
+        }
+        try {
+            rebuildIndex();
+        } catch (Exception e) {
+            log.error("用户名索引重建失败: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized void rebuildIndex() {
+        long start = System.currentTimeMillis();
+        UsernamePrefixIndex newIndex = new UsernamePrefixIndex();
+        Long lastId = 0L;
+        while (true) {
+            LambdaQueryWrapper<User> queryWrapper = new LambdaQueryWrapper<>();
+            queryWrapper.select(User::getId, User::getUsername, User::getStatus)
+                    .gt(User::getId, lastId)
+                    .orderByAsc(User::getId);
+            List<User> users = userMapper.selectPage(new Page<>(1, REBUILD_BATCH_SIZE, false), queryWrapper).getRecords();
+            for (User user : users) {
+                newIndex.put(user.getId(), user.getUsername(), Objects.equals(user.getStatus(), 1));
+            }
+            if (users.size() < REBUILD_BATCH_SIZE) {
+                break;
+            }
+            lastId = users.get(users.size() - 1).getId();
+        }
+        // 重建期间提交的增量更新会随切换丢失，由下一次定时重建补回
+        index = newIndex;
+        ready = true;
+        log.info("用户名索引构建完成: users={}, 耗时{}ms", newIndex.size(), System.currentTimeMillis() - start);
+    }
+}
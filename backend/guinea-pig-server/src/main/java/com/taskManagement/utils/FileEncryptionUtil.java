@@ -6,9 +6,7 @@ import org.springframework.web.multipart.MultipartFile;
 import javax.crypto.Cipher;
 import javax.crypto.CipherInputStream;
 import javax.crypto.spec.SecretKeySpec;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.io.BufferedInputStream;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
@@ -16,38 +14,56 @@ import java.security.NoSuchAlgorithmException;
 
 public class FileEncryptionUtil {
 
+    /**
+     * AES分组长度
+     */
+    private static final int BLOCK_SIZE = 16;
+
+    /**
+     * 读取原始文件时的缓冲区大小，每次上传只占用这一块固定内存
+     */
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
     /**
      * 加密文件内容
+     * 返回边读边加密的流，不在内存中缓存整个文件，调用方负责关闭
      *
      * @param file 原始文件
      * @param key  加密密钥
      * @return 加密后的文件输入流
      */
     public static InputStream encryptFile(MultipartFile file, String key) throws Exception {
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        
-        // 构建AES密钥
+        return encryptStream(file.getInputStream(), key);
+    }
+
+    /**
+     * 包装为边读边加密的流
+     *
+     * @param plainStream 原始内容
+     * @param key  加密密钥
+     * @return 加密后的输入流
+     */
+    public static InputStream encryptStream(InputStream plainStream, String key) throws Exception {
         SecretKeySpec secretKey = generateKey(key);
         Cipher cipher = Cipher.getInstance("AES/ECB/PKCS5Padding");
         cipher.init(Cipher.ENCRYPT_MODE, secretKey);
-        
-        try (InputStream inputStream = file.getInputStream();
-             CipherInputStream cipherInputStream = new CipherInputStream(inputStream, cipher)) {
-            
-            byte[] buffer = new byte[4096];
-            int bytesRead;
-            while ((bytesRead = cipherInputStream.read(buffer)) != -1) {
-                outputStream.write(buffer, 0, bytesRead);
-            }
-        }
-        
-        return new ByteArrayInputStream(outputStream.toByteArray());
+        return new CipherInputStream(new BufferedInputStream(plainStream, STREAM_BUFFER_SIZE), cipher);
+    }
+
+    /**
+     * 计算加密后的长度，PKCS5填充总会补齐到下一个完整分组
+     *
+     * @param plainLength 原始长度
+     * @return 密文长度
+     */
+    public static long getEncryptedLength(long plainLength) {
+        return (plainLength / BLOCK_SIZE + 1) * BLOCK_SIZE;
     }
     
     /**
      * 生成固定长度的密钥
      */
-    private static SecretKeySpec generateKey(String key) throws NoSuchAlgorithmException {
+    static SecretKeySpec generateKey(String key) throws NoSuchAlgorithmException {
         MessageDigest sha = MessageDigest.getInstance("SHA-256");
         byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
         keyBytes = sha.digest(keyBytes);
@@ -73,24 +89,23 @@ public class FileEncryptionUtil {
 
     /**
      * 解密文件内容
+     * 返回边读边解密的流，调用方负责关闭
      */
     public static InputStream decryptFile(MultipartFile file, String key) throws Exception {
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        
-        // 构建AES密钥
+        return decryptStream(file.getInputStream(), key);
+    }
+
+    /**
+     * 包装为边读边解密的流
+     *
+     * @param encryptedStream 密文
+     * @param key  加密密钥
+     * @return 解密后的输入流
+     */
+    public static InputStream decryptStream(InputStream encryptedStream, String key) throws Exception {
         SecretKeySpec secretKey = generateKey(key);
-        Cipher cipher = Cipher.getInstance("AES/ECB/PKCS5Padding"); 
+        Cipher cipher = Cipher.getInstance("AES/ECB/PKCS5Padding");
         cipher.init(Cipher.DECRYPT_MODE, secretKey);
-
-        try (InputStream inputStream = file.getInputStream();
-             CipherInputStream cipherInputStream = new CipherInputStream(inputStream, cipher)) {
-            
-            byte[] buffer = new byte[4096];
-            int bytesRead;
-            while ((bytesRead = cipherInputStream.read(buffer)) != -1) {
-                outputStream.write(buffer, 0, bytesRead);
-            }
-        }
-        return new ByteArrayInputStream(outputStream.toByteArray());
+        return new CipherInputStream(new BufferedInputStream(encryptedStream, STREAM_BUFFER_SIZE), cipher);
     }
-} 
\ No newline at end of file
+}
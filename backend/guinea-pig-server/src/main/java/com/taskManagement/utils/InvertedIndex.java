@@ -0,0 +1,184 @@
+package com.taskManagement.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 内存倒排索引
+ * 对名称和描述按相邻两个字符建立 二元组 -> 文档ID 的倒排表，检索时取关键词全部二元组的交集作为候选，
+ * 再用正排表中保存的文本逐个确认关键词是名称或描述的子串，结果与不区分大小写的LIKE '%关键词%'一致，
+ * 英文单词中间和中文词语中间的片段同样可以命中。读多写少，使用读写锁保护
+ */
+public class InvertedIndex {
+
+    /**
+     * 二元组的长度，更短的关键词由调用方回退到LIKE查询
+     */
+    private static final int GRAM_LENGTH = 2;
+
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+
+    private final Map<Long, Document> documents = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 添加或更新文档
+     */
+    public void put(Long id, String name, String description) {
+        Document document = new Document(normalize(name), normalize(description));
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            documents.put(id, document);
+            for (String gram : document.grams) {
+                postings.computeIfAbsent(gram, k -> new HashSet<>()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除文档
+     */
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeInternal(Long id) {
+        Document document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String gram : document.grams) {
+            Set<Long> posting = postings.get(gram);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    /**
+     * 检索名称或描述中包含关键词的文档，不区分大小写
+     * @param query 关键词
+     * @return 命中的文档ID，无序；关键词短于两个字符或包含LIKE通配符时返回null
+     */
+    public List<Long> search(String query) {
+        String keyword = normalize(query);
+        if (keyword.codePointCount(0, keyword.length()) < GRAM_LENGTH
+                || keyword.indexOf('%') >= 0 || keyword.indexOf('_') >= 0 || keyword.indexOf('\\') >= 0) {
+            return null;
+        }
+        Set<String> grams = new HashSet<>();
+        addGrams(keyword, grams);
+
+        lock.readLock().lock();
+        try {
+            // 从最短的倒排表开始求交集
+            List<Set<Long>> lists = new ArrayList<>(grams.size());
+            for (String gram : grams) {
+                Set<Long> posting = postings.get(gram);
+                if (posting == null) {
+                    return new ArrayList<>();
+                }
+                lists.add(posting);
+            }
+            lists.sort((a, b) -> Integer.compare(a.size(), b.size()));
+
+            List<Long> ids = new ArrayList<>();
+            for (Long id : lists.get(0)) {
+                if (containsAll(lists, id) && documents.get(id).contains(keyword)) {
+                    ids.add(id);
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean containsAll(List<Set<Long>> lists, Long id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static void addGrams(String text, Set<String> grams) {
+        int[] codePoints = text.codePoints().toArray();
+        for (int i = 0; i + GRAM_LENGTH <= codePoints.length; i++) {
+            grams.add(new String(codePoints, i, GRAM_LENGTH));
+        }
+    }
+
+    /**
+     * 清空索引
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 索引中的文档数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 正排表中的文档，保存小写后的文本用于确认候选
+     */
+    private static class Document {
+
+        private final String name;
+
+        private final String description;
+
+        private final Set<String> grams = new HashSet<>();
+
+        Document(String name, String description) {
+            this.name = name;
+            this.description = description;
+            addGrams(name, grams);
+            addGrams(description, grams);
+        }
+
+        boolean contains(String keyword) {
+            return name.contains(keyword) || description.contains(keyword);
+        }
+    }
+}
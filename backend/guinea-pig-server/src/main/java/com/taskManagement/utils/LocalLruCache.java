@@ -0,0 +1,76 @@
+package com.taskManagement.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * 进程内LRU缓存，带过期时间
+ * 超过容量时淘汰最久未访问的条目，过期条目在读取时清除
+ * @param <K> 键类型
+ * @param <V> 值类型
+ */
+public class LocalLruCache<K, V> {
+
+    private final long ttlMillis;
+
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    public LocalLruCache(int maxSize, long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * 读取缓存，不存在或已过期时返回null
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expireAt < System.currentTimeMillis()) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+    }
+
+    public synchronized void remove(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * 删除键满足条件的全部条目
+     */
+    public synchronized void removeIf(Predicate<K> keyPredicate) {
+        entries.keySet().removeIf(keyPredicate);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long expireAt;
+
+        private Entry(V value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.taskManagement.utils;
+
+import com.taskManagement.exception.BusinessException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 列表游标分页的位置标记
+ * 记录上一页最后一行的排序键(优先级, 时间, ID)，编码为URL安全的Base64字符串返回给前端
+ */
+@Getter
+@AllArgsConstructor
+public class PageCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final Integer priority;
+
+    private final LocalDateTime time;
+
+    private final Long id;
+
+    /**
+     * 编码为游标字符串
+     */
+    public String encode() {
+        String raw = priority + SEPARATOR + time + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标字符串，空字符串表示从第一页开始，返回null
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR);
+            if (parts.length != 3) {
+                throw new BusinessException("无效的分页游标");
+            }
+            return new PageCursor(Integer.valueOf(parts[0]), LocalDateTime.parse(parts[1]), Long.valueOf(parts[2]));
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new BusinessException("无效的分页游标");
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package com.taskManagement.utils;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * 分段加密格式
+ * 文件头之后按固定大小分段，每段单独用AES-GCM加密并带认证标签，可以只读取和解密需要的段，支持按范围下载。
+ * 文件头：魔数(4) + 版本(1) + 段大小(4) + 随机数前缀(8) + 原始长度(8)，整个文件头作为每段的附加认证数据；
+ * 每段的随机数为随机数前缀加段序号，段被调换或截断时校验失败
+ */
+public class SegmentedEncryption {
+
+    private static final byte[] MAGIC = {'G', 'P', 'E', 'N'};
+
+    public static final byte VERSION = 1;
+
+    public static final int HEADER_SIZE = 25;
+
+    /**
+     * 默认段大小
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024;
+
+    private static final int TAG_SIZE = 16;
+
+    private static final int NONCE_PREFIX_SIZE = 8;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /**
+     * 文件头
+     */
+    public static class Header {
+
+        private final int segmentSize;
+
+        private final byte[] noncePrefix;
+
+        private final long plainLength;
+
+        private final byte[] bytes;
+
+        Header(int segmentSize, byte[] noncePrefix, long plainLength) {
+            this.segmentSize = segmentSize;
+            this.noncePrefix = noncePrefix;
+            this.plainLength = plainLength;
+            this.bytes = ByteBuffer.allocate(HEADER_SIZE)
+                    .put(MAGIC).put(VERSION).putInt(segmentSize).put(noncePrefix).putLong(plainLength)
+                    .array();
+        }
+
+        public int getSegmentSize() {
+            return segmentSize;
+        }
+
+        /**
+         * 文件头字节，与密文开头的HEADER_SIZE个字节相同
+         */
+        public byte[] getBytes() {
+            return bytes.clone();
+        }
+
+        public long getPlainLength() {
+            return plainLength;
+        }
+
+        /**
+         * 段数，空文件也有一个空段用于校验
+         */
+        public long getSegmentCount() {
+            return plainLength == 0 ? 1 : (plainLength + segmentSize - 1) / segmentSize;
+        }
+
+        /**
+         * 指定段在密文中的起始位置
+         */
+        public long getSegmentOffset(long segmentIndex) {
+            return HEADER_SIZE + segmentIndex * (segmentSize + TAG_SIZE);
+        }
+
+        /**
+         * 指定段的明文长度
+         */
+        int getPlainSegmentLength(long segmentIndex) {
+            return (int) Math.min(segmentSize, plainLength - segmentIndex * segmentSize);
+        }
+
+        public long getEncryptedLength() {
+            return HEADER_SIZE + plainLength + getSegmentCount() * TAG_SIZE;
+        }
+
+        /**
+         * 密文中从firstSegment段到endSegment段(不含)的长度，从第0段开始时包含文件头
+         */
+        public long getSegmentsLength(long firstSegment, long endSegment) {
+            long start = firstSegment == 0 ? 0 : getSegmentOffset(firstSegment);
+            return Math.min(getSegmentOffset(endSegment), getEncryptedLength()) - start;
+        }
+
+        /**
+         * 包含明文位置start的段在密文中的起始位置
+         */
+        public long getRangeOffset(long start) {
+            return getSegmentOffset(start / segmentSize);
+        }
+
+        /**
+         * 包含明文位置end的段在密文中的结束位置(包含)
+         */
+        public long getRangeEnd(long end) {
+            return Math.min(getSegmentOffset(end / segmentSize + 1), getEncryptedLength()) - 1;
+        }
+    }
+
+    /**
+     * 计算加密后的长度
+     * @param plainLength 原始长度
+     * @return 密文长度
+     */
+    public static long getEncryptedLength(long plainLength) {
+        return new Header(DEFAULT_SEGMENT_SIZE, new byte[NONCE_PREFIX_SIZE], plainLength).getEncryptedLength();
+    }
+
+    /**
+     * 判断是否为分段加密格式
+     * @param prefix 密文开头的字节
+     */
+    public static boolean isSegmented(byte[] prefix) {
+        return prefix != null && prefix.length >= MAGIC.length
+                && Arrays.equals(Arrays.copyOf(prefix, MAGIC.length), MAGIC);
+    }
+
+    /**
+     * 解析文件头
+     * @param headerBytes 密文开头的HEADER_SIZE个字节
+     */
+    public static Header parseHeader(byte[] headerBytes) throws IOException {
+        if (headerBytes.length < HEADER_SIZE || !isSegmented(headerBytes)) {
+            throw new IOException("Not a segmented encrypted file");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(headerBytes, MAGIC.length, HEADER_SIZE - MAGIC.length);
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IOException("Unsupported encryption format version: " + version);
+        }
+        int segmentSize = buffer.getInt();
+        byte[] noncePrefix = new byte[NONCE_PREFIX_SIZE];
+        buffer.get(noncePrefix);
+        long plainLength = buffer.getLong();
+        if (segmentSize <= 0 || plainLength < 0) {
+            throw new IOException("Corrupted encryption header");
+        }
+        return new Header(segmentSize, noncePrefix, plainLength);
+    }
+
+    /**
+     * 包装为边读边加密的流，内存中只保留一个段
+     * @param plainStream 原始内容
+     * @param plainLength 原始长度，写入文件头
+     * @param key 加密密钥
+     */
+    public static InputStream encryptStream(InputStream plainStream, long plainLength, String key) throws GeneralSecurityException {
+        return encryptStream(plainStream, newHeader(plainLength), key);
+    }
+
+    /**
+     * 生成新文件的文件头，随机数前缀随机生成
+     * @param plainLength 原始长度
+     */
+    public static Header newHeader(long plainLength) {
+        byte[] noncePrefix = new byte[NONCE_PREFIX_SIZE];
+        RANDOM.nextBytes(noncePrefix);
+        return new Header(DEFAULT_SEGMENT_SIZE, noncePrefix, plainLength);
+    }
+
+    /**
+     * 按给定的文件头边读边加密，调用方需要在加密前记录文件头时使用
+     * @param plainStream 原始内容
+     * @param header 由newHeader生成的文件头，每个文件只能使用一次
+     * @param key 加密密钥
+     */
+    public static InputStream encryptStream(InputStream plainStream, Header header, String key) throws GeneralSecurityException {
+        return new SegmentStream(plainStream, header, FileEncryptionUtil.generateKey(key), Cipher.ENCRYPT_MODE,
+                0, header.getSegmentCount(), 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * 只加密从firstSegment段开始的连续若干段，用于分片上传，各片可以独立加密后按顺序拼接；
+     * 从第0段开始时在开头输出文件头
+     * @param plainStream 这些段的原始内容
+     * @param header 整个文件的文件头
+     * @param firstSegment 起始段序号
+     * @param endSegment 结束段序号(不含)
+     * @param key 加密密钥
+     */
+    public static InputStream encryptSegments(InputStream plainStream, Header header, long firstSegment, long endSegment,
+                                              String key) throws GeneralSecurityException {
+        return new SegmentStream(plainStream, header, FileEncryptionUtil.generateKey(key), Cipher.ENCRYPT_MODE,
+                firstSegment, Math.min(endSegment, header.getSegmentCount()), 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * 包装为边读边解密的流
+     * @param encryptedStream 文件头之后的全部密文
+     * @param header 文件头
+     * @param key 加密密钥
+     */
+    public static InputStream decryptStream(InputStream encryptedStream, Header header, String key) throws GeneralSecurityException {
+        return new SegmentStream(encryptedStream, header, FileEncryptionUtil.generateKey(key), Cipher.DECRYPT_MODE,
+                0, header.getSegmentCount(), 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * 包装为只解密指定范围的流
+     * @param segmentStream 密文中从getRangeOffset(start)到getRangeEnd(end)的部分
+     * @param header 文件头
+     * @param start 明文起始位置
+     * @param end 明文结束位置(包含)
+     * @param key 加密密钥
+     */
+    public static InputStream decryptRange(InputStream segmentStream, Header header, long start, long end, String key) throws GeneralSecurityException {
+        long firstSegment = start / header.getSegmentSize();
+        long lastSegment = end / header.getSegmentSize();
+        return new SegmentStream(segmentStream, header, FileEncryptionUtil.generateKey(key), Cipher.DECRYPT_MODE,
+                firstSegment, lastSegment + 1, (int) (start - firstSegment * header.getSegmentSize()), end - start + 1);
+    }
+
+    /**
+     * 逐段加密或解密的流
+     */
+    private static class SegmentStream extends InputStream {
+
+        private final DataInputStream source;
+
+        private final Header header;
+
+        private final SecretKeySpec secretKey;
+
+        private final int mode;
+
+        private final Cipher cipher;
+
+        private final byte[] inputBuffer;
+
+        private final long endSegment;
+
+        private long nextSegment;
+
+        /**
+         * 第一个段开头需要跳过的字节数
+         */
+        private int skip;
+
+        /**
+         * 剩余可输出的字节数
+         */
+        private long remaining;
+
+        private byte[] output;
+
+        private int outputPos;
+
+        private boolean headerPending;
+
+        SegmentStream(InputStream source, Header header, SecretKeySpec secretKey, int mode,
+                      long firstSegment, long endSegment, int skip, long remaining) throws GeneralSecurityException {
+            this.source = new DataInputStream(source);
+            this.header = header;
+            this.secretKey = secretKey;
+            this.mode = mode;
+            this.cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            this.inputBuffer = new byte[header.getSegmentSize() + TAG_SIZE];
+            this.nextSegment = firstSegment;
+            this.endSegment = endSegment;
+            this.skip = skip;
+            this.remaining = remaining;
+            // 从第0段开始加密时先输出文件头
+            this.headerPending = mode == Cipher.ENCRYPT_MODE && firstSegment == 0;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            int n = read(one, 0, 1);
+            return n == -1 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (remaining <= 0 || !fill()) {
+                return -1;
+            }
+            int n = (int) Math.min(Math.min(len, output.length - outputPos), remaining);
+            System.arraycopy(output, outputPos, b, off, n);
+            outputPos += n;
+            remaining -= n;
+            return n;
+        }
+
+        private boolean fill() throws IOException {
+            while (output == null || outputPos >= output.length) {
+                if (headerPending) {
+                    output = header.bytes;
+                    outputPos = 0;
+                    headerPending = false;
+                    continue;
+                }
+                if (nextSegment >= endSegment) {
+                    return false;
+                }
+                output = processSegment(nextSegment++);
+                outputPos = Math.min(skip, output.length);
+                skip = 0;
+            }
+            return true;
+        }
+
+        private byte[] processSegment(long segmentIndex) throws IOException {
+            int plainSize = header.getPlainSegmentLength(segmentIndex);
+            int inputSize = mode == Cipher.ENCRYPT_MODE ? plainSize : plainSize + TAG_SIZE;
+            try {
+                source.readFully(inputBuffer, 0, inputSize);
+            } catch (EOFException e) {
+                throw new IOException("Encrypted file is truncated at segment " + segmentIndex, e);
+            }
+            byte[] nonce = ByteBuffer.allocate(12).put(header.noncePrefix).putInt((int) segmentIndex).array();
+            try {
+                cipher.init(mode, secretKey, new GCMParameterSpec(TAG_SIZE * 8, nonce));
+                cipher.updateAAD(header.bytes);
+                return cipher.doFinal(inputBuffer, 0, inputSize);
+            } catch (GeneralSecurityException e) {
+                throw new IOException("Segment " + segmentIndex + " failed authentication", e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            source.close();
+        }
+    }
+
+    /**
+     * 读取密文开头的文件头字节，不足时返回实际读到的部分
+     */
+    public static byte[] readPrefix(InputStream inputStream) throws IOException {
+        return inputStream.readNBytes(HEADER_SIZE);
+    }
+
+    /**
+     * 把已读出的开头字节放回流前面
+     */
+    public static InputStream unread(byte[] prefix, InputStream rest) {
+        return new SequenceInputStream(new ByteArrayInputStream(prefix), rest);
+    }
+}
@@ -0,0 +1,30 @@
+package com.taskManagement.utils;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 事务工具类
+ */
+public class TransactionUtil {
+
+    private TransactionUtil() {
+    }
+
+    /**
+     * 存在事务时在提交后执行，回滚时不执行；没有事务时立即执行
+     * 用于索引、缓存等事务外状态的同步，避免未提交或已回滚的数据被外部看到
+     */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
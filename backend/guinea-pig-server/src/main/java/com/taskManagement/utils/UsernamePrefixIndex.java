@@ -0,0 +1,162 @@
+package com.taskManagement.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 用户名前缀索引
+ * 按小写用户名排序保存，前缀查询取有序表的子区间；同时按小写用户名建哈希表用于精确解析。
+ * 用户名比较不区分大小写，与数据库默认排序规则一致。读多写少，使用读写锁保护
+ */
+public class UsernamePrefixIndex {
+
+    /**
+     * 排序键中用户名和ID的分隔符，小于所有可出现在用户名中的字符，保证同名前缀的排序稳定
+     */
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final NavigableMap<String, Long> sorted = new TreeMap<>();
+
+    private final Map<String, Long> byName = new HashMap<>();
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private static class Entry {
+        private final String username;
+        private final boolean enabled;
+
+        private Entry(String username, boolean enabled) {
+            this.username = username;
+            this.enabled = enabled;
+        }
+    }
+
+    /**
+     * 添加或更新用户
+     * @param id 用户ID
+     * @param username 用户名
+     * @param enabled 是否启用，禁用的用户不出现在前缀查询中，但仍可被精确解析
+     */
+    public void put(Long id, String username, boolean enabled) {
+        if (id == null || username == null || username.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            String name = normalize(username);
+            entries.put(id, new Entry(username, enabled));
+            byName.put(name, id);
+            sorted.put(name + KEY_SEPARATOR + id, id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除用户
+     */
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeInternal(Long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        String name = normalize(entry.username);
+        sorted.remove(name + KEY_SEPARATOR + id);
+        if (id.equals(byName.get(name))) {
+            byName.remove(name);
+        }
+    }
+
+    /**
+     * 按前缀查询启用的用户
+     * @param prefix 用户名前缀，不区分大小写
+     * @param limit 最多返回的条数
+     * @return 按用户名排序的用户ID
+     */
+    public List<Long> prefixSearch(String prefix, int limit) {
+        List<Long> result = new ArrayList<>();
+        if (prefix == null || limit <= 0) {
+            return result;
+        }
+        String from = normalize(prefix);
+        lock.readLock().lock();
+        try {
+            for (Long id : sorted.tailMap(from, true).values()) {
+                Entry entry = entries.get(id);
+                if (!normalize(entry.username).startsWith(from)) {
+                    break;
+                }
+                if (entry.enabled) {
+                    result.add(id);
+                    if (result.size() >= limit) {
+                        break;
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * 精确解析一批用户名
+     * @param usernames 用户名，不区分大小写
+     * @return 用户名(与传入的写法一致)到用户ID的映射，不存在的用户名不在结果中
+     */
+    public Map<String, Long> resolve(Collection<String> usernames) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            for (String username : usernames) {
+                if (username == null) {
+                    continue;
+                }
+                Long id = byName.get(normalize(username));
+                if (id != null) {
+                    result.put(username, id);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * 索引中的用户数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static String normalize(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+}
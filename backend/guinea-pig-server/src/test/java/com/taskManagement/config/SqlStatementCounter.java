@@ -0,0 +1,63 @@
+package com.taskManagement.config;
+
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.SqlSessionFactory;
+
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 测试用SQL语句计数器
+ * 拦截StatementHandler.prepare，统计开启计数期间实际发往数据库的语句数
+ */
+@Intercepts({@Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class})})
+public class SqlStatementCounter implements Interceptor {
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    private volatile boolean counting;
+
+    /**
+     * 注册到SqlSessionFactory，之后新开的会话都会经过该拦截器
+     * 同一个SqlSessionFactory上重复调用只会注册一次
+     */
+    public static SqlStatementCounter install(SqlSessionFactory sqlSessionFactory) {
+        org.apache.ibatis.session.Configuration configuration = sqlSessionFactory.getConfiguration();
+        for (Interceptor interceptor : configuration.getInterceptors()) {
+            if (interceptor instanceof SqlStatementCounter) {
+                return (SqlStatementCounter) interceptor;
+            }
+        }
+        SqlStatementCounter counter = new SqlStatementCounter();
+        configuration.addInterceptor(counter);
+        return counter;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        if (counting) {
+            count.incrementAndGet();
+        }
+        return invocation.proceed();
+    }
+
+    /**
+     * 清零并开始计数
+     */
+    public void start() {
+        count.set(0);
+        counting = true;
+    }
+
+    /**
+     * 停止计数并返回期间的语句数
+     */
+    public int stop() {
+        counting = false;
+        return count.get();
+    }
+}
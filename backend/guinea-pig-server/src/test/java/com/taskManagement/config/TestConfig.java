@@ -30,6 +30,7 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 import org.apache.ibatis.session.SqlSessionFactory;
+import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
 import com.baomidou.mybatisplus.extension.spring.MybatisSqlSessionFactoryBean;
 import com.baomidou.mybatisplus.autoconfigure.ConfigurationCustomizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -156,10 +157,13 @@ public class TestConfig {
      */
     @Bean
     @Primary
-    public MybatisSqlSessionFactoryBean sqlSessionFactory(DataSource dataSource) throws IOException {
+    public MybatisSqlSessionFactoryBean sqlSessionFactory(DataSource dataSource, MybatisPlusInterceptor mybatisPlusInterceptor) throws IOException {
         MybatisSqlSessionFactoryBean sqlSessionFactoryBean = new MybatisSqlSessionFactoryBean();
         sqlSessionFactoryBean.setDataSource(dataSource);
         
+        // 注册分页插件，与生产环境保持一致
+        sqlSessionFactoryBean.setPlugins(mybatisPlusInterceptor);
+        
         // 设置MyBatis配置
         com.baomidou.mybatisplus.core.MybatisConfiguration configuration = new com.baomidou.mybatisplus.core.MybatisConfiguration();
         configuration.setMapUnderscoreToCamelCase(true);
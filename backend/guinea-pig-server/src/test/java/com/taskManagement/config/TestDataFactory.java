@@ -0,0 +1,75 @@
+package com.taskManagement.config;
+
+import com.taskManagement.entity.Project;
+import com.taskManagement.entity.Task;
+import com.taskManagement.entity.User;
+import com.taskManagement.mapper.ProjectMapper;
+import com.taskManagement.mapper.TaskMapper;
+import com.taskManagement.mapper.UserMapper;
+import com.taskManagement.utils.PasswordUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 集成测试基础数据工厂
+ * 创建用户、项目和任务，只填写必填字段；new开头的方法返回未写入的对象，由测试补充字段后自行写入
+ */
+@Component
+public class TestDataFactory {
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private ProjectMapper projectMapper;
+
+    @Autowired
+    private TaskMapper taskMapper;
+
+    /**
+     * 状态正常的普通用户，密码为password123
+     */
+    public User newUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword(PasswordUtil.encode("password123"));
+        user.setStatus(1);
+        user.setRole(0);
+        return user;
+    }
+
+    public Long createUser(String username) {
+        User user = newUser(username);
+        userMapper.insert(user);
+        return user.getId();
+    }
+
+    public Long createProject(String name, Long userId) {
+        Project project = new Project();
+        project.setName(name);
+        project.setStatus(0);
+        project.setPriority(2);
+        project.setCreateUser(userId);
+        project.setUpdateUser(userId);
+        projectMapper.insert(project);
+        return project.getId();
+    }
+
+    public Task newTask(Long projectId, String name, Long userId) {
+        Task task = new Task();
+        task.setName(name);
+        task.setProjectId(projectId);
+        task.setStatus(0);
+        task.setPriority(2);
+        task.setCommentCount(0);
+        task.setCreateUser(userId);
+        task.setUpdateUser(userId);
+        return task;
+    }
+
+    public Long createTask(Long projectId, String name, Long userId) {
+        Task task = newTask(projectId, name, userId);
+        taskMapper.insert(task);
+        return task.getId();
+    }
+}
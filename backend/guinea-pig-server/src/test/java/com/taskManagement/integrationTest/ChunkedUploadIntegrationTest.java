@@ -0,0 +1,334 @@
+package com.taskManagement.integrationTest;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.taskManagement.TestApplication;
+import com.taskManagement.config.AliyunOSSConfig;
+import com.taskManagement.config.TestConfig;
+import com.taskManagement.config.TestDataFactory;
+import com.taskManagement.constant.FileConstant;
+import com.taskManagement.dto.ChunkedUploadInitDTO;
+import com.taskManagement.entity.TaskAttachment;
+import com.taskManagement.entity.UploadChunk;
+import com.taskManagement.entity.UploadSession;
+import com.taskManagement.exception.BusinessException;
+import com.taskManagement.mapper.ProjectMapper;
+import com.taskManagement.mapper.TaskAttachmentMapper;
+import com.taskManagement.mapper.TaskMapper;
+import com.taskManagement.mapper.UploadChunkMapper;
+import com.taskManagement.mapper.UploadSessionMapper;
+import com.taskManagement.mapper.UserMapper;
+import com.taskManagement.service.ChunkedUploadService;
+import com.taskManagement.service.FileService;
+import com.taskManagement.service.StorageService;
+import com.taskManagement.utils.SegmentedEncryption;
+import com.taskManagement.vo.ChunkedUploadVO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 分片上传集成测试
+ * 使用本地存储验证乱序上传、重复上传和续传后合并的对象可以按整文件格式解密，
+ * 以及分片大小校验、重复提交完成、合并后写入附件失败的重试、取消和过期清理
+ */
+@SpringBootTest(classes = TestApplication.class)
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+public class ChunkedUploadIntegrationTest {
+
+    private static final int CHUNK_SIZE = 131072;
+
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    @Autowired
+    private StorageService storageService;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private AliyunOSSConfig ossConfig;
+
+    @Autowired
+    private UploadSessionMapper uploadSessionMapper;
+
+    @Autowired
+    private UploadChunkMapper uploadChunkMapper;
+
+    @Autowired
+    private TaskAttachmentMapper taskAttachmentMapper;
+
+    @Autowired
+    private TaskMapper taskMapper;
+
+    @Autowired
+    private ProjectMapper projectMapper;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private TestDataFactory testDataFactory;
+
+    @BeforeEach
+    public void setup() {
+        // 测试配置中OSS配置为模拟对象
+        when(ossConfig.getEncryptionKey()).thenReturn("test-encryption-key");
+    }
+
+    private byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+
+    private ChunkedUploadVO initiate(String fileName, long fileSize) {
+        ChunkedUploadInitDTO initDTO = new ChunkedUploadInitDTO();
+        initDTO.setFileName(fileName);
+        initDTO.setFileSize(fileSize);
+        initDTO.setContentType("application/octet-stream");
+        return chunkedUploadService.initiate(initDTO);
+    }
+
+    private ChunkedUploadVO initiate(String fileName, long fileSize, Long taskId, Long userId) {
+        ChunkedUploadInitDTO initDTO = new ChunkedUploadInitDTO();
+        initDTO.setFileName(fileName);
+        initDTO.setFileSize(fileSize);
+        initDTO.setContentType("application/octet-stream");
+        initDTO.setTaskId(taskId);
+        initDTO.setUserId(userId);
+        return chunkedUploadService.initiate(initDTO);
+    }
+
+    private ChunkedUploadVO uploadChunk(ChunkedUploadVO upload, byte[] content, int chunkIndex) {
+        int start = chunkIndex * CHUNK_SIZE;
+        int length = Math.min(CHUNK_SIZE, content.length - start);
+        return chunkedUploadService.uploadChunk(upload.getUploadId(), chunkIndex,
+                new ByteArrayInputStream(content, start, length), length);
+    }
+
+    private String sha256(byte[] bytes) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+
+    private UploadSession findSession(String uploadId) {
+        return uploadSessionMapper.selectOne(new LambdaQueryWrapper<UploadSession>()
+                .eq(UploadSession::getUploadId, uploadId));
+    }
+
+    @Test
+    @DisplayName("乱序和重复上传分片后合并，对象与整文件加密格式一致，重复提交完成返回相同结果")
+    public void testUploadOutOfOrderAndComplete() throws Exception {
+        byte[] content = randomBytes(2 * CHUNK_SIZE + 5000);
+        ChunkedUploadVO upload = initiate("big.bin", content.length);
+        assertThat(upload.getChunkSize()).isEqualTo(CHUNK_SIZE);
+        assertThat(upload.getChunkCount()).isEqualTo(3);
+
+        uploadChunk(upload, content, 2);
+        uploadChunk(upload, content, 0);
+        // 中断后重新上传同一分片
+        uploadChunk(upload, content, 0);
+        ChunkedUploadVO status = chunkedUploadService.getStatus(upload.getUploadId());
+        assertThat(status.getReceivedChunks()).containsExactly(0, 2);
+        assertThat(status.getReceivedBytes()).isEqualTo(CHUNK_SIZE + 5000L);
+        assertThatThrownBy(() -> chunkedUploadService.complete(upload.getUploadId()))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("1个分片未上传");
+
+        uploadChunk(upload, content, 1);
+        String objectKey = findSession(upload.getUploadId()).getObjectKey();
+        // 没有任务ID时不写附件记录，直接返回合并后的对象，不登记到内容索引
+        String fileUrl = storageService.getUrlPrefix() + "/" + objectKey;
+
+        ChunkedUploadVO completed = chunkedUploadService.complete(upload.getUploadId());
+        assertThat(completed.getCompleted()).isTrue();
+        assertThat(completed.getFileUrl()).isEqualTo(fileUrl);
+        assertThat(completed.getReceivedBytes()).isEqualTo(content.length);
+        assertThat(uploadChunkMapper.selectCount(new LambdaQueryWrapper<UploadChunk>()
+                .eq(UploadChunk::getSessionId, findSession(upload.getUploadId()).getId()))).isZero();
+
+        try (InputStream in = storageService.getObject(objectKey).getContent()) {
+            SegmentedEncryption.Header header = SegmentedEncryption.parseHeader(SegmentedEncryption.readPrefix(in));
+            assertThat(header.getPlainLength()).isEqualTo(content.length);
+            try (InputStream plain = SegmentedEncryption.decryptStream(in, header, ossConfig.getEncryptionKey())) {
+                assertThat(plain.readAllBytes()).isEqualTo(content);
+            }
+        }
+        assertThat(storageService.getObjectMetadata(objectKey).getContentLength())
+                .isEqualTo(SegmentedEncryption.getEncryptedLength(content.length));
+
+        assertThat(chunkedUploadService.complete(upload.getUploadId()).getFileUrl()).isEqualTo(fileUrl);
+        verify(fileService, never()).registerStoredObject(anyString(), anyString(), anyLong(), anyString(), any());
+        assertThatThrownBy(() -> uploadChunk(upload, content, 1))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("上传已完成");
+    }
+
+    @Test
+    @DisplayName("分片大小与声明不一致或超出范围时拒绝，未记录为已接收")
+    public void testChunkValidation() {
+        byte[] content = randomBytes(CHUNK_SIZE + 100);
+        ChunkedUploadVO upload = initiate("check.bin", content.length);
+
+        assertThatThrownBy(() -> chunkedUploadService.uploadChunk(upload.getUploadId(), 1,
+                new ByteArrayInputStream(new byte[50]), 50))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("100字节");
+        assertThatThrownBy(() -> chunkedUploadService.uploadChunk(upload.getUploadId(), 2,
+                new ByteArrayInputStream(new byte[100]), 100))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("超出范围");
+        // 未声明长度时按实际内容校验
+        assertThatThrownBy(() -> chunkedUploadService.uploadChunk(upload.getUploadId(), 1,
+                new ByteArrayInputStream(new byte[150]), -1))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("超过");
+        assertThatThrownBy(() -> chunkedUploadService.uploadChunk(upload.getUploadId(), 1,
+                new ByteArrayInputStream(new byte[50]), -1))
+                .isInstanceOf(RuntimeException.class);
+
+        assertThat(chunkedUploadService.getStatus(upload.getUploadId()).getReceivedChunks()).isEmpty();
+        chunkedUploadService.abort(upload.getUploadId());
+    }
+
+    @Test
+    @DisplayName("已上传的分片只能以相同内容重新上传，不同内容在加密之前拒绝")
+    public void testReuploadWithDifferentContentRejected() throws Exception {
+        byte[] content = randomBytes(CHUNK_SIZE + 100);
+        ChunkedUploadVO upload = initiate("changed.bin", content.length);
+        uploadChunk(upload, content, 0);
+
+        byte[] changed = content.clone();
+        changed[10] ^= 1;
+        assertThatThrownBy(() -> uploadChunk(upload, changed, 0))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("不一致");
+        UploadChunk recorded = uploadChunkMapper.selectOne(new LambdaQueryWrapper<UploadChunk>()
+                .eq(UploadChunk::getSessionId, findSession(upload.getUploadId()).getId()));
+        assertThat(recorded.getChunkHash()).isEqualTo(sha256(Arrays.copyOf(content, CHUNK_SIZE)));
+
+        // 相同内容可以重新上传
+        uploadChunk(upload, content, 0);
+        assertThat(chunkedUploadService.getStatus(upload.getUploadId()).getReceivedChunks()).containsExactly(0);
+        chunkedUploadService.abort(upload.getUploadId());
+    }
+
+    @Test
+    @DisplayName("指定的任务不存在时拒绝开始上传")
+    public void testInitiateWithMissingTaskRejected() {
+        assertThatThrownBy(() -> initiate("missing.bin", 1000, Long.MAX_VALUE, 1L))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("任务不存在");
+    }
+
+    @Test
+    @DisplayName("合并后写入附件记录失败时会话保持已合并，重试跳过合并直接写入")
+    public void testAttachFailureAfterMergeRetried() {
+        Long userId = testDataFactory.createUser("chunkedUploadUser");
+        Long projectId = testDataFactory.createProject("分片上传测试项目", userId);
+        Long taskId = testDataFactory.createTask(projectId, "分片上传测试任务", userId);
+        try {
+            byte[] content = randomBytes(CHUNK_SIZE + 300);
+            ChunkedUploadVO upload = initiate("retry.bin", content.length, taskId, userId);
+            uploadChunk(upload, content, 0);
+            uploadChunk(upload, content, 1);
+            String objectKey = findSession(upload.getUploadId()).getObjectKey();
+            String fileUrl = storageService.getUrlPrefix() + "/" + objectKey;
+            when(fileService.registerStoredObject(anyString(), anyString(), anyLong(), anyString(), any()))
+                    .thenThrow(new RuntimeException("写入内容索引失败"))
+                    .thenReturn(fileUrl);
+
+            assertThatThrownBy(() -> chunkedUploadService.complete(upload.getUploadId()))
+                    .hasMessageContaining("写入内容索引失败");
+            assertThat(findSession(upload.getUploadId()).getStatus()).isEqualTo(FileConstant.UPLOAD_MERGED);
+            assertThat(storageService.getObjectMetadata(objectKey).getContentLength())
+                    .isEqualTo(SegmentedEncryption.getEncryptedLength(content.length));
+
+            // 存储中的分片已在合并时消耗，重试不再合并
+            ChunkedUploadVO completed = chunkedUploadService.complete(upload.getUploadId());
+            assertThat(completed.getCompleted()).isTrue();
+            assertThat(completed.getFileUrl()).isEqualTo(fileUrl);
+            verify(fileService, times(2)).registerStoredObject(anyString(), anyString(), anyLong(), anyString(), any());
+            assertThat(taskAttachmentMapper.selectCount(new LambdaQueryWrapper<TaskAttachment>()
+                    .eq(TaskAttachment::getTaskId, taskId))).isEqualTo(1);
+        } finally {
+            taskAttachmentMapper.delete(new LambdaQueryWrapper<TaskAttachment>().eq(TaskAttachment::getTaskId, taskId));
+            taskMapper.deleteById(taskId);
+            projectMapper.deleteById(projectId);
+            userMapper.deleteById(userId);
+        }
+    }
+
+    @Test
+    @DisplayName("取消已合并的上传时删除合并后的对象")
+    public void testAbortMergedDeletesObject() {
+        Long userId = testDataFactory.createUser("chunkedAbortUser");
+        Long projectId = testDataFactory.createProject("分片取消测试项目", userId);
+        Long taskId = testDataFactory.createTask(projectId, "分片取消测试任务", userId);
+        try {
+            byte[] content = randomBytes(1000);
+            ChunkedUploadVO upload = initiate("merged.bin", content.length, taskId, userId);
+            uploadChunk(upload, content, 0);
+            String objectKey = findSession(upload.getUploadId()).getObjectKey();
+            when(fileService.registerStoredObject(anyString(), anyString(), anyLong(), anyString(), any()))
+                    .thenThrow(new RuntimeException("写入内容索引失败"));
+            assertThatThrownBy(() -> chunkedUploadService.complete(upload.getUploadId()))
+                    .isInstanceOf(RuntimeException.class);
+
+            chunkedUploadService.abort(upload.getUploadId());
+            assertThat(findSession(upload.getUploadId())).isNull();
+            assertThatThrownBy(() -> storageService.getObjectMetadata(objectKey)).isInstanceOf(RuntimeException.class);
+        } finally {
+            taskMapper.deleteById(taskId);
+            projectMapper.deleteById(projectId);
+            userMapper.deleteById(userId);
+        }
+    }
+
+    @Test
+    @DisplayName("取消和过期清理删除会话与分片")
+    public void testAbortAndCleanupExpired() {
+        byte[] content = randomBytes(1000);
+        ChunkedUploadVO aborted = initiate("aborted.bin", content.length);
+        uploadChunk(aborted, content, 0);
+        chunkedUploadService.abort(aborted.getUploadId());
+        assertThat(findSession(aborted.getUploadId())).isNull();
+        assertThatThrownBy(() -> chunkedUploadService.getStatus(aborted.getUploadId()))
+                .isInstanceOf(BusinessException.class);
+
+        ChunkedUploadVO expired = initiate("expired.bin", content.length);
+        uploadChunk(expired, content, 0);
+        UploadSession session = findSession(expired.getUploadId());
+        session.setExpireTime(LocalDateTime.now().minusMinutes(1));
+        uploadSessionMapper.updateById(session);
+
+        assertThat(chunkedUploadService.cleanupExpired()).isGreaterThanOrEqualTo(1);
+        assertThat(findSession(expired.getUploadId())).isNull();
+        assertThat(uploadChunkMapper.selectCount(new LambdaQueryWrapper<UploadChunk>()
+                .eq(UploadChunk::getSessionId, session.getId()))).isZero();
+    }
+}
@@ -0,0 +1,184 @@
+package com.taskManagement.integrationTest;
+
+import com.taskManagement.TestApplication;
+import com.taskManagement.config.TestConfig;
+import com.taskManagement.config.TestDataFactory;
+import com.taskManagement.context.BaseContext;
+import com.taskManagement.dto.CommentDTO;
+import com.taskManagement.entity.Comment;
+import com.taskManagement.entity.Task;
+import com.taskManagement.mapper.CommentMapper;
+import com.taskManagement.mapper.ProjectMapper;
+import com.taskManagement.mapper.TaskMapper;
+import com.taskManagement.mapper.UserMapper;
+import com.taskManagement.service.CommentCountService;
+import com.taskManagement.service.CommentService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.transaction.TestTransaction;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 任务评论数测试
+ * 验证评论数的原子增量、写回缓冲对并发增量的合并，以及按评论表的校准
+ */
+@SpringBootTest(classes = TestApplication.class)
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+@Transactional
+public class CommentCountIntegrationTest {
+
+    @Autowired
+    private CommentCountService commentCountService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private CommentMapper commentMapper;
+
+    @Autowired
+    private TaskMapper taskMapper;
+
+    @Autowired
+    private ProjectMapper projectMapper;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private TestDataFactory testDataFactory;
+
+    private Long userId;
+    private Long projectId;
+    private Long taskId;
+
+    @BeforeEach
+    public void setup() {
+        userId = testDataFactory.createUser("commentCountUser");
+        projectId = testDataFactory.createProject("评论数测试项目", userId);
+
+        Task task = testDataFactory.newTask(projectId, "评论数测试任务", userId);
+        task.setUpdateTime(LocalDateTime.now().withNano(0).minusDays(1));
+        taskMapper.insert(task);
+        taskId = task.getId();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        BaseContext.removeCurrentId();
+        setWriteBehind(false);
+    }
+
+    private void setWriteBehind(boolean writeBehind) {
+        ReflectionTestUtils.setField(commentCountService, "writeBehind", writeBehind);
+    }
+
+    @Test
+    @DisplayName("创建和删除评论-原子调整评论数，不改变任务更新时间")
+    public void testAtomicAdjustKeepsUpdateTime() {
+        LocalDateTime updateTime = taskMapper.selectById(taskId).getUpdateTime();
+        BaseContext.setCurrentId(userId);
+
+        CommentDTO first = createComment("第一条评论", null);
+        CommentDTO reply = createComment("回复", first.getId());
+        createComment("第二条评论", null);
+        assertThat(taskMapper.selectById(taskId).getCommentCount()).isEqualTo(3);
+
+        commentService.deleteComment(taskId, first.getId());
+        Task task = taskMapper.selectById(taskId);
+        assertThat(task.getCommentCount()).isEqualTo(1);
+        assertThat(task.getUpdateTime()).isEqualTo(updateTime);
+        assertThat(reply.getId()).isNotNull();
+
+        // 计数不会被减成负数
+        commentCountService.adjust(taskId, -5);
+        assertThat(taskMapper.selectById(taskId).getCommentCount()).isZero();
+    }
+
+    private CommentDTO createComment(String content, Long parentId) {
+        CommentDTO commentDTO = new CommentDTO();
+        commentDTO.setTaskId(taskId);
+        commentDTO.setContent(content);
+        commentDTO.setParentId(parentId);
+        return commentService.createComment(commentDTO);
+    }
+
+    @Test
+    @DisplayName("写回缓冲-回滚的增量不计入，并发增量按任务合并为一条更新")
+    public void testWriteBehindCoalescesCommittedDeltas() throws Exception {
+        setWriteBehind(true);
+        commentCountService.flush();
+
+        // 回滚的事务中的增量不进入缓冲
+        commentCountService.adjust(taskId, 5);
+        TestTransaction.end();
+        assertThat(commentCountService.getStats().get("pendingTasks")).isEqualTo(0);
+
+        // 提交准备数据，之后的增量在事务外立即进入缓冲
+        TestTransaction.start();
+        setup();
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+
+        long flushedBefore = (Long) commentCountService.getStats().get("flushedStatements");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                int delta = i % 4 == 3 ? -1 : 1;
+                futures.add(executor.submit(() -> commentCountService.adjust(taskId, delta)));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            assertThat(commentCountService.getStats().get("pendingTasks")).isEqualTo(1);
+            assertThat(taskMapper.selectById(taskId).getCommentCount()).isZero();
+
+            assertThat(commentCountService.flush()).isEqualTo(1);
+            assertThat((Long) commentCountService.getStats().get("flushedStatements")).isEqualTo(flushedBefore + 1);
+            assertThat(taskMapper.selectById(taskId).getCommentCount()).isEqualTo(100);
+        } finally {
+            executor.shutdownNow();
+            taskMapper.deleteById(taskId);
+            projectMapper.deleteById(projectId);
+            userMapper.deleteById(userId);
+            TestTransaction.start();
+        }
+    }
+
+    @Test
+    @DisplayName("校准-按评论表重新计算不一致的评论数")
+    public void testReconcileRecountsFromComments() {
+        for (int i = 0; i < 3; i++) {
+            Comment comment = new Comment();
+            comment.setTaskId(taskId);
+            comment.setContent("评论" + i);
+            comment.setCreateUser(userId);
+            comment.setCreateTime(LocalDateTime.now());
+            commentMapper.insert(comment);
+        }
+        // 模拟写回前实例退出导致的计数偏差
+        taskMapper.adjustCommentCount(taskId, 7);
+
+        assertThat(commentCountService.reconcile()).isGreaterThanOrEqualTo(1);
+        assertThat(taskMapper.selectById(taskId).getCommentCount()).isEqualTo(3);
+        assertThat(taskMapper.selectCommentCountMismatches()).doesNotContain(taskId);
+    }
+}
@@ -0,0 +1,276 @@
+package com.taskManagement.integrationTest;
+
+import com.taskManagement.TestApplication;
+import com.taskManagement.config.SqlStatementCounter;
+import com.taskManagement.config.TestConfig;
+import com.taskManagement.config.TestDataFactory;
+import com.taskManagement.context.BaseContext;
+import com.taskManagement.dto.CommentDTO;
+import com.taskManagement.dto.UserUpdateDTO;
+import com.taskManagement.entity.Comment;
+import com.taskManagement.entity.Task;
+import com.taskManagement.entity.User;
+import com.taskManagement.mapper.CommentMapper;
+import com.taskManagement.mapper.TaskMapper;
+import com.taskManagement.mapper.UserMapper;
+import com.taskManagement.service.CommentService;
+import com.taskManagement.service.UserProfileCacheService;
+import com.taskManagement.service.UserService;
+import com.taskManagement.vo.CursorPageResult;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 评论列表测试
+ * 验证评论作者批量解析、用户资料缓存的失效、评论的游标分页以及评论树的组装和回复加载
+ */
+@SpringBootTest(classes = TestApplication.class)
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+@Transactional
+public class CommentPaginationTest {
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserProfileCacheService userProfileCacheService;
+
+    @Autowired
+    private CommentMapper commentMapper;
+
+    @Autowired
+    private TaskMapper taskMapper;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    private TestDataFactory testDataFactory;
+
+    private SqlStatementCounter counter;
+
+    private final List<Long> userIds = new ArrayList<>();
+    private Long taskId;
+
+    @BeforeEach
+    public void setup() {
+        counter = SqlStatementCounter.install(sqlSessionFactory);
+
+        for (int i = 0; i < 3; i++) {
+            User user = testDataFactory.newUser("commentTestUser" + i);
+            user.setAvatar("avatar" + i + ".png");
+            userMapper.insert(user);
+            userIds.add(user.getId());
+        }
+
+        Long projectId = testDataFactory.createProject("评论测试项目", userIds.get(0));
+        taskId = testDataFactory.createTask(projectId, "评论测试任务", userIds.get(0));
+    }
+
+    /**
+     * 按顺序创建评论，作者轮流使用三个用户，部分评论的创建时间相同
+     */
+    private List<Long> createComments(int count) {
+        LocalDateTime base = LocalDateTime.now().withNano(0).minusHours(1);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Comment comment = new Comment();
+            comment.setTaskId(taskId);
+            comment.setContent("评论" + i);
+            comment.setCreateUser(userIds.get(i % userIds.size()));
+            comment.setCreateTime(base.plusSeconds(i / 2));
+            commentMapper.insert(comment);
+            ids.add(comment.getId());
+        }
+        return ids;
+    }
+
+    private Long createReply(Long parentId, String content, LocalDateTime createTime) {
+        Comment comment = new Comment();
+        comment.setTaskId(taskId);
+        comment.setParentId(parentId);
+        comment.setContent(content);
+        comment.setCreateUser(userIds.get(1));
+        comment.setCreateTime(createTime);
+        commentMapper.insert(comment);
+        return comment.getId();
+    }
+
+    /**
+     * 创建一个顶级评论，下面有5条直接回复，第一条回复下有4层的回复链
+     */
+    private Long createThread() {
+        LocalDateTime base = LocalDateTime.now().withNano(0).minusHours(1);
+        Long rootId = createComments(1).get(0);
+        Long previous = null;
+        for (int i = 0; i < 5; i++) {
+            Long replyId = createReply(rootId, "回复" + i, base.plusSeconds(10 + i));
+            if (i == 0) {
+                previous = replyId;
+            }
+        }
+        for (int level = 1; level <= 4; level++) {
+            previous = createReply(previous, "嵌套回复" + level, base.plusSeconds(20 + level));
+        }
+        return rootId;
+    }
+
+    @Test
+    @DisplayName("评论列表-作者一次批量查询，缓存命中后不再查询用户")
+    public void testAuthorsResolvedInOneQuery() {
+        createComments(30);
+
+        counter.start();
+        List<CommentDTO> comments = commentService.getCommentsByTaskId(taskId);
+        int coldStatements = counter.stop();
+
+        assertThat(comments).hasSize(30);
+        for (CommentDTO comment : comments) {
+            int index = userIds.indexOf(comment.getCreateUser());
+            assertThat(comment.getCreateUserName()).isEqualTo("commentTestUser" + index);
+            assertThat(comment.getCreateUserAvatar()).isEqualTo("avatar" + index + ".png");
+        }
+        // 任务 + 评论 + 作者
+        assertThat(coldStatements).isEqualTo(3);
+
+        // 同一事务内MyBatis会复用相同的查询结果，用缓存统计确认没有再查询用户
+        long queries = (Long) userProfileCacheService.getStats().get("queries");
+        commentService.getCommentsByTaskId(taskId);
+        assertThat(userProfileCacheService.getStats().get("queries")).isEqualTo(queries);
+    }
+
+    @Test
+    @DisplayName("修改用户名后评论显示新的用户名")
+    public void testProfileEvictedOnUpdate() {
+        createComments(1);
+        assertThat(commentService.getCommentsByTaskId(taskId).get(0).getCreateUserName())
+                .isEqualTo("commentTestUser0");
+
+        UserUpdateDTO updateDTO = new UserUpdateDTO();
+        updateDTO.setUsername("commentRenamedUser");
+        userService.updateUserInfo(userIds.get(0), updateDTO);
+
+        assertThat(commentService.getCommentsByTaskId(taskId).get(0).getCreateUserName())
+                .isEqualTo("commentRenamedUser");
+    }
+
+    @Test
+    @DisplayName("游标分页-从最新评论开始逐页加载，不重复不遗漏")
+    public void testCursorPagination() {
+        List<Long> ids = createComments(25);
+
+        List<Long> loaded = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPageResult<CommentDTO> page = commentService.getCommentsByCursor(taskId, cursor, 10);
+            loaded.addAll(page.getItems().stream().map(CommentDTO::getId).collect(Collectors.toList()));
+            assertThat(page.getItems()).allMatch(comment -> comment.getCreateUserName() != null);
+            cursor = page.getNextCursor();
+            assertThat(page.isHasMore()).isEqualTo(cursor != null);
+            pages++;
+        } while (cursor != null);
+
+        List<Long> expected = new ArrayList<>(ids);
+        Collections.reverse(expected);
+        assertThat(pages).isEqualTo(3);
+        assertThat(loaded).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    @DisplayName("评论树-按层数和每层回复数截断，并给出继续加载的游标")
+    public void testCommentTreeTruncation() {
+        createThread();
+
+        List<CommentDTO> tree = commentService.getCommentTree(taskId, 2, 3);
+        assertThat(tree).hasSize(1);
+        CommentDTO root = tree.get(0);
+        assertThat(root.getReplyCount()).isEqualTo(5);
+        assertThat(root.getChildren()).extracting(CommentDTO::getContent).containsExactly("回复0", "回复1", "回复2");
+        assertThat(root.getHasMoreReplies()).isTrue();
+        assertThat(root.getMoreRepliesCursor()).isNotNull();
+
+        CommentDTO firstReply = root.getChildren().get(0);
+        assertThat(firstReply.getChildren()).extracting(CommentDTO::getContent).containsExactly("嵌套回复1");
+        CommentDTO truncated = firstReply.getChildren().get(0);
+        assertThat(truncated.getChildren()).isEmpty();
+        assertThat(truncated.getReplyCount()).isEqualTo(1);
+        assertThat(truncated.getHasMoreReplies()).isTrue();
+        assertThat(truncated.getMoreRepliesCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("加载更多回复-一次查询回复子树，从游标位置继续")
+    public void testLoadMoreReplies() {
+        Long rootId = createThread();
+        CommentDTO root = commentService.getCommentTree(taskId, 2, 3).get(0);
+
+        CursorPageResult<CommentDTO> rest = commentService.getReplies(taskId, rootId, root.getMoreRepliesCursor(), 2, 3);
+        assertThat(rest.getItems()).extracting(CommentDTO::getContent).containsExactly("回复3", "回复4");
+        assertThat(rest.isHasMore()).isFalse();
+
+        Long truncatedId = root.getChildren().get(0).getChildren().get(0).getId();
+        counter.start();
+        CursorPageResult<CommentDTO> deeper = commentService.getReplies(taskId, truncatedId, null, 2, 3);
+        int statements = counter.stop();
+        // 归属校验 + 回复子树，作者已在缓存中
+        assertThat(statements).isEqualTo(2);
+        assertThat(deeper.getItems()).extracting(CommentDTO::getContent).containsExactly("嵌套回复2");
+        CommentDTO nested = deeper.getItems().get(0);
+        assertThat(nested.getChildren()).extracting(CommentDTO::getContent).containsExactly("嵌套回复3");
+        assertThat(nested.getChildren().get(0).getHasMoreReplies()).isTrue();
+    }
+
+    @Test
+    @DisplayName("回复子树查询-SQL中限制直接回复数，只递归保留的回复")
+    public void testReplyTreeLimitsFirstLevel() {
+        Long rootId = createThread();
+
+        List<Comment> subtree = commentMapper.selectReplyTree(rootId, null, null, 2, 3);
+
+        assertThat(subtree).extracting(Comment::getContent)
+                .containsExactly("回复0", "回复1", "嵌套回复1", "嵌套回复2");
+    }
+
+    @Test
+    @DisplayName("删除评论-按子树大小扣减任务评论数")
+    public void testDeleteCountsSubtree() {
+        createThread();
+        Task task = taskMapper.selectById(taskId);
+        task.setCommentCount(10);
+        taskMapper.updateById(task);
+        Long firstReplyId = commentService.getCommentTree(taskId, 1, 1).get(0).getChildren().get(0).getId();
+
+        BaseContext.setCurrentId(userIds.get(0));
+        try {
+            commentService.deleteComment(taskId, firstReplyId);
+        } finally {
+            BaseContext.removeCurrentId();
+        }
+
+        assertThat(taskMapper.selectById(taskId).getCommentCount()).isEqualTo(5);
+        assertThat(commentService.getCommentsByTaskId(taskId)).hasSize(5);
+    }
+}
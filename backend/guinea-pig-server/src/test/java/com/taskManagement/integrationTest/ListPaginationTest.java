@@ -0,0 +1,266 @@
+package com.taskManagement.integrationTest;
+
+import com.taskManagement.TestApplication;
+import com.taskManagement.config.MybatisPlusConfig;
+import com.taskManagement.config.TestConfig;
+import com.taskManagement.context.BaseContext;
+import com.taskManagement.dto.TaskDTO;
+import com.taskManagement.entity.Project;
+import com.taskManagement.entity.ProjectMember;
+import com.taskManagement.entity.Task;
+import com.taskManagement.entity.User;
+import com.taskManagement.exception.BusinessException;
+import com.taskManagement.mapper.ProjectMapper;
+import com.taskManagement.mapper.ProjectMemberMapper;
+import com.taskManagement.mapper.TaskMapper;
+import com.taskManagement.mapper.UserMapper;
+import com.taskManagement.service.ProjectService;
+import com.taskManagement.service.TaskService;
+import com.taskManagement.utils.PasswordUtil;
+import com.taskManagement.vo.CursorPageResult;
+import com.taskManagement.vo.PageResult;
+import com.taskManagement.vo.ProjectVO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 列表分页测试
+ * 验证数据库端分页生效，以及游标分页与偏移分页返回相同顺序的数据
+ */
+@SpringBootTest(classes = TestApplication.class)
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+@Transactional
+public class ListPaginationTest {
+
+    private static final int TASK_COUNT = 25;
+    private static final int PROJECT_COUNT = 12;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private TaskMapper taskMapper;
+
+    @Autowired
+    private ProjectMapper projectMapper;
+
+    @Autowired
+    private ProjectMemberMapper projectMemberMapper;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    private Long userId;
+    private Long projectId;
+
+    @BeforeEach
+    public void setup() {
+        User user = new User();
+        user.setUsername("pagingTestUser");
+        user.setPassword(PasswordUtil.encode("password123"));
+        user.setStatus(1);
+        user.setRole(0);
+        userMapper.insert(user);
+        userId = user.getId();
+        BaseContext.setCurrentId(userId);
+
+        // 优先级和时间大量重复，验证ID兜底后顺序仍然稳定
+        LocalDateTime baseTime = LocalDateTime.of(2024, 1, 1, 9, 0, 0);
+        for (int i = 0; i < PROJECT_COUNT; i++) {
+            Project project = new Project();
+            project.setName("分页测试项目_" + i);
+            project.setStatus(0);
+            project.setPriority(i % 3 + 1);
+            project.setCreateTime(baseTime.plusHours(i % 2));
+            project.setUpdateTime(baseTime);
+            project.setCreateUser(userId);
+            project.setUpdateUser(userId);
+            projectMapper.insert(project);
+
+            ProjectMember member = new ProjectMember();
+            member.setProjectId(project.getId());
+            member.setUserId(userId);
+            member.setCreateTime(baseTime);
+            projectMemberMapper.insert(member);
+
+            if (i == 0) {
+                projectId = project.getId();
+            }
+        }
+
+        for (int i = 0; i < TASK_COUNT; i++) {
+            Task task = new Task();
+            task.setName("分页测试任务_" + i);
+            task.setProjectId(projectId);
+            task.setStatus(0);
+            task.setPriority(i % 4 + 1);
+            task.setCommentCount(0);
+            task.setCreateTime(baseTime);
+            task.setUpdateTime(baseTime.plusMinutes(i % 3));
+            task.setCreateUser(userId);
+            task.setUpdateUser(userId);
+            taskMapper.insert(task);
+        }
+    }
+
+    @AfterEach
+    public void cleanup() {
+        BaseContext.removeCurrentId();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> taskIdsOf(Map<String, Object> result) {
+        return ((List<TaskDTO>) result.get("items")).stream()
+                .map(TaskDTO::getId)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("任务列表-数据库端分页返回正确的页和总数")
+    public void testTaskListPagedInDatabase() {
+        Map<String, Object> first = taskService.getTaskList(null, null, null, projectId, null,
+                null, null, null, null, 1, 10);
+        Map<String, Object> third = taskService.getTaskList(null, null, null, projectId, null,
+                null, null, null, null, 3, 10);
+
+        assertThat(((Number) first.get("total")).longValue()).isEqualTo(TASK_COUNT);
+        assertThat(taskIdsOf(first)).hasSize(10);
+        assertThat(taskIdsOf(third)).hasSize(TASK_COUNT - 20);
+        assertThat(taskIdsOf(third)).doesNotContainAnyElementsOf(taskIdsOf(first));
+    }
+
+    @Test
+    @DisplayName("任务列表-游标分页与偏移分页顺序一致")
+    public void testTaskCursorMatchesOffsetOrder() {
+        List<Long> expected = taskIdsOf(taskService.getTaskList(null, null, null, projectId, null,
+                null, null, null, null, 1, 100));
+
+        List<Long> actual = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            CursorPageResult<TaskDTO> result = taskService.getTaskListByCursor(null, null, null, projectId, null,
+                    null, null, null, null, cursor, 7);
+            result.getItems().forEach(task -> actual.add(task.getId()));
+            cursor = result.getNextCursor();
+            assertThat(result.isHasMore()).isEqualTo(cursor != null);
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(4);
+        assertThat(actual).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    @DisplayName("项目列表-第二页不再与第一页重复")
+    public void testProjectListSecondPage() {
+        PageResult<ProjectVO> first = projectService.getProjectList(null, null, 1, 5, null, null, null, null);
+        PageResult<ProjectVO> second = projectService.getProjectList(null, null, 2, 5, null, null, null, null);
+
+        assertThat(first.getTotal()).isEqualTo(PROJECT_COUNT);
+        assertThat(second.getItems()).hasSize(5);
+        assertThat(second.getItems()).extracting(ProjectVO::getId)
+                .doesNotContainAnyElementsOf(first.getItems().stream().map(ProjectVO::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("项目列表-游标分页与偏移分页顺序一致")
+    public void testProjectCursorMatchesOffsetOrder() {
+        List<Long> expected = projectService.getProjectList(null, null, 1, 100, null, null, null, null)
+                .getItems().stream().map(ProjectVO::getId).collect(Collectors.toList());
+
+        List<Long> actual = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageResult<ProjectVO> result = projectService.getProjectListByCursor(null, null, cursor, 5,
+                    null, null, null, null);
+            result.getItems().forEach(project -> actual.add(project.getId()));
+            cursor = result.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(actual).hasSize(PROJECT_COUNT);
+        assertThat(actual).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    @DisplayName("游标分页-非正的每页数量使用默认值")
+    public void testCursorNonPositivePageSize() {
+        for (int pageSize : new int[]{0, -5}) {
+            CursorPageResult<TaskDTO> tasks = taskService.getTaskListByCursor(null, null, null, projectId, null,
+                    null, null, null, null, null, pageSize);
+            assertThat(tasks.getItems()).hasSize(10);
+            assertThat(tasks.isHasMore()).isTrue();
+            assertThat(tasks.getNextCursor()).isNotNull();
+
+            CursorPageResult<ProjectVO> projects = projectService.getProjectListByCursor(null, null, null, pageSize,
+                    null, null, null, null);
+            assertThat(projects.getItems()).hasSize(10);
+            assertThat(projects.isHasMore()).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("游标分页-超过分页插件上限的每页数量被截断且仍能翻页")
+    public void testCursorPageSizeAboveMaxLimit() {
+        LocalDateTime baseTime = LocalDateTime.of(2024, 1, 1, 9, 0, 0);
+        for (int i = 0; i < MybatisPlusConfig.MAX_PAGE_SIZE; i++) {
+            Task task = new Task();
+            task.setName("分页上限任务_" + i);
+            task.setProjectId(projectId);
+            task.setStatus(0);
+            task.setPriority(1);
+            task.setCommentCount(0);
+            task.setCreateTime(baseTime);
+            task.setUpdateTime(baseTime);
+            task.setCreateUser(userId);
+            task.setUpdateUser(userId);
+            taskMapper.insert(task);
+        }
+        int total = TASK_COUNT + (int) MybatisPlusConfig.MAX_PAGE_SIZE;
+
+        CursorPageResult<TaskDTO> first = taskService.getTaskListByCursor(null, null, null, projectId, null,
+                null, null, null, null, null, 5000);
+        assertThat(first.getItems()).hasSize((int) MybatisPlusConfig.MAX_PAGE_SIZE - 1);
+        assertThat(first.isHasMore()).isTrue();
+        assertThat(first.getNextCursor()).isNotNull();
+
+        CursorPageResult<TaskDTO> second = taskService.getTaskListByCursor(null, null, null, projectId, null,
+                null, null, null, null, first.getNextCursor(), 1000);
+        assertThat(second.getItems()).hasSize(total - first.getItems().size());
+        assertThat(second.isHasMore()).isFalse();
+
+        CursorPageResult<ProjectVO> projects = projectService.getProjectListByCursor(null, null, null, 1000,
+                null, null, null, null);
+        assertThat(projects.getItems()).hasSize(PROJECT_COUNT);
+        assertThat(projects.isHasMore()).isFalse();
+    }
+
+    @Test
+    @DisplayName("游标分页-无效游标")
+    public void testInvalidCursor() {
+        assertThatThrownBy(() -> taskService.getTaskListByCursor(null, null, null, projectId, null,
+                null, null, null, null, "not-a-cursor", 10))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("无效的分页游标");
+    }
+}
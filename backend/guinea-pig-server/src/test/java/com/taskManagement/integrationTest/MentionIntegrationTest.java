@@ -0,0 +1,192 @@
+package com.taskManagement.integrationTest;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.taskManagement.TestApplication;
+import com.taskManagement.config.SqlStatementCounter;
+import com.taskManagement.config.TestConfig;
+import com.taskManagement.context.BaseContext;
+import com.taskManagement.dto.CommentDTO;
+import com.taskManagement.dto.UserRegisterDTO;
+import com.taskManagement.entity.NotificationOutbox;
+import com.taskManagement.entity.Project;
+import com.taskManagement.entity.Task;
+import com.taskManagement.entity.User;
+import com.taskManagement.mapper.NotificationOutboxMapper;
+import com.taskManagement.mapper.ProjectMapper;
+import com.taskManagement.mapper.TaskMapper;
+import com.taskManagement.mapper.UserMapper;
+import com.taskManagement.service.CommentService;
+import com.taskManagement.service.UserService;
+import com.taskManagement.service.UsernameIndexService;
+import com.taskManagement.utils.PasswordUtil;
+import com.taskManagement.vo.UserVO;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.transaction.TestTransaction;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 用户名索引集成测试
+ * 验证提及自动补全的前缀查询、评论中提及用户的批量解析，以及用户变更提交后索引同步
+ */
+@SpringBootTest(classes = TestApplication.class)
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+@Transactional
+public class MentionIntegrationTest {
+
+    @Autowired
+    private UsernameIndexService usernameIndexService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private ProjectMapper projectMapper;
+
+    @Autowired
+    private TaskMapper taskMapper;
+
+    @Autowired
+    private NotificationOutboxMapper notificationOutboxMapper;
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    private Long aliceId;
+    private Long alanId;
+    private Long bobId;
+
+    @BeforeEach
+    public void setup() {
+        aliceId = createUser("mentionAlice", 1);
+        alanId = createUser("mentionAlan", 1);
+        createUser("mentionAdmin", 0);
+        bobId = createUser("mentionBob", 1);
+        usernameIndexService.rebuildIndex();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        BaseContext.removeCurrentId();
+    }
+
+    private Long createUser(String username, int status) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword(PasswordUtil.encode("password123"));
+        user.setAvatar(username + ".png");
+        user.setStatus(status);
+        user.setRole(0);
+        userMapper.insert(user);
+        return user.getId();
+    }
+
+    @Test
+    @DisplayName("自动补全-前缀不区分大小写，按用户名排序且不包含禁用用户")
+    public void testSuggestByPrefix() {
+        List<UserVO> suggestions = userService.suggestMentionUsers("MENTIONa", 10);
+
+        assertThat(suggestions).extracting(UserVO::getUsername).containsExactly("mentionAlan", "mentionAlice");
+        assertThat(suggestions).extracting(UserVO::getAvatar).containsExactly("mentionAlan.png", "mentionAlice.png");
+        assertThat(userService.suggestMentionUsers("mention", 2)).hasSize(2);
+        assertThat(userService.suggestMentionUsers("mentionZ", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("评论提及-一次解析所有用户名，去重且不通知自己")
+    public void testCommentMentionsResolvedInOneLookup() {
+        Project project = new Project();
+        project.setName("提及测试项目");
+        project.setStatus(0);
+        project.setPriority(2);
+        project.setCreateUser(bobId);
+        project.setUpdateUser(bobId);
+        projectMapper.insert(project);
+
+        Task task = new Task();
+        task.setName("提及测试任务");
+        task.setProjectId(project.getId());
+        task.setStatus(0);
+        task.setPriority(2);
+        task.setCommentCount(0);
+        task.setCreateUser(bobId);
+        task.setUpdateUser(bobId);
+        taskMapper.insert(task);
+
+        Map<String, Long> resolved = usernameIndexService.resolveUsernames(
+                Arrays.asList("mentionAlice", "MENTIONALAN", "nobody"));
+        assertThat(resolved).containsOnlyKeys("mentionAlice", "MENTIONALAN");
+
+        BaseContext.setCurrentId(bobId);
+        SqlStatementCounter counter = SqlStatementCounter.install(sqlSessionFactory);
+        counter.start();
+        createComment(task.getId(), "@mentionAlice 请看一下");
+        int singleMention = counter.stop();
+
+        counter.start();
+        CommentDTO created = createComment(task.getId(),
+                "@mentionAlice @mentionalice @mentionAlan @mentionBob @nobody 请看一下");
+        int manyMentions = counter.stop();
+
+        List<NotificationOutbox> outboxes = notificationOutboxMapper.selectList(new LambdaQueryWrapper<NotificationOutbox>()
+                .eq(NotificationOutbox::getRelatedId, created.getId()));
+        assertThat(outboxes).extracting(NotificationOutbox::getRecipientIds).containsExactly(aliceId + "," + alanId);
+        // 用户名从索引解析，语句数不随被提及的人数增长
+        assertThat(manyMentions).isLessThanOrEqualTo(singleMention);
+    }
+
+    private CommentDTO createComment(Long taskId, String content) {
+        CommentDTO commentDTO = new CommentDTO();
+        commentDTO.setTaskId(taskId);
+        commentDTO.setContent(content);
+        return commentService.createComment(commentDTO);
+    }
+
+    @Test
+    @DisplayName("注册、删除用户提交后同步到索引")
+    public void testIndexFollowsCommittedChanges() {
+        // 回滚准备数据，只提交本测试注册的用户
+        TestTransaction.end();
+        TestTransaction.start();
+        UserRegisterDTO registerDTO = new UserRegisterDTO();
+        registerDTO.setUsername("mentionCarol");
+        registerDTO.setPassword("password123");
+        UserVO registered = userService.register(registerDTO);
+        // 未提交前索引中还没有新用户
+        assertThat(userService.suggestMentionUsers("mentionC", 10)).isEmpty();
+
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        try {
+            assertThat(userService.suggestMentionUsers("mentionC", 10))
+                    .extracting(UserVO::getUsername).containsExactly("mentionCarol");
+        } finally {
+            TestTransaction.start();
+            userService.deleteUser(registered.getId());
+            TestTransaction.flagForCommit();
+            TestTransaction.end();
+        }
+        assertThat(usernameIndexService.resolveUsernames(List.of("mentionCarol"))).isEmpty();
+        TestTransaction.start();
+    }
+}
@@ -0,0 +1,246 @@
+package com.taskManagement.integrationTest;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.taskManagement.TestApplication;
+import com.taskManagement.config.SqlStatementCounter;
+import com.taskManagement.config.TestConfig;
+import com.taskManagement.constant.NotificationConstant;
+import com.taskManagement.entity.Notification;
+import com.taskManagement.entity.NotificationOutbox;
+import com.taskManagement.entity.User;
+import com.taskManagement.mapper.NotificationMapper;
+import com.taskManagement.mapper.NotificationOutboxMapper;
+import com.taskManagement.mapper.UserMapper;
+import com.taskManagement.service.NotificationOutboxService;
+import com.taskManagement.service.NotificationService;
+import com.taskManagement.utils.PasswordUtil;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 通知发件箱集成测试
+ * 测试事务内提交后唤醒不会触发，直接调用投递方法验证展开写入、失败重试、认领、统计和积压告警，
+ * 以及未读数和标记已读的SQL语句数
+ */
+@SpringBootTest(classes = TestApplication.class)
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+@Transactional
+public class NotificationOutboxIntegrationTest {
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private NotificationOutboxService notificationOutboxService;
+
+    @Autowired
+    private NotificationOutboxMapper notificationOutboxMapper;
+
+    @Autowired
+    private NotificationMapper notificationMapper;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    private Long userId1;
+    private Long userId2;
+
+    @BeforeEach
+    public void setup() {
+        userId1 = createUser("outboxUser1");
+        userId2 = createUser("outboxUser2");
+    }
+
+    private Long createUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword(PasswordUtil.encode("password123"));
+        user.setStatus(1);
+        user.setRole(0);
+        userMapper.insert(user);
+        return user.getId();
+    }
+
+    private NotificationOutbox latestOutbox() {
+        return notificationOutboxMapper.selectList(new LambdaQueryWrapper<NotificationOutbox>()
+                .orderByDesc(NotificationOutbox::getId)
+                .last("LIMIT 1")).get(0);
+    }
+
+    private List<Notification> notificationsOf(Long userId, Long relatedId) {
+        return notificationMapper.selectList(new LambdaQueryWrapper<Notification>()
+                .eq(Notification::getUserId, userId)
+                .eq(Notification::getRelatedId, relatedId));
+    }
+
+    @Test
+    @DisplayName("一次扇出只写一行发件箱记录，投递后按接收人展开为通知")
+    public void testFanOut() {
+        notificationService.sendNotifications(NotificationConstant.TYPE_TASK_UPDATE, 9001L, "状态已更新",
+                Arrays.asList(userId1, userId2, userId1, null));
+
+        NotificationOutbox outbox = latestOutbox();
+        assertThat(outbox.getRecipientIds()).isEqualTo(userId1 + "," + userId2);
+        assertThat(outbox.getStatus()).isEqualTo(NotificationConstant.OUTBOX_PENDING);
+        assertThat(notificationsOf(userId1, 9001L)).isEmpty();
+
+        notificationOutboxService.dispatchPending();
+
+        assertThat(notificationOutboxMapper.selectById(outbox.getId()).getStatus())
+                .isEqualTo(NotificationConstant.OUTBOX_DELIVERED);
+        List<Notification> notifications = notificationsOf(userId1, 9001L);
+        assertThat(notifications).hasSize(1);
+        assertThat(notifications.get(0).getType()).isEqualTo(NotificationConstant.TYPE_TASK_UPDATE);
+        assertThat(notifications.get(0).getContent()).isEqualTo("状态已更新");
+        assertThat(notifications.get(0).getIsRead()).isEqualTo(0);
+        assertThat(notificationsOf(userId2, 9001L)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("出错的记录单独重试，不影响同批其他记录")
+    public void testFailedRecordRetriedWithBackoff() {
+        notificationService.sendNotifications(NotificationConstant.TYPE_COMMENT_MENTION, 9002L, "正常通知",
+                List.of(userId1));
+        NotificationOutbox good = latestOutbox();
+        // 接收人不存在，写入通知时违反外键约束
+        notificationService.sendNotifications(NotificationConstant.TYPE_COMMENT_MENTION, 9003L, "无效接收人",
+                List.of(Long.MAX_VALUE));
+        NotificationOutbox bad = latestOutbox();
+
+        long retries = ((Number) notificationOutboxService.getStats().get("retries")).longValue();
+        notificationOutboxService.dispatchPending();
+
+        assertThat(notificationOutboxMapper.selectById(good.getId()).getStatus())
+                .isEqualTo(NotificationConstant.OUTBOX_DELIVERED);
+        assertThat(notificationsOf(userId1, 9002L)).hasSize(1);
+
+        NotificationOutbox failed = notificationOutboxMapper.selectById(bad.getId());
+        assertThat(failed.getStatus()).isEqualTo(NotificationConstant.OUTBOX_PENDING);
+        assertThat(failed.getAttempts()).isEqualTo(1);
+        assertThat(failed.getLastError()).isNotBlank();
+        assertThat(failed.getNextAttemptTime()).isAfter(LocalDateTime.now());
+        assertThat(((Number) notificationOutboxService.getStats().get("retries")).longValue()).isEqualTo(retries + 1);
+
+        // 未到重试时间，不会再次投递
+        notificationOutboxService.dispatchPending();
+        assertThat(notificationOutboxMapper.selectById(bad.getId()).getAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("其他实例认领的记录被跳过，认领过期后重新投递")
+    public void testClaimedRecordSkippedUntilExpired() {
+        notificationService.sendNotifications(NotificationConstant.TYPE_TASK_UPDATE, 9006L, "已被认领",
+                List.of(userId1));
+        NotificationOutbox outbox = latestOutbox();
+        LocalDateTime now = LocalDateTime.now();
+        assertThat(notificationOutboxMapper.claim(List.of(outbox.getId()), "other-instance", now, now.plusMinutes(1)))
+                .isEqualTo(1);
+
+        notificationOutboxService.dispatchPending();
+        NotificationOutbox claimed = notificationOutboxMapper.selectById(outbox.getId());
+        assertThat(claimed.getStatus()).isEqualTo(NotificationConstant.OUTBOX_PENDING);
+        assertThat(claimed.getClaimToken()).isEqualTo("other-instance");
+        assertThat(notificationsOf(userId1, 9006L)).isEmpty();
+
+        // 认领方中途退出，到期后由本实例重新认领投递
+        NotificationOutbox expired = new NotificationOutbox();
+        expired.setId(outbox.getId());
+        expired.setNextAttemptTime(now.minusSeconds(1));
+        notificationOutboxMapper.updateById(expired);
+
+        notificationOutboxService.dispatchPending();
+        assertThat(notificationOutboxMapper.selectById(outbox.getId()).getStatus())
+                .isEqualTo(NotificationConstant.OUTBOX_DELIVERED);
+        assertThat(notificationsOf(userId1, 9006L)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("统计积压数量和投递延迟")
+    public void testStats() {
+        notificationService.sendNotifications(NotificationConstant.TYPE_TASK_UPDATE, 9004L, "积压通知",
+                List.of(userId1));
+
+        Map<String, Object> stats = notificationOutboxService.getStats();
+        assertThat(((Number) stats.get("pending")).longValue()).isGreaterThanOrEqualTo(1L);
+        assertThat(((Number) stats.get("lagMillis")).longValue()).isGreaterThanOrEqualTo(0L);
+        assertThat(stats).containsKeys("failed", "enqueued", "deliveredEvents", "deliveredNotifications", "failures");
+    }
+
+    @Test
+    @DisplayName("积压超过阈值时告警，投递完成后恢复")
+    public void testBacklogAlert() {
+        Object target = AopTestUtils.getTargetObject(notificationOutboxService);
+        Object threshold = ReflectionTestUtils.getField(target, "backlogAlertThreshold");
+        ReflectionTestUtils.setField(target, "backlogAlertThreshold", 1L);
+        try {
+            long alerts = ((Number) notificationOutboxService.getStats().get("backlogAlerts")).longValue();
+            notificationService.sendNotifications(NotificationConstant.TYPE_TASK_UPDATE, 9005L, "积压告警",
+                    List.of(userId1));
+
+            assertThat(notificationOutboxService.checkBacklog()).isTrue();
+            assertThat(notificationOutboxService.getStats().get("backlogAlert")).isEqualTo(true);
+            // 持续积压只告警一次
+            notificationOutboxService.checkBacklog();
+            assertThat(((Number) notificationOutboxService.getStats().get("backlogAlerts")).longValue())
+                    .isEqualTo(alerts + 1);
+
+            notificationOutboxService.dispatchPending();
+            assertThat(notificationOutboxService.checkBacklog()).isFalse();
+            assertThat(notificationOutboxService.getStats().get("backlogAlert")).isEqualTo(false);
+        } finally {
+            ReflectionTestUtils.setField(target, "backlogAlertThreshold", threshold);
+            notificationOutboxService.checkBacklog();
+        }
+    }
+
+    @Test
+    @DisplayName("没有接收人时不写发件箱")
+    public void testNoRecipients() {
+        Long before = notificationOutboxMapper.selectCount(null);
+        notificationService.sendNotifications(NotificationConstant.TYPE_TASK_UPDATE, 9005L, "无接收人", List.of());
+        assertThat(notificationOutboxMapper.selectCount(null)).isEqualTo(before);
+    }
+
+    @Test
+    @DisplayName("未读数只在首次读取时查询数据库，标记已读只执行一条语句")
+    public void testUnreadCountAndMarkAsReadStatements() {
+        notificationService.sendNotifications(NotificationConstant.TYPE_TASK_UPDATE, 9006L, "未读通知",
+                List.of(userId1));
+        notificationOutboxService.dispatchPending();
+        Long notificationId = notificationsOf(userId1, 9006L).get(0).getId();
+
+        SqlStatementCounter counter = SqlStatementCounter.install(sqlSessionFactory);
+        counter.start();
+        assertThat(notificationService.getUnreadCount(userId1)).isEqualTo(1);
+        assertThat(counter.stop()).isEqualTo(1);
+
+        counter.start();
+        notificationService.getUnreadCount(userId1);
+        assertThat(counter.stop()).isEqualTo(0);
+
+        counter.start();
+        assertThat(notificationService.markAsRead(notificationId, userId1).getIsRead()).isEqualTo(1);
+        assertThat(counter.stop()).isEqualTo(1);
+        assertThat(notificationMapper.selectById(notificationId).getIsRead()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,172 @@
+package com.taskManagement.integrationTest;
+
+import com.taskManagement.TestApplication;
+import com.taskManagement.config.SqlStatementCounter;
+import com.taskManagement.config.TestConfig;
+import com.taskManagement.config.TestDataFactory;
+import com.taskManagement.context.BaseContext;
+import com.taskManagement.dto.TaskDTO;
+import com.taskManagement.entity.Tag;
+import com.taskManagement.mapper.TagMapper;
+import com.taskManagement.service.ProjectTagCacheService;
+import com.taskManagement.service.TagService;
+import com.taskManagement.service.TaskService;
+import com.taskManagement.service.TaskTagService;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 项目标签缓存测试
+ * 验证项目标签的加载语句数与任务数无关、缓存命中，以及标签关联变化和任务移动后失效
+ */
+@SpringBootTest(classes = TestApplication.class)
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+@Transactional
+public class ProjectTagCacheIntegrationTest {
+
+    @Autowired
+    private TagService tagService;
+
+    @Autowired
+    private TaskTagService taskTagService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private ProjectTagCacheService projectTagCacheService;
+
+    @Autowired
+    private TagMapper tagMapper;
+
+    @Autowired
+    private TestDataFactory testDataFactory;
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    private Long userId;
+    private Long projectId;
+    private Long otherProjectId;
+    private final List<Long> taskIds = new ArrayList<>();
+    private final List<Long> tagIds = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        userId = testDataFactory.createUser("tagCacheUser");
+        BaseContext.setCurrentId(userId);
+
+        projectId = testDataFactory.createProject("标签测试项目", userId);
+        otherProjectId = testDataFactory.createProject("标签测试项目2", userId);
+
+        for (String name : Arrays.asList("前端", "后端API", "紧急")) {
+            Tag tag = new Tag();
+            tag.setName(name);
+            tag.setColor("#409EFF");
+            tag.setCreateUser(userId);
+            tag.setUpdateUser(userId);
+            tagMapper.insert(tag);
+            tagIds.add(tag.getId());
+        }
+
+        // 前两个标签分给项目内的20个任务，第三个标签只用在其他项目
+        for (int i = 0; i < 20; i++) {
+            Long taskId = testDataFactory.createTask(projectId, "标签测试任务" + i, userId);
+            taskIds.add(taskId);
+            taskTagService.addTaskTag(taskId, tagIds.get(i % 2));
+        }
+        Long otherTaskId = testDataFactory.createTask(otherProjectId, "其他项目任务", userId);
+        taskTagService.addTaskTag(otherTaskId, tagIds.get(0));
+        taskTagService.addTaskTag(otherTaskId, tagIds.get(2));
+    }
+
+    @AfterEach
+    public void cleanup() {
+        BaseContext.removeCurrentId();
+    }
+
+    private long stat(String name) {
+        return ((Number) projectTagCacheService.getStats().get(name)).longValue();
+    }
+
+    private Tag findTag(List<Tag> tags, Long tagId) {
+        return tags.stream().filter(tag -> tag.getId().equals(tagId)).findFirst().orElse(null);
+    }
+
+    @Test
+    @DisplayName("项目标签-固定语句数加载，任务ID只包含本项目的任务，再次读取命中缓存")
+    public void testLoadProjectTagsWithJoin() {
+        SqlStatementCounter counter = SqlStatementCounter.install(sqlSessionFactory);
+        counter.start();
+        List<Tag> tags = tagService.getTagsByProjectId(projectId);
+        int statements = counter.stop();
+
+        assertThat(statements).isLessThanOrEqualTo(2);
+        assertThat(tags).extracting(Tag::getId).containsExactly(tagIds.get(0), tagIds.get(1));
+        assertThat(findTag(tags, tagIds.get(0)).getTaskIds()).hasSize(10).isSubsetOf(taskIds);
+        assertThat(findTag(tags, tagIds.get(1)).getTaskIds()).hasSize(10).isSubsetOf(taskIds);
+
+        // 修改返回值不影响缓存
+        tags.get(0).getTaskIds().clear();
+        long hits = stat("hits");
+        List<Tag> cached = tagService.getTagsByProjectId(projectId);
+        assertThat(stat("hits")).isEqualTo(hits + 1);
+        assertThat(findTag(cached, tagIds.get(0)).getTaskIds()).hasSize(10);
+
+        assertThat(tagService.searchTags("后", projectId)).extracting(Tag::getId).containsExactly(tagIds.get(1));
+        assertThat(tagService.searchTags("紧急", projectId)).isEmpty();
+        // 关键词不区分大小写
+        assertThat(tagService.searchTags("api", projectId)).extracting(Tag::getId).containsExactly(tagIds.get(1));
+        assertThat(tagService.getTagsByProjectId(otherProjectId)).extracting(Tag::getId)
+                .containsExactly(tagIds.get(0), tagIds.get(2));
+    }
+
+    @Test
+    @DisplayName("标签关联变化、标签修改和任务移动后缓存失效")
+    public void testEvictedByWrites() {
+        tagService.getTagsByProjectId(projectId);
+        tagService.getTagsByProjectId(otherProjectId);
+
+        // 添加关联
+        Long taskId = taskIds.get(0);
+        taskTagService.addTaskTag(taskId, tagIds.get(2));
+        assertThat(findTag(tagService.getTagsByProjectId(projectId), tagIds.get(2)).getTaskIds())
+                .containsExactly(taskId);
+
+        // 删除关联
+        taskTagService.removeTaskTag(taskId, tagIds.get(2));
+        assertThat(findTag(tagService.getTagsByProjectId(projectId), tagIds.get(2))).isNull();
+
+        // 修改标签名称
+        Tag rename = new Tag();
+        rename.setId(tagIds.get(0));
+        rename.setName("前端页面");
+        tagService.updateTag(rename);
+        assertThat(findTag(tagService.getTagsByProjectId(otherProjectId), tagIds.get(0)).getName())
+                .isEqualTo("前端页面");
+
+        // 任务移动到其他项目
+        TaskDTO move = new TaskDTO();
+        move.setProjectId(otherProjectId);
+        taskService.updateTask(taskId, move);
+        assertThat(findTag(tagService.getTagsByProjectId(projectId), tagIds.get(0)).getTaskIds())
+                .hasSize(9).doesNotContain(taskId);
+        assertThat(findTag(tagService.getTagsByProjectId(otherProjectId), tagIds.get(0)).getTaskIds())
+                .hasSize(2).contains(taskId);
+    }
+}
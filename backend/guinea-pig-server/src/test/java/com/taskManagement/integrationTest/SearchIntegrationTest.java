@@ -0,0 +1,211 @@
+package com.taskManagement.integrationTest;
+
+import com.taskManagement.TestApplication;
+import com.taskManagement.config.TestConfig;
+import com.taskManagement.context.BaseContext;
+import com.taskManagement.dto.TaskDTO;
+import com.taskManagement.entity.Project;
+import com.taskManagement.entity.ProjectMember;
+import com.taskManagement.entity.Task;
+import com.taskManagement.entity.User;
+import com.taskManagement.mapper.ProjectMapper;
+import com.taskManagement.mapper.ProjectMemberMapper;
+import com.taskManagement.mapper.TaskMapper;
+import com.taskManagement.mapper.UserMapper;
+import com.taskManagement.service.ProjectService;
+import com.taskManagement.service.SearchService;
+import com.taskManagement.service.TaskService;
+import com.taskManagement.utils.InvertedIndex;
+import com.taskManagement.utils.PasswordUtil;
+import com.taskManagement.vo.PageResult;
+import com.taskManagement.vo.ProjectVO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 全文检索集成测试
+ * 验证索引命中与LIKE子串匹配一致（包括单词和词语中间的片段），以及列表查询按索引命中的ID过滤
+ */
+@SpringBootTest(classes = TestApplication.class)
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+@Transactional
+public class SearchIntegrationTest {
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private ProjectService projectService;
+
+    @Autowired
+    private TaskMapper taskMapper;
+
+    @Autowired
+    private ProjectMapper projectMapper;
+
+    @Autowired
+    private ProjectMemberMapper projectMemberMapper;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    private Long userId;
+    private Long projectId;
+    private Long loginTaskId;
+    private Long reportTaskId;
+    private Long docTaskId;
+
+    @BeforeEach
+    public void setup() {
+        User user = new User();
+        user.setUsername("searchTestUser");
+        user.setPassword(PasswordUtil.encode("password123"));
+        user.setStatus(1);
+        user.setRole(0);
+        userMapper.insert(user);
+        userId = user.getId();
+        BaseContext.setCurrentId(userId);
+
+        Project project = new Project();
+        project.setName("移动端Release项目");
+        project.setDescription("iOS和Android版本发布");
+        project.setStatus(0);
+        project.setPriority(2);
+        project.setCreateUser(userId);
+        project.setUpdateUser(userId);
+        projectMapper.insert(project);
+        projectId = project.getId();
+
+        ProjectMember member = new ProjectMember();
+        member.setProjectId(projectId);
+        member.setUserId(userId);
+        member.setCreateTime(LocalDateTime.now());
+        projectMemberMapper.insert(member);
+
+        loginTaskId = createTask("修复登录页面Bug", "用户登录后跳转错误");
+        reportTaskId = createTask("导出周报", "按周汇总登录数据");
+        docTaskId = createTask("Write API documentation", "接口文档整理");
+
+        // 测试数据直接写库，手动重建索引
+        searchService.rebuildIndex();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        BaseContext.removeCurrentId();
+    }
+
+    private Long createTask(String name, String description) {
+        Task task = new Task();
+        task.setName(name);
+        task.setDescription(description);
+        task.setProjectId(projectId);
+        task.setStatus(0);
+        task.setPriority(2);
+        task.setCommentCount(0);
+        task.setCreateUser(userId);
+        task.setUpdateUser(userId);
+        taskMapper.insert(task);
+        return task.getId();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> searchTaskList(String keyword) {
+        Map<String, Object> result = taskService.getTaskList(keyword, null, null, projectId, null,
+                null, null, null, null, 1, 10);
+        return ((List<TaskDTO>) result.get("items")).stream()
+                .map(TaskDTO::getId)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    @DisplayName("中文关键词匹配名称或描述，词语中间的片段同样命中")
+    public void testChineseKeyword() {
+        assertThat(searchService.searchTaskIds("登录")).containsExactlyInAnyOrder(loginTaskId, reportTaskId);
+        assertThat(searchTaskList("登录")).containsExactlyInAnyOrder(loginTaskId, reportTaskId);
+        assertThat(searchTaskList("录页")).containsExactly(loginTaskId);
+    }
+
+    @Test
+    @DisplayName("英文关键词不区分大小写，单词中间的片段同样命中")
+    public void testEnglishSubstringKeyword() {
+        assertThat(searchTaskList("doc")).containsExactly(docTaskId);
+        assertThat(searchTaskList("BUG")).containsExactly(loginTaskId);
+        assertThat(searchTaskList("umenta")).containsExactly(docTaskId);
+    }
+
+    @Test
+    @DisplayName("关键词整体作为子串匹配，与LIKE一致")
+    public void testKeywordMatchedAsWholeSubstring() {
+        assertThat(searchTaskList("页面Bug")).containsExactly(loginTaskId);
+        assertThat(searchTaskList("api doc")).containsExactly(docTaskId);
+        // 两个词分别出现但不相邻时不命中
+        assertThat(searchTaskList("登录 bug")).isEmpty();
+        assertThat(searchTaskList("write documentation")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("关键词没有命中时返回空列表")
+    public void testNoMatch() {
+        assertThat(searchService.searchTaskIds("不存在的内容")).isEmpty();
+        assertThat(searchTaskList("不存在的内容")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("单个字符或包含通配符的关键词回退到数据库LIKE查询")
+    public void testShortOrWildcardKeywordFallsBackToLike() {
+        assertThat(searchService.searchTaskIds("录")).isNull();
+        assertThat(searchTaskList("录")).containsExactlyInAnyOrder(loginTaskId, reportTaskId);
+        assertThat(searchService.searchTaskIds("周%据")).isNull();
+        assertThat(searchTaskList("周%据")).containsExactly(reportTaskId);
+        assertThat(searchService.searchTaskIds("---")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("索引增量更新和删除")
+    public void testIncrementalUpdate() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1L, "导出周报", "按周汇总登录数据");
+        index.put(2L, "修复登录页面Bug", null);
+        assertThat(index.search("登录")).containsExactlyInAnyOrder(2L, 1L);
+
+        index.put(1L, "导出月报", "月度汇总");
+        assertThat(index.search("登录")).containsExactly(2L);
+        assertThat(index.search("月报")).containsExactly(1L);
+
+        index.remove(2L);
+        assertThat(index.search("登录")).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("项目列表按索引检索")
+    public void testProjectSearch() {
+        PageResult<ProjectVO> result = projectService.getProjectList("release", null, 1, 10, null, null, null, null);
+        assertThat(result.getItems()).extracting(ProjectVO::getId).containsExactly(projectId);
+
+        PageResult<ProjectVO> chinese = projectService.getProjectList("版本", null, 1, 10, null, null, null, null);
+        assertThat(chinese.getItems()).extracting(ProjectVO::getId).containsExactly(projectId);
+
+        PageResult<ProjectVO> none = projectService.getProjectList("桌面端", null, 1, 10, null, null, null, null);
+        assertThat(none.getItems()).isEmpty();
+    }
+}
@@ -0,0 +1,193 @@
+package com.taskManagement.integrationTest;
+
+import com.taskManagement.TestApplication;
+import com.taskManagement.config.TestConfig;
+import com.taskManagement.context.BaseContext;
+import com.taskManagement.dto.CommentDTO;
+import com.taskManagement.dto.TaskDTO;
+import com.taskManagement.entity.Project;
+import com.taskManagement.entity.Tag;
+import com.taskManagement.entity.Task;
+import com.taskManagement.entity.User;
+import com.taskManagement.mapper.ProjectMapper;
+import com.taskManagement.mapper.TagMapper;
+import com.taskManagement.mapper.TaskMapper;
+import com.taskManagement.mapper.UserMapper;
+import com.taskManagement.service.CommentService;
+import com.taskManagement.service.TaskCacheService;
+import com.taskManagement.service.TaskService;
+import com.taskManagement.service.TaskTagService;
+import com.taskManagement.utils.PasswordUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 任务详情缓存集成测试
+ * 测试环境没有Redis，缓存降级为进程内缓存。测试在事务内运行，读取不经过缓存，
+ * 这里验证各写操作之后读到最新数据；命中和回填由TaskCacheServiceImplTest覆盖
+ */
+@SpringBootTest(classes = TestApplication.class)
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+@Transactional
+public class TaskCacheIntegrationTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskCacheService taskCacheService;
+
+    @Autowired
+    private TaskTagService taskTagService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private TaskMapper taskMapper;
+
+    @Autowired
+    private ProjectMapper projectMapper;
+
+    @Autowired
+    private TagMapper tagMapper;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    private Long userId;
+    private Long taskId;
+
+    @BeforeEach
+    public void setup() {
+        User user = new User();
+        user.setUsername("cacheTestUser");
+        user.setPassword(PasswordUtil.encode("password123"));
+        user.setStatus(1);
+        user.setRole(0);
+        userMapper.insert(user);
+        userId = user.getId();
+        BaseContext.setCurrentId(userId);
+
+        Project project = new Project();
+        project.setName("缓存测试项目");
+        project.setStatus(0);
+        project.setPriority(2);
+        project.setCreateUser(userId);
+        project.setUpdateUser(userId);
+        projectMapper.insert(project);
+
+        Task task = new Task();
+        task.setName("缓存测试任务");
+        task.setProjectId(project.getId());
+        task.setStatus(0);
+        task.setPriority(2);
+        task.setCommentCount(0);
+        task.setCreateUser(userId);
+        task.setUpdateUser(userId);
+        taskMapper.insert(task);
+        taskId = task.getId();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        BaseContext.removeCurrentId();
+    }
+
+    private long stat(String name) {
+        return ((Number) taskCacheService.getStats().get(name)).longValue();
+    }
+
+    /**
+     * 绕过服务层直接改库，缓存未失效时读到的仍是旧值
+     */
+    private void renameInDatabase(String name) {
+        Task task = new Task();
+        task.setId(taskId);
+        task.setName(name);
+        taskMapper.updateById(task);
+    }
+
+    @Test
+    @DisplayName("事务内读取不经过缓存，也不回填")
+    public void testTransactionalReadBypassesCache() {
+        long misses = stat("misses");
+        long hits = stat("localHits");
+        long transactionalReads = stat("transactionalReads");
+
+        taskService.getTaskDetail(taskId);
+        renameInDatabase("事务内改库");
+
+        assertThat(taskService.getTaskDetail(taskId).getName()).isEqualTo("事务内改库");
+        assertThat(stat("transactionalReads")).isEqualTo(transactionalReads + 2);
+        assertThat(stat("misses")).isEqualTo(misses);
+        assertThat(stat("localHits")).isEqualTo(hits);
+    }
+
+    @Test
+    @DisplayName("更新任务后缓存失效")
+    public void testUpdateEvicts() {
+        taskService.getTaskDetail(taskId);
+
+        TaskDTO update = new TaskDTO();
+        update.setName("更新后的任务");
+        TaskDTO updated = taskService.updateTask(taskId, update);
+
+        assertThat(updated.getName()).isEqualTo("更新后的任务");
+        assertThat(taskService.getTaskDetail(taskId).getName()).isEqualTo("更新后的任务");
+    }
+
+    @Test
+    @DisplayName("标签变更后缓存失效")
+    public void testTagChangeEvicts() {
+        Tag tag = new Tag();
+        tag.setName("缓存测试标签");
+        tag.setCreateUser(userId);
+        tagMapper.insert(tag);
+
+        assertThat(taskService.getTaskDetail(taskId).getTagIds()).isEmpty();
+
+        taskTagService.addTaskTag(taskId, tag.getId());
+        assertThat(taskService.getTaskDetail(taskId).getTagIds()).containsExactly(tag.getId());
+
+        taskTagService.removeTagTasks(tag.getId());
+        assertThat(taskService.getTaskDetail(taskId).getTagIds()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("新增评论后缓存失效，评论数保持最新")
+    public void testCommentEvicts() {
+        assertThat(taskService.getTaskDetail(taskId).getCommentCount()).isEqualTo(0);
+
+        CommentDTO comment = new CommentDTO();
+        comment.setTaskId(taskId);
+        comment.setContent("缓存测试评论");
+        // 删除评论使用MySQL递归语句，H2不支持，这里只验证新增
+        commentService.createComment(comment);
+        assertThat(taskService.getTaskDetail(taskId).getCommentCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("手动失效计入统计")
+    public void testManualEvict() {
+        long evictions = stat("evictions");
+        taskCacheService.evictTaskDetail(taskId);
+
+        assertThat(stat("evictions")).isEqualTo(evictions + 1);
+        Map<String, Object> stats = taskCacheService.getStats();
+        assertThat(stats.get("localEnabled")).isEqualTo(true);
+        assertThat(stats.get("redisEnabled")).isEqualTo(false);
+    }
+}
@@ -0,0 +1,340 @@
+package com.taskManagement.integrationTest;
+
+import com.taskManagement.TestApplication;
+import com.taskManagement.config.SqlStatementCounter;
+import com.taskManagement.config.TestConfig;
+import com.taskManagement.context.BaseContext;
+import com.taskManagement.dto.TaskDTO;
+import com.taskManagement.dto.TaskStatusStatsDTO;
+import com.taskManagement.entity.Project;
+import com.taskManagement.entity.Tag;
+import com.taskManagement.entity.Task;
+import com.taskManagement.entity.TaskMember;
+import com.taskManagement.entity.TaskStatusSnapshot;
+import com.taskManagement.entity.TaskTag;
+import com.taskManagement.entity.User;
+import com.taskManagement.mapper.ProjectMapper;
+import com.taskManagement.mapper.TagMapper;
+import com.taskManagement.mapper.TaskMapper;
+import com.taskManagement.mapper.TaskMemberMapper;
+import com.taskManagement.mapper.TaskStatusSnapshotMapper;
+import com.taskManagement.mapper.TaskTagRelMapper;
+import com.taskManagement.mapper.UserMapper;
+import com.taskManagement.service.TaskCounterService;
+import com.taskManagement.service.TaskSnapshotService;
+import com.taskManagement.service.TaskService;
+import com.taskManagement.service.TaskStatsService;
+import com.taskManagement.utils.PasswordUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 任务列表查询次数测试
+ * 验证列表页的标签和成员采用批量填充，SQL语句数不随每页行数增长
+ */
+@SpringBootTest(classes = TestApplication.class)
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+@Transactional
+public class TaskListQueryCountTest {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskStatsService taskStatsService;
+
+    @Autowired
+    private TaskCounterService taskCounterService;
+
+    @Autowired
+    private TaskSnapshotService taskSnapshotService;
+
+    @Autowired
+    private TaskStatusSnapshotMapper taskStatusSnapshotMapper;
+
+    @Autowired
+    private TaskMapper taskMapper;
+
+    @Autowired
+    private ProjectMapper projectMapper;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private TagMapper tagMapper;
+
+    @Autowired
+    private TaskTagRelMapper taskTagRelMapper;
+
+    @Autowired
+    private TaskMemberMapper taskMemberMapper;
+
+    @Autowired
+    private SqlSessionFactory sqlSessionFactory;
+
+    private SqlStatementCounter counter;
+
+    private Long userId;
+    private Long otherUserId;
+    private Long projectId;
+    private Long tagId;
+
+    @BeforeEach
+    public void setup() {
+        counter = SqlStatementCounter.install(sqlSessionFactory);
+
+        userId = createUser("countTestUser");
+        otherUserId = createUser("countOtherUser");
+
+        Project project = new Project();
+        project.setName("查询次数测试项目");
+        project.setStatus(0);
+        project.setPriority(2);
+        project.setCreateUser(userId);
+        project.setUpdateUser(userId);
+        projectMapper.insert(project);
+        projectId = project.getId();
+
+        Tag tag = new Tag();
+        tag.setName("countTestTag");
+        tag.setColor("#E0E7F1");
+        tagMapper.insert(tag);
+        tagId = tag.getId();
+    }
+
+    private Long createUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword(PasswordUtil.encode("password123"));
+        user.setStatus(1);
+        user.setRole(0);
+        userMapper.insert(user);
+        return user.getId();
+    }
+
+    /**
+     * 创建若干带标签和两个成员的任务
+     */
+    private void createTasks(int count) {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < count; i++) {
+            Task task = new Task();
+            task.setName("查询次数测试任务_" + i);
+            task.setProjectId(projectId);
+            task.setStatus(0);
+            task.setPriority(2);
+            task.setCommentCount(0);
+            task.setCreateUser(userId);
+            task.setUpdateUser(userId);
+            taskMapper.insert(task);
+
+            TaskTag taskTag = new TaskTag();
+            taskTag.setTaskId(task.getId());
+            taskTag.setTagId(tagId);
+            taskTag.setCreateTime(now);
+            taskTagRelMapper.insert(taskTag);
+
+            for (Long memberId : new Long[]{userId, otherUserId}) {
+                TaskMember member = new TaskMember();
+                member.setTaskId(task.getId());
+                member.setUserId(memberId);
+                member.setCreateTime(now);
+                taskMemberMapper.insert(member);
+            }
+        }
+    }
+
+    private int countStatementsForTaskList(int pageSize) {
+        counter.start();
+        Map<String, Object> result = taskService.getTaskList(null, null, null, projectId, null,
+                null, null, null, null, 1, pageSize);
+        int statements = counter.stop();
+
+        @SuppressWarnings("unchecked")
+        List<TaskDTO> items = (List<TaskDTO>) result.get("items");
+        assertThat(items).isNotEmpty();
+        for (TaskDTO item : items) {
+            assertThat(item.getTagIds()).containsExactly(tagId);
+            assertThat(item.getMembers()).containsExactlyInAnyOrder("countTestUser", "countOtherUser");
+        }
+        return statements;
+    }
+
+    @Test
+    @DisplayName("任务列表-语句数与每页行数无关")
+    public void testTaskListStatementCountIsConstant() {
+        createTasks(2);
+        int smallPage = countStatementsForTaskList(2);
+
+        createTasks(18);
+        int largePage = countStatementsForTaskList(20);
+
+        assertThat(largePage).isEqualTo(smallPage);
+        // 分页查询 + 标签 + 成员关系 + 用户
+        assertThat(largePage).isLessThanOrEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("按成员查询任务-语句数与每页行数无关")
+    public void testTasksByMemberStatementCountIsConstant() {
+        createTasks(2);
+        counter.start();
+        taskService.getTasksByMember("countOtherUser", 1, 2);
+        int smallPage = counter.stop();
+
+        createTasks(18);
+        counter.start();
+        Map<String, Object> result = taskService.getTasksByMember("countOtherUser", 1, 20);
+        int largePage = counter.stop();
+
+        assertThat((List<?>) result.get("items")).isNotEmpty();
+        assertThat(largePage).isEqualTo(smallPage);
+    }
+
+    @Test
+    @DisplayName("用户任务统计列表-语句数与每页行数无关")
+    public void testUserTasksByStatusStatementCountIsConstant() {
+        createTasks(2);
+        counter.start();
+        taskStatsService.getUserTasksByStatus(otherUserId, null, 1, 2);
+        int smallPage = counter.stop();
+
+        // 插入新数据同时清空会话一级缓存，保证两次统计口径一致
+        createTasks(18);
+        counter.start();
+        Map<String, Object> result = taskStatsService.getUserTasksByStatus(otherUserId, null, 1, 20);
+        int largePage = counter.stop();
+
+        @SuppressWarnings("unchecked")
+        List<TaskDTO> items = (List<TaskDTO>) result.get("items");
+        assertThat(items).hasSize(20);
+        assertThat(items.get(0).getMembers()).hasSize(2);
+        assertThat(largePage).isEqualTo(smallPage);
+    }
+
+    @Test
+    @DisplayName("项目任务统计-读取计数表，每个维度一条查询，不扫描任务表")
+    public void testProjectTaskStatsReadsCounters() {
+        createTasks(3);
+        // 测试数据直接写库，手动按任务表重新写入计数
+        taskCounterService.reseed();
+
+        counter.start();
+        Map<String, Object> stats = taskStatsService.getTaskStats(projectId);
+        Map<String, Object> legacyStats = taskService.getTaskStats(projectId);
+        // 状态和优先级各一条查询，同一事务中重复的状态查询由MyBatis一级缓存返回
+        assertThat(counter.stop()).isEqualTo(2);
+
+        assertThat(stats).containsEntry("total", 3L).containsEntry("pending", 3L).containsEntry("completed", 0L);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> priority = (Map<String, Object>) stats.get("priority");
+        assertThat(priority).containsEntry("medium", 3L).containsEntry("low", 0L);
+        assertThat(legacyStats).containsEntry("total", 3L).containsEntry("pending", 3L);
+
+        // 计数在写操作的事务中调整，同一事务内即可读到
+        Task completed = new Task();
+        completed.setProjectId(projectId);
+        completed.setStatus(2);
+        completed.setPriority(2);
+        taskCounterService.onTaskCreated(completed);
+        assertThat(taskStatsService.getTaskStats(projectId)).containsEntry("total", 4L).containsEntry("completed", 1L);
+    }
+
+    @Test
+    @DisplayName("每日状态统计-历史日期读取快照，只有今天实时统计")
+    public void testStatusStatsByDayReadsSnapshots() {
+        LocalDate today = LocalDate.now();
+        LocalDate yesterday = today.minusDays(1);
+        taskStatusSnapshotMapper.delete(new LambdaQueryWrapper<TaskStatusSnapshot>()
+                .between(TaskStatusSnapshot::getSnapshotDate, today.minusDays(6), yesterday));
+
+        TaskStatusSnapshot snapshot = new TaskStatusSnapshot();
+        snapshot.setSnapshotDate(yesterday);
+        snapshot.setTotal(42);
+        snapshot.setPending(40);
+        snapshot.setInProgress(1);
+        snapshot.setCompleted(1);
+        snapshot.setCancelled(0);
+        snapshot.setTodayExpired(3);
+        snapshot.setCreateTime(LocalDateTime.now());
+        taskStatusSnapshotMapper.insert(snapshot);
+        // 其余缺失的历史日期由补齐任务生成
+        assertThat(taskSnapshotService.catchUpSnapshots()).isGreaterThanOrEqualTo(5);
+
+        createTasks(2);
+        counter.start();
+        List<TaskStatusStatsDTO> stats = taskStatsService.getTaskStatusStatsByDay(0);
+        int statements = counter.stop();
+
+        // 一次快照范围读取加一次今天的实时统计
+        assertThat(statements).isEqualTo(2);
+        assertThat(stats).hasSize(7);
+        assertThat(stats.get(5).getTotal()).isEqualTo(42);
+        assertThat(stats.get(5).getTodayExpired()).isEqualTo(3);
+        assertThat(stats.get(6).getDay()).isEqualTo(today.getDayOfWeek().toString());
+        assertThat(stats.get(6).getTotal()).isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("个人仪表盘-一次读取任务集合，命中缓存时不访问数据库，成员变更后失效")
+    public void testUserDashboardSinglePass() {
+        createTasks(3);
+        Long thirdUserId = createUser("countThirdUser");
+
+        counter.start();
+        Map<String, Object> dashboard = taskStatsService.getUserDashboard(otherUserId, null, 2);
+        int firstLoad = counter.stop();
+
+        // 任务集合一次，标签和成员批量补充各一次，用户名一次
+        assertThat(firstLoad).isEqualTo(4);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> stats = (Map<String, Object>) dashboard.get("stats");
+        assertThat(stats).containsEntry("total", 3).containsEntry("pending", 3L);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> tasks = (Map<String, Object>) dashboard.get("tasks");
+        assertThat(tasks).containsEntry("total", 3).containsEntry("totalPages", 2);
+        @SuppressWarnings("unchecked")
+        List<TaskDTO> items = (List<TaskDTO>) tasks.get("items");
+        assertThat(items).hasSize(2);
+        assertThat(items.get(0).getMembers()).containsExactlyInAnyOrder("countTestUser", "countOtherUser");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> priority = (Map<String, Object>) dashboard.get("priorityDistribution");
+        assertThat(priority).containsEntry("medium", 3L);
+
+        counter.start();
+        taskStatsService.getUserDashboard(otherUserId, null, 2);
+        assertThat(counter.stop()).isZero();
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> emptyStats = (Map<String, Object>) taskStatsService.getUserDashboard(thirdUserId, null, 2).get("stats");
+        assertThat(emptyStats).containsEntry("total", 0);
+
+        Long taskId = taskMapper.selectList(new LambdaQueryWrapper<Task>().eq(Task::getProjectId, projectId)).get(0).getId();
+        BaseContext.setCurrentId(userId);
+        try {
+            taskService.addTaskMember(taskId, "countThirdUser");
+        } finally {
+            BaseContext.removeCurrentId();
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> updatedStats = (Map<String, Object>) taskStatsService.getUserDashboard(thirdUserId, null, 2).get("stats");
+        assertThat(updatedStats).containsEntry("total", 1);
+    }
+}
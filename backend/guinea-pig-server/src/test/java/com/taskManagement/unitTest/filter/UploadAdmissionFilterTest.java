@@ -0,0 +1,110 @@
+package com.taskManagement.unitTest.filter;
+
+import com.taskManagement.TestApplication;
+import com.taskManagement.config.TestConfig;
+import com.taskManagement.service.UploadAdmissionService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * UploadAdmissionFilter测试
+ * 通过MockMvc走完整的过滤器链和DispatcherServlet，用模拟的MultipartResolver确认
+ * 准入检查发生在multipart解析之前，被拒绝的请求不会进入multipart解析，分片上传的原始请求体同样纳入准入
+ */
+@SpringBootTest(classes = TestApplication.class)
+@Import(TestConfig.class)
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+public class UploadAdmissionFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private UploadAdmissionService uploadAdmissionService;
+
+    @MockBean(name = DispatcherServlet.MULTIPART_RESOLVER_BEAN_NAME)
+    private MultipartResolver multipartResolver;
+
+    private MvcResult uploadRequest(int length) throws Exception {
+        return mockMvc.perform(post("/files/upload")
+                        .contentType("multipart/form-data; boundary=test")
+                        .content(new byte[length]))
+                .andReturn();
+    }
+
+    @Test
+    @DisplayName("multipart请求先占用预算再解析请求体，处理完成后归还")
+    public void testAdmitBeforeMultipartParsing() throws Exception {
+        when(uploadAdmissionService.tryAdmit(2048)).thenReturn(2048L);
+
+        uploadRequest(2048);
+
+        InOrder order = inOrder(uploadAdmissionService, multipartResolver);
+        order.verify(uploadAdmissionService).tryAdmit(2048);
+        order.verify(multipartResolver).isMultipart(any());
+        order.verify(uploadAdmissionService).release(2048L);
+    }
+
+    @Test
+    @DisplayName("预算不足时返回503和Retry-After，不解析请求体")
+    public void testRejectWithoutParsing() throws Exception {
+        when(uploadAdmissionService.tryAdmit(anyLong())).thenReturn(0L);
+        when(uploadAdmissionService.getRetryAfterSeconds()).thenReturn(7);
+
+        MvcResult result = uploadRequest(2048);
+
+        assertEquals(503, result.getResponse().getStatus());
+        assertEquals("7", result.getResponse().getHeader(HttpHeaders.RETRY_AFTER));
+        assertTrue(result.getResponse().getContentAsString().contains("\"code\":0"));
+        verifyNoInteractions(multipartResolver);
+        verify(uploadAdmissionService, never()).release(anyLong());
+    }
+
+    @Test
+    @DisplayName("分片上传的原始请求体同样占用预算")
+    public void testAdmitChunkUpload() throws Exception {
+        when(uploadAdmissionService.tryAdmit(4096)).thenReturn(4096L);
+
+        mockMvc.perform(put("/files/chunked/missing/chunks/0")
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(new byte[4096]))
+                .andReturn();
+
+        verify(uploadAdmissionService).tryAdmit(4096);
+        verify(uploadAdmissionService).release(4096L);
+    }
+
+    @Test
+    @DisplayName("非multipart请求不占用预算")
+    public void testIgnoreNonMultipart() throws Exception {
+        mockMvc.perform(post("/files/not-found").contentType(MediaType.APPLICATION_JSON).content("{}")).andReturn();
+
+        verify(uploadAdmissionService, never()).tryAdmit(anyLong());
+    }
+}
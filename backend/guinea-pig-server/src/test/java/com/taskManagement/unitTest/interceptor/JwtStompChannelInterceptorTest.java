@@ -0,0 +1,91 @@
+package com.taskManagement.unitTest.interceptor;
+
+import com.taskManagement.constant.JwtClaimsConstant;
+import com.taskManagement.interceptor.JwtStompChannelInterceptor;
+import com.taskManagement.properties.JwtProperties;
+import com.taskManagement.utils.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+
+import java.security.Principal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * JwtStompChannelInterceptor单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+public class JwtStompChannelInterceptorTest {
+
+    @Spy
+    private JwtProperties jwtProperties = new JwtProperties();
+
+    @InjectMocks
+    private JwtStompChannelInterceptor interceptor;
+
+    @BeforeEach
+    public void setup() {
+        jwtProperties.setUserSecretKey("test-secret-key");
+        jwtProperties.setUserTokenName("token");
+    }
+
+    private Message<byte[]> frame(StompCommand command, String token, String destination, Principal user) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        if (token != null) {
+            accessor.setNativeHeader("token", token);
+        }
+        if (destination != null) {
+            accessor.setDestination(destination);
+        }
+        accessor.setUser(user);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    @Test
+    @DisplayName("CONNECT携带有效令牌时以用户ID作为会话用户")
+    public void testConnectWithValidToken() {
+        String token = JwtUtil.createJWT("test-secret-key", 60000, Map.of(JwtClaimsConstant.USER_ID, 42L, "role", 0));
+
+        Message<?> result = interceptor.preSend(frame(StompCommand.CONNECT, token, null, null), null);
+
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(result, StompHeaderAccessor.class);
+        assertNotNull(accessor.getUser());
+        assertEquals("42", accessor.getUser().getName());
+    }
+
+    @Test
+    @DisplayName("CONNECT缺少令牌或令牌无效时拒绝连接")
+    public void testConnectRejected() {
+        assertThrows(MessagingException.class,
+                () -> interceptor.preSend(frame(StompCommand.CONNECT, null, null, null), null));
+        assertThrows(MessagingException.class,
+                () -> interceptor.preSend(frame(StompCommand.CONNECT, "invalid-token", null, null), null));
+    }
+
+    @Test
+    @DisplayName("只允许已认证用户订阅自己的用户队列")
+    public void testSubscribe() {
+        Principal user = () -> "42";
+        interceptor.preSend(frame(StompCommand.SUBSCRIBE, null, "/user/queue/notifications", user), null);
+
+        assertThrows(MessagingException.class,
+                () -> interceptor.preSend(frame(StompCommand.SUBSCRIBE, null, "/queue/notifications-user42", user), null));
+        assertThrows(MessagingException.class,
+                () -> interceptor.preSend(frame(StompCommand.SUBSCRIBE, null, "/user/queue/notifications", null), null));
+    }
+}
@@ -0,0 +1,230 @@
+package com.taskManagement.unitTest.service;
+
+import com.taskManagement.dto.FileContentDTO;
+import com.taskManagement.exception.RangeNotSatisfiableException;
+import com.taskManagement.service.impl.AttachmentCacheServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpRange;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * AttachmentCacheServiceImpl单元测试
+ * 在临时目录中验证命中与未命中、并发未命中只加载一次、范围读取、范围请求未命中时后台填充、按大小淘汰、超大文件不缓存和统计
+ */
+public class AttachmentCacheServiceImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    private AttachmentCacheServiceImpl cacheService;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        cacheService = new AttachmentCacheServiceImpl();
+        ReflectionTestUtils.setField(cacheService, "cacheDir", tempDir.toString());
+        ReflectionTestUtils.setField(cacheService, "maxSize", 250_000L);
+        ReflectionTestUtils.setField(cacheService, "maxEntrySize", 200_000L);
+        cacheService.init();
+    }
+
+    private byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+
+    private Callable<FileContentDTO> loader(byte[] content, AtomicInteger calls) {
+        return () -> {
+            calls.incrementAndGet();
+            FileContentDTO dto = new FileContentDTO();
+            dto.setContent(new ByteArrayInputStream(content));
+            dto.setContentType("application/pdf");
+            return dto;
+        };
+    }
+
+    private byte[] readAll(FileContentDTO content) throws Exception {
+        try (InputStream in = content.getContent()) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Test
+    @DisplayName("第一次未命中时加载，之后命中缓存，缓存文件不是明文")
+    public void testHitAndMiss() throws Exception {
+        byte[] content = randomBytes(100_000);
+        AtomicInteger calls = new AtomicInteger();
+
+        FileContentDTO first = cacheService.getContent("task/a.pdf", null, loader(content, calls));
+        assertArrayEquals(content, readAll(first));
+        assertEquals(100_000L, first.getTotalLength());
+        assertEquals("application/pdf", first.getContentType());
+        assertFalse(first.isPartial());
+
+        FileContentDTO second = cacheService.getContent("task/a.pdf", null, loader(content, calls));
+        assertArrayEquals(content, readAll(second));
+        assertEquals(1, calls.get());
+
+        List<Path> files;
+        try (Stream<Path> list = Files.list(tempDir)) {
+            files = list.collect(Collectors.toList());
+        }
+        assertEquals(1, files.size());
+        byte[] stored = Files.readAllBytes(files.get(0));
+        assertEquals(content.length, stored.length);
+        assertFalse(Arrays.equals(content, stored));
+
+        Map<String, Object> stats = cacheService.getStats();
+        assertEquals(1L, stats.get("hits"));
+        assertEquals(1L, stats.get("misses"));
+        assertEquals(0.5, stats.get("hitRatio"));
+        assertEquals(200_000L, stats.get("bytesServed"));
+        assertEquals(100_000L, stats.get("sizeBytes"));
+    }
+
+    @Test
+    @DisplayName("按范围读取缓存内容，起始位置不在块边界时也能正确解密")
+    public void testRange() throws Exception {
+        byte[] content = randomBytes(150_000);
+        AtomicInteger calls = new AtomicInteger();
+        cacheService.getContent("task/video.mp4", null, loader(content, calls)).getContent().close();
+
+        long start = 70_001;
+        long end = 90_010;
+        FileContentDTO result = cacheService.getContent("task/video.mp4", HttpRange.createByteRange(start, end),
+                loader(content, calls));
+        assertTrue(result.isPartial());
+        assertEquals(start, result.getRangeStart());
+        assertEquals(end, result.getRangeEnd());
+        assertEquals(150_000L, result.getTotalLength());
+        assertArrayEquals(Arrays.copyOfRange(content, (int) start, (int) end + 1), readAll(result));
+
+        result = cacheService.getContent("task/video.mp4", HttpRange.createSuffixRange(7), loader(content, calls));
+        assertArrayEquals(Arrays.copyOfRange(content, content.length - 7, content.length), readAll(result));
+
+        assertThrows(RangeNotSatisfiableException.class, () -> cacheService.getContent("task/video.mp4",
+                HttpRange.createByteRange(200_000, 200_100), loader(content, calls)));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    @DisplayName("范围请求未命中时不等待加载，由调用方直接读取，缓存在后台填充")
+    public void testRangeMissFillsInBackground() throws Exception {
+        byte[] content = randomBytes(120_000);
+        AtomicInteger calls = new AtomicInteger();
+        HttpRange range = HttpRange.createByteRange(1_000, 1_999);
+
+        assertNull(cacheService.getContent("task/movie.mp4", range, loader(content, calls)));
+        long deadline = System.currentTimeMillis() + 5_000;
+        while ((int) cacheService.getStats().get("entries") == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1L, cacheService.getStats().get("backgroundFills"));
+
+        FileContentDTO result = cacheService.getContent("task/movie.mp4", range, loader(content, calls));
+        assertArrayEquals(Arrays.copyOfRange(content, 1_000, 2_000), readAll(result));
+        assertEquals(1, calls.get());
+        assertEquals(1L, cacheService.getStats().get("hits"));
+    }
+
+    @Test
+    @DisplayName("同一附件并发未命中时只加载一次")
+    public void testConcurrentMissesCoalesced() throws Exception {
+        byte[] content = randomBytes(50_000);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch waiting = new CountDownLatch(1);
+        Callable<FileContentDTO> slowLoader = () -> {
+            waiting.await(5, TimeUnit.SECONDS);
+            return loader(content, calls).call();
+        };
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<byte[]>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> readAll(cacheService.getContent("task/b.bin", null, slowLoader))));
+            }
+            // 等所有请求进入未命中后再放行加载
+            Thread.sleep(200);
+            waiting.countDown();
+            for (Future<byte[]> future : futures) {
+                assertArrayEquals(content, future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, calls.get());
+        assertEquals((long) threads, (long) cacheService.getStats().get("misses")
+                + (long) cacheService.getStats().get("hits"));
+    }
+
+    @Test
+    @DisplayName("超过总大小时淘汰最久未访问的附件")
+    public void testEvictsLeastRecentlyUsed() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        byte[] a = randomBytes(100_000);
+        byte[] b = randomBytes(100_001);
+        byte[] c = randomBytes(100_002);
+        readAll(cacheService.getContent("a", null, loader(a, calls)));
+        readAll(cacheService.getContent("b", null, loader(b, calls)));
+        // 访问a，b成为最久未访问的附件
+        readAll(cacheService.getContent("a", null, loader(a, calls)));
+        readAll(cacheService.getContent("c", null, loader(c, calls)));
+        assertEquals(3, calls.get());
+        assertEquals(1L, cacheService.getStats().get("evictions"));
+        assertEquals(200_002L, cacheService.getStats().get("sizeBytes"));
+
+        assertArrayEquals(a, readAll(cacheService.getContent("a", null, loader(a, calls))));
+        assertEquals(3, calls.get());
+        assertArrayEquals(b, readAll(cacheService.getContent("b", null, loader(b, calls))));
+        assertEquals(4, calls.get());
+    }
+
+    @Test
+    @DisplayName("超过单个上限的附件不缓存，之后不再尝试加载；移除后重新加载")
+    public void testOversizedAndEvict() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        byte[] big = randomBytes(200_001);
+        assertNull(cacheService.getContent("big", null, loader(big, calls)));
+        assertNull(cacheService.getContent("big", null, loader(big, calls)));
+        assertEquals(1, calls.get());
+        assertEquals(0L, cacheService.getStats().get("sizeBytes"));
+
+        byte[] small = randomBytes(1_000);
+        readAll(cacheService.getContent("small", null, loader(small, calls)));
+        cacheService.evict("small");
+        assertEquals(0, cacheService.getStats().get("entries"));
+        readAll(cacheService.getContent("small", null, loader(small, calls)));
+        assertEquals(3, calls.get());
+    }
+}
@@ -0,0 +1,135 @@
+package com.taskManagement.unitTest.service;
+
+import com.taskManagement.mapper.TaskMapper;
+import com.taskManagement.service.TaskCacheService;
+import com.taskManagement.service.impl.CommentCountServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * CommentCountService单元测试
+ * 校准前后与写回缓冲的交错：校准已计入的增量被丢弃，不会在下次写回时重复计入；
+ * 评论事务未结束或在计算期间开始时推迟到写回时重新计算
+ */
+@ExtendWith(MockitoExtension.class)
+public class CommentCountServiceImplTest {
+
+    private static final Long TASK_ID = 1L;
+
+    @Mock
+    private TaskMapper taskMapper;
+
+    @Mock
+    private TaskCacheService taskCacheService;
+
+    @InjectMocks
+    private CommentCountServiceImpl commentCountService;
+
+    @Test
+    @DisplayName("写回之后、校准之前提交的评论只由校准计入一次")
+    public void testReconcileDiscardsRecountedDeltas() {
+        // 校准先写回缓冲，随后有评论提交，增量进入缓冲；重新计算时该评论已在评论表中
+        when(taskMapper.selectCommentCountMismatches()).thenAnswer(invocation -> {
+            commentCountService.adjust(TASK_ID, 1);
+            return List.of(TASK_ID);
+        });
+
+        assertEquals(1, commentCountService.reconcile());
+        verify(taskMapper).recountComments(List.of(TASK_ID));
+
+        assertEquals(0, commentCountService.flush());
+        verify(taskMapper, never()).adjustCommentCount(anyLong(), anyInt());
+        assertEquals(0, commentCountService.getStats().get("pendingTasks"));
+        assertEquals(1L, commentCountService.getStats().get("discardedDeltas"));
+    }
+
+    @Test
+    @DisplayName("未被校准的任务保留缓冲中的增量")
+    public void testReconcileKeepsOtherDeltas() {
+        when(taskMapper.selectCommentCountMismatches()).thenAnswer(invocation -> {
+            commentCountService.adjust(2L, 3);
+            return List.of(TASK_ID);
+        });
+
+        commentCountService.reconcile();
+
+        assertEquals(1, commentCountService.flush());
+        verify(taskMapper).adjustCommentCount(2L, 3);
+    }
+
+    /**
+     * 在模拟的事务中调整评论数，返回事务的同步回调，由测试决定提交时机
+     */
+    private List<TransactionSynchronization> adjustInTransaction(Long taskId, int delta) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            commentCountService.adjust(taskId, delta);
+            return new ArrayList<>(TransactionSynchronizationManager.getSynchronizations());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private void commit(List<TransactionSynchronization> synchronizations) {
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+
+    @Test
+    @DisplayName("评论已提交但增量尚未合并时跳过校准，合并后在写回时重新计算")
+    public void testReconcileSkipsTaskWithCommentInFlight() {
+        List<TransactionSynchronization> comment = adjustInTransaction(TASK_ID, 1);
+        when(taskMapper.selectCommentCountMismatches()).thenReturn(List.of(TASK_ID));
+
+        assertEquals(0, commentCountService.reconcile());
+        verify(taskMapper, never()).recountComments(anyList());
+        assertEquals(1, commentCountService.getStats().get("recheckTasks"));
+
+        commit(comment);
+        assertEquals(1, commentCountService.flush());
+        verify(taskMapper).adjustCommentCount(TASK_ID, 1);
+        verify(taskMapper).recountComments(List.of(TASK_ID));
+        assertEquals(0, commentCountService.getStats().get("recheckTasks"));
+    }
+
+    @Test
+    @DisplayName("重新计算期间开始的评论事务可能已被计入，事务结束后再次重新计算")
+    public void testCommentDuringRecountRechecked() {
+        when(taskMapper.selectCommentCountMismatches()).thenReturn(List.of(TASK_ID));
+        List<TransactionSynchronization> comment = new ArrayList<>();
+        doAnswer(invocation -> {
+            if (comment.isEmpty()) {
+                comment.addAll(adjustInTransaction(TASK_ID, 1));
+            }
+            return 1;
+        }).when(taskMapper).recountComments(anyList());
+
+        assertEquals(0, commentCountService.reconcile());
+        assertEquals(1, commentCountService.getStats().get("recheckTasks"));
+
+        // 评论在计算之前提交，写回的增量与计算结果重复，随后的重新计算按评论表覆盖
+        commit(comment);
+        commentCountService.flush();
+        verify(taskMapper, times(2)).recountComments(List.of(TASK_ID));
+        assertEquals(0, commentCountService.getStats().get("recheckTasks"));
+        assertEquals(0, commentCountService.getStats().get("pendingTasks"));
+    }
+}
@@ -0,0 +1,665 @@
+package com.taskManagement.unitTest.service;
+
+import com.aliyun.oss.OSS;
+import com.aliyun.oss.model.GetObjectRequest;
+import com.aliyun.oss.model.OSSObject;
+import com.aliyun.oss.model.ObjectMetadata;
+import com.taskManagement.config.AliyunOSSConfig;
+import com.taskManagement.constant.FileConstant;
+import com.taskManagement.dto.FileRenditionDTO;
+import com.taskManagement.dto.FileContentDTO;
+import com.taskManagement.entity.FileObject;
+import com.taskManagement.entity.TaskAttachment;
+import com.taskManagement.exception.RangeNotSatisfiableException;
+import com.taskManagement.mapper.FileObjectMapper;
+import com.taskManagement.mapper.ProjectAttachmentMapper;
+import com.taskManagement.mapper.TaskAttachmentMapper;
+import com.taskManagement.mapper.UserMapper;
+import com.taskManagement.service.AttachmentCacheService;
+import com.taskManagement.service.RenditionService;
+import com.taskManagement.service.impl.FileServiceImpl;
+import com.taskManagement.service.impl.OssStorageServiceImpl;
+import com.taskManagement.utils.FileEncryptionUtil;
+import com.taskManagement.utils.SegmentedEncryption;
+import com.taskManagement.vo.FileUploadResultVO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.http.HttpRange;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * FileServiceImpl单元测试
+ * 通过OSS存储实现模拟OSS客户端，验证上传边读边加密、声明的长度与实际写出的密文一致，
+ * 以及按范围读取只下载覆盖的段、旧格式文件仍可读取，批量上传并发执行并一次写入附件记录，
+ * 批量上传中途被中断时删除已存储的对象，内容相同的文件引用已有对象，引用只在写入附件记录的事务中增加，没有附件记录的上传不占用引用，分片上传合并的对象同样去重，最后一个引用释放后删除对象，图片上传后提交渲染图生成，渲染图URL一次查询，
+ * 有记录的加密元数据时按范围读取只访问一次存储，记录不一致时回退到读取文件头
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class FileServiceImplTest {
+
+    private static final String ENCRYPTION_KEY = "test-encryption-key";
+
+    @Mock
+    private OSS ossClient;
+
+    @Mock
+    private AliyunOSSConfig ossConfig;
+
+    @Mock
+    private ProjectAttachmentMapper projectAttachmentMapper;
+
+    @Mock
+    private TaskAttachmentMapper taskAttachmentMapper;
+
+    @Mock
+    private UserMapper userMapper;
+
+    @Mock
+    private FileObjectMapper fileObjectMapper;
+
+    @Mock
+    private RenditionService renditionService;
+
+    /**
+     * 缓存默认未启用，直接读取对象存储
+     */
+    @Mock
+    private AttachmentCacheService attachmentCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate();
+
+    @InjectMocks
+    private FileServiceImpl fileService;
+
+    @BeforeEach
+    public void setup() {
+        transactionTemplate.setTransactionManager(transactionManager);
+        when(ossConfig.getBucketName()).thenReturn("test-bucket");
+        when(ossConfig.getUrlPrefix()).thenReturn("https://test-bucket.oss");
+        when(ossConfig.getEncryptionKey()).thenReturn(ENCRYPTION_KEY);
+        ReflectionTestUtils.setField(fileService, "storageService", new OssStorageServiceImpl(ossClient, ossConfig));
+        fileService.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        fileService.destroy();
+    }
+
+    private byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+
+    @Test
+    @DisplayName("上传时声明的密文长度与写出的字节数一致，密文可以解密还原")
+    public void testStreamingEncryptedUpload() throws Exception {
+        for (int size : new int[]{0, 15, 16, 100_000}) {
+            byte[] content = randomBytes(size);
+            AtomicReference<byte[]> uploaded = new AtomicReference<>();
+            AtomicReference<ObjectMetadata> uploadedMetadata = new AtomicReference<>();
+            when(ossClient.putObject(eq("test-bucket"), anyString(), any(InputStream.class), any(ObjectMetadata.class)))
+                    .thenAnswer(invocation -> {
+                        // 上传结束前读完流，模拟OSS客户端的行为
+                        uploaded.set(invocation.getArgument(2, InputStream.class).readAllBytes());
+                        uploadedMetadata.set(invocation.getArgument(3));
+                        return null;
+                    });
+
+            MockMultipartFile file = new MockMultipartFile("file", "design.bin", "application/octet-stream", content);
+            String url = fileService.uploadTaskFile(file, null, null);
+
+            assertTrue(url.startsWith("https://test-bucket.oss/task/encrypted_"));
+            assertEquals(uploaded.get().length, uploadedMetadata.get().getContentLength());
+            assertEquals(SegmentedEncryption.getEncryptedLength(size), uploaded.get().length);
+            assertTrue(SegmentedEncryption.isSegmented(uploaded.get()));
+            stubStoredObject(uploaded.get(), new ArrayList<>());
+            try (InputStream decrypted = fileService.getDecryptedContent("task/design.bin", null).getContent()) {
+                assertArrayEquals(content, decrypted.readAllBytes());
+            }
+        }
+    }
+
+    /**
+     * 模拟OSS中已存储的密文，按请求的范围返回对应字节，并记录每次请求的范围
+     */
+    private void stubStoredObject(byte[] stored, List<long[]> requestedRanges) {
+        ObjectMetadata metadata = new ObjectMetadata();
+        metadata.setContentType("application/octet-stream");
+        when(ossClient.getObject(eq("test-bucket"), anyString())).thenAnswer(invocation -> {
+            OSSObject ossObject = new OSSObject();
+            ossObject.setObjectContent(new ByteArrayInputStream(stored));
+            ossObject.setObjectMetadata(metadata);
+            return ossObject;
+        });
+        when(ossClient.getObject(any(GetObjectRequest.class))).thenAnswer(invocation -> {
+            long[] range = invocation.getArgument(0, GetObjectRequest.class).getRange();
+            requestedRanges.add(range);
+            OSSObject ossObject = new OSSObject();
+            ossObject.setObjectContent(new ByteArrayInputStream(
+                    Arrays.copyOfRange(stored, (int) range[0], (int) Math.min(range[1] + 1, stored.length))));
+            ossObject.setObjectMetadata(metadata);
+            return ossObject;
+        });
+    }
+
+    private byte[] encryptSegmented(byte[] content) throws Exception {
+        try (InputStream encrypted = SegmentedEncryption.encryptStream(new ByteArrayInputStream(content), content.length, ENCRYPTION_KEY)) {
+            return encrypted.readAllBytes();
+        }
+    }
+
+    @Test
+    @DisplayName("按范围读取只下载覆盖的段并返回请求的字节")
+    public void testRangeReadDownloadsOnlyCoveredSegments() throws Exception {
+        int segmentSize = SegmentedEncryption.DEFAULT_SEGMENT_SIZE;
+        byte[] content = randomBytes(segmentSize * 4 + 123);
+        byte[] stored = encryptSegmented(content);
+        List<long[]> requestedRanges = new ArrayList<>();
+        stubStoredObject(stored, requestedRanges);
+
+        // 跨越第2、3段的范围
+        long start = segmentSize + 100;
+        long end = segmentSize * 2 + 50;
+        FileContentDTO result = fileService.getDecryptedContent("task/video.mp4", HttpRange.createByteRange(start, end));
+        try (InputStream decrypted = result.getContent()) {
+            assertArrayEquals(Arrays.copyOfRange(content, (int) start, (int) end + 1), decrypted.readAllBytes());
+        }
+        assertTrue(result.isPartial());
+        assertEquals(start, result.getRangeStart());
+        assertEquals(end, result.getRangeEnd());
+        assertEquals(content.length, result.getTotalLength());
+
+        // 一次读取文件头，一次读取两个段
+        assertEquals(2, requestedRanges.size());
+        long downloaded = requestedRanges.get(1)[1] - requestedRanges.get(1)[0] + 1;
+        assertEquals(2L * (segmentSize + 16), downloaded);
+
+        // 末尾范围只读取最后一个不完整的段
+        result = fileService.getDecryptedContent("task/video.mp4", HttpRange.createSuffixRange(10));
+        try (InputStream decrypted = result.getContent()) {
+            assertArrayEquals(Arrays.copyOfRange(content, content.length - 10, content.length), decrypted.readAllBytes());
+        }
+        assertEquals(stored.length - 1, requestedRanges.get(3)[1]);
+    }
+
+    @Test
+    @DisplayName("范围超出文件长度时抛出异常，携带文件长度")
+    public void testUnsatisfiableRange() throws Exception {
+        byte[] content = randomBytes(1000);
+        stubStoredObject(encryptSegmented(content), new ArrayList<>());
+
+        RangeNotSatisfiableException e = assertThrows(RangeNotSatisfiableException.class,
+                () -> fileService.getDecryptedContent("task/a.bin", HttpRange.createByteRange(1000, 2000)));
+        assertEquals(1000, e.getTotalLength());
+    }
+
+    @Test
+    @DisplayName("密文被篡改时解密失败")
+    public void testTamperedSegmentRejected() throws Exception {
+        byte[] content = randomBytes(SegmentedEncryption.DEFAULT_SEGMENT_SIZE + 10);
+        byte[] stored = encryptSegmented(content);
+        stored[SegmentedEncryption.HEADER_SIZE + 5] ^= 1;
+        stubStoredObject(stored, new ArrayList<>());
+
+        InputStream decrypted = fileService.getDecryptedContent("task/a.bin", null).getContent();
+        assertThrows(IOException.class, decrypted::readAllBytes);
+    }
+
+    @Test
+    @DisplayName("旧格式文件仍可读取，范围请求返回完整内容")
+    public void testLegacyEcbObjectReadable() throws Exception {
+        byte[] content = randomBytes(5000);
+        byte[] stored;
+        try (InputStream encrypted = FileEncryptionUtil.encryptStream(new ByteArrayInputStream(content), ENCRYPTION_KEY)) {
+            stored = encrypted.readAllBytes();
+        }
+        stubStoredObject(stored, new ArrayList<>());
+
+        FileContentDTO result = fileService.getDecryptedContent("task/old.bin", HttpRange.createByteRange(10, 20));
+        try (InputStream decrypted = result.getContent()) {
+            assertArrayEquals(content, decrypted.readAllBytes());
+        }
+        assertFalse(result.isPartial());
+        assertNull(result.getTotalLength());
+    }
+
+    @Test
+    @DisplayName("批量上传并发执行，逐个返回结果，成功的文件一次写入附件表")
+    public void testBatchUploadRunsConcurrently() throws Exception {
+        int fileCount = 5;
+        // 4个正常文件必须同时处于上传中才能继续，串行上传会在这里超时
+        CountDownLatch allStarted = new CountDownLatch(fileCount - 1);
+        when(ossClient.putObject(eq("test-bucket"), anyString(), any(InputStream.class), any(ObjectMetadata.class)))
+                .thenAnswer(invocation -> {
+                    String objectName = invocation.getArgument(1);
+                    if (objectName.endsWith(".bad")) {
+                        throw new IllegalStateException("OSS unavailable");
+                    }
+                    allStarted.countDown();
+                    if (!allStarted.await(5, TimeUnit.SECONDS)) {
+                        throw new IllegalStateException("uploads did not overlap");
+                    }
+                    invocation.getArgument(2, InputStream.class).readAllBytes();
+                    return null;
+                });
+
+        List<MockMultipartFile> files = new ArrayList<>();
+        for (int i = 0; i < fileCount; i++) {
+            String name = i == 2 ? "broken.bad" : "file" + i + ".txt";
+            files.add(new MockMultipartFile("files", name, "text/plain", randomBytes(100 + i)));
+        }
+
+        List<FileUploadResultVO> results = fileService.batchUploadTaskFiles(new ArrayList<>(files), 42L, 7L);
+
+        assertEquals(fileCount, results.size());
+        for (int i = 0; i < fileCount; i++) {
+            assertEquals(files.get(i).getOriginalFilename(), results.get(i).getFileName());
+            assertEquals(i != 2, results.get(i).getSuccess());
+        }
+        assertNull(results.get(2).getFileUrl());
+        assertTrue(results.get(2).getErrorMessage().contains("OSS unavailable"));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<TaskAttachment>> captor = ArgumentCaptor.forClass(List.class);
+        verify(taskAttachmentMapper, times(1)).batchInsert(captor.capture());
+        List<TaskAttachment> inserted = captor.getValue();
+        assertEquals(fileCount - 1, inserted.size());
+        assertEquals("file0.txt", inserted.get(0).getFileName());
+        assertEquals(results.get(0).getFileUrl(), inserted.get(0).getFilePath());
+        assertEquals(42L, inserted.get(0).getTaskId());
+        assertEquals(7L, inserted.get(0).getCreateUser());
+    }
+
+    @Test
+    @DisplayName("请求线程被中断时取消剩余上传，全部文件记为失败而不是抛出异常")
+    public void testBatchUploadInterrupted() {
+        CountDownLatch release = new CountDownLatch(1);
+        when(ossClient.putObject(eq("test-bucket"), anyString(), any(InputStream.class), any(ObjectMetadata.class)))
+                .thenAnswer(invocation -> {
+                    release.await(5, TimeUnit.SECONDS);
+                    return null;
+                });
+
+        List<MultipartFile> files = List.of(
+                new MockMultipartFile("files", "a.txt", "text/plain", randomBytes(300)),
+                new MockMultipartFile("files", "b.txt", "text/plain", randomBytes(301)),
+                new MockMultipartFile("files", "c.txt", "text/plain", randomBytes(302)));
+        List<FileUploadResultVO> results;
+        Thread.currentThread().interrupt();
+        try {
+            results = fileService.batchUploadTaskFiles(files, 42L, 7L);
+        } finally {
+            Thread.interrupted();
+            release.countDown();
+        }
+
+        assertEquals(3, results.size());
+        for (FileUploadResultVO result : results) {
+            assertFalse(result.getSuccess());
+            assertEquals("上传被中断", result.getErrorMessage());
+        }
+        verify(taskAttachmentMapper, never()).batchInsert(any());
+    }
+
+    @Test
+    @DisplayName("部分文件已存储后请求线程被中断，已上传和之后完成的对象都被删除，不写入附件记录")
+    public void testBatchUploadInterruptedDeletesStoredObjects() throws Exception {
+        CountDownLatch fastStored = new CountDownLatch(1);
+        CountDownLatch slowStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> uploadedKeys = new CopyOnWriteArrayList<>();
+        when(ossClient.putObject(eq("test-bucket"), anyString(), any(InputStream.class), any(ObjectMetadata.class)))
+                .thenAnswer(invocation -> {
+                    // 对象键只保留扩展名，用扩展名区分两个文件
+                    String key = invocation.getArgument(1);
+                    if (key.endsWith(".dat")) {
+                        slowStarted.countDown();
+                        // 模拟不响应中断的存储客户端，取消后上传仍会完成
+                        while (true) {
+                            try {
+                                release.await();
+                                break;
+                            } catch (InterruptedException ignored) {
+                                // 继续等待
+                            }
+                        }
+                    }
+                    uploadedKeys.add(key);
+                    if (key.endsWith(".txt")) {
+                        fastStored.countDown();
+                    }
+                    return null;
+                });
+
+        List<MultipartFile> files = List.of(
+                new MockMultipartFile("files", "fast.txt", "text/plain", randomBytes(303)),
+                new MockMultipartFile("files", "slow.dat", "application/octet-stream", randomBytes(304)));
+        Thread requestThread = Thread.currentThread();
+        Thread interrupter = new Thread(() -> {
+            try {
+                fastStored.await(5, TimeUnit.SECONDS);
+                slowStarted.await(5, TimeUnit.SECONDS);
+                Thread.sleep(100);
+            } catch (InterruptedException ignored) {
+                return;
+            }
+            requestThread.interrupt();
+        });
+        interrupter.start();
+        List<FileUploadResultVO> results;
+        try {
+            results = fileService.batchUploadTaskFiles(files, 42L, 7L);
+        } finally {
+            Thread.interrupted();
+            interrupter.join();
+        }
+
+        assertEquals(2, results.size());
+        for (FileUploadResultVO result : results) {
+            assertFalse(result.getSuccess());
+            assertEquals("上传被中断", result.getErrorMessage());
+        }
+        verify(taskAttachmentMapper, never()).batchInsert(any());
+        verify(ossClient, timeout(5000)).deleteObject(eq("test-bucket"), argThat(key -> key.endsWith(".txt")));
+
+        // 被取消的上传完成后自行删除对象
+        release.countDown();
+        verify(ossClient, timeout(5000)).deleteObject(eq("test-bucket"), argThat(key -> key.endsWith(".dat")));
+        assertEquals(2, uploadedKeys.size());
+    }
+
+    @Test
+    @DisplayName("内容已存在时引用已有对象，不再加密上传")
+    public void testDuplicateContentReusesObject() throws Exception {
+        byte[] content = randomBytes(2_000);
+        String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        FileObject existing = new FileObject();
+        existing.setContentHash(hash);
+        existing.setObjectKey("project/encrypted_20240101_spec.pdf");
+        when(fileObjectMapper.incrementRef(hash)).thenReturn(1);
+        when(fileObjectMapper.selectOne(any())).thenReturn(existing);
+
+        MockMultipartFile file = new MockMultipartFile("file", "spec-copy.pdf", "application/pdf", content);
+        String url = fileService.uploadTaskFile(file, 42L, 7L);
+
+        assertEquals("https://test-bucket.oss/project/encrypted_20240101_spec.pdf", url);
+        verify(ossClient, never()).putObject(anyString(), anyString(), any(InputStream.class), any(ObjectMetadata.class));
+        verify(fileObjectMapper, never()).insert(any(FileObject.class));
+        ArgumentCaptor<TaskAttachment> captor = ArgumentCaptor.forClass(TaskAttachment.class);
+        verify(taskAttachmentMapper).insert(captor.capture());
+        assertEquals(url, captor.getValue().getFilePath());
+        assertEquals("spec-copy.pdf", captor.getValue().getFileName());
+        verify(fileObjectMapper, times(1)).incrementRef(hash);
+    }
+
+    @Test
+    @DisplayName("没有附件记录的上传不参与去重，不占用共享对象的引用")
+    public void testUnattachedUploadTakesNoReference() {
+        when(ossClient.putObject(eq("test-bucket"), anyString(), any(InputStream.class), any(ObjectMetadata.class)))
+                .thenAnswer(invocation -> {
+                    invocation.getArgument(2, InputStream.class).readAllBytes();
+                    return null;
+                });
+
+        String url = fileService.uploadProjectFile(
+                new MockMultipartFile("file", "draft.pdf", "application/pdf", randomBytes(800)), 0L, 7L);
+        List<FileUploadResultVO> results = fileService.batchUploadTaskFiles(List.of(
+                new MockMultipartFile("files", "a.txt", "text/plain", randomBytes(300))), 0L, 7L);
+
+        assertTrue(url.startsWith("https://test-bucket.oss/project/"));
+        assertTrue(results.get(0).getSuccess());
+        verify(fileObjectMapper, never()).selectOne(any());
+        verify(fileObjectMapper, never()).incrementRef(anyString());
+        verify(fileObjectMapper, never()).insert(any(FileObject.class));
+        verify(transactionManager, never()).getTransaction(any());
+    }
+
+    @Test
+    @DisplayName("附件记录写入失败时引用随事务回滚，并删除新上传的对象")
+    public void testBatchInsertFailureRollsBackReferences() {
+        when(ossClient.putObject(eq("test-bucket"), anyString(), any(InputStream.class), any(ObjectMetadata.class)))
+                .thenAnswer(invocation -> {
+                    invocation.getArgument(2, InputStream.class).readAllBytes();
+                    return null;
+                });
+        when(taskAttachmentMapper.batchInsert(any())).thenThrow(new IllegalStateException("insert failed"));
+
+        List<MultipartFile> files = List.of(
+                new MockMultipartFile("files", "a.txt", "text/plain", randomBytes(300)),
+                new MockMultipartFile("files", "b.txt", "text/plain", randomBytes(301)));
+        assertThrows(IllegalStateException.class, () -> fileService.batchUploadTaskFiles(files, 42L, 7L));
+
+        // 索引写入与附件记录在同一事务中，回滚后不留下引用
+        verify(fileObjectMapper, times(2)).insert(any(FileObject.class));
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+        verify(ossClient, times(2)).deleteObject(eq("test-bucket"), argThat(key -> !key.endsWith(".jpg")));
+    }
+
+    @Test
+    @DisplayName("新内容上传后按SHA-256写入索引，引用数为1")
+    public void testNewContentIndexed() throws Exception {
+        byte[] content = randomBytes(3_000);
+        AtomicReference<byte[]> uploaded = new AtomicReference<>();
+        when(ossClient.putObject(eq("test-bucket"), anyString(), any(InputStream.class), any(ObjectMetadata.class)))
+                .thenAnswer(invocation -> {
+                    uploaded.set(invocation.getArgument(2, InputStream.class).readAllBytes());
+                    return null;
+                });
+
+        MockMultipartFile file = new MockMultipartFile("file", "new.pdf", "application/pdf", content);
+        String url = fileService.uploadProjectFile(file, 42L, 7L);
+
+        ArgumentCaptor<FileObject> captor = ArgumentCaptor.forClass(FileObject.class);
+        verify(fileObjectMapper).insert(captor.capture());
+        FileObject indexed = captor.getValue();
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content)),
+                indexed.getContentHash());
+        assertEquals("https://test-bucket.oss/" + indexed.getObjectKey(), url);
+        assertEquals(3_000L, indexed.getFileSize());
+        assertEquals(1, indexed.getRefCount());
+        // 记录的加密元数据与实际写出的密文一致
+        assertEquals("application/pdf", indexed.getContentType());
+        assertEquals((long) uploaded.get().length, indexed.getEncryptedSize());
+        assertEquals((int) SegmentedEncryption.VERSION, indexed.getFormatVersion());
+        assertEquals(HexFormat.of().formatHex(Arrays.copyOf(uploaded.get(), SegmentedEncryption.HEADER_SIZE)),
+                indexed.getEncryptionHeader());
+    }
+
+    @Test
+    @DisplayName("分片上传合并的对象内容已存在时引用已有对象并删除合并的对象，否则写入索引")
+    public void testRegisterStoredObject() {
+        SegmentedEncryption.Header header = SegmentedEncryption.newHeader(500_000);
+        FileObject existing = new FileObject();
+        existing.setObjectKey("task/encrypted_20240101_first.zip");
+        when(fileObjectMapper.incrementRef("dup-hash")).thenReturn(1);
+        when(fileObjectMapper.selectOne(any())).thenReturn(existing);
+
+        String url = fileService.registerStoredObject("task/encrypted_20240102_second.zip", "dup-hash",
+                500_000, "application/zip", header);
+        assertEquals("https://test-bucket.oss/task/encrypted_20240101_first.zip", url);
+        verify(ossClient).deleteObject("test-bucket", "task/encrypted_20240102_second.zip");
+        verify(fileObjectMapper, never()).insert(any(FileObject.class));
+
+        url = fileService.registerStoredObject("task/encrypted_20240103_third.zip", "new-hash",
+                500_000, "application/zip", header);
+        assertEquals("https://test-bucket.oss/task/encrypted_20240103_third.zip", url);
+        ArgumentCaptor<FileObject> captor = ArgumentCaptor.forClass(FileObject.class);
+        verify(fileObjectMapper).insert(captor.capture());
+        assertEquals("new-hash", captor.getValue().getContentHash());
+        assertEquals(header.getEncryptedLength(), captor.getValue().getEncryptedSize());
+        assertEquals(HexFormat.of().formatHex(header.getBytes()), captor.getValue().getEncryptionHeader());
+        verify(ossClient, never()).deleteObject("test-bucket", "task/encrypted_20240103_third.zip");
+    }
+
+    @Test
+    @DisplayName("最后一个引用释放后删除对象和缓存，仍有引用或不在索引中的对象不删除")
+    public void testReleaseFile() {
+        when(fileObjectMapper.decrementRef("task/shared.pdf")).thenReturn(1);
+        when(fileObjectMapper.deleteUnreferenced("task/shared.pdf")).thenReturn(0);
+        fileService.releaseFile("https://test-bucket.oss/task/shared.pdf");
+        verify(ossClient, never()).deleteObject(anyString(), anyString());
+
+        when(fileObjectMapper.decrementRef("task/legacy.pdf")).thenReturn(0);
+        fileService.releaseFile("https://test-bucket.oss/task/legacy.pdf");
+        verify(fileObjectMapper, never()).deleteUnreferenced("task/legacy.pdf");
+        verify(ossClient, never()).deleteObject(anyString(), anyString());
+
+        when(fileObjectMapper.deleteUnreferenced("task/shared.pdf")).thenReturn(1);
+        fileService.releaseFile("https://test-bucket.oss/task/shared.pdf");
+        verify(ossClient).deleteObject("test-bucket", "task/shared.pdf");
+        verify(attachmentCache).evict("task/shared.pdf");
+    }
+
+    @Test
+    @DisplayName("图片上传后提交渲染图生成，其他文件标记为不支持")
+    public void testRenditionSubmittedForImages() {
+        when(renditionService.supports(eq("image/png"), any(Long.class))).thenReturn(true);
+        when(ossClient.putObject(eq("test-bucket"), anyString(), any(InputStream.class), any(ObjectMetadata.class)))
+                .thenAnswer(invocation -> {
+                    invocation.getArgument(2, InputStream.class).readAllBytes();
+                    return null;
+                });
+
+        String imageUrl = fileService.uploadTaskFile(
+                new MockMultipartFile("file", "photo.png", "image/png", randomBytes(500)), 42L, 7L);
+        fileService.uploadTaskFile(new MockMultipartFile("file", "notes.txt", "text/plain", randomBytes(501)), 42L, 7L);
+
+        ArgumentCaptor<FileObject> captor = ArgumentCaptor.forClass(FileObject.class);
+        verify(fileObjectMapper, times(2)).insert(captor.capture());
+        assertEquals(FileConstant.RENDITION_PENDING, captor.getAllValues().get(0).getRenditionStatus());
+        assertEquals(FileConstant.RENDITION_UNSUPPORTED, captor.getAllValues().get(1).getRenditionStatus());
+        verify(renditionService, times(1)).submit(anyString());
+        verify(renditionService).submit(fileService.getObjectKeyFromUrl(imageUrl));
+    }
+
+    @Test
+    @DisplayName("渲染图存储在原文件旁，已生成的附件返回渲染图URL")
+    public void testRenditionUrls() {
+        String key = fileService.storeRendition("task/a.png", FileConstant.RENDITION_THUMBNAIL, randomBytes(100), "image/jpeg");
+        assertEquals("task/a.png.thumbnail.jpg", key);
+        verify(ossClient).putObject(eq("test-bucket"), eq(key), any(InputStream.class), any(ObjectMetadata.class));
+
+        FileObject ready = new FileObject();
+        ready.setObjectKey("task/a.png");
+        when(fileObjectMapper.selectList(any())).thenReturn(List.of(ready));
+        Map<String, FileRenditionDTO> renditions = fileService.getRenditions(
+                List.of("https://test-bucket.oss/task/a.png", "https://test-bucket.oss/task/b.pdf"));
+
+        assertEquals(1, renditions.size());
+        FileRenditionDTO rendition = renditions.get("https://test-bucket.oss/task/a.png");
+        assertEquals("https://test-bucket.oss/task/a.png.thumbnail.jpg", rendition.getThumbnailUrl());
+        assertEquals("https://test-bucket.oss/task/a.png.preview.jpg", rendition.getPreviewUrl());
+    }
+
+    private FileObject recordedObject(String objectKey, SegmentedEncryption.Header header) {
+        FileObject fileObject = new FileObject();
+        fileObject.setObjectKey(objectKey);
+        fileObject.setFileSize(header.getPlainLength());
+        fileObject.setContentType("video/mp4");
+        fileObject.setEncryptedSize(header.getEncryptedLength());
+        fileObject.setFormatVersion((int) SegmentedEncryption.VERSION);
+        fileObject.setEncryptionHeader(HexFormat.of().formatHex(header.getBytes()));
+        return fileObject;
+    }
+
+    @Test
+    @DisplayName("有记录的加密元数据时，按范围读取只访问一次存储")
+    public void testRangeReadWithRecordedMetadata() throws Exception {
+        byte[] content = randomBytes(SegmentedEncryption.DEFAULT_SEGMENT_SIZE * 3 + 7);
+        SegmentedEncryption.Header header = SegmentedEncryption.newHeader(content.length);
+        byte[] stored;
+        try (InputStream encrypted = SegmentedEncryption.encryptStream(new ByteArrayInputStream(content), header, ENCRYPTION_KEY)) {
+            stored = encrypted.readAllBytes();
+        }
+        List<long[]> requestedRanges = new ArrayList<>();
+        stubStoredObject(stored, requestedRanges);
+        when(fileObjectMapper.selectOne(any())).thenReturn(recordedObject("task/video.mp4", header));
+
+        long start = 70_000;
+        long end = 140_000;
+        FileContentDTO result = fileService.getDecryptedContent("task/video.mp4", HttpRange.createByteRange(start, end));
+        try (InputStream decrypted = result.getContent()) {
+            assertArrayEquals(Arrays.copyOfRange(content, (int) start, (int) end + 1), decrypted.readAllBytes());
+        }
+        assertEquals("video/mp4", result.getContentType());
+        assertEquals(content.length, result.getTotalLength());
+        assertEquals(1, requestedRanges.size());
+        assertEquals(header.getRangeOffset(start), requestedRanges.get(0)[0]);
+
+        // 记录的元数据同时用于查询文件元数据，不访问存储
+        assertEquals(stored.length, fileService.getFileMetadata("task/video.mp4").getContentLength());
+        verify(ossClient, never()).getObjectMetadata(anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("记录的文件头与存储对象不一致时，回退到读取对象中的文件头")
+    public void testRangeReadFallsBackOnMetadataMismatch() throws Exception {
+        byte[] content = randomBytes(SegmentedEncryption.DEFAULT_SEGMENT_SIZE + 500);
+        byte[] stored = encryptSegmented(content);
+        List<long[]> requestedRanges = new ArrayList<>();
+        stubStoredObject(stored, requestedRanges);
+        // 记录的是另一次加密的文件头，随机数不同
+        when(fileObjectMapper.selectOne(any()))
+                .thenReturn(recordedObject("task/video.mp4", SegmentedEncryption.newHeader(content.length)));
+
+        FileContentDTO result = fileService.getDecryptedContent("task/video.mp4", HttpRange.createByteRange(10, 20));
+        try (InputStream decrypted = result.getContent()) {
+            assertArrayEquals(Arrays.copyOfRange(content, 10, 21), decrypted.readAllBytes());
+        }
+        // 一次按记录读取失败，一次读取文件头，一次读取段
+        assertEquals(3, requestedRanges.size());
+    }
+}
@@ -0,0 +1,184 @@
+package com.taskManagement.unitTest.service;
+
+import com.taskManagement.dto.StorageObjectDTO;
+import com.taskManagement.exception.BusinessException;
+import com.taskManagement.service.impl.LocalStorageServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * LocalStorageServiceImpl单元测试
+ * 在临时目录中验证写入、完整和范围读取、transferTo输出、删除、分片上传以及路径校验
+ */
+public class LocalStorageServiceImplTest {
+
+    @TempDir
+    Path tempDir;
+
+    private LocalStorageServiceImpl storageService;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        storageService = new LocalStorageServiceImpl();
+        ReflectionTestUtils.setField(storageService, "rootDir", tempDir.toString());
+        storageService.init();
+    }
+
+    private byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+
+    @Test
+    @DisplayName("写入后可以完整读取、按范围读取和查询元数据")
+    public void testPutAndGet() throws Exception {
+        byte[] content = randomBytes(300_000);
+        storageService.putObject("task/a.bin", new ByteArrayInputStream(content), content.length, "application/pdf");
+
+        StorageObjectDTO full = storageService.getObject("task/a.bin");
+        try (InputStream in = full.getContent()) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+        assertEquals("application/pdf", full.getContentType());
+        assertEquals(content.length, full.getContentLength());
+
+        StorageObjectDTO range = storageService.getObject("task/a.bin", 1000, 70_000);
+        try (InputStream in = range.getContent()) {
+            assertArrayEquals(Arrays.copyOfRange(content, 1000, 70_001), in.readAllBytes());
+        }
+        assertEquals(69_001, range.getContentLength());
+
+        // 结束位置超出文件长度时读到末尾
+        try (InputStream in = storageService.getObject("task/a.bin", content.length - 5, Long.MAX_VALUE - 1).getContent()) {
+            assertArrayEquals(Arrays.copyOfRange(content, content.length - 5, content.length), in.readAllBytes());
+        }
+
+        StorageObjectDTO metadata = storageService.getObjectMetadata("task/a.bin");
+        assertNull(metadata.getContent());
+        assertEquals(content.length, metadata.getContentLength());
+
+        // 写入使用临时文件，完成后不留下临时文件
+        try (var files = Files.list(tempDir.resolve("task"))) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("超过2GB的文件可以按范围读取，范围不受内存映射上限限制")
+    public void testRangeBeyondIntegerMax() throws Exception {
+        // 稀疏文件，不实际占用磁盘空间
+        long size = Integer.MAX_VALUE + 4096L;
+        Path file = Files.createDirectories(tempDir.resolve("task")).resolve("huge.bin");
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(size);
+            raf.seek(size - 3);
+            raf.write(new byte[]{1, 2, 3});
+        }
+
+        StorageObjectDTO whole = storageService.getObject("task/huge.bin", 0, Long.MAX_VALUE - 1);
+        assertEquals(size, whole.getContentLength());
+        whole.getContent().close();
+
+        try (InputStream in = storageService.getObject("task/huge.bin", size - 4, size - 1).getContent()) {
+            assertArrayEquals(new byte[]{0, 1, 2, 3}, in.readAllBytes());
+        }
+    }
+
+    @Test
+    @DisplayName("transferTo输出完整文件，本地路径可交给容器发送")
+    public void testTransferToAndLocalPath() throws Exception {
+        byte[] content = randomBytes(50_000);
+        storageService.putObject("avatar/1_a.png", new ByteArrayInputStream(content), content.length, "image/png");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long transferred = storageService.transferTo("avatar/1_a.png", Channels.newChannel(out));
+        assertEquals(content.length, transferred);
+        assertArrayEquals(content, out.toByteArray());
+
+        Path localPath = storageService.getLocalPath("avatar/1_a.png");
+        assertArrayEquals(content, Files.readAllBytes(localPath));
+        assertNull(storageService.getLocalPath("avatar/missing.png"));
+    }
+
+    @Test
+    @DisplayName("声明长度与实际内容不一致时写入失败且不覆盖原文件")
+    public void testLengthMismatchRejected() throws Exception {
+        byte[] content = randomBytes(100);
+        storageService.putObject("task/b.bin", new ByteArrayInputStream(content), content.length, null);
+
+        assertThrows(RuntimeException.class, () -> storageService.putObject("task/b.bin",
+                new ByteArrayInputStream(randomBytes(10)), 20, null));
+        try (InputStream in = storageService.getObject("task/b.bin").getContent()) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+        assertEquals("application/octet-stream", storageService.getObjectMetadata("task/b.bin").getContentType());
+    }
+
+    @Test
+    @DisplayName("删除后读取提示文件不存在，跳出根目录的路径被拒绝")
+    public void testDeleteAndPathValidation() {
+        storageService.putObject("project/c.txt", new ByteArrayInputStream(new byte[]{1, 2, 3}), 3, "text/plain");
+        storageService.deleteObject("project/c.txt");
+        storageService.deleteObject("project/c.txt");
+
+        assertFalse(Files.exists(tempDir.resolve("project/c.txt")));
+        assertThrows(BusinessException.class, () -> storageService.getObject("project/c.txt"));
+        BusinessException e = assertThrows(BusinessException.class, () -> storageService.getObject("../outside.txt"));
+        assertTrue(e.getMessage().contains("非法"));
+        assertThrows(BusinessException.class, () -> storageService.getObjectMetadata(".meta/project/c.txt"));
+    }
+
+    @Test
+    @DisplayName("分片乱序上传、重复上传后按编号合并，取消后分片目录被删除")
+    public void testMultipartUpload() throws Exception {
+        byte[] content = randomBytes(250_000);
+        String uploadId = storageService.initiateMultipartUpload("task/big.bin", "application/zip");
+
+        String etag2 = storageService.uploadPart("task/big.bin", uploadId, 2,
+                new ByteArrayInputStream(content, 100_000, 100_000), 100_000);
+        String etag3 = storageService.uploadPart("task/big.bin", uploadId, 3,
+                new ByteArrayInputStream(content, 200_000, 50_000), 50_000);
+        storageService.uploadPart("task/big.bin", uploadId, 1, new ByteArrayInputStream(randomBytes(100_000)), 100_000);
+        String etag1 = storageService.uploadPart("task/big.bin", uploadId, 1,
+                new ByteArrayInputStream(content, 0, 100_000), 100_000);
+        assertNull(storageService.getLocalPath("task/big.bin"));
+
+        storageService.completeMultipartUpload("task/big.bin", uploadId, List.of(etag1, etag2, etag3));
+        try (InputStream in = storageService.getObject("task/big.bin").getContent()) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
+        assertEquals("application/zip", storageService.getObjectMetadata("task/big.bin").getContentType());
+        assertFalse(Files.exists(tempDir.resolve(".multipart").resolve(uploadId)));
+
+        String aborted = storageService.initiateMultipartUpload("task/aborted.bin", null);
+        storageService.uploadPart("task/aborted.bin", aborted, 1, new ByteArrayInputStream(new byte[10]), 10);
+        storageService.abortMultipartUpload("task/aborted.bin", aborted);
+        assertFalse(Files.exists(tempDir.resolve(".multipart").resolve(aborted)));
+        assertThrows(BusinessException.class, () -> storageService.completeMultipartUpload("task/aborted.bin", aborted,
+                List.of("1-10")));
+        assertThrows(BusinessException.class, () -> storageService.uploadPart("task/x.bin", "../../etc", 1,
+                new ByteArrayInputStream(new byte[1]), 1));
+    }
+}
@@ -16,6 +16,7 @@ import com.taskManagement.mapper.ProjectMapper;
 import com.taskManagement.mapper.ProjectMemberMapper;
 import com.taskManagement.mapper.UserMapper;
 import com.taskManagement.service.FileService;
+import com.taskManagement.service.SearchService;
 import com.taskManagement.service.impl.ProjectServiceImpl;
 import com.taskManagement.vo.PageResult;
 import com.taskManagement.vo.ProjectVO;
@@ -66,6 +67,9 @@ public class ProjectServiceTest {
     @Mock
     private FileService fileService;
 
+    @Mock
+    private SearchService searchService;
+
     @InjectMocks
     private ProjectServiceImpl projectService;
 
@@ -353,6 +357,7 @@ public class ProjectServiceTest {
         List<ProjectMember> projectMembers = Collections.singletonList(projectMember);
         
         // 模拟Mapper行为
+        when(searchService.searchProjectIds(keyword)).thenReturn(Collections.singletonList(1L));
         when(projectMapper.selectPage(any(), any())).thenReturn(mockPage);
         when(projectMemberMapper.selectList(any())).thenReturn(projectMembers);
         when(projectMemberMapper.selectCount(any())).thenReturn(1L);
@@ -440,6 +445,7 @@ public class ProjectServiceTest {
         
         // 模拟Mapper行为
         when(userMapper.selectById(userId)).thenReturn(adminUser);
+        when(searchService.searchProjectIds(keyword)).thenReturn(Collections.singletonList(1L));
         when(projectMapper.selectPage(any(), any())).thenReturn(pageResult);
         when(projectMemberMapper.selectList(any())).thenReturn(new ArrayList<>());
         when(projectMemberMapper.selectCount(any())).thenReturn(0L);
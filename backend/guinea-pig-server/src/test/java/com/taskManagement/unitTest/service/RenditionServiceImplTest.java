@@ -0,0 +1,166 @@
+package com.taskManagement.unitTest.service;
+
+import com.taskManagement.constant.FileConstant;
+import com.taskManagement.mapper.FileObjectMapper;
+import com.taskManagement.service.FileService;
+import com.taskManagement.service.impl.RenditionServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * RenditionServiceImpl单元测试
+ * 验证支持的文件类型、缩略图和预览图的尺寸、无法识别的图片标记为不支持、生成期间原文件被删除时清理渲染图，以及丢失的任务重新提交
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class RenditionServiceImplTest {
+
+    private static final String OBJECT_KEY = "task/encrypted_20240101_photo.png";
+
+    @Mock
+    private FileService fileService;
+
+    @Mock
+    private FileObjectMapper fileObjectMapper;
+
+    @InjectMocks
+    private RenditionServiceImpl renditionService;
+
+    @BeforeEach
+    public void setup() {
+        renditionService.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        renditionService.destroy();
+    }
+
+    private byte[] png(int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.BLUE);
+        graphics.fillRect(0, 0, width / 2, height);
+        graphics.dispose();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", output);
+        return output.toByteArray();
+    }
+
+    private BufferedImage decode(byte[] content) throws Exception {
+        return ImageIO.read(new ByteArrayInputStream(content));
+    }
+
+    @Test
+    @DisplayName("只支持ImageIO可以解码的图片，超过大小上限的不支持")
+    public void testSupports() {
+        assertTrue(renditionService.supports("image/png", 1000));
+        assertTrue(renditionService.supports("image/jpeg", 1000));
+        assertFalse(renditionService.supports("application/pdf", 1000));
+        assertFalse(renditionService.supports("image/png", 0));
+        assertFalse(renditionService.supports("image/png", 100L * 1024 * 1024));
+        assertFalse(renditionService.supports(null, 1000));
+    }
+
+    @Test
+    @DisplayName("按比例生成预览图和缩略图，存储后标记为已生成")
+    public void testRender() throws Exception {
+        when(fileService.getDecryptedFile(OBJECT_KEY)).thenReturn(new ByteArrayInputStream(png(3000, 2000)));
+        when(fileObjectMapper.updateRenditionStatus(OBJECT_KEY, FileConstant.RENDITION_READY)).thenReturn(1);
+
+        renditionService.render(OBJECT_KEY);
+
+        ArgumentCaptor<byte[]> preview = ArgumentCaptor.forClass(byte[].class);
+        ArgumentCaptor<byte[]> thumbnail = ArgumentCaptor.forClass(byte[].class);
+        verify(fileService).storeRendition(eq(OBJECT_KEY), eq(FileConstant.RENDITION_PREVIEW), preview.capture(), eq("image/jpeg"));
+        verify(fileService).storeRendition(eq(OBJECT_KEY), eq(FileConstant.RENDITION_THUMBNAIL), thumbnail.capture(), eq("image/jpeg"));
+        BufferedImage previewImage = decode(preview.getValue());
+        assertEquals(1280, previewImage.getWidth());
+        assertEquals(853, previewImage.getHeight());
+        BufferedImage thumbnailImage = decode(thumbnail.getValue());
+        assertEquals(240, thumbnailImage.getWidth());
+        assertEquals(160, thumbnailImage.getHeight());
+        assertTrue(thumbnail.getValue().length < 20_000);
+        verify(fileObjectMapper).updateRenditionStatus(OBJECT_KEY, FileConstant.RENDITION_READY);
+        assertEquals(1L, renditionService.getStats().get("rendered"));
+    }
+
+    @Test
+    @DisplayName("小图不放大")
+    public void testSmallImageNotUpscaled() throws Exception {
+        when(fileService.getDecryptedFile(OBJECT_KEY)).thenReturn(new ByteArrayInputStream(png(100, 50)));
+        when(fileObjectMapper.updateRenditionStatus(OBJECT_KEY, FileConstant.RENDITION_READY)).thenReturn(1);
+
+        renditionService.render(OBJECT_KEY);
+
+        ArgumentCaptor<byte[]> thumbnail = ArgumentCaptor.forClass(byte[].class);
+        verify(fileService).storeRendition(eq(OBJECT_KEY), eq(FileConstant.RENDITION_THUMBNAIL), thumbnail.capture(), anyString());
+        assertEquals(100, decode(thumbnail.getValue()).getWidth());
+    }
+
+    @Test
+    @DisplayName("无法识别的内容标记为不支持，不存储渲染图")
+    public void testUnreadableImage() {
+        when(fileService.getDecryptedFile(OBJECT_KEY)).thenReturn(new ByteArrayInputStream(new byte[]{1, 2, 3, 4}));
+
+        renditionService.render(OBJECT_KEY);
+
+        verify(fileService, never()).storeRendition(anyString(), anyString(), any(), anyString());
+        verify(fileObjectMapper).updateRenditionStatus(OBJECT_KEY, FileConstant.RENDITION_UNSUPPORTED);
+        assertEquals(1L, renditionService.getStats().get("failed"));
+    }
+
+    @Test
+    @DisplayName("生成期间原文件已被删除时删除渲染图")
+    public void testSourceDeletedDuringRender() throws Exception {
+        when(fileService.getDecryptedFile(OBJECT_KEY)).thenReturn(new ByteArrayInputStream(png(400, 300)));
+        when(fileObjectMapper.updateRenditionStatus(OBJECT_KEY, FileConstant.RENDITION_READY)).thenReturn(0);
+
+        renditionService.render(OBJECT_KEY);
+
+        verify(fileService).deleteRenditions(OBJECT_KEY);
+        assertEquals(0L, renditionService.getStats().get("rendered"));
+    }
+
+    @Test
+    @DisplayName("长时间仍待生成的任务重新提交，已被其他实例认领的跳过")
+    public void testResubmitPending() {
+        when(fileObjectMapper.selectStalePending(eq(FileConstant.RENDITION_PENDING), any(), eq(50)))
+                .thenReturn(List.of(OBJECT_KEY, "task/claimed.png"));
+        when(fileObjectMapper.claimStalePending(eq(OBJECT_KEY), eq(FileConstant.RENDITION_PENDING), any()))
+                .thenReturn(1);
+        when(fileObjectMapper.claimStalePending(eq("task/claimed.png"), eq(FileConstant.RENDITION_PENDING), any()))
+                .thenReturn(0);
+
+        assertEquals(1, renditionService.resubmitPending());
+        assertEquals(1L, renditionService.getStats().get("resubmitted"));
+        assertEquals(1L, renditionService.getStats().get("submitted"));
+    }
+}
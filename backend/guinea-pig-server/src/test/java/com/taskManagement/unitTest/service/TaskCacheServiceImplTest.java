@@ -0,0 +1,208 @@
+package com.taskManagement.unitTest.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.taskManagement.dto.TaskDTO;
+import com.taskManagement.entity.TaskMember;
+import com.taskManagement.mapper.TaskMapper;
+import com.taskManagement.mapper.TaskMemberMapper;
+import com.taskManagement.properties.CacheProperties;
+import com.taskManagement.service.impl.TaskCacheServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * TaskCacheService单元测试
+ * 使用进程内缓存，验证读穿命中、事务内绕过缓存，以及加载期间发生失效时不回填旧数据；
+ * 仪表盘返回只读副本，按任务失效时清除创建者和成员的仪表盘，并通过Redis通知其他实例
+ */
+@ExtendWith(MockitoExtension.class)
+public class TaskCacheServiceImplTest {
+
+    private static final Long TASK_ID = 1L;
+
+    @Spy
+    private CacheProperties cacheProperties = new CacheProperties();
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+
+    @Mock
+    private ObjectProvider<RedisConnectionFactory> connectionFactoryProvider;
+
+    @Mock
+    private TaskMapper taskMapper;
+
+    @Mock
+    private TaskMemberMapper taskMemberMapper;
+
+    @InjectMocks
+    private TaskCacheServiceImpl taskCacheService;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    public void setup() {
+        cacheProperties.getTaskDetail().setMode("local");
+        taskCacheService.init();
+    }
+
+    @AfterEach
+    public void cleanup() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    private TaskDTO load(String name) {
+        loads.incrementAndGet();
+        TaskDTO taskDTO = new TaskDTO();
+        taskDTO.setId(TASK_ID);
+        taskDTO.setName(name);
+        return taskDTO;
+    }
+
+    @Test
+    @DisplayName("第二次读取命中缓存，返回的对象修改不影响缓存")
+    public void testReadThrough() {
+        TaskDTO first = taskCacheService.getTaskDetail(TASK_ID, id -> load("任务"));
+        first.setName("调用方修改");
+        TaskDTO second = taskCacheService.getTaskDetail(TASK_ID, id -> load("任务"));
+
+        assertEquals(1, loads.get());
+        assertEquals("任务", second.getName());
+    }
+
+    @Test
+    @DisplayName("加载期间发生失效时不回填，下次读取重新加载")
+    public void testEvictDuringLoadSkipsFill() {
+        TaskDTO stale = taskCacheService.getTaskDetail(TASK_ID, id -> {
+            TaskDTO loaded = load("旧数据");
+            // 模拟加载完成后、回填之前，写事务提交并清除缓存
+            taskCacheService.evictTaskDetail(TASK_ID);
+            return loaded;
+        });
+        assertEquals("旧数据", stale.getName());
+
+        TaskDTO fresh = taskCacheService.getTaskDetail(TASK_ID, id -> load("新数据"));
+        assertEquals("新数据", fresh.getName());
+        assertEquals(2, loads.get());
+        assertEquals(1L, ((Number) taskCacheService.getStats().get("staleFillsSkipped")).longValue());
+    }
+
+    @Test
+    @DisplayName("事务内读取直接加载，不回填缓存")
+    public void testTransactionalReadBypassesCache() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        taskCacheService.getTaskDetail(TASK_ID, id -> load("未提交"));
+        taskCacheService.getTaskDetail(TASK_ID, id -> load("未提交"));
+        assertEquals(2, loads.get());
+
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TaskDTO committed = taskCacheService.getTaskDetail(TASK_ID, id -> load("已提交"));
+        assertEquals("已提交", committed.getName());
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    @DisplayName("手动失效后重新加载")
+    public void testManualEvict() {
+        taskCacheService.getTaskDetail(TASK_ID, id -> load("任务"));
+        taskCacheService.evictTaskDetail(TASK_ID);
+
+        TaskDTO reloaded = taskCacheService.getTaskDetail(TASK_ID, id -> load("改名后"));
+        assertEquals("改名后", reloaded.getName());
+        assertEquals(2, loads.get());
+    }
+
+    private Map<String, Object> loadDashboard(String name) {
+        loads.incrementAndGet();
+        List<TaskDTO> items = new ArrayList<>();
+        items.add(load(name));
+        Map<String, Object> page = new HashMap<>();
+        page.put("items", items);
+        Map<String, Object> dashboard = new HashMap<>();
+        dashboard.put("tasks", page);
+        return dashboard;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<TaskDTO> dashboardItems(Map<String, Object> dashboard) {
+        return (List<TaskDTO>) ((Map<String, Object>) dashboard.get("tasks")).get("items");
+    }
+
+    @Test
+    @DisplayName("仪表盘返回只读副本，调用方无法修改缓存中的数据")
+    public void testDashboardReadOnly() {
+        Map<String, Object> first = taskCacheService.getUserDashboard(1L, null, 10, () -> loadDashboard("任务"));
+        assertThrows(UnsupportedOperationException.class, () -> first.put("stats", null));
+        assertThrows(UnsupportedOperationException.class, () -> dashboardItems(first).clear());
+        dashboardItems(first).get(0).setName("调用方修改");
+
+        Map<String, Object> second = taskCacheService.getUserDashboard(1L, null, 10, () -> loadDashboard("任务"));
+        assertEquals("任务", dashboardItems(second).get(0).getName());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("按任务失效时清除创建者和成员的仪表盘")
+    public void testEvictTaskDashboards() {
+        TaskMember member = new TaskMember();
+        member.setTaskId(TASK_ID);
+        member.setUserId(2L);
+        when(taskMapper.selectCreateUsersByIds(List.of(TASK_ID))).thenReturn(List.of(1L));
+        when(taskMemberMapper.selectByTaskIds(List.of(TASK_ID))).thenReturn(List.of(member));
+
+        for (long userId = 1; userId <= 3; userId++) {
+            taskCacheService.getUserDashboard(userId, null, 10, () -> loadDashboard("任务"));
+        }
+        taskCacheService.evictTaskDashboards(List.of(TASK_ID));
+        for (long userId = 1; userId <= 3; userId++) {
+            taskCacheService.getUserDashboard(userId, null, 10, () -> loadDashboard("任务"));
+        }
+
+        // 3次初次加载，创建者和成员各重新加载1次，无关用户命中缓存
+        assertEquals(10, loads.get());
+    }
+
+    @Test
+    @DisplayName("仪表盘失效通过任务详情的Redis频道通知其他实例")
+    public void testDashboardEvictionPublished() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplateProvider.getIfAvailable()).thenReturn(redisTemplate);
+        cacheProperties.getTaskDetail().setMode("redis");
+        taskCacheService.init();
+
+        taskCacheService.evictUserDashboards(List.of(7L));
+
+        // 没有事务时提交后的清除立即执行，共发布两次
+        verify(redisTemplate, times(2)).convertAndSend(eq("task:detail:evict"),
+                endsWith(":dashboard:7"));
+    }
+}
@@ -0,0 +1,92 @@
+package com.taskManagement.unitTest.service;
+
+import com.taskManagement.dto.TaskGroupCountDTO;
+import com.taskManagement.entity.Task;
+import com.taskManagement.mapper.TaskCounterMapper;
+import com.taskManagement.service.impl.TaskCounterServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * TaskCounterService单元测试
+ * 任务写操作直接调整计数表，读取时按维度汇总
+ */
+@ExtendWith(MockitoExtension.class)
+public class TaskCounterServiceTest {
+
+    @Mock
+    private TaskCounterMapper taskCounterMapper;
+
+    @InjectMocks
+    private TaskCounterServiceImpl taskCounterService;
+
+    private Task task(Long projectId, Integer status, Integer priority) {
+        Task task = new Task();
+        task.setProjectId(projectId);
+        task.setStatus(status);
+        task.setPriority(priority);
+        return task;
+    }
+
+    private TaskGroupCountDTO statusGroup(Integer status, Long count) {
+        TaskGroupCountDTO dto = new TaskGroupCountDTO();
+        dto.setStatus(status);
+        dto.setCount(count);
+        return dto;
+    }
+
+    @Test
+    @DisplayName("读取计数表，按状态汇总")
+    public void testStatusCounts() {
+        when(taskCounterMapper.selectStatusCounts(1L)).thenReturn(Arrays.asList(statusGroup(0, 3L), statusGroup(2, 2L)));
+
+        Map<Integer, Long> counts = taskCounterService.getStatusCounts(1L);
+        assertEquals(2, counts.size());
+        assertEquals(3L, counts.get(0));
+        assertEquals(2L, counts.get(2));
+    }
+
+    @Test
+    @DisplayName("创建和删除任务调整计数，空字段按数据库默认值计数，计数行不存在时插入")
+    public void testCreateAndDelete() {
+        when(taskCounterMapper.increment(anyLong(), anyInt(), anyInt(), anyLong())).thenReturn(1);
+        when(taskCounterMapper.increment(1L, 1, 1, 1)).thenReturn(0);
+
+        taskCounterService.onTaskCreated(task(1L, null, null));
+        verify(taskCounterMapper).increment(1L, 0, 0, 1);
+        verify(taskCounterMapper).insertCounter(1L, 1, 1, 1);
+        verify(taskCounterMapper, never()).insertCounter(1L, 0, 0, 1);
+
+        taskCounterService.onTaskDeleted(task(1L, 2, 3));
+        verify(taskCounterMapper).increment(1L, 0, 2, -1);
+        verify(taskCounterMapper).increment(1L, 1, 3, -1);
+    }
+
+    @Test
+    @DisplayName("更新任务时状态、优先级和所属项目的变化都反映到计数，没有变化时不写计数表")
+    public void testUpdate() {
+        taskCounterService.onTaskUpdated(task(1L, 0, 1), task(2L, 1, 4));
+        verify(taskCounterMapper).increment(1L, 0, 0, -1);
+        verify(taskCounterMapper).increment(1L, 1, 1, -1);
+        verify(taskCounterMapper).increment(2L, 0, 1, 1);
+        verify(taskCounterMapper).increment(2L, 1, 4, 1);
+
+        taskCounterService.onTaskUpdated(task(3L, 1, 2), task(null, null, 2));
+        verify(taskCounterMapper, never()).increment(eq(3L), anyInt(), anyInt(), anyLong());
+    }
+}
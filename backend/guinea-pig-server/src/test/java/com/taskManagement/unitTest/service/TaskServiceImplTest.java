@@ -6,10 +6,17 @@ import com.taskManagement.context.BaseContext;
 import com.taskManagement.dto.TaskDTO;
 import com.taskManagement.entity.Project;
 import com.taskManagement.entity.Task;
+import com.taskManagement.entity.TaskAttachment;
 import com.taskManagement.mapper.ProjectMapper;
+import com.taskManagement.mapper.TaskAttachmentMapper;
 import com.taskManagement.mapper.TaskMapper;
 import com.taskManagement.mapper.TaskMemberMapper;
 import com.taskManagement.mapper.UserMapper;
+import com.taskManagement.service.FileService;
+import com.taskManagement.service.ProjectTagCacheService;
+import com.taskManagement.service.SearchService;
+import com.taskManagement.service.TaskCacheService;
+import com.taskManagement.service.TaskCounterService;
 import com.taskManagement.service.TaskTagService;
 import com.taskManagement.service.impl.TaskServiceImpl;
 import org.junit.jupiter.api.AfterEach;
@@ -31,6 +38,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -66,6 +74,24 @@ public class TaskServiceImplTest {
     @Mock
     private UserMapper userMapper;
 
+    @Mock
+    private SearchService searchService;
+
+    @Mock
+    private TaskCacheService taskCacheService;
+
+    @Mock
+    private TaskCounterService taskCounterService;
+
+    @Mock
+    private ProjectTagCacheService projectTagCacheService;
+
+    @Mock
+    private TaskAttachmentMapper taskAttachmentMapper;
+
+    @Mock
+    private FileService fileService;
+
     private static final Long TEST_USER_ID = 1L;
     private static final Long TEST_PROJECT_ID = 1L;
     private static final Long TEST_TASK_ID = 1L;
@@ -77,6 +103,10 @@ public class TaskServiceImplTest {
         // 模拟当前用户ID
         mockedBaseContext = Mockito.mockStatic(BaseContext.class);
         mockedBaseContext.when(BaseContext::getCurrentId).thenReturn(TEST_USER_ID);
+
+        // 详情缓存直接调用加载方法
+        when(taskCacheService.getTaskDetail(anyLong(), any()))
+                .thenAnswer(invocation -> invocation.<Function<Long, TaskDTO>>getArgument(1).apply(invocation.getArgument(0)));
     }
 
     @AfterEach
@@ -164,10 +194,13 @@ public class TaskServiceImplTest {
         taskPage.setRecords(taskList);
         taskPage.setTotal(1);
         
-        // 为TaskTagService模拟行为
-        when(taskTagService.getTagIdsByTaskId(any())).thenReturn(Collections.emptyList());
-        // 为TaskMemberMapper模拟行为
-        when(taskMemberMapper.selectList(any())).thenReturn(new ArrayList<>());
+        // 为TaskTagService模拟行为（整页批量查询）
+        when(taskTagService.getTagIdsByTaskIds(any())).thenReturn(Collections.emptyMap());
+        // 为TaskMemberMapper模拟行为（整页批量查询）
+        when(taskMemberMapper.selectByTaskIds(any())).thenReturn(new ArrayList<>());
+        
+        // 关键词由全文索引给出命中的任务ID
+        when(searchService.searchTaskIds(keyword)).thenReturn(Collections.singletonList(TEST_TASK_ID));
         
         // 模拟行为
         when(taskMapper.selectPage(any(Page.class), any(LambdaQueryWrapper.class))).thenReturn(taskPage);
@@ -183,7 +216,10 @@ public class TaskServiceImplTest {
         assertEquals(1L, result.get("total"));
         
         // 验证方法调用
+        verify(searchService).searchTaskIds(keyword);
         verify(taskMapper).selectPage(any(Page.class), any(LambdaQueryWrapper.class));
+        verify(taskTagService).getTagIdsByTaskIds(any());
+        verify(taskMemberMapper).selectByTaskIds(any());
     }
 
     @Test
@@ -259,12 +295,16 @@ public class TaskServiceImplTest {
         when(taskMapper.selectById(taskId)).thenReturn(task);
         when(taskMapper.deleteById(taskId)).thenReturn(1);
         when(taskTagService.removeTaskTags(taskId)).thenReturn(1);
+        TaskAttachment attachment = new TaskAttachment();
+        attachment.setFilePath("https://test-bucket.oss/task/encrypted_a.pdf");
+        when(taskAttachmentMapper.selectList(any())).thenReturn(List.of(attachment));
         
         // 执行方法
         taskService.deleteTask(taskId);
         
-        // 验证结果
+        // 验证结果：附件随任务删除，释放对存储对象的引用
         verify(taskMapper).deleteById(taskId);
         verify(taskTagService).removeTaskTags(taskId);
+        verify(fileService).releaseFile("https://test-bucket.oss/task/encrypted_a.pdf");
     }
 } 
\ No newline at end of file
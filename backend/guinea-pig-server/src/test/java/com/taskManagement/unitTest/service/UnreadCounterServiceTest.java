@@ -0,0 +1,108 @@
+package com.taskManagement.unitTest.service;
+
+import com.taskManagement.dto.UserCountDTO;
+import com.taskManagement.entity.Notification;
+import com.taskManagement.mapper.NotificationMapper;
+import com.taskManagement.service.impl.UnreadCounterServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * UnreadCounterService单元测试
+ * 未配置Redis时使用进程内计数，没有事务时增量立即生效
+ */
+@ExtendWith(MockitoExtension.class)
+public class UnreadCounterServiceTest {
+
+    @Mock
+    private NotificationMapper notificationMapper;
+
+    @Mock
+    private ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+
+    @InjectMocks
+    private UnreadCounterServiceImpl unreadCounterService;
+
+    @BeforeEach
+    public void setup() {
+        when(redisTemplateProvider.getIfAvailable()).thenReturn(null);
+        unreadCounterService.init();
+    }
+
+    private Notification notification(Long userId) {
+        Notification notification = new Notification();
+        notification.setUserId(userId);
+        return notification;
+    }
+
+    private UserCountDTO userCount(Long userId, Long count) {
+        UserCountDTO dto = new UserCountDTO();
+        dto.setUserId(userId);
+        dto.setCount(count);
+        return dto;
+    }
+
+    @Test
+    @DisplayName("首次读取从数据库加载，之后的读取和增减不再查询数据库")
+    public void testLoadAndAdjust() {
+        when(notificationMapper.selectCount(any())).thenReturn(3L);
+
+        assertEquals(3L, unreadCounterService.getUnreadCount(1L));
+        unreadCounterService.onNotificationsCreated(List.of(notification(1L), notification(1L), notification(2L)));
+        assertEquals(5L, unreadCounterService.getUnreadCount(1L));
+
+        unreadCounterService.onNotificationRead(1L);
+        assertEquals(4L, unreadCounterService.getUnreadCount(1L));
+
+        unreadCounterService.onAllNotificationsRead(1L);
+        unreadCounterService.onNotificationRead(1L);
+        assertEquals(0L, unreadCounterService.getUnreadCount(1L));
+
+        verify(notificationMapper, times(1)).selectCount(any());
+    }
+
+    @Test
+    @DisplayName("计数未加载时忽略增量，读取时从数据库加载")
+    public void testDeltaBeforeLoadIgnored() {
+        unreadCounterService.onNotificationsCreated(List.of(notification(1L)));
+        when(notificationMapper.selectCount(any())).thenReturn(7L);
+
+        assertEquals(7L, unreadCounterService.getUnreadCount(1L));
+    }
+
+    @Test
+    @DisplayName("校准用数据库结果覆盖近期读取过的用户，其余用户的计数丢弃")
+    public void testReconcile() {
+        when(notificationMapper.selectCount(any())).thenReturn(3L, 4L);
+        unreadCounterService.getUnreadCount(1L);
+        unreadCounterService.getUnreadCount(2L);
+        when(notificationMapper.countUnreadByUsers(anyCollection())).thenReturn(List.of(userCount(1L, 6L)));
+
+        unreadCounterService.reconcile();
+
+        // 用户2没有未读通知，分组查询不返回，校准为0
+        assertEquals(6L, unreadCounterService.getUnreadCount(1L));
+        assertEquals(0L, unreadCounterService.getUnreadCount(2L));
+
+        // 校准后没有再读取过的用户不参与下一次校准
+        unreadCounterService.reconcile();
+        unreadCounterService.reconcile();
+        verify(notificationMapper, times(2)).countUnreadByUsers(anyCollection());
+    }
+}
@@ -0,0 +1,110 @@
+package com.taskManagement.unitTest.service;
+
+import com.taskManagement.service.impl.UploadAdmissionServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * UploadAdmissionServiceImpl单元测试
+ * 验证预算内直接准入、预算不足时排队等待、排队已满和等待超时的拒绝、超大请求独占预算以及统计
+ */
+public class UploadAdmissionServiceImplTest {
+
+    private static final long KB = 1024;
+
+    private UploadAdmissionServiceImpl admissionService;
+
+    @BeforeEach
+    public void setup() {
+        admissionService = new UploadAdmissionServiceImpl();
+        ReflectionTestUtils.setField(admissionService, "memoryBudget", 100 * KB);
+        ReflectionTestUtils.setField(admissionService, "maxQueue", 1);
+        ReflectionTestUtils.setField(admissionService, "maxWait", 200L);
+        admissionService.init();
+    }
+
+    private void waitForQueued(int queued) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (((Number) admissionService.getStats().get("queued")).intValue() < queued
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    @DisplayName("预算内的请求直接准入，归还后在途字节数清零")
+    public void testAdmitWithinBudget() {
+        long first = admissionService.tryAdmit(40 * KB);
+        long second = admissionService.tryAdmit(60 * KB - 100);
+
+        assertEquals(40 * KB, first);
+        assertEquals(60 * KB, second);
+        assertEquals(100 * KB, admissionService.getStats().get("inFlightBytes"));
+
+        admissionService.release(first);
+        admissionService.release(second);
+        Map<String, Object> stats = admissionService.getStats();
+        assertEquals(0L, stats.get("inFlightBytes"));
+        assertEquals(100 * KB, stats.get("peakInFlightBytes"));
+        assertEquals(2L, stats.get("admitted"));
+    }
+
+    @Test
+    @DisplayName("预算不足时排队，预算归还后按顺序准入")
+    public void testQueuedUntilReleased() throws Exception {
+        ReflectionTestUtils.setField(admissionService, "maxWait", 5000L);
+        long held = admissionService.tryAdmit(80 * KB);
+
+        CompletableFuture<Long> waiter = CompletableFuture.supplyAsync(() -> admissionService.tryAdmit(50 * KB));
+        waitForQueued(1);
+        assertFalse(waiter.isDone());
+        assertEquals(1, admissionService.getStats().get("queued"));
+
+        admissionService.release(held);
+        assertEquals(50 * KB, waiter.get(5, TimeUnit.SECONDS));
+        assertEquals(0, admissionService.getStats().get("queued"));
+        assertEquals(1L, admissionService.getStats().get("admittedAfterWait"));
+    }
+
+    @Test
+    @DisplayName("排队已满时立即拒绝，等待超时后拒绝")
+    public void testRejectWhenQueueFullOrTimeout() throws Exception {
+        ReflectionTestUtils.setField(admissionService, "maxWait", 1000L);
+        long held = admissionService.tryAdmit(100 * KB);
+
+        CompletableFuture<Long> waiter = CompletableFuture.supplyAsync(() -> admissionService.tryAdmit(10 * KB));
+        waitForQueued(1);
+        assertEquals(0L, admissionService.tryAdmit(10 * KB));
+        assertEquals(0L, waiter.get(5, TimeUnit.SECONDS));
+
+        Map<String, Object> stats = admissionService.getStats();
+        assertEquals(1L, stats.get("rejectedQueueFull"));
+        assertEquals(1L, stats.get("rejectedTimeout"));
+        assertEquals(100 * KB, stats.get("inFlightBytes"));
+        admissionService.release(held);
+    }
+
+    @Test
+    @DisplayName("超过整个预算的请求独占预算，未知大小按最大请求大小占用")
+    public void testOversizedRequestTakesWholeBudget() {
+        long oversized = admissionService.tryAdmit(10 * 100 * KB);
+        assertEquals(100 * KB, oversized);
+        assertEquals(0L, admissionService.tryAdmit(1));
+        admissionService.release(oversized);
+
+        long unknown = admissionService.tryAdmit(-1);
+        assertEquals(100 * KB, unknown);
+        admissionService.release(unknown);
+        assertTrue(admissionService.tryAdmit(1) > 0);
+    }
+}
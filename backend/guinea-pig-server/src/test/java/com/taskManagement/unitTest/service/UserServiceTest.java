@@ -6,6 +6,8 @@ import com.taskManagement.entity.User;
 import com.taskManagement.exception.UserBusinessException;
 import com.taskManagement.mapper.UserMapper;
 import com.taskManagement.service.FileService;
+import com.taskManagement.service.UserProfileCacheService;
+import com.taskManagement.service.UsernameIndexService;
 import com.taskManagement.service.impl.UserServiceImpl;
 import com.taskManagement.utils.JwtUtil;
 import com.taskManagement.utils.PasswordUtil;
@@ -41,6 +43,12 @@ public class UserServiceTest {
     @Mock
     private com.taskManagement.properties.JwtProperties jwtProperties;
 
+    @Mock
+    private UserProfileCacheService userProfileCacheService;
+
+    @Mock
+    private UsernameIndexService usernameIndexService;
+
     @InjectMocks
     private UserServiceImpl userService;
     
@@ -118,6 +126,7 @@ public class UserServiceTest {
             assertNotNull(result);
             assertEquals(registerDTO.getUsername(), result.getUsername());
             assertEquals(registerDTO.getEmail(), result.getEmail());
+            verify(usernameIndexService).indexUser(any(User.class));
         }
     }
     
@@ -1,4 +1,10 @@
 -- 首先删除所有引用了其他表的表（先删除子表）
+DROP TABLE IF EXISTS tb_task_status_snapshot;
+DROP TABLE IF EXISTS tb_upload_chunk;
+DROP TABLE IF EXISTS tb_task_counter;
+DROP TABLE IF EXISTS tb_upload_session;
+DROP TABLE IF EXISTS tb_file_object;
+DROP TABLE IF EXISTS tb_notification_outbox;
 DROP TABLE IF EXISTS tb_notification;
 DROP TABLE IF EXISTS tb_comment;
 DROP TABLE IF EXISTS tb_task_tag_rel;
@@ -47,6 +53,8 @@ CREATE TABLE tb_project (
     update_user BIGINT NULL COMMENT 'Update User ID'
 );
 
+CREATE INDEX idx_project_priority_create_time ON tb_project (priority, create_time, id);
+
 DROP TABLE IF EXISTS tb_task;
 
 CREATE TABLE tb_task (
@@ -67,6 +75,8 @@ CREATE TABLE tb_task (
     update_user BIGINT NULL COMMENT 'Update User'
 );
 CREATE INDEX idx_task_project_id ON tb_task (project_id);
+CREATE INDEX idx_task_priority_update_time ON tb_task (priority, update_time, id);
+CREATE INDEX idx_task_create_user ON tb_task (create_user);
 
 DROP TABLE IF EXISTS tb_tag;
 
@@ -177,6 +187,7 @@ CREATE TABLE tb_comment (
     create_user BIGINT NULL COMMENT 'Create User ID'
 );
 CREATE INDEX idx_comment_task_id ON tb_comment (task_id);
+CREATE INDEX idx_comment_task_create_time ON tb_comment (task_id, create_time, id);
 CREATE INDEX idx_comment_parent_id ON tb_comment (parent_id);
 
 -- 通知表
@@ -195,6 +206,103 @@ CREATE INDEX idx_notification_user_id ON tb_notification (user_id);
 CREATE INDEX idx_notification_is_read ON tb_notification (is_read);
 CREATE INDEX idx_notification_create_time ON tb_notification (create_time);
 
+-- 通知发件箱表
+DROP TABLE IF EXISTS tb_notification_outbox;
+CREATE TABLE tb_notification_outbox (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT 'Primary Key ID',
+    type VARCHAR(50) NOT NULL COMMENT 'Notification Type',
+    content VARCHAR(500) NOT NULL COMMENT 'Notification Content',
+    related_id BIGINT NULL COMMENT 'Associated ID (task ID & comment ID)',
+    recipient_ids TEXT NOT NULL COMMENT 'Recipient User IDs, comma separated',
+    status TINYINT DEFAULT 0 NOT NULL COMMENT 'Status: 0-Pending, 1-Delivered, 2-Failed',
+    attempts INT DEFAULT 0 NOT NULL COMMENT 'Delivery Attempts',
+    next_attempt_time DATETIME DEFAULT CURRENT_TIMESTAMP NOT NULL COMMENT 'Next Attempt Time, Claim Expire Time While Claimed',
+    claim_token VARCHAR(36) NULL COMMENT 'Claim Token of the Last Dispatch',
+    last_error VARCHAR(500) NULL COMMENT 'Last Delivery Error',
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP NOT NULL COMMENT 'Create Time',
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP NOT NULL COMMENT 'Update Time'
+);
+CREATE INDEX idx_outbox_status_next_attempt ON tb_notification_outbox (status, next_attempt_time);
+
+-- 附件对象索引表
+DROP TABLE IF EXISTS tb_file_object;
+CREATE TABLE tb_file_object (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT 'Primary Key ID',
+    content_hash CHAR(64) NOT NULL COMMENT 'SHA-256 of Original Content',
+    object_key VARCHAR(500) NOT NULL COMMENT 'Storage Object Key',
+    file_size BIGINT NOT NULL COMMENT 'File Size (Byte)',
+    content_type VARCHAR(100) NULL COMMENT 'File Type',
+    encrypted_size BIGINT NULL COMMENT 'Ciphertext Size (Byte)',
+    format_version TINYINT NULL COMMENT 'Encryption Format Version',
+    encryption_header CHAR(50) NULL COMMENT 'Segmented Encryption Header, hex',
+    ref_count INT DEFAULT 1 NOT NULL COMMENT 'Attachment Reference Count',
+    rendition_status TINYINT DEFAULT 0 NOT NULL COMMENT 'Rendition Status: 0-Pending, 1-Ready, 2-Unsupported or Failed',
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP NOT NULL COMMENT 'Create Time',
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP NOT NULL COMMENT 'Update Time',
+    CONSTRAINT uk_file_object_content_hash UNIQUE (content_hash)
+);
+CREATE INDEX idx_file_object_object_key ON tb_file_object (object_key);
+CREATE INDEX idx_file_object_rendition_status ON tb_file_object (rendition_status, update_time);
+
+-- 分片上传会话表
+DROP TABLE IF EXISTS tb_upload_session;
+CREATE TABLE tb_upload_session (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT 'Primary Key ID',
+    upload_id CHAR(32) NOT NULL COMMENT 'Upload ID returned to Client',
+    object_key VARCHAR(500) NOT NULL COMMENT 'Storage Object Key',
+    storage_upload_id VARCHAR(255) NOT NULL COMMENT 'Storage Multipart Upload ID',
+    file_name VARCHAR(255) NOT NULL COMMENT 'File Name',
+    file_size BIGINT NOT NULL COMMENT 'File Size (Byte)',
+    content_type VARCHAR(100) NULL COMMENT 'File Type',
+    chunk_size INT NOT NULL COMMENT 'Chunk Size (Byte)',
+    chunk_count INT NOT NULL COMMENT 'Chunk Count',
+    encryption_header CHAR(50) NOT NULL COMMENT 'Segmented Encryption Header, hex',
+    task_id BIGINT NULL COMMENT 'Task ID',
+    user_id BIGINT NULL COMMENT 'Uploader User ID',
+    status TINYINT DEFAULT 0 NOT NULL COMMENT 'Status: 0-Uploading, 1-Completed, 2-Merging, 3-Merged',
+    file_url VARCHAR(500) NULL COMMENT 'File URL after Completion',
+    expire_time DATETIME NOT NULL COMMENT 'Expire Time',
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP NOT NULL COMMENT 'Create Time',
+    update_time DATETIME DEFAULT CURRENT_TIMESTAMP NOT NULL COMMENT 'Update Time',
+    CONSTRAINT uk_upload_session_upload_id UNIQUE (upload_id)
+);
+CREATE INDEX idx_upload_session_status_expire ON tb_upload_session (status, expire_time);
+
+-- 分片上传已接收分片表
+DROP TABLE IF EXISTS tb_upload_chunk;
+CREATE TABLE tb_upload_chunk (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT 'Primary Key ID',
+    session_id BIGINT NOT NULL COMMENT 'Upload Session ID',
+    chunk_index INT NOT NULL COMMENT 'Chunk Index, from 0',
+    chunk_hash CHAR(64) NOT NULL COMMENT 'SHA-256 of Chunk Content',
+    etag VARCHAR(100) NOT NULL COMMENT 'Storage Part ETag',
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP NOT NULL COMMENT 'Create Time',
+    CONSTRAINT uk_upload_chunk_session_index UNIQUE (session_id, chunk_index)
+);
+
+-- 任务计数表
+DROP TABLE IF EXISTS tb_task_counter;
+CREATE TABLE tb_task_counter (
+    project_id BIGINT NOT NULL COMMENT 'Project ID',
+    dimension TINYINT NOT NULL COMMENT 'Dimension: 0-Status, 1-Priority',
+    dim_value INT NOT NULL COMMENT 'Status or Priority Value',
+    task_count BIGINT DEFAULT 0 NOT NULL COMMENT 'Task Count',
+    PRIMARY KEY (project_id, dimension, dim_value)
+);
+
+-- 任务状态每日快照表
+DROP TABLE IF EXISTS tb_task_status_snapshot;
+CREATE TABLE tb_task_status_snapshot (
+    snapshot_date DATE NOT NULL PRIMARY KEY COMMENT 'Snapshot Date',
+    total INT DEFAULT 0 NOT NULL COMMENT 'Total Task Count',
+    pending INT DEFAULT 0 NOT NULL COMMENT 'Pending Task Count',
+    in_progress INT DEFAULT 0 NOT NULL COMMENT 'In Progress Task Count',
+    completed INT DEFAULT 0 NOT NULL COMMENT 'Completed Task Count',
+    cancelled INT DEFAULT 0 NOT NULL COMMENT 'Cancelled Task Count',
+    today_expired INT DEFAULT 0 NOT NULL COMMENT 'Expiring Task Count',
+    create_time DATETIME DEFAULT CURRENT_TIMESTAMP NOT NULL COMMENT 'Create Time'
+);
+
 -- 在H2中外键关系需要在所有表创建后添加，以避免顺序问题
 ALTER TABLE tb_project_member ADD CONSTRAINT fk_project_member_project 
     FOREIGN KEY (project_id) REFERENCES tb_project(id) ON DELETE CASCADE;